@@ -0,0 +1,40 @@
+package com.firstclub.membership.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.firstclub.membership.dto.UserResponses;
+import com.firstclub.membership.util.PreResolvedBinaryConverters;
+import com.firstclub.membership.util.PreResolvedJsonConverter;
+import com.firstclub.membership.util.ResponseFormat;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Response writing
+ *
+ * Replaces Spring Boot's default JSON converter (same ObjectMapper, same
+ * media types) with one that has the response records' writers resolved
+ * before the first request, and adds CBOR and Smile converters built from
+ * that same ObjectMapper so binary responses carry the same fields and
+ * date formats as JSON ones.
+ */
+@Configuration
+public class JacksonConfig {
+
+    @Bean
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper) {
+        return new PreResolvedJsonConverter(objectMapper, UserResponses.TYPES);
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter mappingJackson2CborHttpMessageConverter(ObjectMapper objectMapper) {
+        return new PreResolvedBinaryConverters.Cbor(ResponseFormat.CBOR.mapper(objectMapper), UserResponses.TYPES);
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter mappingJackson2SmileHttpMessageConverter(ObjectMapper objectMapper) {
+        return new PreResolvedBinaryConverters.Smile(ResponseFormat.SMILE.mapper(objectMapper), UserResponses.TYPES);
+    }
+}
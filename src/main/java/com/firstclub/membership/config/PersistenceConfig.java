@@ -0,0 +1,79 @@
+package com.firstclub.membership.config;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.mapping.Column;
+import org.hibernate.mapping.PersistentClass;
+import org.hibernate.mapping.Property;
+import org.hibernate.mapping.UniqueKey;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Schema naming
+ *
+ * Hibernate gives the unique key behind a natural id a hashed name (such
+ * as UK_SX468G52BPETVLAD2J9Y0LPTC) and drops any @UniqueConstraint on the
+ * same columns in its favour, so a duplicate username could not be told
+ * from other violations by name. Natural-id unique keys are renamed
+ * uk_<table>_<columns> before the schema is generated, which for users is
+ * User.USERNAME_CONSTRAINT.
+ */
+@Configuration
+public class PersistenceConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer naturalIdKeyNames() {
+        IntegratorProvider integrators = () -> List.of(new NaturalIdKeyNames());
+        return properties -> properties.put("hibernate.integrator_provider", integrators);
+    }
+
+    /**
+     * Renames each entity's natural-id unique key; integrators run before schema generation
+     */
+    static class NaturalIdKeyNames implements Integrator {
+
+        @Override
+        public void integrate(Metadata metadata, BootstrapContext bootstrapContext,
+                              SessionFactoryImplementor sessionFactory) {
+            for (PersistentClass entity : metadata.getEntityBindings()) {
+                if (!entity.hasNaturalId()) {
+                    continue;
+                }
+                List<Column> naturalIdColumns = new ArrayList<>();
+                for (Property property : entity.getProperties()) {
+                    if (property.isNaturalIdentifier()) {
+                        naturalIdColumns.addAll(property.getColumns());
+                    }
+                }
+                for (UniqueKey key : entity.getTable().getUniqueKeys().values()) {
+                    if (key.getColumns().equals(naturalIdColumns)) {
+                        key.setName(keyName(entity.getTable().getName(), naturalIdColumns));
+                        // Otherwise CREATE TABLE writes the key inline without its name
+                        key.setNameExplicit(true);
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void disintegrate(SessionFactoryImplementor sessionFactory,
+                                 SessionFactoryServiceRegistry serviceRegistry) {
+        }
+
+        private static String keyName(String table, List<Column> columns) {
+            String names = columns.stream().map(Column::getName).collect(Collectors.joining("_"));
+            return ("uk_" + table + "_" + names).toLowerCase(Locale.ROOT);
+        }
+    }
+}
@@ -1,13 +1,17 @@
 package com.firstclub.membership.config;
 
+import com.firstclub.membership.security.AdaptiveBCryptPasswordEncoder;
+import com.firstclub.membership.security.PasswordWorkFactorCalibrator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.info.InfoContributor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Clock;
 
 /**
  * Security configuration for password encoding
- * 
+ *
  * This configuration provides a production-ready password encoder
  * using BCrypt hashing algorithm for secure password storage.
  */
@@ -16,14 +20,45 @@ public class SecurityConfig {
 
     /**
      * Password encoder bean using BCrypt
-     * 
+     *
      * BCrypt is a secure hashing function designed for passwords
      * with built-in salt generation and configurable work factor.
-     * 
-     * @return BCryptPasswordEncoder instance with default strength (10)
+     * The work factor is calibrated at startup so hashing hits the
+     * configured target latency on the current hardware, bounded by
+     * the configured minimum and maximum strengths.
+     *
+     * @return AdaptiveBCryptPasswordEncoder using the calibrated strength
+     */
+    @Bean
+    public AdaptiveBCryptPasswordEncoder passwordEncoder(
+            @Value("${membership.security.password.calibration.enabled:true}") boolean calibrationEnabled,
+            @Value("${membership.security.password.calibration.target-latency-ms:100}") long targetLatencyMs,
+            @Value("${membership.security.password.calibration.samples:3}") int samples,
+            @Value("${membership.security.password.min-strength:10}") int minStrength,
+            @Value("${membership.security.password.max-strength:14}") int maxStrength,
+            @Value("${membership.security.password.strength:12}") int fixedStrength) {
+        PasswordWorkFactorCalibrator.CalibrationResult calibration = calibrationEnabled
+            ? PasswordWorkFactorCalibrator.calibrate(targetLatencyMs, minStrength, maxStrength, samples)
+            : PasswordWorkFactorCalibrator.fixed(fixedStrength);
+        return new AdaptiveBCryptPasswordEncoder(calibration);
+    }
+
+    /**
+     * Clock used to stamp and check session token expiry
+     *
+     * A bean rather than a call to Clock.systemUTC() so tests can construct
+     * the token service with a fixed clock.
+     */
+    @Bean
+    public Clock clock() {
+        return Clock.systemUTC();
+    }
+
+    /**
+     * Reports the password work factor calibration under /actuator/info
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(12); // Strength 12 for production security
+    public InfoContributor passwordCalibrationInfoContributor(AdaptiveBCryptPasswordEncoder passwordEncoder) {
+        return builder -> builder.withDetail("passwordHashing", passwordEncoder.getCalibration());
     }
 }
@@ -0,0 +1,42 @@
+package com.firstclub.membership.config;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Asynchronous request handling
+ *
+ * Streamed responses (imports, exports and the unbounded listings) are
+ * written by StreamingResponseBody tasks that can run for minutes behind a
+ * slow client. They get their own bounded pool rather than Spring Boot's
+ * application task executor, which also runs last-login flushes and index
+ * rebuilds. How long one may run is spring.mvc.async.request-timeout.
+ */
+@Configuration
+public class WebAsyncConfig implements WebMvcConfigurer {
+
+    private final ThreadPoolTaskExecutor streamingExecutor = new ThreadPoolTaskExecutor();
+
+    public WebAsyncConfig(@Value("${membership.web.streaming.pool-size:16}") int poolSize,
+                          @Value("${membership.web.streaming.queue-capacity:64}") int queueCapacity) {
+        streamingExecutor.setCorePoolSize(poolSize);
+        streamingExecutor.setMaxPoolSize(poolSize);
+        streamingExecutor.setQueueCapacity(queueCapacity);
+        streamingExecutor.setThreadNamePrefix("response-stream-");
+        streamingExecutor.initialize();
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(streamingExecutor);
+    }
+
+    @PreDestroy
+    void stop() {
+        streamingExecutor.shutdown();
+    }
+}
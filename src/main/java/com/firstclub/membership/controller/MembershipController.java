@@ -1,15 +1,24 @@
 package com.firstclub.membership.controller;
 
-import com.firstclub.membership.model.MembershipPlan;
-import com.firstclub.membership.model.MembershipTier;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.firstclub.membership.model.MembershipPlanSnapshot;
+import com.firstclub.membership.model.MembershipTierSnapshot;
+import com.firstclub.membership.security.SessionPrincipal;
+import com.firstclub.membership.service.MembershipCatalog;
+import com.firstclub.membership.service.MembershipCatalogService;
+import com.firstclub.membership.util.PrerenderedBody;
+import com.firstclub.membership.util.ResponseFormat;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
-import java.math.BigDecimal;
+import java.util.EnumMap;
 import java.util.HashMap;
-import java.util.List;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.ArrayList;
 
 /**
  * REST controller for FirstClub membership operations
@@ -19,6 +28,24 @@ import java.util.ArrayList;
 @CrossOrigin(origins = "*")
 public class MembershipController {
 
+    @Autowired
+    private MembershipCatalogService catalogService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final Map<ResponseFormat, ObjectMapper> formatMappers = new EnumMap<>(ResponseFormat.class);
+
+    // Plans and tiers serialized for the latest catalog version seen
+    private volatile RenderedCatalog rendered;
+
+    @PostConstruct
+    void createFormatMappers() {
+        for (ResponseFormat format : ResponseFormat.values()) {
+            formatMappers.put(format, format.mapper(objectMapper));
+        }
+    }
+
     @GetMapping("/health")
     public ResponseEntity<Map<String, String>> healthCheck() {
         Map<String, String> response = new HashMap<>();
@@ -28,78 +55,53 @@ public class MembershipController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * List active plans, pre-rendered per catalog version (supports If-None-Match)
+     *
+     * JSON by default; CBOR or Smile when the Accept header asks for them.
+     */
     @GetMapping("/plans")
-    public ResponseEntity<List<Map<String, Object>>> getPlans() {
-        List<Map<String, Object>> plans = new ArrayList<>();
-        
-        Map<String, Object> monthlyPlan = new HashMap<>();
-        monthlyPlan.put("id", 1L);
-        monthlyPlan.put("name", "Monthly Plan");
-        monthlyPlan.put("planType", "MONTHLY");
-        monthlyPlan.put("durationMonths", 1);
-        monthlyPlan.put("price", new BigDecimal("99.99"));
-        monthlyPlan.put("description", "Monthly subscription with basic benefits");
-        plans.add(monthlyPlan);
-
-        Map<String, Object> quarterlyPlan = new HashMap<>();
-        quarterlyPlan.put("id", 2L);
-        quarterlyPlan.put("name", "Quarterly Plan");
-        quarterlyPlan.put("planType", "QUARTERLY");
-        quarterlyPlan.put("durationMonths", 3);
-        quarterlyPlan.put("price", new BigDecimal("279.99"));
-        quarterlyPlan.put("description", "Quarterly subscription with enhanced benefits");
-        plans.add(quarterlyPlan);
-
-        Map<String, Object> yearlyPlan = new HashMap<>();
-        yearlyPlan.put("id", 3L);
-        yearlyPlan.put("name", "Yearly Plan");
-        yearlyPlan.put("planType", "YEARLY");
-        yearlyPlan.put("durationMonths", 12);
-        yearlyPlan.put("price", new BigDecimal("999.99"));
-        yearlyPlan.put("description", "Yearly subscription with premium benefits and savings");
-        plans.add(yearlyPlan);
-
-        return ResponseEntity.ok(plans);
+    public ResponseEntity<byte[]> getPlans(
+            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept) {
+        return renderedCatalog().plans().get(ResponseFormat.negotiate(accept)).toResponse(ifNoneMatch, acceptEncoding);
     }
 
+    /**
+     * List active tiers, pre-rendered per catalog version (supports If-None-Match)
+     *
+     * JSON by default; CBOR or Smile when the Accept header asks for them.
+     */
     @GetMapping("/tiers")
-    public ResponseEntity<List<Map<String, Object>>> getTiers() {
-        List<Map<String, Object>> tiers = new ArrayList<>();
-        
-        Map<String, Object> silverTier = new HashMap<>();
-        silverTier.put("id", 1L);
-        silverTier.put("name", "Silver");
-        silverTier.put("level", "SILVER");
-        silverTier.put("minOrdersRequired", 0);
-        silverTier.put("minOrderValueMonthly", new BigDecimal("0.00"));
-        silverTier.put("discountPercentage", new BigDecimal("5.00"));
-        silverTier.put("freeDelivery", false);
-        silverTier.put("description", "Entry-level tier with basic benefits");
-        tiers.add(silverTier);
-
-        Map<String, Object> goldTier = new HashMap<>();
-        goldTier.put("id", 2L);
-        goldTier.put("name", "Gold");
-        goldTier.put("level", "GOLD");
-        goldTier.put("minOrdersRequired", 5);
-        goldTier.put("minOrderValueMonthly", new BigDecimal("200.00"));
-        goldTier.put("discountPercentage", new BigDecimal("10.00"));
-        goldTier.put("freeDelivery", true);
-        goldTier.put("description", "Mid-level tier with enhanced benefits and free delivery");
-        tiers.add(goldTier);
-
-        Map<String, Object> platinumTier = new HashMap<>();
-        platinumTier.put("id", 3L);
-        platinumTier.put("name", "Platinum");
-        platinumTier.put("level", "PLATINUM");
-        platinumTier.put("minOrdersRequired", 10);
-        platinumTier.put("minOrderValueMonthly", new BigDecimal("500.00"));
-        platinumTier.put("discountPercentage", new BigDecimal("20.00"));
-        platinumTier.put("freeDelivery", true);
-        platinumTier.put("description", "Premium tier with maximum benefits and exclusive access");
-        tiers.add(platinumTier);
-
-        return ResponseEntity.ok(tiers);
+    public ResponseEntity<byte[]> getTiers(
+            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept) {
+        return renderedCatalog().tiers().get(ResponseFormat.negotiate(accept)).toResponse(ifNoneMatch, acceptEncoding);
+    }
+
+    /**
+     * Reload plans and tiers from the database (admin only)
+     */
+    @PostMapping("/catalog/refresh")
+    public ResponseEntity<Map<String, Object>> refreshCatalog(
+            @RequestAttribute(name = SessionPrincipal.REQUEST_ATTRIBUTE, required = false) SessionPrincipal principal) {
+        if (principal == null || !principal.isAdmin()) {
+            return ResponseEntity.status(principal == null ? HttpStatus.UNAUTHORIZED : HttpStatus.FORBIDDEN).body(Map.of(
+                "success", false,
+                "message", "An admin session token is required"
+            ));
+        }
+
+        MembershipCatalog catalog = catalogService.refresh();
+        return ResponseEntity.ok(Map.of(
+            "success", true,
+            "message", "Membership catalog reloaded",
+            "version", catalog.getVersion(),
+            "plans", catalog.getAllPlans().size(),
+            "tiers", catalog.getAllTiers().size()
+        ));
     }
 
     @PostMapping("/subscribe")
@@ -145,4 +147,59 @@ public class MembershipController {
         response.put("activityId", "ACT_" + System.currentTimeMillis());
         return ResponseEntity.ok(response);
     }
+
+    // Helper Methods
+
+    /**
+     * Returns the responses for the current catalog version, rendering them
+     * in every format the first time a new version is seen
+     */
+    private RenderedCatalog renderedCatalog() {
+        MembershipCatalog catalog = catalogService.getCatalog();
+        RenderedCatalog rendered = this.rendered;
+        if (rendered == null || rendered.version() != catalog.getVersion()) {
+            rendered = new RenderedCatalog(
+                catalog.getVersion(),
+                render(catalog.findActivePlans().stream().map(this::toPlanResponse).toList()),
+                render(catalog.findActiveTiers().stream().map(this::toTierResponse).toList()));
+            this.rendered = rendered;
+        }
+        return rendered;
+    }
+
+    private Map<ResponseFormat, PrerenderedBody> render(Object value) {
+        Map<ResponseFormat, PrerenderedBody> variants = new EnumMap<>(ResponseFormat.class);
+        for (ResponseFormat format : ResponseFormat.values()) {
+            variants.put(format, PrerenderedBody.of(formatMappers.get(format), value, format.mediaType()));
+        }
+        return variants;
+    }
+
+    private Map<String, Object> toPlanResponse(MembershipPlanSnapshot plan) {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("id", plan.id());
+        response.put("name", plan.name());
+        response.put("planType", plan.planType().name());
+        response.put("durationMonths", plan.durationMonths());
+        response.put("price", plan.price());
+        response.put("description", plan.description());
+        return response;
+    }
+
+    private Map<String, Object> toTierResponse(MembershipTierSnapshot tier) {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("id", tier.id());
+        response.put("name", tier.name());
+        response.put("level", tier.level().name());
+        response.put("minOrdersRequired", tier.minOrdersRequired());
+        response.put("minOrderValueMonthly", tier.minOrderValueMonthly());
+        response.put("discountPercentage", tier.discountPercentage());
+        response.put("freeDelivery", tier.freeDelivery());
+        response.put("description", tier.description());
+        return response;
+    }
+
+    private record RenderedCatalog(long version, Map<ResponseFormat, PrerenderedBody> plans,
+                                   Map<ResponseFormat, PrerenderedBody> tiers) {
+    }
 }
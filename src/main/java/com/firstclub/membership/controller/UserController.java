@@ -1,25 +1,58 @@
 package com.firstclub.membership.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.firstclub.membership.dto.UserResponses.*;
+import com.firstclub.membership.exception.DuplicateUserException;
+import com.firstclub.membership.exception.HashingCapacityExceededException;
 import com.firstclub.membership.model.User;
 import com.firstclub.membership.model.User.UserRole;
+import com.firstclub.membership.model.UserField;
+import com.firstclub.membership.model.UserView;
+import com.firstclub.membership.security.SessionPrincipal;
+import com.firstclub.membership.security.SessionTokenService;
+import com.firstclub.membership.service.UserGrowthRollupService;
+import com.firstclub.membership.service.UserExportService;
+import com.firstclub.membership.service.UserImportService;
+import com.firstclub.membership.service.UserSegmentIndex;
 import com.firstclub.membership.service.UserService;
+import com.firstclub.membership.util.CursorPage;
+import com.firstclub.membership.util.PreResolvedWriters;
+import com.firstclub.membership.util.PrerenderedBody;
+import com.firstclub.membership.util.ResponseFormat;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import java.util.HashMap;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * REST Controller for comprehensive user management operations
@@ -38,35 +71,69 @@ public class UserController {
 
     private static final Logger log = LoggerFactory.getLogger(UserController.class);
 
+    // What each listing returns when ?fields= is not given
+    private static final Set<UserField> LISTING_FIELDS = UserField.setOf(UserField.USERNAME, UserField.EMAIL,
+        UserField.FIRST_NAME, UserField.LAST_NAME, UserField.ROLES, UserField.IS_ACTIVE, UserField.CREATED_AT,
+        UserField.LAST_LOGIN);
+    private static final Set<UserField> SEARCH_FIELDS = UserField.setOf(UserField.USERNAME, UserField.EMAIL,
+        UserField.FIRST_NAME, UserField.LAST_NAME, UserField.ROLES, UserField.IS_ACTIVE);
+    private static final Set<UserField> ROLE_MEMBER_FIELDS = UserField.setOf(UserField.USERNAME, UserField.EMAIL,
+        UserField.FIRST_NAME, UserField.LAST_NAME, UserField.IS_ACTIVE, UserField.CREATED_AT);
+    private static final Set<UserField> INACTIVE_FIELDS = UserField.setOf(UserField.USERNAME, UserField.EMAIL,
+        UserField.FIRST_NAME, UserField.LAST_NAME, UserField.CREATED_AT, UserField.LAST_LOGIN);
+
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private SessionTokenService sessionTokenService;
+
+    @Autowired
+    private UserImportService userImportService;
+
+    @Autowired
+    private UserExportService userExportService;
+
+    @Autowired
+    private UserGrowthRollupService growthRollupService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Listings are written by the handler rather than a converter, so their writers are resolved here
+    private final Map<ResponseFormat, PreResolvedWriters> listingWriters = new EnumMap<>(ResponseFormat.class);
+
+    @PostConstruct
+    void resolveListingWriters() {
+        for (ResponseFormat format : ResponseFormat.values()) {
+            listingWriters.put(format, new PreResolvedWriters(format.mapper(objectMapper),
+                List.of(RoleMembers.class, Admins.class, InactiveUsers.class)));
+        }
+    }
+
     // Health Check and Info
 
     /**
-     * Health check endpoint for user service
+     * Liveness check for the user service
+     *
+     * Touches neither the database nor the statistics so it stays cheap under
+     * frequent load-balancer probes; counts are available from /statistics.
      */
     @GetMapping("/health")
-    public ResponseEntity<Map<String, Object>> healthCheck() {
-        UserService.UserStatistics stats = userService.getUserStatistics();
-        
-        return ResponseEntity.ok(Map.of(
-            "status", "UP",
-            "service", "UserService",
-            "timestamp", LocalDateTime.now(),
-            "totalUsers", stats.getTotalUsers(),
-            "activeUsers", stats.getActiveUsers(),
-            "adminUsers", stats.getAdminUsers()
-        ));
+    public ResponseEntity<Body> healthCheck() {
+        return ResponseEntity.ok(new Health("UP", "UserService", LocalDateTime.now()));
     }
 
     // User Registration and Authentication
 
     /**
      * Register a new user
+     *
+     * Password hashing runs on the hashing pool, so the request thread is
+     * released until the user has been saved.
      */
     @PostMapping("/register")
-    public ResponseEntity<Map<String, Object>> registerUser(@RequestBody Map<String, String> request) {
+    public CompletableFuture<ResponseEntity<Body>> registerUser(@RequestBody Map<String, String> request) {
         log.info("Registration request received for username: {}", request.get("username"));
         
         try {
@@ -78,35 +145,17 @@ public class UserController {
 
             // Basic validation
             if (username == null || email == null || password == null) {
-                return ResponseEntity.badRequest().body(Map.of(
-                    "success", false,
-                    "message", "Username, email, and password are required"
-                ));
+                return CompletableFuture.completedFuture(ResponseEntity.badRequest()
+                    .body(Message.error("Username, email, and password are required")));
             }
 
-            User user = userService.registerUser(username, email, password, firstName, lastName);
-            
-            return ResponseEntity.status(HttpStatus.CREATED).body(Map.of(
-                "success", true,
-                "message", "User registered successfully",
-                "user", Map.of(
-                    "id", user.getId(),
-                    "username", user.getUsername(),
-                    "email", user.getEmail(),
-                    "firstName", user.getFirstName() != null ? user.getFirstName() : "",
-                    "lastName", user.getLastName() != null ? user.getLastName() : "",
-                    "roles", user.getRoles(),
-                    "isActive", user.getIsActive(),
-                    "createdAt", user.getCreatedAt()
-                )
-            ));
+            return userService.registerUserAsync(username, email, password, firstName, lastName)
+                .thenApply(user -> ResponseEntity.status(HttpStatus.CREATED)
+                    .<Body>body(new Registered(true, "User registered successfully", UserSummary.of(user))))
+                .exceptionally(ex -> registrationFailed(unwrap(ex)));
             
         } catch (RuntimeException e) {
-            log.error("Registration failed: {}", e.getMessage());
-            return ResponseEntity.badRequest().body(Map.of(
-                "success", false,
-                "message", e.getMessage()
-            ));
+            return CompletableFuture.completedFuture(registrationFailed(e));
         }
     }
 
@@ -114,7 +163,7 @@ public class UserController {
      * Register a new admin user
      */
     @PostMapping("/register-admin")
-    public ResponseEntity<Map<String, Object>> registerAdmin(@RequestBody Map<String, String> request) {
+    public ResponseEntity<Body> registerAdmin(@RequestBody Map<String, String> request) {
         log.info("Admin registration request received for username: {}", request.get("username"));
         
         try {
@@ -125,122 +174,206 @@ public class UserController {
             String lastName = request.get("lastName");
 
             if (username == null || email == null || password == null) {
-                return ResponseEntity.badRequest().body(Map.of(
-                    "success", false,
-                    "message", "Username, email, and password are required"
-                ));
+                return ResponseEntity.badRequest().body(Message.error("Username, email, and password are required"));
             }
 
             User admin = userService.registerAdmin(username, email, password, firstName, lastName);
             
-            return ResponseEntity.status(HttpStatus.CREATED).body(Map.of(
-                "success", true,
-                "message", "Admin registered successfully",
-                "user", Map.of(
-                    "id", admin.getId(),
-                    "username", admin.getUsername(),
-                    "email", admin.getEmail(),
-                    "firstName", admin.getFirstName() != null ? admin.getFirstName() : "",
-                    "lastName", admin.getLastName() != null ? admin.getLastName() : "",
-                    "roles", admin.getRoles(),
-                    "isActive", admin.getIsActive(),
-                    "createdAt", admin.getCreatedAt()
-                )
-            ));
+            return ResponseEntity.status(HttpStatus.CREATED)
+                .body(new Registered(true, "Admin registered successfully", UserSummary.of(admin)));
             
+        } catch (DuplicateUserException | HashingCapacityExceededException e) {
+            throw e;
         } catch (RuntimeException e) {
             log.error("Admin registration failed: {}", e.getMessage());
-            return ResponseEntity.badRequest().body(Map.of(
-                "success", false,
-                "message", e.getMessage()
-            ));
+            return ResponseEntity.badRequest().body(Message.error(e.getMessage()));
+        }
+    }
+
+    /**
+     * Bulk-import users from an NDJSON or CSV upload (admin only)
+     *
+     * Rows are read and imported incrementally and a per-row NDJSON result is
+     * streamed back as each chunk completes.
+     */
+    @PostMapping(value = "/import", consumes = { MediaType.APPLICATION_NDJSON_VALUE, "text/csv" })
+    public ResponseEntity<StreamingResponseBody> importUsers(
+            @RequestAttribute(name = SessionPrincipal.REQUEST_ATTRIBUTE, required = false) SessionPrincipal principal,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) {
+        
+        requireAdmin(principal);
+
+        UserImportService.Format format = contentType.toLowerCase(Locale.ROOT).contains("csv")
+            ? UserImportService.Format.CSV
+            : UserImportService.Format.NDJSON;
+        log.info("User import started by {} ({})", principal.username(), format);
+
+        return ResponseEntity.ok()
+            .contentType(new MediaType(MediaType.APPLICATION_NDJSON, StandardCharsets.UTF_8))
+            .body(output -> userImportService.importUsers(body, format, output));
+    }
+
+    /**
+     * Export users as NDJSON or CSV (admin only)
+     *
+     * Streams every user matching the optional filters to the response one
+     * keyset page at a time, so the export costs the same memory however many
+     * users there are and holds no connection between pages.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportUsers(
+            @RequestAttribute(name = SessionPrincipal.REQUEST_ATTRIBUTE, required = false) SessionPrincipal principal,
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) Boolean active,
+            @RequestParam(required = false) String role,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdTo,
+            @RequestParam(required = false) String fields) {
+        
+        requireAdmin(principal);
+
+        // Everything is validated before the body is streamed, while a 400 can still be sent
+        UserExportService.Format exportFormat;
+        UserExportService.Filter filter;
+        Set<UserField> selected;
+        try {
+            exportFormat = UserExportService.Format.valueOf(format.toUpperCase(Locale.ROOT));
+            UserRole userRole = role != null ? UserRole.valueOf(role.toUpperCase(Locale.ROOT)) : null;
+            filter = new UserExportService.Filter(active, userRole, createdFrom, createdTo);
+            selected = UserField.parse(fields, UserExportService.ALL_FIELDS);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid export request: " + e.getMessage(), e);
         }
+        log.info("User export started by {} ({}, {})", principal.username(), exportFormat, filter);
+
+        boolean csv = exportFormat == UserExportService.Format.CSV;
+        return ResponseEntity.ok()
+            .contentType(new MediaType(csv ? new MediaType("text", "csv") : MediaType.APPLICATION_NDJSON,
+                StandardCharsets.UTF_8))
+            .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename("users." + (csv ? "csv" : "ndjson"))
+                .build()
+                .toString())
+            .body(output -> userExportService.exportUsers(filter, selected, exportFormat, output));
     }
 
     /**
      * Authenticate user login
+     *
+     * Password verification runs on the hashing pool, so the request thread is
+     * released while BCrypt runs.
      */
     @PostMapping("/login")
-    public ResponseEntity<Map<String, Object>> authenticateUser(@RequestBody Map<String, String> request) {
+    public CompletableFuture<ResponseEntity<Body>> authenticateUser(@RequestBody Map<String, String> request) {
         log.info("Login request received for: {}", request.get("usernameOrEmail"));
         
+        String usernameOrEmail = request.get("usernameOrEmail");
+        String password = request.get("password");
+
+        if (usernameOrEmail == null || password == null) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest()
+                .body(Message.error("Username/email and password are required")));
+        }
+
         try {
-            String usernameOrEmail = request.get("usernameOrEmail");
-            String password = request.get("password");
+            return userService.authenticateUserAsync(usernameOrEmail, password)
+                .thenApply(this::loginResponse)
+                .exceptionally(ex -> loginFailed(unwrap(ex)));
+        } catch (RuntimeException e) {
+            return CompletableFuture.completedFuture(loginFailed(e));
+        }
+    }
 
-            if (usernameOrEmail == null || password == null) {
-                return ResponseEntity.badRequest().body(Map.of(
-                    "success", false,
-                    "message", "Username/email and password are required"
-                ));
-            }
+    private ResponseEntity<Body> loginResponse(Optional<User> userOpt) {
+        if (userOpt.isPresent()) {
+            User user = userOpt.get();
+            SessionTokenService.IssuedToken token = sessionTokenService.issue(user);
+            return ResponseEntity.ok(new LoggedIn(true, "Login successful", token.token(), "Bearer", token.expiresAt(),
+                LoggedInUser.of(user)));
+        } else {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .body(Message.error("Invalid credentials or inactive account"));
+        }
+    }
 
-            Optional<User> userOpt = userService.authenticateUser(usernameOrEmail, password);
-            
-            if (userOpt.isPresent()) {
-                User user = userOpt.get();
-                return ResponseEntity.ok(Map.of(
-                    "success", true,
-                    "message", "Login successful",
-                    "user", Map.of(
-                        "id", user.getId(),
-                        "username", user.getUsername(),
-                        "email", user.getEmail(),
-                        "firstName", user.getFirstName() != null ? user.getFirstName() : "",
-                        "lastName", user.getLastName() != null ? user.getLastName() : "",
-                        "roles", user.getRoles(),
-                        "isActive", user.getIsActive(),
-                        "lastLogin", user.getLastLogin()
-                    )
-                ));
-            } else {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of(
-                    "success", false,
-                    "message", "Invalid credentials or inactive account"
-                ));
-            }
-            
-        } catch (Exception e) {
-            log.error("Login failed: {}", e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
-                "success", false,
-                "message", "Login failed"
-            ));
+    private ResponseEntity<Body> registrationFailed(Throwable e) {
+        if (e instanceof HashingCapacityExceededException busy) {
+            throw busy;
+        }
+        if (e instanceof DuplicateUserException duplicate) {
+            throw duplicate;
+        }
+        log.error("Registration failed: {}", e.getMessage());
+        return ResponseEntity.badRequest().body(Message.error(e.getMessage()));
+    }
+
+    private ResponseEntity<Body> loginFailed(Throwable e) {
+        if (e instanceof HashingCapacityExceededException busy) {
+            throw busy;
         }
+        log.error("Login failed: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Message.error("Login failed"));
+    }
+
+    private static Throwable unwrap(Throwable ex) {
+        return ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
     }
 
     // User Retrieval Operations
 
+    /**
+     * Get the caller resolved from the session token (no database access)
+     */
+    @GetMapping("/me")
+    public ResponseEntity<Body> getCurrentUser(
+            @RequestAttribute(name = SessionPrincipal.REQUEST_ATTRIBUTE, required = false) SessionPrincipal principal) {
+        
+        if (principal == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .body(Message.error("A Bearer session token is required"));
+        }
+
+        return ResponseEntity.ok(CurrentUser.of(principal));
+    }
+
     /**
      * Get user by ID
+     *
+     * The response carries a strong ETag derived from the negotiated format
+     * and the user's id, updatedAt and lastLogin, so a client polling with
+     * If-None-Match gets a 304 without the user being serialized. Each format
+     * has its own ETag, as the catalog's do, and the response varies on
+     * Accept. The lookup itself is served from the second-level cache.
      */
     @GetMapping("/{id}")
-    public ResponseEntity<Map<String, Object>> getUserById(@PathVariable Long id) {
-        log.info("Getting user by ID: {}", id);
+    public ResponseEntity<Body> getUserById(
+            @PathVariable Long id,
+            @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        log.debug("Getting user by ID: {}", id);
         
         Optional<User> userOpt = userService.findById(id);
         
         if (userOpt.isPresent()) {
             User user = userOpt.get();
-            Map<String, Object> userMap = new HashMap<>();
-            userMap.put("id", user.getId());
-            userMap.put("username", user.getUsername());
-            userMap.put("email", user.getEmail());
-            userMap.put("firstName", user.getFirstName() != null ? user.getFirstName() : "");
-            userMap.put("lastName", user.getLastName() != null ? user.getLastName() : "");
-            userMap.put("phoneNumber", user.getPhoneNumber() != null ? user.getPhoneNumber() : "");
-            userMap.put("dateOfBirth", user.getDateOfBirth());
-            userMap.put("roles", user.getRoles());
-            userMap.put("isActive", user.getIsActive());
-            userMap.put("emailVerified", user.getEmailVerified());
-            userMap.put("createdAt", user.getCreatedAt());
-            userMap.put("updatedAt", user.getUpdatedAt());
-            userMap.put("lastLogin", user.getLastLogin());
-            
-            return ResponseEntity.ok(Map.of(
-                "success", true,
-                "user", userMap
-            ));
+            ResponseFormat format = ResponseFormat.negotiate(accept);
+            String etag = PrerenderedBody.strongEtag(format, user.getId(), user.getUpdatedAt(), user.getLastLogin());
+            if (PrerenderedBody.etagMatches(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache())
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .build();
+            }
+
+            // The content type pins the converter to the format the ETag was made for
+            return ResponseEntity.ok()
+                .contentType(format.mediaType())
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(new UserFound(true, UserDetail.of(user)));
         } else {
             return ResponseEntity.notFound().build();
         }
@@ -248,97 +381,125 @@ public class UserController {
 
     /**
      * Get all users with pagination and sorting
+     *
+     * Without a cursor this is the classic page/size listing; count=false
+     * skips the COUNT query and reports only whether a next page exists.
+     * Passing cursor (empty for the first page, then each nextCursor)
+     * switches to keyset pagination, which costs the same at any depth.
+     * fields (e.g. fields=username,email) limits the columns read and returned;
+     * the id is always included.
      */
     @GetMapping
-    public ResponseEntity<Map<String, Object>> getAllUsers(
+    public ResponseEntity<Body> getAllUsers(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "createdAt") String sortBy,
-            @RequestParam(defaultValue = "desc") String sortDir) {
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "true") boolean count,
+            @RequestParam(required = false) String fields) {
         
         log.info("Getting all users - page: {}, size: {}, sortBy: {}, sortDir: {}", 
                 page, size, sortBy, sortDir);
         
         try {
-            Sort sort = sortDir.equalsIgnoreCase("desc") ? 
-                Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
-            
+            Set<UserField> selected = UserField.parse(fields, LISTING_FIELDS);
+            boolean ascending = !sortDir.equalsIgnoreCase("desc");
+            if (cursor != null) {
+                CursorPage<UserView> users = userService.getActiveUsersAfter(sortBy, ascending, cursor, size, selected);
+                return ResponseEntity.ok(new UserList(true, users.items(), CursorPagination.of(users, size)));
+            }
+
+            Sort sort = ascending ? Sort.by(sortBy).ascending() : Sort.by(sortBy).descending();
             Pageable pageable = PageRequest.of(page, size, sort);
-            Page<User> users = userService.getAllActiveUsers(pageable);
+            if (!count) {
+                Slice<UserView> users = userService.getActiveUsersSlice(pageable, selected);
+                return ResponseEntity.ok(new UserList(true, users.getContent(), SlicePagination.of(users)));
+            }
+
+            Page<UserView> users = userService.getAllActiveUsers(pageable, selected);
             
-            return ResponseEntity.ok(Map.of(
-                "success", true,
-                "users", users.getContent().stream().map(user -> Map.of(
-                    "id", user.getId(),
-                    "username", user.getUsername(),
-                    "email", user.getEmail(),
-                    "firstName", user.getFirstName() != null ? user.getFirstName() : "",
-                    "lastName", user.getLastName() != null ? user.getLastName() : "",
-                    "roles", user.getRoles(),
-                    "isActive", user.getIsActive(),
-                    "createdAt", user.getCreatedAt(),
-                    "lastLogin", user.getLastLogin()
-                )).toList(),
-                "pagination", Map.of(
-                    "page", users.getNumber(),
-                    "size", users.getSize(),
-                    "totalElements", users.getTotalElements(),
-                    "totalPages", users.getTotalPages(),
-                    "first", users.isFirst(),
-                    "last", users.isLast()
-                )
-            ));
+            return ResponseEntity.ok(new UserList(true, users.getContent(), PagePagination.of(users)));
             
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Message.error(e.getMessage()));
         } catch (Exception e) {
             log.error("Error getting users: {}", e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
-                "success", false,
-                "message", "Error retrieving users"
-            ));
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Message.error("Error retrieving users"));
         }
     }
 
     /**
      * Search users by query
+     *
+     * Accepts the same optional cursor and fields as the user listing.
      */
     @GetMapping("/search")
-    public ResponseEntity<Map<String, Object>> searchUsers(
+    public ResponseEntity<Body> searchUsers(
             @RequestParam String q,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String fields) {
         
         log.info("Searching users with query: {}", q);
         
         try {
+            Set<UserField> selected = UserField.parse(fields, SEARCH_FIELDS);
+            if (cursor != null) {
+                CursorPage<UserView> users = userService.searchUsersAfter(q, cursor, size, selected);
+                return ResponseEntity.ok(new SearchResults(true, q, users.items(), CursorPagination.of(users, size)));
+            }
+
             Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
-            Page<User> users = userService.searchUsers(q, pageable);
+            Page<UserView> users = userService.searchUsers(q, pageable, selected);
             
-            return ResponseEntity.ok(Map.of(
-                "success", true,
-                "query", q,
-                "users", users.getContent().stream().map(user -> Map.of(
-                    "id", user.getId(),
-                    "username", user.getUsername(),
-                    "email", user.getEmail(),
-                    "firstName", user.getFirstName() != null ? user.getFirstName() : "",
-                    "lastName", user.getLastName() != null ? user.getLastName() : "",
-                    "roles", user.getRoles(),
-                    "isActive", user.getIsActive()
-                )).toList(),
-                "pagination", Map.of(
-                    "page", users.getNumber(),
-                    "size", users.getSize(),
-                    "totalElements", users.getTotalElements(),
-                    "totalPages", users.getTotalPages()
-                )
-            ));
+            return ResponseEntity.ok(new SearchResults(true, q, users.getContent(), PagePagination.of(users)));
             
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Message.error(e.getMessage()));
         } catch (Exception e) {
             log.error("Error searching users: {}", e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
-                "success", false,
-                "message", "Error searching users"
-            ));
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Message.error("Error searching users"));
+        }
+    }
+
+    /**
+     * Filter users by a segment expression, with facet counts
+     *
+     * q combines field:value terms with AND, OR, NOT and parentheses, e.g.
+     * {@code role:ADMIN AND active:true AND NOT lastLogin:30d}. Fields are
+     * active, emailVerified, role, signupMonth (2024-03 or 2024-01..2024-06)
+     * and lastLogin (never, or 30d for "within the last 30 days"). An empty q
+     * matches every user. facets lists the fields to count over the matches.
+     */
+    @GetMapping("/filter")
+    public ResponseEntity<Body> filterUsers(
+            @RequestParam(defaultValue = "") String q,
+            @RequestParam(defaultValue = "") List<String> facets,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+
+        try {
+            List<UserSegmentIndex.Field> facetFields = facets.stream()
+                .filter(facet -> !facet.isBlank())
+                .map(facet -> UserSegmentIndex.Field.of(facet.trim()))
+                .distinct()
+                .toList();
+            UserService.FilteredUsers result = userService.filterUsers(q, facetFields, page, size);
+            Page<User> users = result.users();
+
+            return ResponseEntity.ok(new FilterResults(true, q,
+                users.getContent().stream().map(UserListing::of).toList(), result.facets(), PagePagination.of(users)));
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Message.error(e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "5")
+                .body(Message.error(e.getMessage()));
         }
     }
 
@@ -348,7 +509,7 @@ public class UserController {
      * Add role to user
      */
     @PostMapping("/{id}/roles")
-    public ResponseEntity<Map<String, Object>> addRoleToUser(
+    public ResponseEntity<Body> addRoleToUser(
             @PathVariable Long id,
             @RequestBody Map<String, String> request) {
         
@@ -357,30 +518,16 @@ public class UserController {
         try {
             String roleStr = request.get("role");
             if (roleStr == null) {
-                return ResponseEntity.badRequest().body(Map.of(
-                    "success", false,
-                    "message", "Role is required"
-                ));
+                return ResponseEntity.badRequest().body(Message.error("Role is required"));
             }
 
             UserRole role = UserRole.valueOf(roleStr.toUpperCase());
             User user = userService.addRoleToUser(id, role);
             
-            return ResponseEntity.ok(Map.of(
-                "success", true,
-                "message", "Role added successfully",
-                "user", Map.of(
-                    "id", user.getId(),
-                    "username", user.getUsername(),
-                    "roles", user.getRoles()
-                )
-            ));
+            return ResponseEntity.ok(new RoleChanged(true, "Role added successfully", UserRoles.of(user)));
             
         } catch (IllegalArgumentException e) {
-            return ResponseEntity.badRequest().body(Map.of(
-                "success", false,
-                "message", "Invalid role: " + request.get("role")
-            ));
+            return ResponseEntity.badRequest().body(Message.error("Invalid role: " + request.get("role")));
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -390,7 +537,7 @@ public class UserController {
      * Remove role from user
      */
     @DeleteMapping("/{id}/roles/{role}")
-    public ResponseEntity<Map<String, Object>> removeRoleFromUser(
+    public ResponseEntity<Body> removeRoleFromUser(
             @PathVariable Long id,
             @PathVariable String role) {
         
@@ -400,21 +547,10 @@ public class UserController {
             UserRole userRole = UserRole.valueOf(role.toUpperCase());
             User user = userService.removeRoleFromUser(id, userRole);
             
-            return ResponseEntity.ok(Map.of(
-                "success", true,
-                "message", "Role removed successfully",
-                "user", Map.of(
-                    "id", user.getId(),
-                    "username", user.getUsername(),
-                    "roles", user.getRoles()
-                )
-            ));
+            return ResponseEntity.ok(new RoleChanged(true, "Role removed successfully", UserRoles.of(user)));
             
         } catch (IllegalArgumentException e) {
-            return ResponseEntity.badRequest().body(Map.of(
-                "success", false,
-                "message", "Invalid role: " + role
-            ));
+            return ResponseEntity.badRequest().body(Message.error("Invalid role: " + role));
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -422,62 +558,45 @@ public class UserController {
 
     /**
      * Get users by role
+     *
+     * Users are read a page at a time while the response is written, as
+     * JSON, CBOR or Smile (see {@link #streamListing}).
      */
     @GetMapping("/by-role/{role}")
-    public ResponseEntity<Map<String, Object>> getUsersByRole(@PathVariable String role) {
+    public ResponseEntity<StreamingResponseBody> getUsersByRole(
+            @PathVariable String role,
+            @RequestParam(required = false) String fields,
+            @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept) {
         log.info("Getting users with role: {}", role);
         
+        // Parsed outside the try so a bad field is not reported as a bad role
+        Set<UserField> selected = UserField.parse(fields, ROLE_MEMBER_FIELDS);
+        UserRole userRole;
         try {
-            UserRole userRole = UserRole.valueOf(role.toUpperCase());
-            List<User> users = userService.getUsersByRole(userRole);
-            
-            return ResponseEntity.ok(Map.of(
-                "success", true,
-                "role", role,
-                "count", users.size(),
-                "users", users.stream().map(user -> Map.of(
-                    "id", user.getId(),
-                    "username", user.getUsername(),
-                    "email", user.getEmail(),
-                    "firstName", user.getFirstName() != null ? user.getFirstName() : "",
-                    "lastName", user.getLastName() != null ? user.getLastName() : "",
-                    "isActive", user.getIsActive(),
-                    "createdAt", user.getCreatedAt()
-                )).toList()
-            ));
-            
+            userRole = UserRole.valueOf(role.toUpperCase());
         } catch (IllegalArgumentException e) {
-            return ResponseEntity.badRequest().body(Map.of(
-                "success", false,
-                "message", "Invalid role: " + role
-            ));
+            throw new IllegalArgumentException("Invalid role: " + role);
         }
+
+        UserService.Listing users = userService.listUsersByRole(userRole, selected);
+        return streamListing(accept, new RoleMembers(true, role, users, new WrittenCount(users)));
     }
 
     /**
      * Get all admin users
+     *
+     * Admins are read a page at a time while the response is written.
      */
     @GetMapping("/admins")
-    public ResponseEntity<Map<String, Object>> getAllAdmins() {
+    public ResponseEntity<StreamingResponseBody> getAllAdmins(
+            @RequestParam(required = false) String fields,
+            @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept) {
         log.info("Getting all admin users");
         
-        List<User> admins = userService.getAllAdmins();
-        
-        return ResponseEntity.ok(Map.of(
-            "success", true,
-            "count", admins.size(),
-            "admins", admins.stream().map(admin -> Map.of(
-                "id", admin.getId(),
-                "username", admin.getUsername(),
-                "email", admin.getEmail(),
-                "firstName", admin.getFirstName() != null ? admin.getFirstName() : "",
-                "lastName", admin.getLastName() != null ? admin.getLastName() : "",
-                "roles", admin.getRoles(),
-                "isActive", admin.getIsActive(),
-                "createdAt", admin.getCreatedAt(),
-                "lastLogin", admin.getLastLogin()
-            )).toList()
-        ));
+        Set<UserField> selected = UserField.parse(fields, LISTING_FIELDS);
+        
+        UserService.Listing admins = userService.listAdmins(selected);
+        return streamListing(accept, new Admins(true, admins, new WrittenCount(admins)));
     }
 
     // Profile Management Operations
@@ -486,7 +605,7 @@ public class UserController {
      * Update user profile
      */
     @PutMapping("/{id}/profile")
-    public ResponseEntity<Map<String, Object>> updateUserProfile(
+    public ResponseEntity<Body> updateUserProfile(
             @PathVariable Long id,
             @RequestBody Map<String, Object> request) {
         
@@ -501,29 +620,14 @@ public class UserController {
 
             User user = userService.updateUserProfile(id, firstName, lastName, phoneNumber, dateOfBirth);
             
-            return ResponseEntity.ok(Map.of(
-                "success", true,
-                "message", "Profile updated successfully",
-                "user", Map.of(
-                    "id", user.getId(),
-                    "username", user.getUsername(),
-                    "email", user.getEmail(),
-                    "firstName", user.getFirstName() != null ? user.getFirstName() : "",
-                    "lastName", user.getLastName() != null ? user.getLastName() : "",
-                    "phoneNumber", user.getPhoneNumber() != null ? user.getPhoneNumber() : "",
-                    "dateOfBirth", user.getDateOfBirth(),
-                    "updatedAt", user.getUpdatedAt()
-                )
-            ));
+            return ResponseEntity.ok(new ProfileUpdated(true, "Profile updated successfully", UserProfile.of(user)));
             
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         } catch (Exception e) {
             log.error("Error updating profile: {}", e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
-                "success", false,
-                "message", "Error updating profile"
-            ));
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Message.error("Error updating profile"));
         }
     }
 
@@ -531,7 +635,7 @@ public class UserController {
      * Change user password
      */
     @PutMapping("/{id}/password")
-    public ResponseEntity<Map<String, Object>> changePassword(
+    public ResponseEntity<Body> changePassword(
             @PathVariable Long id,
             @RequestBody Map<String, String> request) {
         
@@ -542,26 +646,19 @@ public class UserController {
             String newPassword = request.get("newPassword");
 
             if (oldPassword == null || newPassword == null) {
-                return ResponseEntity.badRequest().body(Map.of(
-                    "success", false,
-                    "message", "Old password and new password are required"
-                ));
+                return ResponseEntity.badRequest().body(Message.error("Old password and new password are required"));
             }
 
             boolean success = userService.changePassword(id, oldPassword, newPassword);
             
             if (success) {
-                return ResponseEntity.ok(Map.of(
-                    "success", true,
-                    "message", "Password changed successfully"
-                ));
+                return ResponseEntity.ok(Message.ok("Password changed successfully"));
             } else {
-                return ResponseEntity.badRequest().body(Map.of(
-                    "success", false,
-                    "message", "Incorrect old password"
-                ));
+                return ResponseEntity.badRequest().body(Message.error("Incorrect old password"));
             }
             
+        } catch (IllegalStateException | HashingCapacityExceededException e) {
+            throw e;
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -571,22 +668,13 @@ public class UserController {
      * Verify user email
      */
     @PutMapping("/{id}/verify-email")
-    public ResponseEntity<Map<String, Object>> verifyEmail(@PathVariable Long id) {
+    public ResponseEntity<Body> verifyEmail(@PathVariable Long id) {
         log.info("Email verification request for user ID: {}", id);
         
         try {
             User user = userService.verifyEmail(id);
             
-            return ResponseEntity.ok(Map.of(
-                "success", true,
-                "message", "Email verified successfully",
-                "user", Map.of(
-                    "id", user.getId(),
-                    "username", user.getUsername(),
-                    "email", user.getEmail(),
-                    "emailVerified", user.getEmailVerified()
-                )
-            ));
+            return ResponseEntity.ok(new EmailVerified(true, "Email verified successfully", UserEmail.of(user)));
             
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
@@ -599,21 +687,14 @@ public class UserController {
      * Toggle user account status
      */
     @PutMapping("/{id}/toggle-status")
-    public ResponseEntity<Map<String, Object>> toggleUserStatus(@PathVariable Long id) {
+    public ResponseEntity<Body> toggleUserStatus(@PathVariable Long id) {
         log.info("Toggling status for user ID: {}", id);
         
         try {
             User user = userService.toggleUserStatus(id);
             
-            return ResponseEntity.ok(Map.of(
-                "success", true,
-                "message", "User status updated successfully",
-                "user", Map.of(
-                    "id", user.getId(),
-                    "username", user.getUsername(),
-                    "isActive", user.getIsActive()
-                )
-            ));
+            return ResponseEntity.ok(
+                new StatusChanged(true, "User status updated successfully", UserStatus.of(user)));
             
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
@@ -624,16 +705,13 @@ public class UserController {
      * Delete user account
      */
     @DeleteMapping("/{id}")
-    public ResponseEntity<Map<String, Object>> deleteUser(@PathVariable Long id) {
+    public ResponseEntity<Body> deleteUser(@PathVariable Long id) {
         log.info("Delete request for user ID: {}", id);
         
         try {
             userService.deleteUser(id);
             
-            return ResponseEntity.ok(Map.of(
-                "success", true,
-                "message", "User deleted successfully"
-            ));
+            return ResponseEntity.ok(Message.ok("User deleted successfully"));
             
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
@@ -646,85 +724,145 @@ public class UserController {
      * Get user statistics
      */
     @GetMapping("/statistics")
-    public ResponseEntity<Map<String, Object>> getUserStatistics() {
-        log.info("Getting user statistics");
+    public ResponseEntity<Body> getUserStatistics() {
+        log.debug("Getting user statistics");
         
         UserService.UserStatistics stats = userService.getUserStatistics();
         
-        return ResponseEntity.ok(Map.of(
-            "success", true,
-            "statistics", Map.of(
-                "totalUsers", stats.getTotalUsers(),
-                "activeUsers", stats.getActiveUsers(),
-                "inactiveUsers", stats.getInactiveUsers(),
-                "adminUsers", stats.getAdminUsers(),
-                "newUsersThisMonth", stats.getNewUsersThisMonth()
-            )
-        ));
+        return ResponseEntity.ok(new Statistics(true, new Counts(stats.getTotalUsers(), stats.getActiveUsers(),
+            stats.getInactiveUsers(), stats.getAdminUsers(), stats.getNewUsersThisMonth())));
     }
 
     /**
-     * Get user analytics (alias for statistics)
+     * Get user growth per day over a date range, optionally for one role
+     *
+     * Answered from the daily rollups, so the cost depends on the number of
+     * days rather than the number of users. Defaults to the last 30 days.
      */
     @GetMapping("/analytics")
-    public ResponseEntity<Map<String, Object>> getUserAnalytics() {
-        return getUserStatistics();
+    public ResponseEntity<Body> getUserAnalytics(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String role) {
+        
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(29);
+        UserGrowthRollupService.GrowthReport report = growthRollupService.getGrowth(start, end, role);
+        
+        return ResponseEntity.ok(new Analytics(true, report.from(), report.to(), report.role(), report.totals(),
+            report.daily()));
+    }
+
+    /**
+     * Recompute sign-up rollups from the users table (admin only)
+     */
+    @PostMapping("/analytics/backfill")
+    public ResponseEntity<Body> backfillUserAnalytics(
+            @RequestAttribute(name = SessionPrincipal.REQUEST_ATTRIBUTE, required = false) SessionPrincipal principal) {
+        
+        if (principal == null || !principal.isAdmin()) {
+            return ResponseEntity.status(principal == null ? HttpStatus.UNAUTHORIZED : HttpStatus.FORBIDDEN)
+                .body(Message.error("An admin session token is required"));
+        }
+
+        growthRollupService.backfill();
+        return ResponseEntity.ok(Message.ok("User growth rollups backfilled"));
     }
 
     /**
      * Get inactive users
+     *
+     * Every inactive user, read a page at a time while the response is
+     * written. See {@link #getInactiveUsersPage} for keyset pages.
      */
     @GetMapping("/inactive")
-    public ResponseEntity<Map<String, Object>> getInactiveUsers(
-            @RequestParam(defaultValue = "30") int days) {
+    public ResponseEntity<StreamingResponseBody> getInactiveUsers(
+            @RequestParam(defaultValue = "30") int days,
+            @RequestParam(required = false) String fields,
+            @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept) {
         
         log.info("Getting users inactive for {} days", days);
+
+        Set<UserField> selected = UserField.parse(fields, INACTIVE_FIELDS);
+        UserService.Listing users = userService.listInactiveUsers(days, selected);
+        return streamListing(accept, new InactiveUsers(true, days, users, new WrittenCount(users), null));
+    }
+
+    /**
+     * Get one keyset page of {@code size} inactive users, after the given cursor
+     */
+    @GetMapping(value = "/inactive", params = "cursor")
+    public ResponseEntity<Body> getInactiveUsersPage(
+            @RequestParam(defaultValue = "30") int days,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam String cursor,
+            @RequestParam(required = false) String fields) {
         
-        List<User> inactiveUsers = userService.getInactiveUsers(days);
-        
-        return ResponseEntity.ok(Map.of(
-            "success", true,
-            "inactiveDays", days,
-            "count", inactiveUsers.size(),
-            "users", inactiveUsers.stream().map(user -> Map.of(
-                "id", user.getId(),
-                "username", user.getUsername(),
-                "email", user.getEmail(),
-                "firstName", user.getFirstName() != null ? user.getFirstName() : "",
-                "lastName", user.getLastName() != null ? user.getLastName() : "",
-                "lastLogin", user.getLastLogin(),
-                "createdAt", user.getCreatedAt()
-            )).toList()
-        ));
+        log.info("Getting a page of users inactive for {} days", days);
+
+        CursorPage<UserView> page = userService.getInactiveUsersAfter(days, cursor, size,
+            UserField.parse(fields, INACTIVE_FIELDS));
+        return ResponseEntity.ok(new InactiveUsers(true, days, page.items(), null, CursorPagination.of(page, size)));
     }
 
     // Utility Endpoints
 
+    /**
+     * Suggest users by username or email prefix (typeahead)
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<Body> suggestUsers(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int limit) {
+        
+        if (prefix.isBlank()) {
+            return ResponseEntity.badRequest().body(Message.error("Prefix cannot be blank"));
+        }
+
+        return ResponseEntity.ok(new Suggestions(true, prefix, userService.suggestUsers(prefix, limit)));
+    }
+
     /**
      * Check username availability
      */
     @GetMapping("/check-username/{username}")
-    public ResponseEntity<Map<String, Object>> checkUsernameAvailability(@PathVariable String username) {
+    public ResponseEntity<Body> checkUsernameAvailability(@PathVariable String username) {
         boolean available = userService.isUsernameAvailable(username);
         
-        return ResponseEntity.ok(Map.of(
-            "username", username,
-            "available", available,
-            "message", available ? "Username is available" : "Username is already taken"
-        ));
+        return ResponseEntity.ok(new UsernameAvailability(username, available,
+            available ? "Username is available" : "Username is already taken"));
     }
 
     /**
      * Check email availability
      */
     @GetMapping("/check-email/{email}")
-    public ResponseEntity<Map<String, Object>> checkEmailAvailability(@PathVariable String email) {
+    public ResponseEntity<Body> checkEmailAvailability(@PathVariable String email) {
         boolean available = userService.isEmailAvailable(email);
         
-        return ResponseEntity.ok(Map.of(
-            "email", email,
-            "available", available,
-            "message", available ? "Email is available" : "Email is already registered"
-        ));
+        return ResponseEntity.ok(new EmailAvailability(email, available,
+            available ? "Email is available" : "Email is already registered"));
+    }
+
+    // Helper Methods
+
+    // For handlers that return a streamed body, which cannot carry a Message instead
+    private static void requireAdmin(SessionPrincipal principal) {
+        if (principal == null || !principal.isAdmin()) {
+            throw new ResponseStatusException(principal == null ? HttpStatus.UNAUTHORIZED : HttpStatus.FORBIDDEN,
+                "An admin session token is required");
+        }
+    }
+
+    /**
+     * Writes a listing in the format the client accepts, reading its rows (see PagedRows) as it goes
+     */
+    private ResponseEntity<StreamingResponseBody> streamListing(String accept, Body listing) {
+        ResponseFormat format = ResponseFormat.negotiate(accept);
+        ObjectWriter writer = listingWriters.get(format).find(listing.getClass());
+        return ResponseEntity.ok()
+            .contentType(format.mediaType())
+            .header(HttpHeaders.VARY, HttpHeaders.ACCEPT)
+            .body(output -> writer.writeValue(StreamUtils.nonClosing(output), listing));
     }
 }
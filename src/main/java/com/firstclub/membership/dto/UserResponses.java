@@ -0,0 +1,262 @@
+package com.firstclub.membership.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonValue;
+import com.firstclub.membership.model.User;
+import com.firstclub.membership.model.User.UserRole;
+import com.firstclub.membership.model.UserView;
+import com.firstclub.membership.security.SessionPrincipal;
+import com.firstclub.membership.service.UserGrowthRollupService.DailyGrowth;
+import com.firstclub.membership.service.UserPrefixIndex;
+import com.firstclub.membership.service.UserService;
+import com.firstclub.membership.util.CursorPage;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Response bodies of the /users endpoints
+ *
+ * One immutable record per response shape, so a response is a few field
+ * reads when serialized instead of a map built, boxed and hashed per row.
+ * Component order is the JSON property order. {@link #TYPES} lists every
+ * record so their writers can be resolved once at startup.
+ */
+public final class UserResponses {
+
+    /**
+     * Implemented by every top-level body, so a handler can return success and error shapes
+     */
+    public interface Body {
+    }
+
+    // Shared shapes
+
+    public record Message(boolean success, String message) implements Body {
+
+        public static Message ok(String message) {
+            return new Message(true, message);
+        }
+
+        public static Message error(String message) {
+            return new Message(false, message);
+        }
+    }
+
+    public interface Pagination {
+    }
+
+    public record PagePagination(int page, int size, long totalElements, int totalPages, boolean first, boolean last)
+            implements Pagination {
+
+        public static PagePagination of(Page<?> page) {
+            return new PagePagination(page.getNumber(), page.getSize(), page.getTotalElements(), page.getTotalPages(),
+                page.isFirst(), page.isLast());
+        }
+    }
+
+    public record SlicePagination(int page, int size, boolean first, boolean last, boolean hasNext) implements Pagination {
+
+        public static SlicePagination of(Slice<?> slice) {
+            return new SlicePagination(slice.getNumber(), slice.getSize(), slice.isFirst(), slice.isLast(), slice.hasNext());
+        }
+    }
+
+    // nextCursor is written as null on the last page
+    public record CursorPagination(int size, String nextCursor, boolean hasNext) implements Pagination {
+
+        public static CursorPagination of(CursorPage<?> page, int size) {
+            return new CursorPagination(size, page.nextCursor(), page.hasNext());
+        }
+    }
+
+    // Users
+
+    public record UserSummary(Long id, String username, String email, String firstName, String lastName,
+                              Set<UserRole> roles, Boolean isActive, LocalDateTime createdAt) {
+
+        public static UserSummary of(User user) {
+            return new UserSummary(user.getId(), user.getUsername(), user.getEmail(), orEmpty(user.getFirstName()),
+                orEmpty(user.getLastName()), user.getRoles(), user.getIsActive(), user.getCreatedAt());
+        }
+    }
+
+    public record UserDetail(Long id, String username, String email, String firstName, String lastName,
+                             String phoneNumber, LocalDateTime dateOfBirth, Set<UserRole> roles, Boolean isActive,
+                             Boolean emailVerified, LocalDateTime createdAt, LocalDateTime updatedAt,
+                             LocalDateTime lastLogin) {
+
+        public static UserDetail of(User user) {
+            return new UserDetail(user.getId(), user.getUsername(), user.getEmail(), orEmpty(user.getFirstName()),
+                orEmpty(user.getLastName()), orEmpty(user.getPhoneNumber()), user.getDateOfBirth(), user.getRoles(),
+                user.getIsActive(), user.getEmailVerified(), user.getCreatedAt(), user.getUpdatedAt(),
+                user.getLastLogin());
+        }
+    }
+
+    public record UserListing(Long id, String username, String email, String firstName, String lastName,
+                              Set<UserRole> roles, Boolean isActive, LocalDateTime createdAt, LocalDateTime lastLogin) {
+
+        public static UserListing of(User user) {
+            return new UserListing(user.getId(), user.getUsername(), user.getEmail(), orEmpty(user.getFirstName()),
+                orEmpty(user.getLastName()), user.getRoles(), user.getIsActive(), user.getCreatedAt(),
+                user.getLastLogin());
+        }
+    }
+
+    public record LoggedInUser(Long id, String username, String email, String firstName, String lastName,
+                               Set<UserRole> roles, Boolean isActive, LocalDateTime lastLogin) {
+
+        public static LoggedInUser of(User user) {
+            return new LoggedInUser(user.getId(), user.getUsername(), user.getEmail(), orEmpty(user.getFirstName()),
+                orEmpty(user.getLastName()), user.getRoles(), user.getIsActive(), user.getLastLogin());
+        }
+    }
+
+    public record PrincipalUser(Long id, String username, Set<UserRole> roles) {
+    }
+
+    public record UserRoles(Long id, String username, Set<UserRole> roles) {
+
+        public static UserRoles of(User user) {
+            return new UserRoles(user.getId(), user.getUsername(), user.getRoles());
+        }
+    }
+
+    public record UserProfile(Long id, String username, String email, String firstName, String lastName,
+                              String phoneNumber, LocalDateTime dateOfBirth, LocalDateTime updatedAt) {
+
+        public static UserProfile of(User user) {
+            return new UserProfile(user.getId(), user.getUsername(), user.getEmail(), orEmpty(user.getFirstName()),
+                orEmpty(user.getLastName()), orEmpty(user.getPhoneNumber()), user.getDateOfBirth(),
+                user.getUpdatedAt());
+        }
+    }
+
+    public record UserEmail(Long id, String username, String email, Boolean emailVerified) {
+
+        public static UserEmail of(User user) {
+            return new UserEmail(user.getId(), user.getUsername(), user.getEmail(), user.getEmailVerified());
+        }
+    }
+
+    public record UserStatus(Long id, String username, Boolean isActive) {
+
+        public static UserStatus of(User user) {
+            return new UserStatus(user.getId(), user.getUsername(), user.getIsActive());
+        }
+    }
+
+    // Endpoint bodies
+
+    public record Health(String status, String service, LocalDateTime timestamp) implements Body {
+    }
+
+    public record Registered(boolean success, String message, UserSummary user) implements Body {
+    }
+
+    public record LoggedIn(boolean success, String message, String token, String tokenType, Instant expiresAt,
+                           LoggedInUser user) implements Body {
+    }
+
+    public record CurrentUser(boolean success, PrincipalUser user, Instant expiresAt) implements Body {
+
+        public static CurrentUser of(SessionPrincipal principal) {
+            return new CurrentUser(true, new PrincipalUser(principal.userId(), principal.username(), principal.roles()),
+                principal.expiresAt());
+        }
+    }
+
+    public record UserFound(boolean success, UserDetail user) implements Body {
+    }
+
+    public record UserList(boolean success, List<UserView> users, Pagination pagination) implements Body {
+    }
+
+    public record SearchResults(boolean success, String query, List<UserView> users, Pagination pagination)
+            implements Body {
+    }
+
+    public record FilterResults(boolean success, String filter, List<UserListing> users,
+                                Map<String, Map<String, Long>> facets, PagePagination pagination) implements Body {
+    }
+
+    public record RoleChanged(boolean success, String message, UserRoles user) implements Body {
+    }
+
+    // Listings of any length take their rows as PagedRows, read while the response is written, and count them after
+    public record RoleMembers(boolean success, String role, Iterable<UserView> users, WrittenCount count)
+            implements Body {
+    }
+
+    public record Admins(boolean success, Iterable<UserView> admins, WrittenCount count) implements Body {
+    }
+
+    /**
+     * The number of users a listing has written, serialized as a plain number
+     *
+     * Read when it is reached, so it follows the users it counts.
+     */
+    public record WrittenCount(UserService.Listing listing) {
+        @JsonValue
+        public long value() {
+            return listing.count();
+        }
+    }
+
+    public record ProfileUpdated(boolean success, String message, UserProfile user) implements Body {
+    }
+
+    public record EmailVerified(boolean success, String message, UserEmail user) implements Body {
+    }
+
+    public record StatusChanged(boolean success, String message, UserStatus user) implements Body {
+    }
+
+    public record Counts(long totalUsers, long activeUsers, long inactiveUsers, long adminUsers, long newUsersThisMonth) {
+    }
+
+    public record Statistics(boolean success, Counts statistics) implements Body {
+    }
+
+    public record Analytics(boolean success, LocalDate from, LocalDate to, String role, DailyGrowth totals,
+                            List<DailyGrowth> daily) implements Body {
+    }
+
+    // The full listing reports a count, a cursor page its pagination instead
+    public record InactiveUsers(boolean success, int inactiveDays, Iterable<UserView> users,
+                                @JsonInclude(JsonInclude.Include.NON_NULL) WrittenCount count,
+                                @JsonInclude(JsonInclude.Include.NON_NULL) CursorPagination pagination) implements Body {
+    }
+
+    public record Suggestions(boolean success, String prefix, List<UserPrefixIndex.Suggestion> suggestions)
+            implements Body {
+    }
+
+    public record UsernameAvailability(String username, boolean available, String message) implements Body {
+    }
+
+    public record EmailAvailability(String email, boolean available, String message) implements Body {
+    }
+
+    /**
+     * Every top-level body type, for writers resolved ahead of the first request
+     */
+    public static final List<Class<?>> TYPES = Arrays.stream(UserResponses.class.getDeclaredClasses())
+        .filter(type -> type.isRecord() && Body.class.isAssignableFrom(type))
+        .toList();
+
+    private UserResponses() {
+    }
+
+    private static String orEmpty(String value) {
+        return value != null ? value : "";
+    }
+}
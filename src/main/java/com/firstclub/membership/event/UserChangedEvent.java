@@ -0,0 +1,36 @@
+package com.firstclub.membership.event;
+
+import com.firstclub.membership.model.UserSnapshot;
+
+/**
+ * Event published by UserService after a user has been created, updated or deleted
+ *
+ * {@code previous} is null for CREATED and {@code current} is null for DELETED.
+ */
+public record UserChangedEvent(ChangeType type, UserSnapshot previous, UserSnapshot current) {
+
+    public static UserChangedEvent created(UserSnapshot current) {
+        return new UserChangedEvent(ChangeType.CREATED, null, current);
+    }
+
+    public static UserChangedEvent updated(UserSnapshot previous, UserSnapshot current) {
+        return new UserChangedEvent(ChangeType.UPDATED, previous, current);
+    }
+
+    public static UserChangedEvent deleted(UserSnapshot previous) {
+        return new UserChangedEvent(ChangeType.DELETED, previous, null);
+    }
+
+    public Long userId() {
+        return current != null ? current.id() : previous.id();
+    }
+
+    /**
+     * Kind of change applied to the user
+     */
+    public enum ChangeType {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+}
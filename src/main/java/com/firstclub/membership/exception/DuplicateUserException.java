@@ -0,0 +1,18 @@
+package com.firstclub.membership.exception;
+
+/**
+ * Exception thrown when a username or email is already registered
+ */
+public class DuplicateUserException extends MembershipException {
+
+    private final String field;
+
+    public DuplicateUserException(String field, String value) {
+        super(Character.toUpperCase(field.charAt(0)) + field.substring(1) + " already exists: " + value);
+        this.field = field;
+    }
+
+    public String getField() {
+        return field;
+    }
+}
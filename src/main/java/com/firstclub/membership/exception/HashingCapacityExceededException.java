@@ -0,0 +1,18 @@
+package com.firstclub.membership.exception;
+
+/**
+ * Exception thrown when the password hashing queue is full
+ */
+public class HashingCapacityExceededException extends MembershipException {
+
+    private final int retryAfterSeconds;
+
+    public HashingCapacityExceededException(int retryAfterSeconds) {
+        super("Server is busy processing credentials, please retry shortly");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
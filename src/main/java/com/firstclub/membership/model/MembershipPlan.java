@@ -19,15 +19,20 @@ import java.util.List;
 @Table(name = "membership_plans")
 public class MembershipPlan {
 
+    // Sequence-backed ids so inserts can be batched (IDENTITY disables it)
+    public static final String ID_SEQUENCE = "membership_plans_seq";
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+    @SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @NotBlank(message = "Plan name cannot be blank")
     @Column(unique = true, nullable = false)
     private String name;
 
-    @NotBlank(message = "Plan type cannot be blank")
+    @NotNull(message = "Plan type cannot be null")
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private PlanType planType;
@@ -0,0 +1,32 @@
+package com.firstclub.membership.model;
+
+import com.firstclub.membership.model.MembershipPlan.PlanType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Immutable copy of a membership plan held by the in-memory catalog
+ */
+public record MembershipPlanSnapshot(
+        Long id,
+        String name,
+        PlanType planType,
+        int durationMonths,
+        BigDecimal price,
+        boolean isActive,
+        String description,
+        LocalDateTime updatedAt) {
+
+    public static MembershipPlanSnapshot of(MembershipPlan plan) {
+        return new MembershipPlanSnapshot(
+            plan.getId(),
+            plan.getName(),
+            plan.getPlanType(),
+            plan.getDurationMonths(),
+            plan.getPrice(),
+            Boolean.TRUE.equals(plan.getIsActive()),
+            plan.getDescription(),
+            plan.getUpdatedAt());
+    }
+}
@@ -19,8 +19,12 @@ import java.util.List;
 @Table(name = "membership_tiers")
 public class MembershipTier {
 
+    public static final String ID_SEQUENCE = "membership_tiers_seq";
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+    @SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @NotBlank(message = "Tier name cannot be blank")
@@ -0,0 +1,49 @@
+package com.firstclub.membership.model;
+
+import com.firstclub.membership.model.MembershipTier.TierLevel;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Immutable copy of a membership tier held by the in-memory catalog
+ */
+public record MembershipTierSnapshot(
+        Long id,
+        String name,
+        TierLevel level,
+        int minOrdersRequired,
+        BigDecimal minOrderValueMonthly,
+        BigDecimal discountPercentage,
+        boolean freeDelivery,
+        boolean prioritySupport,
+        boolean exclusiveDeals,
+        boolean earlyAccess,
+        boolean isActive,
+        String description,
+        List<String> eligibleCohorts,
+        LocalDateTime updatedAt) {
+
+    public MembershipTierSnapshot {
+        eligibleCohorts = eligibleCohorts == null ? List.of() : List.copyOf(eligibleCohorts);
+    }
+
+    public static MembershipTierSnapshot of(MembershipTier tier) {
+        return new MembershipTierSnapshot(
+            tier.getId(),
+            tier.getName(),
+            tier.getLevel(),
+            tier.getMinOrdersRequired() != null ? tier.getMinOrdersRequired() : 0,
+            tier.getMinOrderValueMonthly() != null ? tier.getMinOrderValueMonthly() : BigDecimal.ZERO,
+            tier.getDiscountPercentage() != null ? tier.getDiscountPercentage() : BigDecimal.ZERO,
+            Boolean.TRUE.equals(tier.getFreeDelivery()),
+            Boolean.TRUE.equals(tier.getPrioritySupport()),
+            Boolean.TRUE.equals(tier.getExclusiveDeals()),
+            Boolean.TRUE.equals(tier.getEarlyAccess()),
+            Boolean.TRUE.equals(tier.getIsActive()),
+            tier.getDescription(),
+            tier.getEligibleCohorts(),
+            tier.getUpdatedAt());
+    }
+}
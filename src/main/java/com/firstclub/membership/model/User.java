@@ -4,9 +4,18 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 import java.time.LocalDateTime;
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -14,23 +23,71 @@ import java.util.Set;
  * 
  * This entity manages user authentication, profile information, and role assignments
  * for the FirstClub membership system.
+ *
+ * Users are held in the second-level cache, and the username is mapped as an
+ * immutable natural id so username lookups resolve through the natural-id
+ * cache. Hibernate supports a single natural id per entity, so email lookups
+ * use the query cache instead (see UserRepository#findByEmail).
+ *
+ * A username therefore cannot change once the user is saved; no endpoint
+ * changes it, and Hibernate rejects the flush if it is altered. Its unique
+ * key is named USERNAME_CONSTRAINT like the email one (see
+ * PersistenceConfig), so a duplicate is recognised by name.
+ *
+ * Roles are stored as a bitmask in the role_mask column (see
+ * {@link UserRole#bit()}), so loading a user is a single-row read and role
+ * queries are predicates on the users table itself.
  */
 @Entity
-@Table(name = "users")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = User.CACHE_REGION)
+@NaturalIdCache(region = User.NATURAL_ID_CACHE_REGION)
+@Table(name = "users", uniqueConstraints = {
+    @UniqueConstraint(name = User.USERNAME_CONSTRAINT, columnNames = "username"),
+    @UniqueConstraint(name = User.EMAIL_CONSTRAINT, columnNames = "email")
+}, indexes = {
+    // Listings filter on is_active and sort by one of these keys (see UserService.SORTABLE_FIELDS);
+    // the trailing id makes keyset pagination a single range seek
+    @Index(name = "idx_users_active_created", columnList = "is_active, created_at, id"),
+    @Index(name = "idx_users_active_last_login", columnList = "is_active, last_login, id"),
+    @Index(name = "idx_users_active_username", columnList = "is_active, username"),
+    // Unfiltered range lookups and counts
+    @Index(name = "idx_users_created_at", columnList = "created_at"),
+    @Index(name = "idx_users_last_login", columnList = "last_login"),
+    @Index(name = "idx_users_email_verified", columnList = "email_verified"),
+    // Role queries match the role masks that contain a role (see UserRole#masksContainingAny);
+    // the id keeps the users of one mask in order for keyset pages
+    @Index(name = "idx_users_role_mask", columnList = "role_mask, id")
+})
 public class User {
 
+    // Named so constraint violations can be mapped back to the conflicting field
+    public static final String USERNAME_CONSTRAINT = "uk_users_username";
+    public static final String EMAIL_CONSTRAINT = "uk_users_email";
+
+    // Pooled sequence: one round trip reserves ID_ALLOCATION_SIZE ids, which keeps JDBC insert batching enabled
+    public static final String ID_SEQUENCE = "users_seq";
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    // Second-level cache regions, configured in ehcache.xml
+    public static final String CACHE_REGION = "users";
+    public static final String NATURAL_ID_CACHE_REGION = "users.naturalId";
+    public static final String EMAIL_QUERY_CACHE_REGION = "users.byEmail";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+    @SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
+    // Fixed once saved (see class comment)
+    @NaturalId
     @NotBlank(message = "Username cannot be blank")
     @Size(min = 3, max = 50, message = "Username must be between 3 and 50 characters")
-    @Column(unique = true, nullable = false)
+    @Column(nullable = false, updatable = false)
     private String username;
 
     @NotBlank(message = "Email cannot be blank")
     @Email(message = "Email should be valid")
-    @Column(unique = true, nullable = false)
+    @Column(nullable = false)
     private String email;
 
     @NotBlank(message = "Password cannot be blank")
@@ -67,11 +124,9 @@ public class User {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
-    @ElementCollection(targetClass = UserRole.class, fetch = FetchType.EAGER)
-    @CollectionTable(name = "user_roles", joinColumns = @JoinColumn(name = "user_id"))
-    @Enumerated(EnumType.STRING)
-    @Column(name = "role")
-    private Set<UserRole> roles = new HashSet<>();
+    @ColumnDefault("0")
+    @Column(name = "role_mask", nullable = false)
+    private int roleMask;
 
     // Constructors
     public User() {}
@@ -84,7 +139,7 @@ public class User {
         this.lastName = lastName;
         this.isActive = true;
         this.emailVerified = false;
-        this.roles.add(UserRole.USER); // Default role
+        this.roleMask = UserRole.USER.bit(); // Default role
     }
 
     // Builder pattern
@@ -100,7 +155,7 @@ public class User {
         private String lastName;
         private String phoneNumber;
         private LocalDateTime dateOfBirth;
-        private Set<UserRole> roles = new HashSet<>();
+        private Set<UserRole> roles = EnumSet.noneOf(UserRole.class);
 
         public UserBuilder username(String username) {
             this.username = username;
@@ -156,7 +211,7 @@ public class User {
             user.lastName = this.lastName;
             user.phoneNumber = this.phoneNumber;
             user.dateOfBirth = this.dateOfBirth;
-            user.roles = this.roles.isEmpty() ? Set.of(UserRole.USER) : this.roles;
+            user.roleMask = this.roles.isEmpty() ? UserRole.USER.bit() : UserRole.mask(this.roles);
             user.isActive = true;
             user.emailVerified = false;
             return user;
@@ -268,29 +323,32 @@ public class User {
         this.updatedAt = updatedAt;
     }
 
+    /**
+     * Read-only view of the role mask; change roles through the methods below
+     */
     public Set<UserRole> getRoles() {
-        return roles;
+        return Collections.unmodifiableSet(UserRole.fromMask(roleMask));
     }
 
     public void setRoles(Set<UserRole> roles) {
-        this.roles = roles;
+        this.roleMask = UserRole.mask(roles);
     }
 
     // Helper methods
     public void addRole(UserRole role) {
-        this.roles.add(role);
+        this.roleMask |= role.bit();
     }
 
     public void removeRole(UserRole role) {
-        this.roles.remove(role);
+        this.roleMask &= ~role.bit();
     }
 
     public boolean hasRole(UserRole role) {
-        return this.roles.contains(role);
+        return (this.roleMask & role.bit()) != 0;
     }
 
     public boolean isAdmin() {
-        return this.roles.contains(UserRole.ADMIN) || this.roles.contains(UserRole.SUPER_ADMIN);
+        return (this.roleMask & UserRole.mask(UserRole.ADMIN_ROLES)) != 0;
     }
 
     public String getFullName() {
@@ -316,18 +374,27 @@ public class User {
      * Enum defining user roles with hierarchical permissions
      */
     public enum UserRole {
-        USER("Standard user with basic access"),
-        PREMIUM_USER("Premium user with enhanced access"),
-        MODERATOR("Moderator with content management access"),
-        ADMIN("Administrator with full system access"),
-        SUPER_ADMIN("Super administrator with complete system control");
+        // Bits are persisted in users.role_mask: never reuse or renumber one
+        USER(0, "Standard user with basic access"),
+        PREMIUM_USER(1, "Premium user with enhanced access"),
+        MODERATOR(2, "Moderator with content management access"),
+        ADMIN(3, "Administrator with full system access"),
+        SUPER_ADMIN(4, "Super administrator with complete system control");
 
+        public static final Set<UserRole> ADMIN_ROLES = Collections.unmodifiableSet(EnumSet.of(ADMIN, SUPER_ADMIN));
+
+        private final int bit;
         private final String description;
 
-        UserRole(String description) {
+        UserRole(int bit, String description) {
+            this.bit = 1 << bit;
             this.description = description;
         }
 
+        public int bit() {
+            return bit;
+        }
+
         public String getDescription() {
             return description;
         }
@@ -335,5 +402,42 @@ public class User {
         public String getAuthority() {
             return "ROLE_" + this.name();
         }
+
+        public static int mask(Collection<UserRole> roles) {
+            int mask = 0;
+            for (UserRole role : roles) {
+                mask |= role.bit;
+            }
+            return mask;
+        }
+
+        public static EnumSet<UserRole> fromMask(int mask) {
+            EnumSet<UserRole> roles = EnumSet.noneOf(UserRole.class);
+            for (UserRole role : values()) {
+                if ((mask & role.bit) != 0) {
+                    roles.add(role);
+                }
+            }
+            return roles;
+        }
+
+        /**
+         * Every role mask that has at least one of the given roles
+         *
+         * With five roles there are only 32 possible masks, so "has any of
+         * these bits" is answered as role_mask IN (...) over idx_users_role_mask
+         * instead of a BITAND predicate that no index can serve.
+         */
+        public static List<Integer> masksContainingAny(Collection<UserRole> roles) {
+            int wanted = mask(roles);
+            int all = mask(EnumSet.allOf(UserRole.class));
+            List<Integer> masks = new ArrayList<>();
+            for (int mask = 1; mask <= all; mask++) {
+                if ((mask & ~all) == 0 && (mask & wanted) != 0) {
+                    masks.add(mask);
+                }
+            }
+            return masks;
+        }
     }
 }
@@ -0,0 +1,102 @@
+package com.firstclub.membership.model;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Entity holding one day of user growth counters for one role
+ *
+ * Rows are keyed by (day, role), where role is a {@link User.UserRole} name
+ * or {@link #ALL_ROLES} for the totals across every user. They are written
+ * by UserGrowthRollupService with incremental MERGE statements, never through
+ * JPA, so analytics over a date range read one row per day instead of
+ * scanning the users table.
+ */
+@Entity
+@Table(name = "user_daily_rollups")
+public class UserDailyRollup {
+
+    public static final String ALL_ROLES = "ALL";
+
+    @EmbeddedId
+    private Key id;
+
+    @Column(nullable = false)
+    private long signups;
+
+    @Column(nullable = false)
+    private long activations;
+
+    @Column(nullable = false)
+    private long deactivations;
+
+    @Column(nullable = false)
+    private long logins;
+
+    // Constructors
+    public UserDailyRollup() {}
+
+    // Getters
+    public Key getId() {
+        return id;
+    }
+
+    public long getSignups() {
+        return signups;
+    }
+
+    public long getActivations() {
+        return activations;
+    }
+
+    public long getDeactivations() {
+        return deactivations;
+    }
+
+    public long getLogins() {
+        return logins;
+    }
+
+    /**
+     * Composite key of a rollup row
+     */
+    @Embeddable
+    public static class Key implements Serializable {
+
+        @Column(name = "rollup_day", nullable = false)
+        private LocalDate day;
+
+        @Column(name = "role", nullable = false, length = 20)
+        private String role;
+
+        public Key() {}
+
+        public Key(LocalDate day, String role) {
+            this.day = day;
+            this.role = role;
+        }
+
+        public LocalDate getDay() {
+            return day;
+        }
+
+        public String getRole() {
+            return role;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key key)) return false;
+            return Objects.equals(day, key.day) && Objects.equals(role, key.role);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(day, role);
+        }
+    }
+}
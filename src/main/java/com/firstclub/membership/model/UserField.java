@@ -0,0 +1,109 @@
+package com.firstclub.membership.model;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * A user field that list endpoints can return, selected with {@code ?fields=}
+ *
+ * Each field maps to one entity attribute, so a field set compiles directly
+ * into the columns a projection query selects. The password hash is never
+ * listable. Field sets are kept in enum order, which is also the order the
+ * fields are written in responses.
+ */
+public enum UserField {
+    ID("id", "id", true),
+    USERNAME("username", "username", true),
+    EMAIL("email", "email", true),
+    FIRST_NAME("firstName", "firstName", true),
+    LAST_NAME("lastName", "lastName", true),
+    PHONE_NUMBER("phoneNumber", "phoneNumber", false),
+    DATE_OF_BIRTH("dateOfBirth", "dateOfBirth", false),
+    ROLES("roles", "roleMask", true),
+    IS_ACTIVE("isActive", "isActive", true),
+    EMAIL_VERIFIED("emailVerified", "emailVerified", true),
+    CREATED_AT("createdAt", "createdAt", true),
+    LAST_LOGIN("lastLogin", "lastLogin", true),
+    UPDATED_AT("updatedAt", "updatedAt", false);
+
+    private static final Map<String, UserField> BY_NAME = Arrays.stream(values())
+        .collect(Collectors.toUnmodifiableMap(field -> field.jsonName.toLowerCase(Locale.ROOT), Function.identity()));
+
+    private static final Map<String, UserField> BY_ATTRIBUTE = Arrays.stream(values())
+        .collect(Collectors.toUnmodifiableMap(UserField::attribute, Function.identity()));
+
+    private final String jsonName;
+    private final String attribute;
+    private final boolean inSnapshot;
+
+    UserField(String jsonName, String attribute, boolean inSnapshot) {
+        this.jsonName = jsonName;
+        this.attribute = attribute;
+        this.inSnapshot = inSnapshot;
+    }
+
+    public String jsonName() {
+        return jsonName;
+    }
+
+    /**
+     * The {@link User} attribute holding this field
+     */
+    public String attribute() {
+        return attribute;
+    }
+
+    /**
+     * Whether {@link UserSnapshot} carries this field, so index results can be returned without a query
+     */
+    public boolean inSnapshot() {
+        return inSnapshot;
+    }
+
+    public static UserField ofAttribute(String attribute) {
+        UserField field = BY_ATTRIBUTE.get(attribute);
+        if (field == null) {
+            throw new IllegalArgumentException("Unknown user attribute: " + attribute);
+        }
+        return field;
+    }
+
+    /**
+     * Parses a comma-separated {@code ?fields=} value; blank means {@code defaults}
+     *
+     * The id is always included. Names are matched case-insensitively.
+     */
+    public static Set<UserField> parse(String fields, Set<UserField> defaults) {
+        if (fields == null || fields.isBlank()) {
+            return defaults;
+        }
+        EnumSet<UserField> parsed = EnumSet.of(ID);
+        for (String name : fields.split(",")) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            UserField field = BY_NAME.get(trimmed.toLowerCase(Locale.ROOT));
+            if (field == null) {
+                throw new IllegalArgumentException("Unknown field: " + trimmed + " (supported: "
+                    + Arrays.stream(values()).map(UserField::jsonName).collect(Collectors.joining(", ")) + ")");
+            }
+            parsed.add(field);
+        }
+        return Collections.unmodifiableSet(parsed);
+    }
+
+    /**
+     * An unmodifiable field set that always contains the id
+     */
+    public static Set<UserField> setOf(UserField... fields) {
+        EnumSet<UserField> set = EnumSet.of(ID, fields);
+        return Collections.unmodifiableSet(set);
+    }
+}
@@ -0,0 +1,44 @@
+package com.firstclub.membership.model;
+
+import com.firstclub.membership.model.User.UserRole;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Immutable copy of the user fields maintained by in-memory indexes
+ *
+ * Snapshots are taken when a user changes so index maintenance never
+ * touches a (possibly detached) entity after the transaction has finished.
+ */
+public record UserSnapshot(
+        Long id,
+        String username,
+        String email,
+        String firstName,
+        String lastName,
+        boolean isActive,
+        boolean emailVerified,
+        Set<UserRole> roles,
+        LocalDateTime createdAt,
+        LocalDateTime lastLogin) {
+
+    public UserSnapshot {
+        roles = roles.isEmpty() ? Set.of() : Set.copyOf(EnumSet.copyOf(roles));
+    }
+
+    public static UserSnapshot of(User user) {
+        return new UserSnapshot(
+            user.getId(),
+            user.getUsername(),
+            user.getEmail(),
+            user.getFirstName(),
+            user.getLastName(),
+            Boolean.TRUE.equals(user.getIsActive()),
+            Boolean.TRUE.equals(user.getEmailVerified()),
+            user.getRoles(),
+            user.getCreatedAt(),
+            user.getLastLogin());
+    }
+}
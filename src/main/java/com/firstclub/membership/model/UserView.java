@@ -0,0 +1,111 @@
+package com.firstclub.membership.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.firstclub.membership.model.User.UserRole;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * The subset of a user's fields a list endpoint was asked for
+ *
+ * Built from a projection query that selected only those columns (or from an
+ * index snapshot), never from a loaded entity. Components outside
+ * {@link #fields()} are null or hold internal values such as a keyset sort
+ * key; only the listed fields are serialized, in {@link UserField} order.
+ * Views of one listing share a single field set instance.
+ */
+@JsonSerialize(using = UserView.Serializer.class)
+public record UserView(
+        Set<UserField> fields,
+        Long id,
+        String username,
+        String email,
+        String firstName,
+        String lastName,
+        String phoneNumber,
+        LocalDateTime dateOfBirth,
+        Set<UserRole> roles,
+        Boolean isActive,
+        Boolean emailVerified,
+        LocalDateTime createdAt,
+        LocalDateTime lastLogin,
+        LocalDateTime updatedAt) {
+
+    /**
+     * Builds a view from per-field values; roles may be given as a role mask
+     */
+    public static UserView of(Set<UserField> fields, Function<UserField, Object> values) {
+        Object roles = values.apply(UserField.ROLES);
+        return new UserView(
+            fields,
+            (Long) values.apply(UserField.ID),
+            (String) values.apply(UserField.USERNAME),
+            (String) values.apply(UserField.EMAIL),
+            (String) values.apply(UserField.FIRST_NAME),
+            (String) values.apply(UserField.LAST_NAME),
+            (String) values.apply(UserField.PHONE_NUMBER),
+            (LocalDateTime) values.apply(UserField.DATE_OF_BIRTH),
+            roles instanceof Integer mask ? UserRole.fromMask(mask) : castRoles(roles),
+            (Boolean) values.apply(UserField.IS_ACTIVE),
+            (Boolean) values.apply(UserField.EMAIL_VERIFIED),
+            (LocalDateTime) values.apply(UserField.CREATED_AT),
+            (LocalDateTime) values.apply(UserField.LAST_LOGIN),
+            (LocalDateTime) values.apply(UserField.UPDATED_AT));
+    }
+
+    /**
+     * Views an index snapshot; every field in {@code fields} must be {@link UserField#inSnapshot()}
+     */
+    public static UserView of(UserSnapshot user, Set<UserField> fields) {
+        return new UserView(fields, user.id(), user.username(), user.email(), user.firstName(), user.lastName(),
+            null, null, user.roles(), user.isActive(), user.emailVerified(), user.createdAt(), user.lastLogin(), null);
+    }
+
+    public Object get(UserField field) {
+        return switch (field) {
+            case ID -> id;
+            case USERNAME -> username;
+            case EMAIL -> email;
+            case FIRST_NAME -> firstName;
+            case LAST_NAME -> lastName;
+            case PHONE_NUMBER -> phoneNumber;
+            case DATE_OF_BIRTH -> dateOfBirth;
+            case ROLES -> roles;
+            case IS_ACTIVE -> isActive;
+            case EMAIL_VERIFIED -> emailVerified;
+            case CREATED_AT -> createdAt;
+            case LAST_LOGIN -> lastLogin;
+            case UPDATED_AT -> updatedAt;
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Set<UserRole> castRoles(Object roles) {
+        return (Set<UserRole>) roles;
+    }
+
+    /**
+     * Writes the requested fields only, nulls included (lastLogin is null until the first login)
+     */
+    public static class Serializer extends StdSerializer<UserView> {
+
+        public Serializer() {
+            super(UserView.class);
+        }
+
+        @Override
+        public void serialize(UserView view, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(view);
+            for (UserField field : view.fields()) {
+                provider.defaultSerializeField(field.jsonName(), view.get(field), gen);
+            }
+            gen.writeEndObject();
+        }
+    }
+}
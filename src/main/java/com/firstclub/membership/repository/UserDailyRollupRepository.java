@@ -0,0 +1,21 @@
+package com.firstclub.membership.repository;
+
+import com.firstclub.membership.model.UserDailyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Repository interface for reading daily user growth rollups
+ */
+@Repository
+public interface UserDailyRollupRepository extends JpaRepository<UserDailyRollup, UserDailyRollup.Key> {
+
+    // Primary key range scan: one row per day in [from, to]
+    @Query("SELECT r FROM UserDailyRollup r WHERE r.id.role = :role AND r.id.day BETWEEN :from AND :to ORDER BY r.id.day")
+    List<UserDailyRollup> findRange(@Param("role") String role, @Param("from") LocalDate from, @Param("to") LocalDate to);
+}
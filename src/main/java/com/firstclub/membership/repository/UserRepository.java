@@ -2,14 +2,18 @@ package com.firstclub.membership.repository;
 
 import com.firstclub.membership.model.User;
 import com.firstclub.membership.model.User.UserRole;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -20,19 +24,24 @@ import java.util.Optional;
  * authentication, and role-based queries.
  */
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserRepositoryCustom {
 
     // Basic user queries
     Optional<User> findByUsername(String username);
     
+    @QueryHints({
+        @QueryHint(name = "org.hibernate.cacheable", value = "true"),
+        @QueryHint(name = "org.hibernate.cacheRegion", value = User.EMAIL_QUERY_CACHE_REGION)
+    })
     Optional<User> findByEmail(String email);
     
-    Optional<User> findByUsernameOrEmail(String username, String email);
-    
     boolean existsByUsername(String username);
     
     boolean existsByEmail(String email);
 
+    // Typeahead fallback while the in-memory prefix index is loading
+    List<User> findTop50ByUsernameStartingWithIgnoreCaseOrderByUsernameAsc(String prefix);
+
     // Active user queries
     List<User> findByIsActiveTrue();
     
@@ -40,22 +49,33 @@ public interface UserRepository extends JpaRepository<User, Long> {
     
     List<User> findByIsActiveFalse();
 
-    // Role-based queries
-    @Query("SELECT u FROM User u JOIN u.roles r WHERE r = :role")
-    List<User> findByRole(@Param("role") UserRole role);
+    // Role-based queries: "has any of these role bits", expanded to the matching masks
+    @Query("SELECT u FROM User u WHERE u.roleMask IN :masks")
+    List<User> findByRoleMaskIn(@Param("masks") Collection<Integer> masks);
+
+    @Query("SELECT u FROM User u WHERE u.roleMask IN :masks AND u.isActive = true")
+    List<User> findByRoleMaskInAndIsActiveTrue(@Param("masks") Collection<Integer> masks);
+
+    default List<User> findByRole(UserRole role) {
+        return findByRoleMaskIn(UserRole.masksContainingAny(List.of(role)));
+    }
     
-    @Query("SELECT u FROM User u JOIN u.roles r WHERE r = :role AND u.isActive = true")
-    List<User> findByRoleAndIsActiveTrue(@Param("role") UserRole role);
+    default List<User> findByRoleAndIsActiveTrue(UserRole role) {
+        return findByRoleMaskInAndIsActiveTrue(UserRole.masksContainingAny(List.of(role)));
+    }
     
-    @Query("SELECT u FROM User u JOIN u.roles r WHERE r IN :roles")
-    List<User> findByRolesIn(@Param("roles") List<UserRole> roles);
+    default List<User> findByRolesIn(List<UserRole> roles) {
+        return findByRoleMaskIn(UserRole.masksContainingAny(roles));
+    }
 
     // Admin queries
-    @Query("SELECT u FROM User u JOIN u.roles r WHERE r IN ('ADMIN', 'SUPER_ADMIN')")
-    List<User> findAllAdmins();
+    default List<User> findAllAdmins() {
+        return findByRoleMaskIn(UserRole.masksContainingAny(UserRole.ADMIN_ROLES));
+    }
     
-    @Query("SELECT u FROM User u JOIN u.roles r WHERE r IN ('ADMIN', 'SUPER_ADMIN') AND u.isActive = true")
-    List<User> findActiveAdmins();
+    default List<User> findActiveAdmins() {
+        return findByRoleMaskInAndIsActiveTrue(UserRole.masksContainingAny(UserRole.ADMIN_ROLES));
+    }
 
     // Search queries
     @Query("SELECT u FROM User u WHERE " +
@@ -87,13 +107,33 @@ public interface UserRepository extends JpaRepository<User, Long> {
     @Query("SELECT COUNT(u) FROM User u WHERE u.isActive = true")
     long countActiveUsers();
     
-    @Query("SELECT COUNT(u) FROM User u JOIN u.roles r WHERE r = :role")
-    long countByRole(@Param("role") UserRole role);
+    @Query("SELECT COUNT(u) FROM User u WHERE u.roleMask IN :masks")
+    long countByRoleMaskIn(@Param("masks") Collection<Integer> masks);
+
+    default long countByRole(UserRole role) {
+        return countByRoleMaskIn(UserRole.masksContainingAny(List.of(role)));
+    }
     
     @Query("SELECT COUNT(u) FROM User u WHERE u.createdAt >= :date")
     long countUsersCreatedAfter(@Param("date") LocalDateTime date);
 
+    // Password updates (compare-and-set against the hash that was verified)
+    @Modifying
+    @Query("UPDATE User u SET u.password = :newPassword, u.updatedAt = :updatedAt " +
+           "WHERE u.id = :id AND u.password = :expectedPassword")
+    int updatePassword(@Param("id") Long id,
+                       @Param("expectedPassword") String expectedPassword,
+                       @Param("newPassword") String newPassword,
+                       @Param("updatedAt") LocalDateTime updatedAt);
+
+    @Modifying
+    @Query("UPDATE User u SET u.password = :newPassword WHERE u.id = :id AND u.password = :expectedPassword")
+    int rehashPassword(@Param("id") Long id,
+                       @Param("expectedPassword") String expectedPassword,
+                       @Param("newPassword") String newPassword);
+
     // Custom update queries (handled in service layer)
+    // last_login is written behind by LastLoginWriteBehindBuffer and may lag by one flush interval
     @Query("SELECT u FROM User u WHERE u.isActive = true AND u.lastLogin < :cutoffDate")
     List<User> findInactiveUsers(@Param("cutoffDate") LocalDateTime cutoffDate);
 }
@@ -0,0 +1,66 @@
+package com.firstclub.membership.repository;
+
+import com.firstclub.membership.model.User;
+import com.firstclub.membership.model.UserField;
+import com.firstclub.membership.model.UserView;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Cache-aware lookups, keyset-paginated listings and column projections that
+ * Spring Data cannot derive
+ *
+ * The keyset methods return at most {@code limit} rows strictly after the
+ * given (sort key, id) position, or from the start when the key is null.
+ * They never issue a count query and never use OFFSET.
+ */
+public interface UserRepositoryCustom {
+
+    /**
+     * Finds a user by username through the natural-id and entity caches
+     */
+    Optional<User> findByUsernameCached(String username);
+
+    /**
+     * Evicts cached users whose rows were changed with plain JDBC
+     */
+    void evictCachedUsers(Collection<Long> userIds);
+
+    /**
+     * Evicts cached email lookups after users were inserted with plain JDBC
+     */
+    void evictEmailLookups();
+
+    /**
+     * Users matching {@code filter} in the given order, as views
+     *
+     * Only the columns behind {@code fields} (and the id) are selected: no
+     * entity is loaded, and the role mask is read only when roles are asked
+     * for.
+     */
+    List<UserView> findViews(Specification<User> filter, Set<UserField> fields, Sort sort);
+
+    /**
+     * One window of {@link #findViews(Specification, Set, Sort)}, for offset pages and slices
+     */
+    List<UserView> findViews(Specification<User> filter, Set<UserField> fields, Sort sort, long offset, int limit);
+
+    /**
+     * Keyset version of {@link #findViews(Specification, Set, Sort)}, ordered by {@code sortAttribute} then id
+     *
+     * The sort key is always selected, so the last view can be turned into
+     * the next cursor even when the key is not one of {@code fields}.
+     */
+    List<UserView> findViewsAfter(Specification<User> filter, Set<UserField> fields, String sortAttribute,
+                                  boolean ascending, Comparable<?> afterKey, Long afterId, int limit);
+
+    /**
+     * Counts the users matching {@code filter}, for page totals
+     */
+    long countMatching(Specification<User> filter);
+}
@@ -0,0 +1,170 @@
+package com.firstclub.membership.repository;
+
+import com.firstclub.membership.model.User;
+import com.firstclub.membership.model.UserField;
+import com.firstclub.membership.model.UserView;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Implementation of {@link UserRepositoryCustom}, picked up by Spring Data by name
+ */
+public class UserRepositoryImpl implements UserRepositoryCustom {
+
+    private static final int NO_LIMIT = -1;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<User> findByUsernameCached(String username) {
+        return entityManager.unwrap(Session.class)
+            .bySimpleNaturalId(User.class)
+            .loadOptional(username);
+    }
+
+    @Override
+    public void evictCachedUsers(Collection<Long> userIds) {
+        org.hibernate.Cache cache = sessionFactory().getCache();
+        for (Long userId : userIds) {
+            cache.evictEntityData(User.class, userId);
+        }
+    }
+
+    @Override
+    public void evictEmailLookups() {
+        sessionFactory().getCache().evictQueryRegion(User.EMAIL_QUERY_CACHE_REGION);
+    }
+
+    @Override
+    public List<UserView> findViews(Specification<User> filter, Set<UserField> fields, Sort sort) {
+        return findViews(filter, fields, sort, 0, NO_LIMIT);
+    }
+
+    @Override
+    public List<UserView> findViews(Specification<User> filter, Set<UserField> fields, Sort sort, long offset, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> criteria = cb.createTupleQuery();
+        Root<User> user = criteria.from(User.class);
+        Set<UserField> selected = select(criteria, user, fields, Set.of());
+        criteria.where(filter.toPredicate(user, criteria, cb));
+        if (sort.isSorted()) {
+            criteria.orderBy(QueryUtils.toOrders(sort, user, cb));
+        }
+
+        TypedQuery<Tuple> query = entityManager.createQuery(criteria);
+        if (offset > 0) {
+            query.setFirstResult(Math.toIntExact(offset));
+        }
+        if (limit != NO_LIMIT) {
+            query.setMaxResults(limit);
+        }
+        return toViews(query.getResultList(), selected, fields);
+    }
+
+    @Override
+    public List<UserView> findViewsAfter(Specification<User> filter, Set<UserField> fields, String sortAttribute,
+                                         boolean ascending, Comparable<?> afterKey, Long afterId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> criteria = cb.createTupleQuery();
+        Root<User> user = criteria.from(User.class);
+        Set<UserField> selected = select(criteria, user, fields, Set.of(UserField.ofAttribute(sortAttribute)));
+        keysetWindow(criteria, user, filter, sortAttribute, ascending, afterKey, afterId);
+        return toViews(entityManager.createQuery(criteria).setMaxResults(limit).getResultList(), selected, fields);
+    }
+
+    @Override
+    public long countMatching(Specification<User> filter) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> criteria = cb.createQuery(Long.class);
+        Root<User> user = criteria.from(User.class);
+        criteria.select(cb.count(user)).where(filter.toPredicate(user, criteria, cb));
+        return entityManager.createQuery(criteria).getSingleResult();
+    }
+
+    // Helper Methods
+
+    /**
+     * Adds "WHERE filter AND (key, id) > (afterKey, afterId) ORDER BY key, id" (or the
+     * descending equivalent) to the query, spelled out as OR/AND for portability
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private void keysetWindow(CriteriaQuery<?> query, Root<User> user, Specification<User> filter,
+                              String sortAttribute, boolean ascending, Comparable afterKey, Long afterId) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        Expression<Comparable> key = user.get(sortAttribute);
+        Expression<Long> id = user.get("id");
+        boolean sortById = "id".equals(sortAttribute);
+
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(filter.toPredicate(user, query, cb));
+        if (afterKey != null) {
+            Predicate idAfter = ascending ? cb.greaterThan(id, afterId) : cb.lessThan(id, afterId);
+            if (sortById) {
+                predicates.add(idAfter);
+            } else {
+                // Implied by the OR, but without it the index range starts at the first row, not at the cursor
+                predicates.add(ascending ? cb.greaterThanOrEqualTo(key, afterKey) : cb.lessThanOrEqualTo(key, afterKey));
+                predicates.add(cb.or(
+                    ascending ? cb.greaterThan(key, afterKey) : cb.lessThan(key, afterKey),
+                    cb.and(cb.equal(key, afterKey), idAfter)));
+            }
+        }
+        query.where(predicates.toArray(Predicate[]::new));
+        if (sortById) {
+            query.orderBy(ascending ? cb.asc(id) : cb.desc(id));
+        } else {
+            query.orderBy(ascending ? cb.asc(key) : cb.desc(key), ascending ? cb.asc(id) : cb.desc(id));
+        }
+    }
+
+    /**
+     * Selects the columns behind {@code fields}, the id and any {@code internal} fields, aliased by field name
+     */
+    private static Set<UserField> select(CriteriaQuery<Tuple> query, Root<User> user, Set<UserField> fields,
+                                         Set<UserField> internal) {
+        EnumSet<UserField> selected = EnumSet.of(UserField.ID);
+        selected.addAll(fields);
+        selected.addAll(internal);
+        query.multiselect(selected.stream()
+            .<Selection<?>>map(field -> user.get(field.attribute()).alias(field.name()))
+            .toList());
+        return selected;
+    }
+
+    private static List<UserView> toViews(List<Tuple> rows, Set<UserField> selected, Set<UserField> fields) {
+        List<UserView> views = new ArrayList<>(rows.size());
+        for (Tuple row : rows) {
+            views.add(toView(row, selected, fields));
+        }
+        return views;
+    }
+
+    private static UserView toView(Tuple row, Set<UserField> selected, Set<UserField> fields) {
+        return UserView.of(fields, field -> selected.contains(field) ? row.get(field.name()) : null);
+    }
+
+    private SessionFactory sessionFactory() {
+        return entityManager.getEntityManagerFactory().unwrap(SessionFactory.class);
+    }
+}
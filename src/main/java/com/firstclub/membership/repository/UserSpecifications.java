@@ -0,0 +1,86 @@
+package com.firstclub.membership.repository;
+
+import com.firstclub.membership.model.User;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Locale;
+
+/**
+ * The user filters behind the listings, shared by entity and projection queries
+ */
+public final class UserSpecifications {
+
+    private UserSpecifications() {
+    }
+
+    /**
+     * Every user, for unfiltered exports
+     */
+    public static Specification<User> all() {
+        return (user, query, cb) -> cb.conjunction();
+    }
+
+    public static Specification<User> isActive() {
+        return (user, query, cb) -> cb.isTrue(user.get("isActive"));
+    }
+
+    public static Specification<User> activeIs(boolean active) {
+        return (user, query, cb) -> cb.equal(user.get("isActive"), active);
+    }
+
+    /**
+     * Any of first name, last name, username or email contains the query, ignoring case
+     */
+    public static Specification<User> matching(String query) {
+        String pattern = "%" + query.toLowerCase(Locale.ROOT) + "%";
+        return (user, criteria, cb) -> cb.or(
+            cb.like(cb.lower(user.get("firstName")), pattern),
+            cb.like(cb.lower(user.get("lastName")), pattern),
+            cb.like(cb.lower(user.get("username")), pattern),
+            cb.like(cb.lower(user.get("email")), pattern));
+    }
+
+    /**
+     * Role mask is one of {@code masks}; see {@link User.UserRole#masksContainingAny}
+     */
+    public static Specification<User> roleMaskIn(Collection<Integer> masks) {
+        return (user, query, cb) -> user.get("roleMask").in(masks);
+    }
+
+    /**
+     * Active users whose last login is before the cutoff
+     */
+    public static Specification<User> inactiveSince(LocalDateTime cutoffDate) {
+        return (user, query, cb) -> cb.and(
+            cb.isTrue(user.get("isActive")),
+            cb.lessThan(user.get("lastLogin"), cutoffDate));
+    }
+
+    /**
+     * Created at or after {@code from} (inclusive)
+     */
+    public static Specification<User> createdFrom(LocalDateTime from) {
+        return (user, query, cb) -> cb.greaterThanOrEqualTo(user.get("createdAt"), from);
+    }
+
+    /**
+     * Created before {@code to} (exclusive)
+     */
+    public static Specification<User> createdBefore(LocalDateTime to) {
+        return (user, query, cb) -> cb.lessThan(user.get("createdAt"), to);
+    }
+
+    public static Specification<User> idIn(Collection<Long> ids) {
+        return (user, query, cb) -> user.get("id").in(ids);
+    }
+
+    public static Specification<User> idNotIn(Collection<Long> ids) {
+        return (user, query, cb) -> cb.not(user.get("id").in(ids));
+    }
+
+    public static Specification<User> idAfter(Long id) {
+        return (user, query, cb) -> cb.greaterThan(user.get("id"), id);
+    }
+}
@@ -0,0 +1,58 @@
+package com.firstclub.membership.security;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * BCrypt encoder whose work factor is chosen at startup by calibration
+ *
+ * New hashes always use the calibrated strength. Existing hashes of any
+ * strength still verify, and {@link #upgradeEncoding(String)} flags every
+ * hash whose strength differs from the calibrated one (higher or lower) so
+ * callers can transparently rehash it after a successful login.
+ */
+public class AdaptiveBCryptPasswordEncoder implements PasswordEncoder {
+
+    private static final Pattern BCRYPT_PATTERN = Pattern.compile("^\\$2[aby]?\\$(\\d\\d)\\$[./0-9A-Za-z]{53}$");
+
+    private final BCryptPasswordEncoder delegate;
+    private final PasswordWorkFactorCalibrator.CalibrationResult calibration;
+
+    public AdaptiveBCryptPasswordEncoder(PasswordWorkFactorCalibrator.CalibrationResult calibration) {
+        this.delegate = new BCryptPasswordEncoder(calibration.strength());
+        this.calibration = calibration;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return delegate.encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return delegate.matches(rawPassword, encodedPassword);
+    }
+
+    /**
+     * Returns true when the stored hash was produced with a different strength
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_PATTERN.matcher(encodedPassword);
+        return matcher.matches() && Integer.parseInt(matcher.group(1)) != calibration.strength();
+    }
+
+    public int getStrength() {
+        return calibration.strength();
+    }
+
+    public PasswordWorkFactorCalibrator.CalibrationResult getCalibration() {
+        return calibration;
+    }
+}
@@ -0,0 +1,97 @@
+package com.firstclub.membership.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+
+import java.time.Instant;
+import java.util.Arrays;
+
+/**
+ * Picks the BCrypt work factor that best matches a target hashing latency
+ *
+ * Each extra BCrypt round doubles the cost, so the calibrator measures the
+ * median latency at the minimum strength, extrapolates to the strength whose
+ * latency is closest to the target, then measures that strength and corrects
+ * by one step if the estimate was off by more than a factor of two.
+ */
+public final class PasswordWorkFactorCalibrator {
+
+    private static final Logger log = LoggerFactory.getLogger(PasswordWorkFactorCalibrator.class);
+
+    private static final String PROBE_PASSWORD = "calibration-probe-password";
+
+    private PasswordWorkFactorCalibrator() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    /**
+     * Calibrates the work factor for this machine
+     *
+     * @param targetMillis desired median hashing latency
+     * @param minStrength lowest strength ever chosen, regardless of hardware speed
+     * @param maxStrength highest strength ever chosen
+     * @param samples number of hashes measured per strength
+     */
+    public static CalibrationResult calibrate(long targetMillis, int minStrength, int maxStrength, int samples) {
+        long started = System.nanoTime();
+
+        // Warm up the JIT so the first sample is not dominated by interpretation
+        measureMedianMillis(minStrength, 1);
+        double baseMillis = measureMedianMillis(minStrength, samples);
+
+        int strength = clamp(minStrength + (int) Math.round(log2(targetMillis / Math.max(baseMillis, 0.01))),
+                minStrength, maxStrength);
+        double measuredMillis = strength == minStrength ? baseMillis : measureMedianMillis(strength, samples);
+
+        if (measuredMillis > targetMillis * 2 && strength > minStrength) {
+            strength--;
+            measuredMillis = measureMedianMillis(strength, samples);
+        } else if (measuredMillis * 2 < targetMillis && strength < maxStrength) {
+            strength++;
+            measuredMillis = measureMedianMillis(strength, samples);
+        }
+
+        CalibrationResult result = new CalibrationResult(true, strength, measuredMillis, targetMillis,
+                minStrength, maxStrength, samples, (System.nanoTime() - started) / 1_000_000, Instant.now());
+        log.info("Calibrated BCrypt strength {} (p50 {} ms, target {} ms, calibration took {} ms)",
+                strength, Math.round(measuredMillis), targetMillis, result.calibrationMillis());
+        return result;
+    }
+
+    /**
+     * Result used when calibration is disabled and a fixed strength is configured
+     */
+    public static CalibrationResult fixed(int strength) {
+        return new CalibrationResult(false, strength, -1, -1, strength, strength, 0, 0, Instant.now());
+    }
+
+    // Helper Methods
+
+    private static double measureMedianMillis(int strength, int samples) {
+        double[] millis = new double[samples];
+        for (int i = 0; i < samples; i++) {
+            String salt = BCrypt.gensalt(strength);
+            long start = System.nanoTime();
+            BCrypt.hashpw(PROBE_PASSWORD, salt);
+            millis[i] = (System.nanoTime() - start) / 1_000_000.0;
+        }
+        Arrays.sort(millis);
+        return millis[samples / 2];
+    }
+
+    private static double log2(double value) {
+        return Math.log(value) / Math.log(2);
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    /**
+     * Outcome of a calibration run, reported through actuator
+     */
+    public record CalibrationResult(boolean calibrated, int strength, double measuredP50Millis,
+                                    long targetMillis, int minStrength, int maxStrength, int samples,
+                                    long calibrationMillis, Instant calibratedAt) {}
+}
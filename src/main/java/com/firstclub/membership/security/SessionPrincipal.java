@@ -0,0 +1,28 @@
+package com.firstclub.membership.security;
+
+import com.firstclub.membership.model.User.UserRole;
+
+import java.time.Instant;
+import java.util.Set;
+
+/**
+ * Authenticated caller resolved from a session token
+ *
+ * Everything needed to authorize a request is carried in the token itself,
+ * so resolving a principal never touches the database or the password hasher.
+ */
+public record SessionPrincipal(Long userId, String username, Set<UserRole> roles, Instant expiresAt) {
+
+    /**
+     * Request attribute under which the verified principal is stored
+     */
+    public static final String REQUEST_ATTRIBUTE = "com.firstclub.membership.security.SessionPrincipal";
+
+    public boolean hasRole(UserRole role) {
+        return roles.contains(role);
+    }
+
+    public boolean isAdmin() {
+        return roles.contains(UserRole.ADMIN) || roles.contains(UserRole.SUPER_ADMIN);
+    }
+}
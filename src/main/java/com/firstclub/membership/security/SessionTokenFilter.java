@@ -0,0 +1,53 @@
+package com.firstclub.membership.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * Filter that resolves the caller from a {@code Bearer} session token
+ *
+ * Requests without a token pass through untouched. Requests with a valid
+ * token get a {@link SessionPrincipal} request attribute; requests with an
+ * invalid or expired token are rejected with 401 so clients know to log in
+ * again rather than silently being treated as anonymous.
+ */
+@Component
+public class SessionTokenFilter extends OncePerRequestFilter {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    @Autowired
+    private SessionTokenService sessionTokenService;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+
+        if (header != null && header.startsWith(BEARER_PREFIX)) {
+            Optional<SessionPrincipal> principal =
+                sessionTokenService.verify(header.substring(BEARER_PREFIX.length()).trim());
+
+            if (principal.isEmpty()) {
+                response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+                response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer error=\"invalid_token\"");
+                response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+                response.getWriter().write("{\"success\":false,\"message\":\"Invalid or expired session token\"}");
+                return;
+            }
+            request.setAttribute(SessionPrincipal.REQUEST_ATTRIBUTE, principal.get());
+        }
+
+        filterChain.doFilter(request, response);
+    }
+}
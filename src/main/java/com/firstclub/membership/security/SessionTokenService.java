@@ -0,0 +1,171 @@
+package com.firstclub.membership.security;
+
+import com.firstclub.membership.model.User;
+import com.firstclub.membership.model.User.UserRole;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.EnumSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Service for minting and verifying stateless session tokens
+ *
+ * Tokens have the form {@code v1.<payload>.<signature>} where both parts are
+ * base64url encoded. The payload is a small binary record (user id, username,
+ * roles, expiry) and the signature is an HMAC-SHA256 over the version and
+ * payload. Verification is a single HMAC, typically a few microseconds.
+ */
+@Service
+public class SessionTokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(SessionTokenService.class);
+
+    private static final String VERSION = "v1";
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    @Value("${membership.security.token.secret:}")
+    private String secret;
+
+    @Value("${membership.security.token.ttl-seconds:3600}")
+    private long ttlSeconds;
+
+    private final Clock clock;
+    private SecretKeySpec key;
+    private final ThreadLocal<Mac> macs = ThreadLocal.withInitial(this::newMac);
+
+    /**
+     * @param clock source of issue and expiry times (see SecurityConfig)
+     */
+    public SessionTokenService(Clock clock) {
+        this.clock = clock;
+    }
+
+    @PostConstruct
+    void init() {
+        byte[] keyBytes;
+        if (secret == null || secret.isBlank()) {
+            keyBytes = new byte[32];
+            new SecureRandom().nextBytes(keyBytes);
+            log.warn("No membership.security.token.secret configured - using a random key; " +
+                     "session tokens will not survive restarts or work across nodes");
+        } else {
+            keyBytes = Base64.getDecoder().decode(secret);
+            if (keyBytes.length < 32) {
+                throw new IllegalStateException("membership.security.token.secret must be at least 256 bits");
+            }
+        }
+        key = new SecretKeySpec(keyBytes, ALGORITHM);
+    }
+
+    /**
+     * Issues a signed token for an authenticated user
+     */
+    public IssuedToken issue(User user) {
+        Instant expiresAt = clock.instant().plusSeconds(ttlSeconds);
+        String payload = ENCODER.encodeToString(encodePayload(user, expiresAt));
+        String signed = VERSION + "." + payload;
+        return new IssuedToken(signed + "." + ENCODER.encodeToString(sign(signed)), expiresAt);
+    }
+
+    /**
+     * Verifies a token and resolves its principal without any database access
+     *
+     * @return the principal, or empty if the token is malformed, forged or expired
+     */
+    public Optional<SessionPrincipal> verify(String token) {
+        int first = token.indexOf('.');
+        int last = token.lastIndexOf('.');
+        if (first < 0 || first == last || !VERSION.equals(token.substring(0, first))) {
+            return Optional.empty();
+        }
+
+        try {
+            String signed = token.substring(0, last);
+            byte[] signature = DECODER.decode(token.substring(last + 1));
+            if (!MessageDigest.isEqual(sign(signed), signature)) {
+                return Optional.empty();
+            }
+
+            SessionPrincipal principal = decodePayload(DECODER.decode(token.substring(first + 1, last)));
+            if (!principal.expiresAt().isAfter(clock.instant())) {
+                return Optional.empty();
+            }
+            return Optional.of(principal);
+        } catch (IllegalArgumentException | IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    // Helper Methods
+
+    private byte[] sign(String value) {
+        return macs.get().doFinal(value.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to initialise " + ALGORITHM, e);
+        }
+    }
+
+    private static byte[] encodePayload(User user, Instant expiresAt) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeLong(user.getId());
+            out.writeUTF(user.getUsername());
+            out.writeUTF(user.getRoles().stream().map(Enum::name).collect(Collectors.joining(",")));
+            out.writeLong(expiresAt.getEpochSecond());
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to encode session token", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static SessionPrincipal decodePayload(byte[] payload) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            long userId = in.readLong();
+            String username = in.readUTF();
+            String roleNames = in.readUTF();
+            Instant expiresAt = Instant.ofEpochSecond(in.readLong());
+
+            Set<UserRole> roles = EnumSet.noneOf(UserRole.class);
+            for (String role : roleNames.split(",")) {
+                if (!role.isEmpty()) {
+                    roles.add(UserRole.valueOf(role));
+                }
+            }
+            return new SessionPrincipal(userId, username, Set.copyOf(roles), expiresAt);
+        }
+    }
+
+    /**
+     * A freshly minted token together with its expiry
+     */
+    public record IssuedToken(String token, Instant expiresAt) {}
+}
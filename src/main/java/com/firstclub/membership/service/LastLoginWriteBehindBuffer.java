@@ -0,0 +1,198 @@
+package com.firstclub.membership.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import com.firstclub.membership.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind buffer that coalesces last-login updates
+ *
+ * Logins record the latest timestamp per user in memory instead of issuing
+ * a full-row UPDATE on the request path. Pending timestamps are flushed as a
+ * single batched JDBC update on a short interval, as soon as the buffer
+ * reaches its size threshold, and once more on shutdown. Readers that need
+ * fresh values can overlay {@link #getPendingLastLogin(Long)} on what the
+ * database returns, so staleness is bounded by the flush interval.
+ */
+@Component
+public class LastLoginWriteBehindBuffer {
+
+    private static final Logger log = LoggerFactory.getLogger(LastLoginWriteBehindBuffer.class);
+
+    private static final String UPDATE_SQL =
+        "UPDATE users SET last_login = ? WHERE id = ? AND (last_login IS NULL OR last_login < ?)";
+
+    private final Map<Long, LocalDateTime> pending = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    // Timestamps drained from the buffer whose batch has not committed yet
+    private volatile Map<Long, LocalDateTime> inFlight = Map.of();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private TaskExecutor taskExecutor;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${membership.users.last-login.flush-threshold:500}")
+    private int flushThreshold;
+
+    private Counter flushedCounter;
+
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("membership.users.last-login.pending", pending, Map::size)
+            .description("Last-login updates waiting to be flushed")
+            .register(meterRegistry);
+        flushedCounter = Counter.builder("membership.users.last-login.flushed")
+            .description("Last-login updates written to the database")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Records a login, keeping only the most recent timestamp per user
+     */
+    public void recordLogin(Long userId, LocalDateTime loginTime) {
+        pending.merge(userId, loginTime, (current, candidate) -> candidate.isAfter(current) ? candidate : current);
+
+        if (pending.size() >= flushThreshold && flushScheduled.compareAndSet(false, true)) {
+            taskExecutor.execute(() -> {
+                flushScheduled.set(false);
+                flush();
+            });
+        }
+    }
+
+    /**
+     * Returns a login that has been recorded but not yet written to the database
+     */
+    public Optional<LocalDateTime> getPendingLastLogin(Long userId) {
+        LocalDateTime loginTime = pending.get(userId);
+        return Optional.ofNullable(loginTime != null ? loginTime : inFlight.get(userId));
+    }
+
+    /**
+     * Users with a login at or after {@code since} that has not been written to the database yet
+     */
+    public Set<Long> getPendingLoginsSince(LocalDateTime since) {
+        Set<Long> userIds = new HashSet<>();
+        for (Map<Long, LocalDateTime> logins : List.of(pending, inFlight)) {
+            logins.forEach((userId, loginTime) -> {
+                if (!loginTime.isBefore(since)) {
+                    userIds.add(userId);
+                }
+            });
+        }
+        return userIds;
+    }
+
+    /**
+     * Writes all pending timestamps in one batched update
+     */
+    @Scheduled(fixedDelayString = "${membership.users.last-login.flush-interval-ms:1000}")
+    public void flush() {
+        if (pending.isEmpty() || !flushLock.tryLock()) {
+            return;
+        }
+        try {
+            writePending();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flushLock.lock();
+        try {
+            writePending();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // Helper Methods
+
+    private void writePending() {
+        List<Map.Entry<Long, LocalDateTime>> batch = drain();
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> args = new ArrayList<>(batch.size());
+        for (Map.Entry<Long, LocalDateTime> entry : batch) {
+            Timestamp loginTime = Timestamp.valueOf(entry.getValue());
+            args.add(new Object[] { loginTime, entry.getKey(), loginTime });
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(UPDATE_SQL, args));
+            // The update bypasses Hibernate, so drop the cached copies it made stale
+            userRepository.evictCachedUsers(batch.stream().map(Map.Entry::getKey).toList());
+            flushedCounter.increment(batch.size());
+            log.debug("Flushed {} last-login updates", batch.size());
+        } catch (RuntimeException e) {
+            // Put the timestamps back so the next flush retries them
+            batch.forEach(entry -> recordLogin(entry.getKey(), entry.getValue()));
+            log.warn("Failed to flush {} last-login updates, will retry: {}", batch.size(), e.getMessage());
+        } finally {
+            inFlight = Map.of();
+        }
+    }
+
+    private List<Map.Entry<Long, LocalDateTime>> drain() {
+        List<Map.Entry<Long, LocalDateTime>> batch = new ArrayList<>(pending.size());
+        // Published before anything leaves pending, and each entry added before it is removed there,
+        // so a concurrent reader always finds an unwritten login in one map or the other
+        Map<Long, LocalDateTime> drained = new ConcurrentHashMap<>();
+        inFlight = drained;
+        for (Map.Entry<Long, LocalDateTime> entry : pending.entrySet()) {
+            Long userId = entry.getKey();
+            LocalDateTime loginTime = entry.getValue();
+            drained.put(userId, loginTime);
+            // Only take the value we read; a newer login stays pending for the next flush
+            if (pending.remove(userId, loginTime)) {
+                batch.add(Map.entry(userId, loginTime));
+            } else {
+                drained.remove(userId, loginTime);
+            }
+        }
+        return batch;
+    }
+}
@@ -0,0 +1,382 @@
+package com.firstclub.membership.service;
+
+import com.firstclub.membership.model.MembershipPlan.PlanType;
+import com.firstclub.membership.model.MembershipPlanSnapshot;
+import com.firstclub.membership.model.MembershipTier.TierLevel;
+import com.firstclub.membership.model.MembershipTierSnapshot;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Immutable, indexed snapshot of the membership plan and tier catalog
+ *
+ * Built once from the repositories and replaced as a whole, so readers never
+ * see a half-updated catalog and need no locking. Answers the same questions
+ * as the MembershipPlanRepository/MembershipTierRepository queries:
+ * - Point lookups through id, name, plan type, tier level and cohort maps
+ * - Price, duration and discount range queries through binary search over
+ *   active entries pre-sorted by that field
+ * - Aggregates (count, average, min, max, per-type counts) computed at build time
+ */
+public final class MembershipCatalog {
+
+    private static final Comparator<MembershipPlanSnapshot> PLAN_BY_ID = Comparator.comparing(MembershipPlanSnapshot::id);
+    private static final Comparator<MembershipTierSnapshot> TIER_BY_ID = Comparator.comparing(MembershipTierSnapshot::id);
+
+    private static final Map<String, Comparator<MembershipPlanSnapshot>> PLAN_SORTS = Map.of(
+        "id", PLAN_BY_ID,
+        "name", Comparator.comparing(MembershipPlanSnapshot::name),
+        "planType", Comparator.comparing(MembershipPlanSnapshot::planType),
+        "durationMonths", Comparator.comparingInt(MembershipPlanSnapshot::durationMonths),
+        "price", Comparator.comparing(MembershipPlanSnapshot::price));
+
+    private static final Map<String, Comparator<MembershipTierSnapshot>> TIER_SORTS = Map.of(
+        "id", TIER_BY_ID,
+        "name", Comparator.comparing(MembershipTierSnapshot::name),
+        "level", Comparator.comparing(tier -> tier.level().getPriority()),
+        "minOrdersRequired", Comparator.comparingInt(MembershipTierSnapshot::minOrdersRequired),
+        "minOrderValueMonthly", Comparator.comparing(MembershipTierSnapshot::minOrderValueMonthly),
+        "discountPercentage", Comparator.comparing(MembershipTierSnapshot::discountPercentage));
+
+    private final long version;
+    private final Instant plansLoadedAt;
+    private final Instant tiersLoadedAt;
+
+    // Plans
+    private final List<MembershipPlanSnapshot> plans;
+    private final List<MembershipPlanSnapshot> activePlans;
+    private final Map<Long, MembershipPlanSnapshot> plansById;
+    private final Map<String, MembershipPlanSnapshot> plansByName;
+    private final Map<PlanType, List<MembershipPlanSnapshot>> plansByType;
+    private final List<MembershipPlanSnapshot> activePlansByPrice;
+    private final List<MembershipPlanSnapshot> activePlansByDuration;
+    private final Map<PlanType, Long> activePlanTypeCounts;
+    private final BigDecimal averagePlanPrice;
+
+    // Tiers
+    private final List<MembershipTierSnapshot> tiers;
+    private final List<MembershipTierSnapshot> activeTiers;
+    private final Map<Long, MembershipTierSnapshot> tiersById;
+    private final Map<String, MembershipTierSnapshot> tiersByName;
+    private final Map<TierLevel, List<MembershipTierSnapshot>> tiersByLevel;
+    private final Map<String, List<MembershipTierSnapshot>> activeTiersByCohort;
+    private final List<MembershipTierSnapshot> activeTiersByDiscount;
+    private final List<MembershipTierSnapshot> activeTiersByMinOrders;
+    private final List<MembershipTierSnapshot> activeTiersByMinOrderValue;
+    private final Map<TierLevel, Long> activeTierLevelCounts;
+    private final BigDecimal averageTierDiscount;
+
+    MembershipCatalog(long version, List<MembershipPlanSnapshot> plans, Instant plansLoadedAt,
+                      List<MembershipTierSnapshot> tiers, Instant tiersLoadedAt) {
+        this.version = version;
+        this.plansLoadedAt = plansLoadedAt;
+        this.tiersLoadedAt = tiersLoadedAt;
+
+        this.plans = sorted(plans, PLAN_BY_ID);
+        this.activePlans = this.plans.stream().filter(MembershipPlanSnapshot::isActive).toList();
+        this.plansById = index(this.plans, MembershipPlanSnapshot::id);
+        this.plansByName = index(this.plans, MembershipPlanSnapshot::name);
+        this.plansByType = group(this.plans, MembershipPlanSnapshot::planType, new EnumMap<>(PlanType.class));
+        this.activePlansByPrice = sorted(activePlans, Comparator.comparing(MembershipPlanSnapshot::price).thenComparing(PLAN_BY_ID));
+        this.activePlansByDuration = sorted(activePlans,
+            Comparator.comparingInt(MembershipPlanSnapshot::durationMonths).thenComparing(PLAN_BY_ID));
+        this.activePlanTypeCounts = counts(activePlans, MembershipPlanSnapshot::planType, new EnumMap<>(PlanType.class));
+        this.averagePlanPrice = average(activePlans.stream().map(MembershipPlanSnapshot::price).toList());
+
+        this.tiers = sorted(tiers, TIER_BY_ID);
+        this.activeTiers = this.tiers.stream().filter(MembershipTierSnapshot::isActive).toList();
+        this.tiersById = index(this.tiers, MembershipTierSnapshot::id);
+        this.tiersByName = index(this.tiers, MembershipTierSnapshot::name);
+        this.tiersByLevel = group(this.tiers, MembershipTierSnapshot::level, new EnumMap<>(TierLevel.class));
+        Map<String, List<MembershipTierSnapshot>> byCohort = new HashMap<>();
+        for (MembershipTierSnapshot tier : activeTiers) {
+            for (String cohort : tier.eligibleCohorts()) {
+                byCohort.computeIfAbsent(cohort, key -> new ArrayList<>()).add(tier);
+            }
+        }
+        byCohort.replaceAll((cohort, list) -> List.copyOf(list));
+        this.activeTiersByCohort = Map.copyOf(byCohort);
+        this.activeTiersByDiscount = sorted(activeTiers,
+            Comparator.comparing(MembershipTierSnapshot::discountPercentage).thenComparing(TIER_BY_ID));
+        this.activeTiersByMinOrders = sorted(activeTiers,
+            Comparator.comparingInt(MembershipTierSnapshot::minOrdersRequired).thenComparing(TIER_BY_ID));
+        this.activeTiersByMinOrderValue = sorted(activeTiers,
+            Comparator.comparing(MembershipTierSnapshot::minOrderValueMonthly).thenComparing(TIER_BY_ID));
+        this.activeTierLevelCounts = counts(activeTiers, MembershipTierSnapshot::level, new EnumMap<>(TierLevel.class));
+        this.averageTierDiscount = average(activeTiers.stream().map(MembershipTierSnapshot::discountPercentage).toList());
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public Instant getPlansLoadedAt() {
+        return plansLoadedAt;
+    }
+
+    public Instant getTiersLoadedAt() {
+        return tiersLoadedAt;
+    }
+
+    // Plan Queries
+
+    public List<MembershipPlanSnapshot> getAllPlans() {
+        return plans;
+    }
+
+    public List<MembershipPlanSnapshot> findActivePlans() {
+        return activePlans;
+    }
+
+    public Optional<MembershipPlanSnapshot> findPlanById(Long id) {
+        return Optional.ofNullable(plansById.get(id));
+    }
+
+    public Optional<MembershipPlanSnapshot> findPlanByName(String name) {
+        return Optional.ofNullable(plansByName.get(name));
+    }
+
+    public List<MembershipPlanSnapshot> findPlansByType(PlanType planType) {
+        return plansByType.getOrDefault(planType, List.of());
+    }
+
+    /**
+     * Active plans with optional type and inclusive price bounds (null means unbounded)
+     */
+    public Page<MembershipPlanSnapshot> findActivePlansFiltered(PlanType planType, BigDecimal minPrice,
+                                                                BigDecimal maxPrice, Pageable pageable) {
+        List<MembershipPlanSnapshot> candidates = range(activePlansByPrice, MembershipPlanSnapshot::price, minPrice, maxPrice);
+        return page(filter(candidates, plan -> planType == null || plan.planType() == planType), pageable, PLAN_SORTS);
+    }
+
+    public List<MembershipPlanSnapshot> findActivePlansByPriceBetween(BigDecimal minPrice, BigDecimal maxPrice) {
+        return range(activePlansByPrice, MembershipPlanSnapshot::price, minPrice, maxPrice);
+    }
+
+    public List<MembershipPlanSnapshot> findActivePlansByPriceAtMost(BigDecimal maxPrice) {
+        return range(activePlansByPrice, MembershipPlanSnapshot::price, null, maxPrice);
+    }
+
+    public List<MembershipPlanSnapshot> findActivePlansByDuration(int durationMonths) {
+        return range(activePlansByDuration, MembershipPlanSnapshot::durationMonths, durationMonths, durationMonths);
+    }
+
+    public List<MembershipPlanSnapshot> findActivePlansByDurationAtMost(int maxDurationMonths) {
+        return range(activePlansByDuration, MembershipPlanSnapshot::durationMonths, null, maxDurationMonths);
+    }
+
+    public long countActivePlans() {
+        return activePlans.size();
+    }
+
+    public BigDecimal getAveragePlanPrice() {
+        return averagePlanPrice;
+    }
+
+    public BigDecimal getMinPlanPrice() {
+        return activePlansByPrice.isEmpty() ? null : activePlansByPrice.get(0).price();
+    }
+
+    public BigDecimal getMaxPlanPrice() {
+        return activePlansByPrice.isEmpty() ? null : activePlansByPrice.get(activePlansByPrice.size() - 1).price();
+    }
+
+    public Map<PlanType, Long> getPlanTypeStatistics() {
+        return activePlanTypeCounts;
+    }
+
+    // Tier Queries
+
+    public List<MembershipTierSnapshot> getAllTiers() {
+        return tiers;
+    }
+
+    public List<MembershipTierSnapshot> findActiveTiers() {
+        return activeTiers;
+    }
+
+    public Optional<MembershipTierSnapshot> findTierById(Long id) {
+        return Optional.ofNullable(tiersById.get(id));
+    }
+
+    public Optional<MembershipTierSnapshot> findTierByName(String name) {
+        return Optional.ofNullable(tiersByName.get(name));
+    }
+
+    public List<MembershipTierSnapshot> findTiersByLevel(TierLevel level) {
+        return tiersByLevel.getOrDefault(level, List.of());
+    }
+
+    public List<MembershipTierSnapshot> findActiveTiersWithFreeDelivery() {
+        return filter(activeTiers, MembershipTierSnapshot::freeDelivery);
+    }
+
+    public List<MembershipTierSnapshot> findActiveTiersWithPrioritySupport() {
+        return filter(activeTiers, MembershipTierSnapshot::prioritySupport);
+    }
+
+    public List<MembershipTierSnapshot> findActiveTiersWithEarlyAccess() {
+        return filter(activeTiers, MembershipTierSnapshot::earlyAccess);
+    }
+
+    public List<MembershipTierSnapshot> findActiveTiersWithExclusiveDeals() {
+        return filter(activeTiers, MembershipTierSnapshot::exclusiveDeals);
+    }
+
+    public List<MembershipTierSnapshot> findActiveTiersByDiscountAtLeast(BigDecimal minDiscount) {
+        return range(activeTiersByDiscount, MembershipTierSnapshot::discountPercentage, minDiscount, null);
+    }
+
+    public List<MembershipTierSnapshot> findActiveTiersByDiscountRange(BigDecimal minDiscount, BigDecimal maxDiscount) {
+        return range(activeTiersByDiscount, MembershipTierSnapshot::discountPercentage, minDiscount, maxDiscount);
+    }
+
+    public List<MembershipTierSnapshot> findActiveTiersByMinOrdersAtMost(int maxOrders) {
+        return range(activeTiersByMinOrders, MembershipTierSnapshot::minOrdersRequired, null, maxOrders);
+    }
+
+    public List<MembershipTierSnapshot> findActiveTiersByMinOrderValueAtMost(BigDecimal maxValue) {
+        return range(activeTiersByMinOrderValue, MembershipTierSnapshot::minOrderValueMonthly, null, maxValue);
+    }
+
+    /**
+     * Active tiers with optional level, minimum discount and required benefits (null means any)
+     */
+    public Page<MembershipTierSnapshot> findTiersFiltered(TierLevel level, BigDecimal minDiscount,
+                                                          Boolean requiresFreeDelivery, Boolean requiresPrioritySupport,
+                                                          Pageable pageable) {
+        List<MembershipTierSnapshot> candidates = level != null
+            ? filter(findTiersByLevel(level), MembershipTierSnapshot::isActive)
+            : activeTiers;
+        return page(filter(candidates, tier ->
+                (minDiscount == null || tier.discountPercentage().compareTo(minDiscount) >= 0)
+                && (requiresFreeDelivery == null || tier.freeDelivery() == requiresFreeDelivery)
+                && (requiresPrioritySupport == null || tier.prioritySupport() == requiresPrioritySupport)),
+            pageable, TIER_SORTS);
+    }
+
+    public List<MembershipTierSnapshot> findActiveTiersByCohort(String cohort) {
+        return activeTiersByCohort.getOrDefault(cohort, List.of());
+    }
+
+    public long countActiveTiers() {
+        return activeTiers.size();
+    }
+
+    public BigDecimal getAverageTierDiscount() {
+        return averageTierDiscount;
+    }
+
+    public BigDecimal getMaxTierDiscount() {
+        return activeTiersByDiscount.isEmpty() ? null : activeTiersByDiscount.get(activeTiersByDiscount.size() - 1).discountPercentage();
+    }
+
+    public Map<TierLevel, Long> getTierLevelStatistics() {
+        return activeTierLevelCounts;
+    }
+
+    // Helper Methods
+
+    private static <T> List<T> sorted(List<T> items, Comparator<? super T> order) {
+        List<T> copy = new ArrayList<>(items);
+        copy.sort(order);
+        return Collections.unmodifiableList(copy);
+    }
+
+    private static <T> List<T> filter(List<T> items, Predicate<T> predicate) {
+        return items.stream().filter(predicate).toList();
+    }
+
+    private static <K, T> Map<K, T> index(List<T> items, Function<T, K> key) {
+        Map<K, T> index = new HashMap<>();
+        items.forEach(item -> index.put(key.apply(item), item));
+        return Collections.unmodifiableMap(index);
+    }
+
+    private static <K, T> Map<K, List<T>> group(List<T> items, Function<T, K> key, Map<K, List<T>> target) {
+        for (T item : items) {
+            target.computeIfAbsent(key.apply(item), k -> new ArrayList<>()).add(item);
+        }
+        target.replaceAll((k, list) -> List.copyOf(list));
+        return Collections.unmodifiableMap(target);
+    }
+
+    private static <K, T> Map<K, Long> counts(List<T> items, Function<T, K> key, Map<K, Long> target) {
+        items.forEach(item -> target.merge(key.apply(item), 1L, Long::sum));
+        return Collections.unmodifiableMap(target);
+    }
+
+    private static BigDecimal average(List<BigDecimal> values) {
+        if (values.isEmpty()) {
+            return null;
+        }
+        BigDecimal sum = values.stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+        return sum.divide(BigDecimal.valueOf(values.size()), 2, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Returns the slice of a list sorted by {@code key} whose key lies in [min, max];
+     * a null bound is open
+     */
+    private static <T, K extends Comparable<? super K>> List<T> range(List<T> sortedByKey, Function<T, K> key, K min, K max) {
+        int from = min == null ? 0 : lowerBound(sortedByKey, key, min, false);
+        int to = max == null ? sortedByKey.size() : lowerBound(sortedByKey, key, max, true);
+        return from >= to ? List.of() : sortedByKey.subList(from, to);
+    }
+
+    // First index whose key is >= bound (or > bound when inclusive of equal keys)
+    private static <T, K extends Comparable<? super K>> int lowerBound(List<T> sortedByKey, Function<T, K> key,
+                                                                       K bound, boolean skipEqual) {
+        int low = 0;
+        int high = sortedByKey.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int cmp = key.apply(sortedByKey.get(mid)).compareTo(bound);
+            if (cmp < 0 || (skipEqual && cmp == 0)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static <T> Page<T> page(List<T> items, Pageable pageable, Map<String, Comparator<T>> sorts) {
+        List<T> ordered = items;
+        if (pageable.getSort().isSorted()) {
+            Comparator<T> comparator = null;
+            for (Sort.Order order : pageable.getSort()) {
+                Comparator<T> next = sorts.get(order.getProperty());
+                if (next == null) {
+                    throw new IllegalArgumentException("Unsupported sort property: " + order.getProperty());
+                }
+                next = order.isAscending() ? next : next.reversed();
+                comparator = comparator == null ? next : comparator.thenComparing(next);
+            }
+            ordered = new ArrayList<>(items);
+            ordered.sort(comparator);
+        }
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(ordered, pageable, ordered.size());
+        }
+        int from = (int) Math.min(pageable.getOffset(), ordered.size());
+        int to = Math.min(from + pageable.getPageSize(), ordered.size());
+        return new PageImpl<>(ordered.subList(from, to), pageable, ordered.size());
+    }
+}
@@ -0,0 +1,199 @@
+package com.firstclub.membership.service;
+
+import com.firstclub.membership.model.MembershipPlan;
+import com.firstclub.membership.model.MembershipPlanSnapshot;
+import com.firstclub.membership.model.MembershipTier;
+import com.firstclub.membership.model.MembershipTierSnapshot;
+import com.firstclub.membership.repository.MembershipPlanRepository;
+import com.firstclub.membership.repository.MembershipTierRepository;
+import com.firstclub.membership.util.Constants;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Owns the current {@link MembershipCatalog} snapshot
+ *
+ * Plans and tiers are a handful of rows that change only through admin
+ * actions, so every read is served from an immutable in-memory snapshot
+ * instead of the repositories. The snapshot is replaced atomically:
+ * - After every write made through {@link #savePlan} or {@link #saveTier}
+ * - On an explicit {@link #refresh()}
+ * - When the plans or tiers are older than their TTL in {@link Constants.Cache},
+ *   which picks up changes made directly in the database
+ */
+@Service
+public class MembershipCatalogService {
+
+    private static final Logger log = LoggerFactory.getLogger(MembershipCatalogService.class);
+
+    private static final Duration PLANS_TTL = Duration.ofSeconds(Constants.Cache.PLANS_CACHE_TTL_SECONDS);
+    private static final Duration TIERS_TTL = Duration.ofSeconds(Constants.Cache.TIERS_CACHE_TTL_SECONDS);
+
+    @Autowired
+    private MembershipPlanRepository planRepository;
+
+    @Autowired
+    private MembershipTierRepository tierRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final Clock clock = Clock.systemUTC();
+
+    // Serializes rebuilds; readers only ever touch the volatile field
+    private final Object reloadLock = new Object();
+    private volatile MembershipCatalog catalog;
+
+    @PostConstruct
+    void initialize() {
+        transactionTemplate.executeWithoutResult(status -> seedDefaults());
+        refresh();
+    }
+
+    /**
+     * Returns the current snapshot; callers should hold on to it for the
+     * duration of a request so all answers come from the same version
+     */
+    public MembershipCatalog getCatalog() {
+        return catalog;
+    }
+
+    /**
+     * Reloads plans and tiers from the database and swaps in a new snapshot
+     */
+    public MembershipCatalog refresh() {
+        synchronized (reloadLock) {
+            Instant now = clock.instant();
+            return swap(loadPlans(), now, loadTiers(), now);
+        }
+    }
+
+    /**
+     * Persists a plan and publishes a snapshot that includes it
+     */
+    public MembershipPlanSnapshot savePlan(MembershipPlan plan) {
+        synchronized (reloadLock) {
+            MembershipPlan saved = transactionTemplate.execute(status -> planRepository.save(plan));
+            MembershipCatalog current = catalog;
+            swap(loadPlans(), clock.instant(), current.getAllTiers(), current.getTiersLoadedAt());
+            return MembershipPlanSnapshot.of(saved);
+        }
+    }
+
+    /**
+     * Persists a tier and publishes a snapshot that includes it
+     */
+    public MembershipTierSnapshot saveTier(MembershipTier tier) {
+        synchronized (reloadLock) {
+            MembershipTierSnapshot saved = transactionTemplate.execute(
+                status -> MembershipTierSnapshot.of(tierRepository.save(tier)));
+            MembershipCatalog current = catalog;
+            swap(current.getAllPlans(), current.getPlansLoadedAt(), loadTiers(), clock.instant());
+            return saved;
+        }
+    }
+
+    /**
+     * Reloads whichever half of the catalog has outlived its TTL
+     */
+    @Scheduled(fixedDelayString = "${membership.catalog.expiry-check-ms:60000}")
+    public void reloadExpired() {
+        synchronized (reloadLock) {
+            MembershipCatalog current = catalog;
+            Instant now = clock.instant();
+            boolean plansExpired = isExpired(current.getPlansLoadedAt(), PLANS_TTL, now);
+            boolean tiersExpired = isExpired(current.getTiersLoadedAt(), TIERS_TTL, now);
+            if (!plansExpired && !tiersExpired) {
+                return;
+            }
+            swap(plansExpired ? loadPlans() : current.getAllPlans(),
+                 plansExpired ? now : current.getPlansLoadedAt(),
+                 tiersExpired ? loadTiers() : current.getAllTiers(),
+                 tiersExpired ? now : current.getTiersLoadedAt());
+        }
+    }
+
+    // Helper Methods
+
+    private MembershipCatalog swap(List<MembershipPlanSnapshot> plans, Instant plansLoadedAt,
+                                   List<MembershipTierSnapshot> tiers, Instant tiersLoadedAt) {
+        long version = catalog == null ? 1 : catalog.getVersion() + 1;
+        MembershipCatalog next = new MembershipCatalog(version, plans, plansLoadedAt, tiers, tiersLoadedAt);
+        catalog = next;
+        log.debug("Membership catalog v{} loaded with {} plans and {} tiers", version, plans.size(), tiers.size());
+        return next;
+    }
+
+    private List<MembershipPlanSnapshot> loadPlans() {
+        return transactionTemplate.execute(status ->
+            planRepository.findAll().stream().map(MembershipPlanSnapshot::of).toList());
+    }
+
+    // Runs in a transaction so the lazy cohort collection can be copied into the snapshot
+    private List<MembershipTierSnapshot> loadTiers() {
+        return transactionTemplate.execute(status ->
+            tierRepository.findAll().stream().map(MembershipTierSnapshot::of).toList());
+    }
+
+    private static boolean isExpired(Instant loadedAt, Duration ttl, Instant now) {
+        return !loadedAt.plus(ttl).isAfter(now);
+    }
+
+    /**
+     * Inserts the standard plans and tiers into an empty catalog
+     */
+    private void seedDefaults() {
+        if (planRepository.count() == 0) {
+            planRepository.saveAll(List.of(
+                new MembershipPlan("Monthly Plan", MembershipPlan.PlanType.MONTHLY, 1,
+                    new BigDecimal("99.99"), "Monthly subscription with basic benefits"),
+                new MembershipPlan("Quarterly Plan", MembershipPlan.PlanType.QUARTERLY, 3,
+                    new BigDecimal("279.99"), "Quarterly subscription with enhanced benefits"),
+                new MembershipPlan("Yearly Plan", MembershipPlan.PlanType.YEARLY, 12,
+                    new BigDecimal("999.99"), "Yearly subscription with premium benefits and savings")));
+            log.info("Seeded default membership plans");
+        }
+        if (tierRepository.count() == 0) {
+            tierRepository.saveAll(List.of(
+                MembershipTier.builder()
+                    .name("Silver")
+                    .level(MembershipTier.TierLevel.SILVER)
+                    .minOrdersRequired(0)
+                    .minOrderValueMonthly(new BigDecimal("0.00"))
+                    .discountPercentage(new BigDecimal("5.00"))
+                    .freeDelivery(false)
+                    .description("Entry-level tier with basic benefits")
+                    .build(),
+                MembershipTier.builder()
+                    .name("Gold")
+                    .level(MembershipTier.TierLevel.GOLD)
+                    .minOrdersRequired(5)
+                    .minOrderValueMonthly(new BigDecimal("200.00"))
+                    .discountPercentage(new BigDecimal("10.00"))
+                    .freeDelivery(true)
+                    .description("Mid-level tier with enhanced benefits and free delivery")
+                    .build(),
+                MembershipTier.builder()
+                    .name("Platinum")
+                    .level(MembershipTier.TierLevel.PLATINUM)
+                    .minOrdersRequired(10)
+                    .minOrderValueMonthly(new BigDecimal("500.00"))
+                    .discountPercentage(new BigDecimal("20.00"))
+                    .freeDelivery(true)
+                    .description("Premium tier with maximum benefits and exclusive access")
+                    .build()));
+            log.info("Seeded default membership tiers");
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.firstclub.membership.service;
+
+import com.firstclub.membership.exception.HashingCapacityExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Service that runs password hashing on a dedicated, bounded executor
+ *
+ * BCrypt is deliberately CPU-expensive, so running it on servlet threads lets
+ * a login storm starve cheap endpoints. This service provides:
+ * - A fixed-size hashing pool sized to the available CPUs
+ * - A bounded queue that rejects work instead of growing without limit
+ * - Queue depth, active worker and hash latency metrics
+ */
+@Service
+public class PasswordHashingService {
+
+    private static final Logger log = LoggerFactory.getLogger(PasswordHashingService.class);
+
+    private static final String METRIC_PREFIX = "membership.password.hashing";
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${membership.security.hashing.pool-size:0}")
+    private int poolSize;
+
+    @Value("${membership.security.hashing.queue-capacity:64}")
+    private int queueCapacity;
+
+    @Value("${membership.security.hashing.retry-after-seconds:2}")
+    private int retryAfterSeconds;
+
+    private ThreadPoolExecutor executor;
+    private Timer encodeTimer;
+    private Timer matchesTimer;
+    private Timer queueWaitTimer;
+    private Counter rejectedCounter;
+
+    // Hash of a random password at the current work factor; checked when a login has no real hash to check
+    private volatile String dummyHash;
+
+    @PostConstruct
+    void start() {
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        executor = new ThreadPoolExecutor(
+            threads, threads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            new HashingThreadFactory(),
+            new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder(METRIC_PREFIX + ".queue.depth", executor, e -> e.getQueue().size())
+            .description("Hashing tasks waiting for a worker")
+            .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".queue.capacity", executor, e -> queueCapacity)
+            .description("Maximum number of queued hashing tasks")
+            .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".active", executor, ThreadPoolExecutor::getActiveCount)
+            .description("Hashing workers currently busy")
+            .register(meterRegistry);
+
+        encodeTimer = Timer.builder(METRIC_PREFIX + ".latency")
+            .tag("operation", "encode")
+            .publishPercentiles(0.5, 0.95, 0.99)
+            .register(meterRegistry);
+        matchesTimer = Timer.builder(METRIC_PREFIX + ".latency")
+            .tag("operation", "matches")
+            .publishPercentiles(0.5, 0.95, 0.99)
+            .register(meterRegistry);
+        queueWaitTimer = Timer.builder(METRIC_PREFIX + ".queue.wait")
+            .description("Time a hashing task spent queued before running")
+            .register(meterRegistry);
+        rejectedCounter = Counter.builder(METRIC_PREFIX + ".rejected")
+            .description("Hashing tasks rejected because the queue was full")
+            .register(meterRegistry);
+
+        log.info("Password hashing executor started with {} threads and queue capacity {}",
+                threads, queueCapacity);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Hashes a raw password on the hashing pool
+     */
+    public CompletableFuture<String> encode(String rawPassword) {
+        return submit(encodeTimer, () -> passwordEncoder.encode(rawPassword));
+    }
+
+    /**
+     * Verifies a raw password against a stored hash on the hashing pool
+     */
+    public CompletableFuture<Boolean> matches(String rawPassword, String encodedPassword) {
+        return submit(matchesTimer, () -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Verifies a raw password against a dummy hash on the hashing pool; the result is always false
+     *
+     * For logins that name no account: they fail only after the same BCrypt
+     * work as a wrong password, so response times do not reveal which
+     * usernames and emails exist.
+     */
+    public CompletableFuture<Boolean> matchesDummy(String rawPassword) {
+        return submit(matchesTimer, () -> {
+            passwordEncoder.matches(rawPassword, dummyHash());
+            return false;
+        });
+    }
+
+    /**
+     * Hashes a raw password on the hashing pool and waits for the result
+     */
+    public String encodeAndWait(String rawPassword) {
+        return await(encode(rawPassword));
+    }
+
+    /**
+     * Verifies a raw password on the hashing pool and waits for the result
+     */
+    public boolean matchesAndWait(String rawPassword, String encodedPassword) {
+        return await(matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Verifies a raw password against a dummy hash on the hashing pool and waits; the result is always false
+     */
+    public boolean matchesDummyAndWait(String rawPassword) {
+        return await(matchesDummy(rawPassword));
+    }
+
+    /**
+     * Returns true when a stored hash uses a different work factor than the current one
+     */
+    public boolean needsRehash(String encodedPassword) {
+        return passwordEncoder.upgradeEncoding(encodedPassword);
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    // Helper Methods
+
+    // Made on first use, on a hashing worker; a race only hashes twice
+    private String dummyHash() {
+        String hash = dummyHash;
+        if (hash == null) {
+            hash = passwordEncoder.encode(UUID.randomUUID().toString());
+            dummyHash = hash;
+        }
+        return hash;
+    }
+
+    private <T> CompletableFuture<T> submit(Timer timer, Supplier<T> task) {
+        long enqueuedAt = System.nanoTime();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                queueWaitTimer.record(System.nanoTime() - enqueuedAt, TimeUnit.NANOSECONDS);
+                return timer.record(task);
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            log.warn("Password hashing queue is full ({} tasks), rejecting request", queueCapacity);
+            return CompletableFuture.failedFuture(new HashingCapacityExceededException(retryAfterSeconds));
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Names hashing threads so they are recognisable in thread dumps
+     */
+    private static class HashingThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "password-hashing-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,406 @@
+package com.firstclub.membership.service;
+
+import com.firstclub.membership.event.UserChangedEvent;
+import com.firstclub.membership.model.User.UserRole;
+import com.firstclub.membership.model.UserDailyRollup;
+import com.firstclub.membership.model.UserSnapshot;
+import com.firstclub.membership.repository.UserDailyRollupRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains the daily user growth rollups and answers range queries from them
+ *
+ * Sign-ups, activations and deactivations come from committed
+ * {@link UserChangedEvent}s and logins from UserService. They are added to
+ * in-memory deltas keyed by (day, role) and written on a short interval as a
+ * batch of MERGE statements, so the request path never touches the rollup
+ * table. Reads overlay the deltas that have not been written yet, so
+ * reports include changes from the last few seconds.
+ *
+ * Sign-ups count the users that exist now, by the day they were created
+ * and the roles they hold now. That is what the backfill can recompute from
+ * the users table, and the events keep to the same rule: deleting a user
+ * takes its sign-up back, and a role change moves it to the new roles.
+ * Sign-up deltas are never added to the table, though: an event is recorded
+ * after its transaction commits, so a recount that started in between has
+ * already counted it. A flush instead recounts the sign-ups of every day
+ * its deltas touch, which gives the same result however many times a change
+ * is counted. Activation, deactivation and login history starts when the
+ * rollups are first maintained.
+ */
+@Service
+public class UserGrowthRollupService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserGrowthRollupService.class);
+
+    private static final String MERGE_DELTA_SQL =
+        "MERGE INTO user_daily_rollups t " +
+        "USING (VALUES (CAST(? AS DATE), CAST(? AS VARCHAR(20)), CAST(? AS BIGINT), CAST(? AS BIGINT), " +
+        "CAST(? AS BIGINT), CAST(? AS BIGINT))) AS s(rollup_day, role, signups, activations, deactivations, logins) " +
+        "ON t.rollup_day = s.rollup_day AND t.role = s.role " +
+        "WHEN MATCHED THEN UPDATE SET signups = t.signups + s.signups, activations = t.activations + s.activations, " +
+        "deactivations = t.deactivations + s.deactivations, logins = t.logins + s.logins " +
+        "WHEN NOT MATCHED THEN INSERT (rollup_day, role, signups, activations, deactivations, logins) " +
+        "VALUES (s.rollup_day, s.role, s.signups, s.activations, s.deactivations, s.logins)";
+
+    private static final String SIGNUP_DAYS_SQL =
+        "SELECT MIN(CAST(created_at AS DATE)), MAX(CAST(created_at AS DATE)) FROM users";
+
+    private static final String RESET_SIGNUPS_SQL =
+        "UPDATE user_daily_rollups SET signups = 0 WHERE rollup_day BETWEEN ? AND ? AND signups <> 0";
+
+    // Each SELECT takes the created_at bounds [?, ?)
+    private static final String RECOUNT_SIGNUPS_SQL =
+        "MERGE INTO user_daily_rollups t USING (" +
+        "  SELECT CAST(u.created_at AS DATE) AS rollup_day, '" + UserDailyRollup.ALL_ROLES + "' AS role, COUNT(*) AS signups " +
+        "  FROM users u WHERE u.created_at >= ? AND u.created_at < ? GROUP BY CAST(u.created_at AS DATE) " +
+        Arrays.stream(UserRole.values())
+            .map(role -> "  UNION ALL SELECT CAST(u.created_at AS DATE), '" + role.name() + "', COUNT(*) " +
+                "FROM users u WHERE u.created_at >= ? AND u.created_at < ? AND BITAND(u.role_mask, " + role.bit() + ") <> 0 " +
+                "GROUP BY CAST(u.created_at AS DATE)")
+            .collect(Collectors.joining()) +
+        ") s ON t.rollup_day = s.rollup_day AND t.role = s.role " +
+        "WHEN MATCHED THEN UPDATE SET signups = s.signups " +
+        "WHEN NOT MATCHED THEN INSERT (rollup_day, role, signups, activations, deactivations, logins) " +
+        "VALUES (s.rollup_day, s.role, s.signups, 0, 0, 0)";
+
+    // Deltas are recorded under the read lock; a flush takes the write lock to swap the map out
+    private final ReentrantReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private volatile Map<UserDailyRollup.Key, Delta> pending = new ConcurrentHashMap<>();
+
+    // A flush holds the write lock from taking its batch until the batch commits, and getGrowth the
+    // read lock while it reads the table and the deltas, so a report sees each batch exactly once
+    private final ReentrantReadWriteLock publishLock = new ReentrantReadWriteLock();
+
+    @Autowired
+    private UserDailyRollupRepository rollupRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private TaskExecutor taskExecutor;
+
+    @Value("${membership.users.rollups.max-range-days:366}")
+    private int maxRangeDays;
+
+    /**
+     * Backfills sign-ups in the background when the rollup table is empty
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        taskExecutor.execute(() -> {
+            if (rollupRepository.count() == 0) {
+                backfill();
+            }
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        switch (event.type()) {
+            case CREATED -> {
+                UserSnapshot user = event.current();
+                record(signupDay(user), user.roles(), delta -> delta.changeSignups(1));
+            }
+            case UPDATED -> {
+                UserSnapshot previous = event.previous();
+                UserSnapshot current = event.current();
+                if (previous.isActive() != current.isActive()) {
+                    record(LocalDate.now(), current.roles(), current.isActive()
+                        ? delta -> delta.activations.increment()
+                        : delta -> delta.deactivations.increment());
+                }
+                if (!previous.roles().equals(current.roles())) {
+                    // Moves the sign-up between roles; the all-users counter nets out
+                    Set<UserRole> removed = EnumSet.noneOf(UserRole.class);
+                    removed.addAll(previous.roles());
+                    removed.removeAll(current.roles());
+                    Set<UserRole> added = EnumSet.noneOf(UserRole.class);
+                    added.addAll(current.roles());
+                    added.removeAll(previous.roles());
+                    record(signupDay(current), removed, delta -> delta.changeSignups(-1));
+                    record(signupDay(current), added, delta -> delta.changeSignups(1));
+                }
+            }
+            case DELETED -> {
+                UserSnapshot user = event.previous();
+                record(signupDay(user), user.roles(), delta -> delta.changeSignups(-1));
+            }
+        }
+    }
+
+    /**
+     * Counts a successful login for the given user roles
+     */
+    public void recordLogin(Set<UserRole> roles, LocalDateTime loginTime) {
+        record(loginTime.toLocalDate(), roles, delta -> delta.logins.increment());
+    }
+
+    /**
+     * Writes the accumulated deltas to the rollup table
+     */
+    @Scheduled(fixedDelayString = "${membership.users.rollups.flush-interval-ms:5000}")
+    public void flush() {
+        if (pending.isEmpty() || !flushLock.tryLock()) {
+            return;
+        }
+        try {
+            writePending();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flushLock.lock();
+        try {
+            writePending();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Recomputes the sign-up counters of every day from the users table
+     */
+    public void backfill() {
+        flushLock.lock();
+        try {
+            long started = System.currentTimeMillis();
+            Integer rows = transactionTemplate.execute(status -> {
+                LocalDate[] days = jdbcTemplate.queryForObject(SIGNUP_DAYS_SQL, (rs, rowNum) ->
+                    new LocalDate[] { rs.getObject(1, LocalDate.class), rs.getObject(2, LocalDate.class) });
+                return days[0] == null ? 0 : recountSignups(days[0], days[1]);
+            });
+            log.info("Backfilled {} user growth rollup rows in {} ms", rows, System.currentTimeMillis() - started);
+
+            // Sign-ups recorded before or during the recount may already be in it; their days are recounted
+            writePending();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Returns one entry per day in [from, to] for a role (null for all users)
+     */
+    public GrowthReport getGrowth(LocalDate from, LocalDate to, String role) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("'from' must not be after 'to'");
+        }
+        long days = ChronoUnit.DAYS.between(from, to) + 1;
+        if (days > maxRangeDays) {
+            throw new IllegalArgumentException("Date range cannot exceed " + maxRangeDays + " days");
+        }
+        String rollupRole = role == null || role.isBlank()
+            ? UserDailyRollup.ALL_ROLES
+            : UserRole.valueOf(role.trim().toUpperCase(Locale.ROOT)).name();
+
+        Map<LocalDate, DailyGrowth> byDay = new HashMap<>();
+        publishLock.readLock().lock();
+        try {
+            for (UserDailyRollup rollup : rollupRepository.findRange(rollupRole, from, to)) {
+                byDay.put(rollup.getId().getDay(), new DailyGrowth(rollup.getId().getDay(), rollup.getSignups(),
+                    rollup.getActivations(), rollup.getDeactivations(), rollup.getLogins()));
+            }
+            pending.forEach((key, delta) -> {
+                if (key.getRole().equals(rollupRole) && !key.getDay().isBefore(from) && !key.getDay().isAfter(to)) {
+                    byDay.merge(key.getDay(), delta.toDailyGrowth(key.getDay()), DailyGrowth::plus);
+                }
+            });
+        } finally {
+            publishLock.readLock().unlock();
+        }
+
+        List<DailyGrowth> daily = new ArrayList<>((int) days);
+        DailyGrowth totals = new DailyGrowth(null, 0, 0, 0, 0);
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            DailyGrowth growth = byDay.getOrDefault(day, new DailyGrowth(day, 0, 0, 0, 0));
+            daily.add(growth);
+            totals = totals.plus(growth);
+        }
+        return new GrowthReport(from, to, rollupRole, totals, daily);
+    }
+
+    // Helper Methods
+
+    private void record(LocalDate day, Set<UserRole> roles, Consumer<Delta> increment) {
+        swapLock.readLock().lock();
+        try {
+            Map<UserDailyRollup.Key, Delta> target = pending;
+            increment.accept(target.computeIfAbsent(new UserDailyRollup.Key(day, UserDailyRollup.ALL_ROLES), key -> new Delta()));
+            for (UserRole role : roles) {
+                increment.accept(target.computeIfAbsent(new UserDailyRollup.Key(day, role.name()), key -> new Delta()));
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    private static LocalDate signupDay(UserSnapshot user) {
+        return user.createdAt() != null ? user.createdAt().toLocalDate() : LocalDate.now();
+    }
+
+    private void writePending() {
+        publishLock.writeLock().lock();
+        try {
+            Map<UserDailyRollup.Key, Delta> batch = takePending();
+            if (batch != null) {
+                writeBatch(batch);
+            }
+        } finally {
+            publishLock.writeLock().unlock();
+        }
+    }
+
+    private Map<UserDailyRollup.Key, Delta> takePending() {
+        swapLock.writeLock().lock();
+        try {
+            if (pending.isEmpty()) {
+                return null;
+            }
+            Map<UserDailyRollup.Key, Delta> batch = pending;
+            pending = new ConcurrentHashMap<>();
+            return batch;
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a batch of deltas, recounting the sign-ups of the days it touches instead of adding them
+     */
+    private void writeBatch(Map<UserDailyRollup.Key, Delta> batch) {
+        Set<LocalDate> signupDays = new TreeSet<>();
+        List<Object[]> args = new ArrayList<>(batch.size());
+        batch.forEach((key, delta) -> {
+            // A create and a delete net to zero here but may not in a recount that saw only one
+            if (delta.signupChanges.sum() > 0) {
+                signupDays.add(key.getDay());
+            }
+            args.add(new Object[] {
+                Date.valueOf(key.getDay()), key.getRole(),
+                0L, delta.activations.sum(), delta.deactivations.sum(), delta.logins.sum()
+            });
+        });
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                signupDays.forEach(day -> recountSignups(day, day));
+                jdbcTemplate.batchUpdate(MERGE_DELTA_SQL, args);
+            });
+            log.debug("Flushed {} user growth rollup deltas", args.size());
+        } catch (RuntimeException e) {
+            // Fold the deltas back in so the next flush retries them
+            swapLock.readLock().lock();
+            try {
+                batch.forEach((key, delta) -> pending.computeIfAbsent(key, k -> new Delta()).add(delta));
+            } finally {
+                swapLock.readLock().unlock();
+            }
+            log.warn("Failed to flush {} user growth rollup deltas, will retry: {}", args.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Replaces the sign-up counters of the days in [from, to] with a count of the users created on them
+     */
+    private int recountSignups(LocalDate from, LocalDate to) {
+        jdbcTemplate.update(RESET_SIGNUPS_SQL, Date.valueOf(from), Date.valueOf(to));
+        Timestamp start = Timestamp.valueOf(from.atStartOfDay());
+        Timestamp end = Timestamp.valueOf(to.plusDays(1).atStartOfDay());
+        Object[] args = new Object[2 * (UserRole.values().length + 1)];
+        for (int i = 0; i < args.length; i += 2) {
+            args[i] = start;
+            args[i + 1] = end;
+        }
+        return jdbcTemplate.update(RECOUNT_SIGNUPS_SQL, args);
+    }
+
+    /**
+     * Counters accumulated for one (day, role) since the last flush
+     */
+    private static class Delta {
+        private final LongAdder signups = new LongAdder();
+        // Sign-up events, whatever their sign; any marks the day for a recount
+        private final LongAdder signupChanges = new LongAdder();
+        private final LongAdder activations = new LongAdder();
+        private final LongAdder deactivations = new LongAdder();
+        private final LongAdder logins = new LongAdder();
+
+        void changeSignups(long change) {
+            signups.add(change);
+            signupChanges.increment();
+        }
+
+        void add(Delta other) {
+            signups.add(other.signups.sum());
+            signupChanges.add(other.signupChanges.sum());
+            activations.add(other.activations.sum());
+            deactivations.add(other.deactivations.sum());
+            logins.add(other.logins.sum());
+        }
+
+        DailyGrowth toDailyGrowth(LocalDate day) {
+            return new DailyGrowth(day, signups.sum(), activations.sum(), deactivations.sum(), logins.sum());
+        }
+    }
+
+    /**
+     * Growth counters for one day (or, with a null date, a whole range)
+     */
+    public record DailyGrowth(LocalDate date, long signups, long activations, long deactivations, long logins) {
+
+        DailyGrowth plus(DailyGrowth other) {
+            return new DailyGrowth(date, signups + other.signups, activations + other.activations,
+                deactivations + other.deactivations, logins + other.logins);
+        }
+    }
+
+    /**
+     * Growth over a date range for one role
+     */
+    public record GrowthReport(LocalDate from, LocalDate to, String role, DailyGrowth totals, List<DailyGrowth> daily) {
+    }
+}
@@ -0,0 +1,230 @@
+package com.firstclub.membership.service;
+
+import com.firstclub.membership.event.UserChangedEvent;
+import com.firstclub.membership.model.UserSnapshot;
+import com.firstclub.membership.util.CuckooFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Cuckoo filters over normalized usernames and emails
+ *
+ * Lets availability checks answer "definitely not taken", and logins
+ * "no such user", without a database round trip; only possible hits fall
+ * through to the repository. A cuckoo filter is used rather than a Bloom
+ * filter because deleted users must be removable. Keys are trimmed and
+ * lower-cased, so the filter is a superset of the exact-match database
+ * lookups and never produces a false negative.
+ *
+ * While a rebuild is running, new users go into both the serving and the
+ * building filter, while deletions only touch the serving one: the building
+ * filter may not have streamed the row yet, and deleting an item that was
+ * never inserted can evict someone else's fingerprint.
+ */
+@Component
+public class UserIdentityFilter implements UserIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(UserIdentityFilter.class);
+
+    private static final String METRIC_PREFIX = "membership.users.identity-filter";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Headroom over the current user count so growth does not force an early rebuild
+    @Value("${membership.users.identity-filter.growth-factor:2.0}")
+    private double growthFactor;
+
+    @Value("${membership.users.identity-filter.min-capacity:10000}")
+    private long minCapacity;
+
+    @Value("${membership.users.identity-filter.max-load:0.95}")
+    private double maxLoad;
+
+    private final Object lock = new Object();
+    private volatile Filters live;
+    private Filters building;
+
+    private Counter definitelyAbsentCounter;
+    private Counter possiblyPresentCounter;
+
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder(METRIC_PREFIX + ".entries", this, f -> f.live != null ? f.live.usernames.size() : 0)
+            .description("Usernames currently held by the identity filter")
+            .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".memory", this, f -> f.live != null ? f.live.memoryBytes() : 0)
+            .description("Bytes used by the identity filters")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+        definitelyAbsentCounter = Counter.builder(METRIC_PREFIX + ".lookups")
+            .tag("result", "absent")
+            .description("Lookups answered by the filter without querying the database")
+            .register(meterRegistry);
+        possiblyPresentCounter = Counter.builder(METRIC_PREFIX + ".lookups")
+            .tag("result", "maybe")
+            .description("Lookups that fell through to the database")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Returns false only when no user has this username
+     */
+    public boolean mightContainUsername(String username) {
+        Filters filters = live;
+        return record(filters == null || filters.usernames.mightContain(normalize(username)));
+    }
+
+    /**
+     * Returns false only when no user has this email
+     */
+    public boolean mightContainEmail(String email) {
+        Filters filters = live;
+        return record(filters == null || filters.emails.mightContain(normalize(email)));
+    }
+
+    /**
+     * Returns false only when no user has this value as username or as email
+     */
+    public boolean mightContainUsernameOrEmail(String usernameOrEmail) {
+        Filters filters = live;
+        String key = normalize(usernameOrEmail);
+        return record(filters == null || filters.usernames.mightContain(key) || filters.emails.mightContain(key));
+    }
+
+    @Override
+    public void beginRebuild(long expectedUsers) {
+        long capacity = Math.max(minCapacity, (long) (expectedUsers * growthFactor));
+        synchronized (lock) {
+            building = new Filters(capacity);
+        }
+    }
+
+    @Override
+    public void add(UserSnapshot user) {
+        Filters target;
+        synchronized (lock) {
+            target = building;
+        }
+        if (target != null) {
+            target.put(user);
+        }
+    }
+
+    @Override
+    public void completeRebuild() {
+        synchronized (lock) {
+            if (building == null) {
+                return;
+            }
+            live = building;
+            building = null;
+        }
+        log.info("Identity filter ready with {} users in {} KB",
+                live.usernames.size(), live.memoryBytes() / 1024);
+    }
+
+    @Override
+    public void onUserChanged(UserChangedEvent event) {
+        UserSnapshot previous = event.previous();
+        UserSnapshot current = event.current();
+
+        synchronized (lock) {
+            switch (event.type()) {
+                case CREATED -> {
+                    putIfPresent(live, current);
+                    putIfPresent(building, current);
+                }
+                case UPDATED -> {
+                    if (!sameKeys(previous, current)) {
+                        putIfPresent(live, current);
+                        putIfPresent(building, current);
+                        if (live != null) {
+                            live.delete(previous);
+                        }
+                    }
+                }
+                case DELETED -> {
+                    if (live != null) {
+                        live.delete(previous);
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public boolean isReady() {
+        return live != null;
+    }
+
+    @Override
+    public boolean needsRebuild() {
+        Filters filters = live;
+        return filters != null && filters.isFull(maxLoad);
+    }
+
+    // Helper Methods
+
+    private boolean record(boolean mightContain) {
+        (mightContain ? possiblyPresentCounter : definitelyAbsentCounter).increment();
+        return mightContain;
+    }
+
+    private static void putIfPresent(Filters filters, UserSnapshot user) {
+        if (filters != null) {
+            filters.put(user);
+        }
+    }
+
+    private static boolean sameKeys(UserSnapshot previous, UserSnapshot current) {
+        return Objects.equals(normalize(previous.username()), normalize(current.username()))
+            && Objects.equals(normalize(previous.email()), normalize(current.email()));
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Username and email filters that are swapped together
+     */
+    private static class Filters {
+        private final CuckooFilter usernames;
+        private final CuckooFilter emails;
+
+        Filters(long capacity) {
+            this.usernames = new CuckooFilter(capacity);
+            this.emails = new CuckooFilter(capacity);
+        }
+
+        void put(UserSnapshot user) {
+            usernames.put(normalize(user.username()));
+            emails.put(normalize(user.email()));
+        }
+
+        void delete(UserSnapshot user) {
+            usernames.delete(normalize(user.username()));
+            emails.delete(normalize(user.email()));
+        }
+
+        boolean isFull(double maxLoad) {
+            return usernames.isSaturated() || emails.isSaturated()
+                || usernames.size() > usernames.capacity() * maxLoad;
+        }
+
+        long memoryBytes() {
+            return usernames.memoryBytes() + emails.memoryBytes();
+        }
+    }
+}
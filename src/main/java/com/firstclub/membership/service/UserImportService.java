@@ -0,0 +1,578 @@
+package com.firstclub.membership.service;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.firstclub.membership.event.UserChangedEvent;
+import com.firstclub.membership.exception.DuplicateUserException;
+import com.firstclub.membership.model.User;
+import com.firstclub.membership.model.User.UserRole;
+import com.firstclub.membership.model.UserSnapshot;
+import com.firstclub.membership.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Service for bulk-importing users from partner programs
+ *
+ * Input is parsed one line at a time and processed in fixed-size chunks, so
+ * memory use does not depend on the size of the upload. For each chunk:
+ * - Rows are validated and checked for duplicates within the chunk and
+ *   against existing users (the identity filter skips most lookups)
+ * - Passwords are hashed in parallel on a dedicated import pool, leaving the
+ *   login hashing pool untouched; rows carrying a BCrypt {@code passwordHash}
+ *   are stored as-is and upgraded to the current work factor on first login
+ * - Ids are reserved from the users sequence a block at a time, and users
+ *   (roles included, as a bitmask) are written as one JDBC batch in a short transaction;
+ *   if the batch hits a constraint violation (a concurrent signup) the chunk
+ *   is retried row by row so every row gets its own outcome
+ * - One NDJSON result line per input row is written and flushed
+ */
+@Service
+public class UserImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserImportService.class);
+
+    private static final UserRole IMPORTED_ROLE = UserRole.USER;
+
+    private static final String INSERT_USER_SQL =
+        "INSERT INTO users (id, username, email, password, first_name, last_name, is_active, email_verified, " +
+        "role_mask, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, TRUE, FALSE, " + IMPORTED_ROLE.bit() + ", ?, ?)";
+
+    private static final String NEXT_ID_SQL = "SELECT NEXT VALUE FOR " + User.ID_SEQUENCE;
+
+    private static final Pattern BCRYPT_HASH = Pattern.compile("^\\$2[aby]?\\$\\d\\d\\$[./A-Za-z0-9]{53}$");
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserIdentityFilter userIdentityFilter;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${membership.users.import.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${membership.users.import.hashing-threads:0}")
+    private int hashingThreads;
+
+    private ThreadPoolExecutor hashingExecutor;
+    private ObjectWriter resultWriter;
+    private Counter createdCounter;
+    private Counter failedCounter;
+
+    /**
+     * Supported upload formats
+     */
+    public enum Format {
+        NDJSON,
+        CSV
+    }
+
+    @PostConstruct
+    void start() {
+        int threads = hashingThreads > 0 ? hashingThreads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        // Never more than one chunk is queued; if it is full the importing thread hashes too
+        hashingExecutor = new ThreadPoolExecutor(
+            threads, threads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(chunkSize),
+            runnable -> {
+                Thread thread = new Thread(runnable, "user-import-hashing-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.CallerRunsPolicy());
+
+        resultWriter = objectMapper.copy()
+            .setSerializationInclusion(JsonInclude.Include.NON_NULL)
+            .writerFor(RowResult.class);
+        createdCounter = Counter.builder("membership.users.import.rows")
+            .tag("status", "created")
+            .description("Imported rows that created a user")
+            .register(meterRegistry);
+        failedCounter = Counter.builder("membership.users.import.rows")
+            .tag("status", "failed")
+            .description("Imported rows that were rejected")
+            .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void stop() {
+        hashingExecutor.shutdownNow();
+    }
+
+    /**
+     * Imports users from the given stream, writing one NDJSON result line per row
+     */
+    public ImportSummary importUsers(InputStream input, Format format, OutputStream output) throws IOException {
+        long startedAt = System.currentTimeMillis();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        RowReader rows = format == Format.CSV ? new CsvRowReader(reader) : new NdjsonRowReader(reader, objectMapper);
+
+        int created = 0;
+        int failed = 0;
+        List<ImportRow> chunk = new ArrayList<>(chunkSize);
+        ImportRow row;
+        do {
+            row = rows.next();
+            if (row != null) {
+                chunk.add(row);
+            }
+            if (chunk.size() == chunkSize || (row == null && !chunk.isEmpty())) {
+                for (RowResult result : processChunk(chunk)) {
+                    output.write(resultWriter.writeValueAsBytes(result));
+                    output.write('\n');
+                    if (RowResult.CREATED.equals(result.status())) {
+                        created++;
+                    } else {
+                        failed++;
+                    }
+                }
+                output.flush();
+                chunk.clear();
+            }
+        } while (row != null);
+
+        ImportSummary summary = new ImportSummary(created + failed, created, failed,
+                System.currentTimeMillis() - startedAt);
+        output.write(resultWriter.writeValueAsBytes(RowResult.summary(summary)));
+        output.write('\n');
+        output.flush();
+
+        log.info("Imported {} users ({} rejected) in {} ms", created, failed, summary.elapsedMillis());
+        return summary;
+    }
+
+    // Helper Methods
+
+    private List<RowResult> processChunk(List<ImportRow> chunk) {
+        Map<ImportRow, RowResult> rejected = new HashMap<>();
+        List<ImportRow> accepted = new ArrayList<>(chunk.size());
+
+        Set<String> chunkUsernames = new HashSet<>();
+        Set<String> chunkEmails = new HashSet<>();
+        for (ImportRow row : chunk) {
+            String error = row.validate();
+            if (error != null) {
+                rejected.put(row, RowResult.failed(row, null, error));
+            } else if (!chunkUsernames.add(row.username())) {
+                rejected.put(row, RowResult.failed(row, "username", "Username appears more than once: " + row.username()));
+            } else if (!chunkEmails.add(row.email())) {
+                rejected.put(row, RowResult.failed(row, "email", "Email appears more than once: " + row.email()));
+            } else {
+                accepted.add(row);
+            }
+        }
+
+        rejectExisting(accepted, rejected);
+
+        List<CompletableFuture<String>> hashes = accepted.stream()
+            .map(row -> row.hasPasswordHash()
+                ? CompletableFuture.completedFuture(row.passwordHash())
+                : CompletableFuture.supplyAsync(() -> passwordEncoder.encode(row.password()), hashingExecutor))
+            .toList();
+        List<Long> ids = allocateIds(accepted.size());
+        List<PreparedUser> prepared = new ArrayList<>(accepted.size());
+        for (int i = 0; i < accepted.size(); i++) {
+            prepared.add(new PreparedUser(ids.get(i), accepted.get(i), hashes.get(i).join(), LocalDateTime.now()));
+        }
+
+        Map<ImportRow, RowResult> inserted = prepared.isEmpty() ? Map.of() : insert(prepared);
+        if (!prepared.isEmpty()) {
+            // Cached "no such email" lookups may now be wrong; the JDBC inserts bypassed Hibernate
+            userRepository.evictEmailLookups();
+        }
+
+        List<RowResult> results = new ArrayList<>(chunk.size());
+        for (ImportRow row : chunk) {
+            RowResult result = rejected.containsKey(row) ? rejected.get(row) : inserted.get(row);
+            (RowResult.CREATED.equals(result.status()) ? createdCounter : failedCounter).increment();
+            results.add(result);
+        }
+        return results;
+    }
+
+    private void rejectExisting(List<ImportRow> accepted, Map<ImportRow, RowResult> rejected) {
+        List<String> usernames = accepted.stream().map(ImportRow::username)
+            .filter(userIdentityFilter::mightContainUsername).toList();
+        List<String> emails = accepted.stream().map(ImportRow::email)
+            .filter(userIdentityFilter::mightContainEmail).toList();
+
+        Set<String> existingUsernames = usernames.isEmpty() ? Set.of() : new HashSet<>(namedParameterJdbcTemplate
+            .queryForList("SELECT username FROM users WHERE username IN (:values)", Map.of("values", usernames), String.class));
+        Set<String> existingEmails = emails.isEmpty() ? Set.of() : new HashSet<>(namedParameterJdbcTemplate
+            .queryForList("SELECT email FROM users WHERE email IN (:values)", Map.of("values", emails), String.class));
+
+        accepted.removeIf(row -> {
+            if (existingUsernames.contains(row.username())) {
+                rejected.put(row, RowResult.duplicate(row, new DuplicateUserException("username", row.username())));
+                return true;
+            }
+            if (existingEmails.contains(row.email())) {
+                rejected.put(row, RowResult.duplicate(row, new DuplicateUserException("email", row.email())));
+                return true;
+            }
+            return false;
+        });
+    }
+
+    private Map<ImportRow, RowResult> insert(List<PreparedUser> users) {
+        Map<ImportRow, RowResult> results = new HashMap<>();
+        try {
+            transactionTemplate.executeWithoutResult(status -> insertBatch(users));
+            for (PreparedUser user : users) {
+                results.put(user.row(), RowResult.created(user.row(), user.id()));
+                publishCreated(user);
+            }
+        } catch (DataIntegrityViolationException e) {
+            log.info("Batch of {} imported users hit a constraint, retrying row by row", users.size());
+            for (PreparedUser user : users) {
+                results.put(user.row(), insertOne(user));
+            }
+        }
+        return results;
+    }
+
+    private void insertBatch(List<PreparedUser> users) {
+        jdbcTemplate.batchUpdate(INSERT_USER_SQL, users, users.size(), UserImportService::bindUser);
+    }
+
+    private RowResult insertOne(PreparedUser user) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.update(connection -> {
+                    PreparedStatement statement = connection.prepareStatement(INSERT_USER_SQL);
+                    bindUser(statement, user);
+                    return statement;
+                });
+            });
+            publishCreated(user);
+            return RowResult.created(user.row(), user.id());
+        } catch (DataIntegrityViolationException e) {
+            String constraint = UserService.violatedConstraint(e);
+            if (constraint != null && constraint.contains(User.USERNAME_CONSTRAINT)) {
+                return RowResult.duplicate(user.row(), new DuplicateUserException("username", user.row().username()));
+            }
+            if (constraint != null && constraint.contains(User.EMAIL_CONSTRAINT)) {
+                return RowResult.duplicate(user.row(), new DuplicateUserException("email", user.row().email()));
+            }
+            return RowResult.failed(user.row(), null, "Rejected by the database: " + e.getMostSpecificCause().getMessage());
+        }
+    }
+
+    private static void bindUser(PreparedStatement statement, PreparedUser user) throws SQLException {
+        Timestamp now = Timestamp.valueOf(user.createdAt());
+        statement.setLong(1, user.id());
+        statement.setString(2, user.row().username());
+        statement.setString(3, user.row().email());
+        statement.setString(4, user.encodedPassword());
+        statement.setString(5, user.row().firstName());
+        statement.setString(6, user.row().lastName());
+        statement.setTimestamp(7, now);
+        statement.setTimestamp(8, now);
+    }
+
+    /**
+     * Reserves ids from the users sequence with the same pooled semantics as
+     * Hibernate: each value v fetched from the sequence owns the block
+     * (v - allocationSize, v], so ids never collide with ones the ORM hands out
+     */
+    private List<Long> allocateIds(int count) {
+        List<Long> ids = new ArrayList<>(count);
+        while (ids.size() < count) {
+            Long high = jdbcTemplate.queryForObject(NEXT_ID_SQL, Long.class);
+            for (long id = Math.max(1, high - User.ID_ALLOCATION_SIZE + 1); id <= high && ids.size() < count; id++) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    private void publishCreated(PreparedUser user) {
+        ImportRow row = user.row();
+        eventPublisher.publishEvent(UserChangedEvent.created(new UserSnapshot(
+            user.id(), row.username(), row.email(), row.firstName(), row.lastName(),
+            true, false, Set.of(IMPORTED_ROLE), user.createdAt(), null)));
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    /**
+     * Totals for one import
+     */
+    public record ImportSummary(int processed, int created, int failed, long elapsedMillis) {}
+
+    /**
+     * One parsed input row; {@code parseError} is set when the line could not be read
+     */
+    private record ImportRow(long line, String username, String email, String password, String passwordHash,
+                             String firstName, String lastName, String parseError) {
+
+        static ImportRow unreadable(long line, String parseError) {
+            return new ImportRow(line, null, null, null, null, null, null, parseError);
+        }
+
+        boolean hasPasswordHash() {
+            return passwordHash != null && BCRYPT_HASH.matcher(passwordHash).matches();
+        }
+
+        String validate() {
+            if (parseError != null) {
+                return parseError;
+            }
+            if (username == null || username.length() < 3 || username.length() > 50) {
+                return "Username must be between 3 and 50 characters";
+            }
+            if (email == null || email.indexOf('@') < 1) {
+                return "Email should be valid";
+            }
+            if (passwordHash != null && !hasPasswordHash()) {
+                return "passwordHash must be a BCrypt hash";
+            }
+            if (passwordHash == null && (password == null || password.length() < 6)) {
+                return "Password must be at least 6 characters";
+            }
+            if (isBlank(firstName) || isBlank(lastName)) {
+                return "First name and last name are required";
+            }
+            return null;
+        }
+
+        // Identity, not value equality: two identical lines are still two rows
+        @Override
+        public boolean equals(Object other) {
+            return this == other;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(this);
+        }
+    }
+
+    private record PreparedUser(Long id, ImportRow row, String encodedPassword, LocalDateTime createdAt) {}
+
+    /**
+     * One line of the NDJSON result stream
+     */
+    private record RowResult(Long line, String status, Long id, String username, String field, String message,
+                             Integer processed, Integer created, Integer failed, Long elapsedMillis) {
+
+        static final String CREATED = "created";
+        static final String FAILED = "failed";
+
+        static RowResult created(ImportRow row, Long id) {
+            return new RowResult(row.line(), CREATED, id, row.username(), null, null, null, null, null, null);
+        }
+
+        static RowResult failed(ImportRow row, String field, String message) {
+            return new RowResult(row.line(), FAILED, null, row.username(), field, message, null, null, null, null);
+        }
+
+        static RowResult duplicate(ImportRow row, DuplicateUserException e) {
+            return failed(row, e.getField(), e.getMessage());
+        }
+
+        static RowResult summary(ImportSummary summary) {
+            return new RowResult(null, "completed", null, null, null, null,
+                summary.processed(), summary.created(), summary.failed(), summary.elapsedMillis());
+        }
+    }
+
+    private interface RowReader {
+        ImportRow next() throws IOException;
+    }
+
+    /**
+     * Reads one JSON object per line, skipping blank lines
+     */
+    private static class NdjsonRowReader implements RowReader {
+        private final BufferedReader reader;
+        private final ObjectMapper objectMapper;
+        private long lineNumber;
+
+        NdjsonRowReader(BufferedReader reader, ObjectMapper objectMapper) {
+            this.reader = reader;
+            this.objectMapper = objectMapper;
+        }
+
+        @Override
+        public ImportRow next() throws IOException {
+            String line;
+            do {
+                line = reader.readLine();
+                lineNumber++;
+            } while (line != null && line.isBlank());
+            if (line == null) {
+                return null;
+            }
+
+            try {
+                JsonNode node = objectMapper.readTree(line);
+                return new ImportRow(lineNumber,
+                    text(node, "username"), text(node, "email"), text(node, "password"), text(node, "passwordHash"),
+                    text(node, "firstName"), text(node, "lastName"), null);
+            } catch (JsonProcessingException e) {
+                return ImportRow.unreadable(lineNumber, "Line is not a JSON object");
+            }
+        }
+
+        private static String text(JsonNode node, String field) {
+            String value = node.path(field).asText(null);
+            return value != null ? value.trim() : null;
+        }
+    }
+
+    /**
+     * Reads comma-separated rows with a header line; fields may be double-quoted
+     * but must not contain line breaks
+     */
+    private static class CsvRowReader implements RowReader {
+        private final BufferedReader reader;
+        private Map<String, Integer> columns;
+        private long lineNumber;
+
+        CsvRowReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public ImportRow next() throws IOException {
+            if (columns == null && !readHeader()) {
+                return null;
+            }
+            String line;
+            do {
+                line = reader.readLine();
+                lineNumber++;
+            } while (line != null && line.isBlank());
+            if (line == null) {
+                return null;
+            }
+
+            List<String> values = split(line);
+            if (values == null) {
+                return ImportRow.unreadable(lineNumber, "Unterminated quoted field");
+            }
+            return new ImportRow(lineNumber,
+                value(values, "username"), value(values, "email"), value(values, "password"),
+                value(values, "passwordhash"), value(values, "firstname"), value(values, "lastname"), null);
+        }
+
+        private boolean readHeader() throws IOException {
+            String header = reader.readLine();
+            lineNumber++;
+            if (header == null) {
+                return false;
+            }
+            columns = new HashMap<>();
+            List<String> names = split(header.replace("\uFEFF", ""));
+            for (int i = 0; names != null && i < names.size(); i++) {
+                columns.put(names.get(i).trim().toLowerCase(Locale.ROOT).replace("_", ""), i);
+            }
+            return true;
+        }
+
+        private String value(List<String> values, String column) {
+            Integer index = columns.get(column);
+            if (index == null || index >= values.size()) {
+                return null;
+            }
+            String value = values.get(index).trim();
+            return value.isEmpty() ? null : value;
+        }
+
+        private static List<String> split(String line) {
+            List<String> values = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        field.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    values.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            if (quoted) {
+                return null;
+            }
+            values.add(field.toString());
+            return values;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.firstclub.membership.service;
+
+import com.firstclub.membership.event.UserChangedEvent;
+import com.firstclub.membership.model.UserSnapshot;
+
+/**
+ * In-memory index over the users table
+ *
+ * Indexes are populated by {@link UserIndexBootstrap}, which streams the
+ * users table once for all indexes, and kept current from the
+ * {@link UserChangedEvent}s published by UserService. Until the first load
+ * completes {@link #isReady()} is false and callers must fall back to the
+ * database.
+ */
+public interface UserIndex {
+
+    /**
+     * Starts a (re)build; the previous contents keep serving reads until it completes
+     */
+    void beginRebuild(long expectedUsers);
+
+    /**
+     * Adds a user streamed from the database during a rebuild
+     */
+    void add(UserSnapshot user);
+
+    /**
+     * Atomically replaces the served contents with the rebuilt ones
+     */
+    void completeRebuild();
+
+    /**
+     * Applies a committed change made through UserService
+     */
+    void onUserChanged(UserChangedEvent event);
+
+    boolean isReady();
+
+    /**
+     * Returns true when the index can no longer answer accurately and should be rebuilt
+     */
+    default boolean needsRebuild() {
+        return false;
+    }
+}
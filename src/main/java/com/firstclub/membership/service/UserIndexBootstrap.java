@@ -0,0 +1,150 @@
+package com.firstclub.membership.service;
+
+import com.firstclub.membership.event.UserChangedEvent;
+import com.firstclub.membership.model.User.UserRole;
+import com.firstclub.membership.model.UserSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Loads and maintains every {@link UserIndex}
+ *
+ * At startup the users table is streamed once, in a background thread, with a
+ * forward-only cursor and feeds every index, so start-up is not blocked and
+ * heap use does not depend on table size. Committed user changes are then
+ * fanned out to the indexes as they happen.
+ */
+@Component
+public class UserIndexBootstrap {
+
+    private static final Logger log = LoggerFactory.getLogger(UserIndexBootstrap.class);
+
+    private static final String STREAM_SQL =
+        "SELECT u.id, u.username, u.email, u.first_name, u.last_name, u.is_active, u.email_verified, " +
+        "u.created_at, u.last_login, u.role_mask " +
+        "FROM users u";
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    @Autowired
+    private List<UserIndex> indexes;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private TaskExecutor taskExecutor;
+
+    @Value("${membership.users.index.fetch-size:1000}")
+    private int fetchSize;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        taskExecutor.execute(() -> rebuild(indexes));
+    }
+
+    /**
+     * Rebuilds any index that reported it can no longer answer accurately
+     */
+    @Scheduled(fixedDelayString = "${membership.users.index.rebuild-check-ms:60000}")
+    public void rebuildStaleIndexes() {
+        List<UserIndex> stale = indexes.stream().filter(UserIndex::needsRebuild).toList();
+        if (!stale.isEmpty()) {
+            rebuild(stale);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        for (UserIndex index : indexes) {
+            try {
+                index.onUserChanged(event);
+            } catch (RuntimeException e) {
+                log.error("Failed to apply {} of user {} to {}", event.type(), event.userId(),
+                        index.getClass().getSimpleName(), e);
+            }
+        }
+    }
+
+    /**
+     * Streams the users table once into the given indexes
+     */
+    public void rebuild(List<UserIndex> targets) {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long started = System.currentTimeMillis();
+            Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Long.class);
+            targets.forEach(index -> index.beginRebuild(count != null ? count : 0));
+
+            SnapshotLoader loader = new SnapshotLoader(targets);
+            jdbcTemplate.query(connection -> {
+                var statement = connection.prepareStatement(STREAM_SQL,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(fetchSize);
+                return statement;
+            }, loader);
+
+            targets.forEach(UserIndex::completeRebuild);
+            log.info("Loaded {} users into {} in-memory indexes in {} ms",
+                    loader.loaded, targets.size(), System.currentTimeMillis() - started);
+        } catch (RuntimeException e) {
+            log.error("Failed to load user indexes; lookups will use the database", e);
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    /**
+     * Turns each users row into a snapshot and feeds it to every target
+     */
+    private static class SnapshotLoader implements RowCallbackHandler {
+        private final List<UserIndex> targets;
+        private long loaded;
+
+        SnapshotLoader(List<UserIndex> targets) {
+            this.targets = targets;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            UserSnapshot user = new UserSnapshot(
+                rs.getLong("id"),
+                rs.getString("username"),
+                rs.getString("email"),
+                rs.getString("first_name"),
+                rs.getString("last_name"),
+                rs.getBoolean("is_active"),
+                rs.getBoolean("email_verified"),
+                UserRole.fromMask(rs.getInt("role_mask")),
+                toLocalDateTime(rs.getTimestamp("created_at")),
+                toLocalDateTime(rs.getTimestamp("last_login")));
+            targets.forEach(index -> index.add(user));
+            loaded++;
+        }
+
+        private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+            return timestamp != null ? timestamp.toLocalDateTime() : null;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.firstclub.membership.service;
+
+import com.firstclub.membership.event.UserChangedEvent;
+import com.firstclub.membership.model.UserSnapshot;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Sorted index of usernames and emails for prefix typeahead
+ *
+ * Every user has two keys, its normalized username and email, each suffixed
+ * with the user id so different users never collide. A prefix lookup is a
+ * range scan over a concurrent skip list that stops after the requested
+ * number of users, so its cost depends on the limit rather than the number
+ * of users. Reads take no locks; writes are serialized.
+ */
+@Component
+public class UserPrefixIndex implements UserIndex {
+
+    public static final int MAX_LIMIT = 50;
+
+    // Sorts before every character a normalized key can contain
+    private static final char ID_SEPARATOR = '\u0000';
+
+    private final Object writeLock = new Object();
+    private volatile ConcurrentSkipListMap<String, Suggestion> live;
+    private ConcurrentSkipListMap<String, Suggestion> building;
+    // Users changed while a rebuild streams the table; their streamed rows may be stale
+    private Set<Long> changedDuringRebuild;
+
+    /**
+     * Returns up to {@code limit} users whose username or email starts with the prefix,
+     * in key order
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        ConcurrentSkipListMap<String, Suggestion> keys = live;
+        if (keys == null) {
+            throw new IllegalStateException("User prefix index is not loaded yet");
+        }
+        String from = normalize(prefix);
+        if (from.isEmpty()) {
+            return List.of();
+        }
+
+        ConcurrentNavigableMap<String, Suggestion> range = keys.subMap(from, true, from + Character.MAX_VALUE, false);
+        Map<Long, Suggestion> found = new LinkedHashMap<>();
+        for (Suggestion suggestion : range.values()) {
+            found.putIfAbsent(suggestion.id(), suggestion);
+            if (found.size() >= limit) {
+                break;
+            }
+        }
+        return new ArrayList<>(found.values());
+    }
+
+    @Override
+    public void beginRebuild(long expectedUsers) {
+        synchronized (writeLock) {
+            building = new ConcurrentSkipListMap<>();
+            changedDuringRebuild = new HashSet<>();
+        }
+    }
+
+    @Override
+    public void add(UserSnapshot user) {
+        synchronized (writeLock) {
+            if (building != null && !changedDuringRebuild.contains(user.id())) {
+                put(building, user);
+            }
+        }
+    }
+
+    @Override
+    public void completeRebuild() {
+        synchronized (writeLock) {
+            if (building != null) {
+                live = building;
+                building = null;
+                changedDuringRebuild = null;
+            }
+        }
+    }
+
+    @Override
+    public void onUserChanged(UserChangedEvent event) {
+        synchronized (writeLock) {
+            for (ConcurrentSkipListMap<String, Suggestion> keys : Arrays.asList(live, building)) {
+                if (keys == null) {
+                    continue;
+                }
+                if (event.previous() != null) {
+                    remove(keys, event.previous());
+                }
+                if (event.current() != null) {
+                    put(keys, event.current());
+                }
+            }
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.add(event.userId());
+            }
+        }
+    }
+
+    @Override
+    public boolean isReady() {
+        return live != null;
+    }
+
+    // Helper Methods
+
+    private static void put(ConcurrentSkipListMap<String, Suggestion> keys, UserSnapshot user) {
+        Suggestion suggestion = new Suggestion(user.id(), user.username());
+        keys.put(key(user.username(), user.id()), suggestion);
+        keys.put(key(user.email(), user.id()), suggestion);
+    }
+
+    private static void remove(ConcurrentSkipListMap<String, Suggestion> keys, UserSnapshot user) {
+        keys.remove(key(user.username(), user.id()));
+        keys.remove(key(user.email(), user.id()));
+    }
+
+    private static String key(String value, Long id) {
+        return normalize(value) + ID_SEPARATOR + id;
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * A typeahead hit
+     */
+    public record Suggestion(Long id, String username) {
+    }
+}
@@ -0,0 +1,80 @@
+package com.firstclub.membership.service;
+
+import com.firstclub.membership.model.User.UserRole;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.util.Locale;
+
+/**
+ * Converts roles from the old user_roles table into users.role_mask
+ *
+ * Roles used to be an element collection with one user_roles row per role.
+ * On a database that still has that table, every role is OR-ed into the
+ * owning user's mask in one transaction and the table is then dropped.
+ * Runs before the in-memory indexes and rollups load (they read role_mask),
+ * and is a no-op once the table is gone. OR-ing is idempotent, so an
+ * interrupted run is simply repeated on the next start.
+ */
+@Component
+public class UserRoleMaskMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(UserRoleMaskMigration.class);
+
+    private static final String LEGACY_TABLE = "user_roles";
+
+    private static final String MERGE_ROLE_SQL =
+        "UPDATE users SET role_mask = BITOR(role_mask, ?) " +
+        "WHERE id IN (SELECT user_id FROM " + LEGACY_TABLE + " WHERE role = ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // Not used directly: makes Hibernate create the role_mask column first
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @PostConstruct
+    void migrate() {
+        if (!legacyTableExists()) {
+            return;
+        }
+        long started = System.currentTimeMillis();
+        int updated = transactionTemplate.execute(status -> {
+            int rows = 0;
+            for (UserRole role : UserRole.values()) {
+                rows += jdbcTemplate.update(MERGE_ROLE_SQL, role.bit(), role.name());
+            }
+            return rows;
+        });
+        jdbcTemplate.execute("DROP TABLE " + LEGACY_TABLE);
+        log.info("Migrated {} user role assignments from {} to users.role_mask in {} ms",
+                updated, LEGACY_TABLE, System.currentTimeMillis() - started);
+    }
+
+    private boolean legacyTableExists() {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((Connection connection) -> {
+            var metaData = connection.getMetaData();
+            for (String name : new String[] { LEGACY_TABLE, LEGACY_TABLE.toUpperCase(Locale.ROOT) }) {
+                try (ResultSet tables = metaData.getTables(connection.getCatalog(), connection.getSchema(), name,
+                        new String[] { "TABLE" })) {
+                    if (tables.next()) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }));
+    }
+}
@@ -0,0 +1,351 @@
+package com.firstclub.membership.service;
+
+import com.firstclub.membership.event.UserChangedEvent;
+import com.firstclub.membership.model.UserSnapshot;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Trigram inverted index over username, email, first name and last name
+ *
+ * Serves the same "contains, case-insensitive, on any of the four fields"
+ * semantics as UserRepository.searchUsers without a table scan. Each user is
+ * stored under a dense document number and every distinct trigram of its
+ * fields points to a posting list of document numbers. A query intersects the
+ * posting lists of its own trigrams, which yields a small candidate set that
+ * is then checked with a real substring match, so results are exact.
+ *
+ * Document numbers only ever grow, so posting lists stay sorted by appending.
+ * Updates and deletes tombstone the old document instead of editing posting
+ * lists; once tombstones pile up the index asks for a rebuild, which
+ * compacts it.
+ *
+ * Queries shorter than {@link #MIN_QUERY_LENGTH} characters have no trigram
+ * and must be answered by the database.
+ */
+@Component
+public class UserSearchIndex implements UserIndex {
+
+    public static final int MIN_QUERY_LENGTH = 3;
+
+    // Ranking: match quality dominates, then which field matched
+    private static final int EXACT = 3;
+    private static final int PREFIX = 2;
+    private static final int CONTAINS = 1;
+    private static final int[] FIELD_WEIGHTS = { 4, 3, 2, 2 }; // username, email, first name, last name
+
+    private static final Comparator<Match> RANKING = Comparator.comparingInt(Match::score).reversed()
+        .thenComparing(match -> match.user().createdAt(), Comparator.nullsLast(Comparator.reverseOrder()))
+        .thenComparing(match -> match.user().id(), Comparator.reverseOrder());
+
+    @Value("${membership.users.search-index.max-tombstone-ratio:0.25}")
+    private double maxTombstoneRatio;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Segment live;
+    private Segment building;
+    // Users changed while a rebuild streams the table; their streamed rows may be stale
+    private Set<Long> changedDuringRebuild;
+
+    /**
+     * Returns one page of users whose fields contain the query, best matches first,
+     * with the exact number of matches as the total
+     */
+    public Page<UserSnapshot> search(String query, Pageable pageable) {
+        List<Match> matches = rankedMatches(query);
+        int from = (int) Math.min(pageable.getOffset(), matches.size());
+        int to = Math.min(from + pageable.getPageSize(), matches.size());
+        List<UserSnapshot> content = matches.subList(from, to).stream().map(Match::user).toList();
+        return new PageImpl<>(content, pageable, matches.size());
+    }
+
+    /**
+     * Returns up to {@code limit} matches ranked strictly after the given position,
+     * in the same order as {@link #search}; a null position starts at the best match
+     */
+    public List<Match> searchAfter(String query, Integer afterScore, LocalDateTime afterCreatedAt, Long afterId, int limit) {
+        List<Match> matches = rankedMatches(query);
+        int from = 0;
+        if (afterScore != null) {
+            while (from < matches.size() && !isAfter(matches.get(from), afterScore, afterCreatedAt, afterId)) {
+                from++;
+            }
+        }
+        return List.copyOf(matches.subList(from, Math.min(from + limit, matches.size())));
+    }
+
+    @Override
+    public void beginRebuild(long expectedUsers) {
+        lock.writeLock().lock();
+        try {
+            building = new Segment((int) Math.min(Integer.MAX_VALUE, Math.max(16, expectedUsers)));
+            changedDuringRebuild = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void add(UserSnapshot user) {
+        lock.writeLock().lock();
+        try {
+            if (building != null && !changedDuringRebuild.contains(user.id())) {
+                building.put(user);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void completeRebuild() {
+        lock.writeLock().lock();
+        try {
+            if (building != null) {
+                live = building;
+                building = null;
+                changedDuringRebuild = null;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onUserChanged(UserChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            for (Segment segment : new Segment[] { live, building }) {
+                if (segment == null) {
+                    continue;
+                }
+                if (event.current() != null) {
+                    segment.put(event.current());
+                } else {
+                    segment.remove(event.userId());
+                }
+            }
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.add(event.userId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean isReady() {
+        lock.readLock().lock();
+        try {
+            return live != null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean needsRebuild() {
+        lock.readLock().lock();
+        try {
+            return live != null && live.tombstones > Math.max(1000, live.docs.size() * maxTombstoneRatio);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Helper Methods
+
+    private List<Match> rankedMatches(String query) {
+        String needle = normalize(query);
+        if (needle.length() < MIN_QUERY_LENGTH) {
+            throw new IllegalArgumentException("Search query must have at least " + MIN_QUERY_LENGTH + " characters");
+        }
+
+        List<Match> matches = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            if (live == null) {
+                throw new IllegalStateException("User search index is not loaded yet");
+            }
+            for (int docNo : live.candidates(needle)) {
+                UserSnapshot user = live.docs.get(docNo);
+                if (user != null) {
+                    int score = score(user, needle);
+                    if (score > 0) {
+                        matches.add(new Match(user, score));
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        matches.sort(RANKING);
+        return matches;
+    }
+
+    // Mirrors RANKING: higher score, then newer (nulls last), then higher id come first
+    private static boolean isAfter(Match match, int score, LocalDateTime createdAt, long id) {
+        if (match.score() != score) {
+            return match.score() < score;
+        }
+        LocalDateTime matchCreatedAt = match.user().createdAt();
+        if (!Objects.equals(matchCreatedAt, createdAt)) {
+            if (matchCreatedAt == null || createdAt == null) {
+                return matchCreatedAt == null;
+            }
+            return matchCreatedAt.isBefore(createdAt);
+        }
+        return match.user().id() < id;
+    }
+
+    private static int score(UserSnapshot user, String needle) {
+        String[] fields = fields(user);
+        int best = 0;
+        for (int i = 0; i < fields.length; i++) {
+            String field = fields[i];
+            int quality = field.equals(needle) ? EXACT
+                : field.startsWith(needle) ? PREFIX
+                : field.contains(needle) ? CONTAINS
+                : 0;
+            if (quality > 0) {
+                best = Math.max(best, quality * 10 + FIELD_WEIGHTS[i]);
+            }
+        }
+        return best;
+    }
+
+    private static String[] fields(UserSnapshot user) {
+        return new String[] {
+            normalize(user.username()), normalize(user.email()), normalize(user.firstName()), normalize(user.lastName())
+        };
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // Packs three UTF-16 chars into one key
+    private static long trigram(String text, int start) {
+        return ((long) text.charAt(start) << 32) | ((long) text.charAt(start + 1) << 16) | text.charAt(start + 2);
+    }
+
+    /**
+     * A matching user and its relevance score
+     */
+    public record Match(UserSnapshot user, int score) {
+    }
+
+    /**
+     * Documents and posting lists; only accessed under the index lock
+     */
+    private static class Segment {
+        private final ArrayList<UserSnapshot> docs;
+        private final Map<Long, Integer> docByUserId;
+        private final Map<Long, IntList> postings = new HashMap<>();
+        private int tombstones;
+
+        Segment(int expectedUsers) {
+            this.docs = new ArrayList<>(expectedUsers);
+            this.docByUserId = new HashMap<>(expectedUsers * 4 / 3 + 1);
+        }
+
+        void put(UserSnapshot user) {
+            remove(user.id());
+            int docNo = docs.size();
+            docs.add(user);
+            docByUserId.put(user.id(), docNo);
+
+            Set<Long> trigrams = new HashSet<>();
+            for (String field : fields(user)) {
+                for (int i = 0; i + MIN_QUERY_LENGTH <= field.length(); i++) {
+                    trigrams.add(trigram(field, i));
+                }
+            }
+            for (Long key : trigrams) {
+                postings.computeIfAbsent(key, k -> new IntList()).add(docNo);
+            }
+        }
+
+        void remove(Long userId) {
+            Integer docNo = docByUserId.remove(userId);
+            if (docNo != null) {
+                docs.set(docNo, null);
+                tombstones++;
+            }
+        }
+
+        /**
+         * Document numbers that contain every trigram of the needle (a superset of the matches)
+         */
+        int[] candidates(String needle) {
+            Set<Long> keys = new HashSet<>();
+            for (int i = 0; i + MIN_QUERY_LENGTH <= needle.length(); i++) {
+                keys.add(trigram(needle, i));
+            }
+            List<IntList> lists = new ArrayList<>(keys.size());
+            for (Long key : keys) {
+                IntList list = postings.get(key);
+                if (list == null) {
+                    return new int[0];
+                }
+                lists.add(list);
+            }
+            lists.sort(Comparator.comparingInt(list -> list.size));
+
+            // Walk the shortest list and probe the others, whose search window only moves forward
+            IntList shortest = lists.get(0);
+            int[] cursors = new int[lists.size()];
+            int[] result = new int[shortest.size];
+            int found = 0;
+            outer:
+            for (int i = 0; i < shortest.size; i++) {
+                int docNo = shortest.values[i];
+                for (int l = 1; l < lists.size(); l++) {
+                    IntList other = lists.get(l);
+                    int position = Arrays.binarySearch(other.values, cursors[l], other.size, docNo);
+                    if (position < 0) {
+                        cursors[l] = -position - 1;
+                        if (cursors[l] >= other.size) {
+                            break outer;
+                        }
+                        continue outer;
+                    }
+                    cursors[l] = position + 1;
+                }
+                result[found++] = docNo;
+            }
+            return Arrays.copyOf(result, found);
+        }
+    }
+
+    /**
+     * Growable array of ascending document numbers
+     */
+    private static class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size + (size >> 1) + 1);
+            }
+            values[size++] = value;
+        }
+    }
+}
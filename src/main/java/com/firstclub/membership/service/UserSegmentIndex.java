@@ -0,0 +1,646 @@
+package com.firstclub.membership.service;
+
+import com.firstclub.membership.event.UserChangedEvent;
+import com.firstclub.membership.model.User.UserRole;
+import com.firstclub.membership.model.UserSnapshot;
+import com.firstclub.membership.util.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Bitmap index of user attributes for segment filters and facet counts
+ *
+ * Every attribute value (active, emailVerified, each role, each signup month,
+ * each login day) owns a compressed bitmap of the ids of the users that have
+ * it. A filter such as {@code role:ADMIN AND active:true AND NOT lastLogin:30d}
+ * is evaluated with bitmap AND / OR / AND NOT, facet counts are intersection
+ * cardinalities, and only the ids of the requested page are read back out, so
+ * the cost depends on the number of distinct values rather than on the number
+ * of matching users.
+ *
+ * Logins are kept in one bitmap per day for {@code login-window-days}; older
+ * days are folded into a single bucket, so recency filters accept up to that
+ * many days. Because last_login is written behind, logins are recorded from
+ * UserService rather than from change events. Recording only keeps the
+ * newest login per user in memory; the bitmaps take them in batches every
+ * {@code login-apply-ms}, so a login never waits for the index lock and
+ * shows in recency filters within that interval.
+ *
+ * Ids must fit in 32 unsigned bits; if one does not, the index reports itself
+ * not ready instead of answering wrongly.
+ */
+@Component
+public class UserSegmentIndex implements UserIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(UserSegmentIndex.class);
+
+    public static final int MAX_PAGE_SIZE = 100;
+
+    // Upper bounds (days, inclusive) of the login recency facet buckets: 0-7d, 8-30d, 31-90d, then 90d+
+    private static final int[] LOGIN_RECENCY_DAYS = { 7, 30, 90 };
+    private static final String LOGIN_NEVER = "never";
+
+    @Value("${membership.users.segments.login-window-days:365}")
+    private int loginWindowDays;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Logins not yet applied to the bitmaps, newest per user; written without the index lock
+    private final Map<Long, LocalDateTime> pendingLogins = new ConcurrentHashMap<>();
+    private Segments live;
+    private Segments building;
+    // Users changed while a rebuild streams the table; their streamed rows may be stale
+    private Set<Long> changedDuringRebuild;
+    // Logins recorded while a rebuild streams the table; last_login in the stream may predate them
+    private Map<Long, LocalDateTime> loginsDuringRebuild;
+    private boolean idOutOfRange;
+
+    /**
+     * Filterable attributes; each is also available as a facet
+     */
+    public enum Field {
+        ACTIVE("active"),
+        EMAIL_VERIFIED("emailVerified"),
+        ROLE("role"),
+        SIGNUP_MONTH("signupMonth"),
+        LAST_LOGIN("lastLogin");
+
+        private final String key;
+
+        Field(String key) {
+            this.key = key;
+        }
+
+        public String key() {
+            return key;
+        }
+
+        public static Field of(String key) {
+            for (Field field : values()) {
+                if (field.key.equalsIgnoreCase(key)) {
+                    return field;
+                }
+            }
+            throw new IllegalArgumentException("Unknown filter field: " + key + " (supported: active, emailVerified, "
+                + "role, signupMonth, lastLogin)");
+        }
+    }
+
+    /**
+     * Evaluates the filter and returns the total, the requested facets over
+     * the matching users, and the ids of one page of them, newest id first
+     */
+    public Selection select(String filter, Collection<Field> facets, int page, int size) {
+        Expression expression = Parser.parse(filter);
+        lock.readLock().lock();
+        try {
+            Segments segments = requireLive();
+            RoaringBitmap matches = expression.evaluate(segments, LocalDate.now(), loginWindowDays);
+            Map<String, Map<String, Long>> facetCounts = new LinkedHashMap<>();
+            for (Field facet : facets) {
+                facetCounts.put(facet.key(), segments.facet(facet, matches, LocalDate.now()));
+            }
+            int[] docs = matches.page((long) page * size, size, true);
+            List<Long> ids = new ArrayList<>(docs.length);
+            for (int doc : docs) {
+                ids.add(Integer.toUnsignedLong(doc));
+            }
+            return new Selection(matches.cardinality(), facetCounts, ids);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Records a login for the next {@link #applyPendingLogins()}; called by UserService since last_login
+     * reaches the database later
+     */
+    public void recordLogin(Long userId, LocalDateTime loginTime) {
+        if (userId == null || loginTime == null || !inRange(userId)) {
+            return;
+        }
+        pendingLogins.merge(userId, loginTime, (current, candidate) -> candidate.isAfter(current) ? candidate : current);
+    }
+
+    /**
+     * Applies the recorded logins to the login bitmaps, taking the write lock once for the whole batch
+     */
+    @Scheduled(fixedDelayString = "${membership.users.segments.login-apply-ms:1000}")
+    public void applyPendingLogins() {
+        if (pendingLogins.isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            LocalDate windowStart = windowStart();
+            for (Map.Entry<Long, LocalDateTime> entry : pendingLogins.entrySet()) {
+                // Only take the value we read; a newer login stays pending for the next batch
+                if (pendingLogins.remove(entry.getKey(), entry.getValue())) {
+                    applyLogin(entry.getKey(), entry.getValue(), windowStart);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Folds login days that have left the window into the older-logins bucket
+     */
+    @Scheduled(fixedDelayString = "${membership.users.segments.roll-check-ms:3600000}")
+    public void rollLoginWindow() {
+        lock.writeLock().lock();
+        try {
+            LocalDate windowStart = windowStart();
+            for (Segments segments : new Segments[] { live, building }) {
+                if (segments != null) {
+                    segments.rollLoginWindow(windowStart);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void beginRebuild(long expectedUsers) {
+        lock.writeLock().lock();
+        try {
+            building = new Segments();
+            changedDuringRebuild = new HashSet<>();
+            loginsDuringRebuild = new HashMap<>();
+            idOutOfRange = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void add(UserSnapshot user) {
+        lock.writeLock().lock();
+        try {
+            if (building == null || changedDuringRebuild.contains(user.id())) {
+                return;
+            }
+            if (!inRange(user.id())) {
+                markOutOfRange(user.id());
+                return;
+            }
+            LocalDateTime recorded = loginsDuringRebuild.get(user.id());
+            LocalDateTime lastLogin = recorded != null && (user.lastLogin() == null || recorded.isAfter(user.lastLogin()))
+                ? recorded
+                : user.lastLogin();
+            building.put(user.id().intValue(), user, lastLogin, windowStart());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void completeRebuild() {
+        lock.writeLock().lock();
+        try {
+            if (building != null) {
+                live = building;
+                building = null;
+                changedDuringRebuild = null;
+                loginsDuringRebuild = null;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onUserChanged(UserChangedEvent event) {
+        if (!inRange(event.userId())) {
+            lock.writeLock().lock();
+            try {
+                markOutOfRange(event.userId());
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return;
+        }
+        int doc = event.userId().intValue();
+        lock.writeLock().lock();
+        try {
+            LocalDate windowStart = windowStart();
+            for (Segments segments : new Segments[] { live, building }) {
+                if (segments == null) {
+                    continue;
+                }
+                UserSnapshot previous = event.previous();
+                UserSnapshot current = event.current();
+                if (current == null) {
+                    segments.remove(doc, true);
+                } else if (previous == null || !Objects.equals(previous.lastLogin(), current.lastLogin())) {
+                    segments.remove(doc, true);
+                    segments.put(doc, current, current.lastLogin(), windowStart);
+                } else {
+                    // last_login is maintained by recordLogin; a snapshot may carry an older value
+                    segments.remove(doc, false);
+                    segments.putAttributes(doc, current);
+                }
+            }
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.add(event.userId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean isReady() {
+        lock.readLock().lock();
+        try {
+            return live != null && !idOutOfRange;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Helper Methods
+
+    private void applyLogin(Long userId, LocalDateTime loginTime, LocalDate windowStart) {
+        for (Segments segments : new Segments[] { live, building }) {
+            if (segments != null && segments.all.contains(userId.intValue())) {
+                segments.putLogin(userId.intValue(), loginTime, windowStart);
+            }
+        }
+        if (loginsDuringRebuild != null) {
+            loginsDuringRebuild.merge(userId, loginTime, (a, b) -> a.isAfter(b) ? a : b);
+        }
+    }
+
+    private Segments requireLive() {
+        if (live == null || idOutOfRange) {
+            throw new IllegalStateException("User segment index is not loaded yet");
+        }
+        return live;
+    }
+
+    private LocalDate windowStart() {
+        return LocalDate.now().minusDays(loginWindowDays);
+    }
+
+    private void markOutOfRange(Long userId) {
+        if (!idOutOfRange) {
+            log.error("User id {} does not fit in 32 bits; segment filters are unavailable", userId);
+        }
+        idOutOfRange = true;
+    }
+
+    private static boolean inRange(Long userId) {
+        return userId != null && userId >= 0 && userId <= 0xFFFFFFFFL;
+    }
+
+    /**
+     * Total matches, facet counts and the ids of the requested page
+     */
+    public record Selection(long total, Map<String, Map<String, Long>> facets, List<Long> ids) {
+    }
+
+    /**
+     * Value bitmaps; only accessed under the index lock
+     */
+    private static class Segments {
+        private final RoaringBitmap all = new RoaringBitmap();
+        private final Map<Field, TreeMap<String, RoaringBitmap>> values = new EnumMap<>(Field.class);
+        private final TreeMap<LocalDate, RoaringBitmap> loginDays = new TreeMap<>();
+        private RoaringBitmap loggedInBeforeWindow = new RoaringBitmap();
+        private final RoaringBitmap neverLoggedIn = new RoaringBitmap();
+
+        Segments() {
+            for (Field field : Field.values()) {
+                if (field != Field.LAST_LOGIN) {
+                    values.put(field, new TreeMap<>());
+                }
+            }
+            for (UserRole role : UserRole.values()) {
+                values.get(Field.ROLE).put(role.name(), new RoaringBitmap());
+            }
+        }
+
+        void put(int doc, UserSnapshot user, LocalDateTime lastLogin, LocalDate windowStart) {
+            putAttributes(doc, user);
+            if (lastLogin == null) {
+                neverLoggedIn.add(doc);
+            } else {
+                putLogin(doc, lastLogin, windowStart);
+            }
+        }
+
+        void putAttributes(int doc, UserSnapshot user) {
+            all.add(doc);
+            bitmap(Field.ACTIVE, String.valueOf(user.isActive())).add(doc);
+            bitmap(Field.EMAIL_VERIFIED, String.valueOf(user.emailVerified())).add(doc);
+            for (UserRole role : user.roles()) {
+                bitmap(Field.ROLE, role.name()).add(doc);
+            }
+            if (user.createdAt() != null) {
+                bitmap(Field.SIGNUP_MONTH, YearMonth.from(user.createdAt()).toString()).add(doc);
+            }
+        }
+
+        void putLogin(int doc, LocalDateTime loginTime, LocalDate windowStart) {
+            removeLogin(doc);
+            LocalDate day = loginTime.toLocalDate();
+            if (day.isBefore(windowStart)) {
+                loggedInBeforeWindow.add(doc);
+            } else {
+                loginDays.computeIfAbsent(day, d -> new RoaringBitmap()).add(doc);
+            }
+        }
+
+        void remove(int doc, boolean includeLogin) {
+            all.remove(doc);
+            for (TreeMap<String, RoaringBitmap> field : values.values()) {
+                for (RoaringBitmap bitmap : field.values()) {
+                    bitmap.remove(doc);
+                }
+            }
+            if (includeLogin) {
+                removeLogin(doc);
+            }
+        }
+
+        void rollLoginWindow(LocalDate windowStart) {
+            Map<LocalDate, RoaringBitmap> expired = loginDays.headMap(windowStart);
+            for (RoaringBitmap day : expired.values()) {
+                loggedInBeforeWindow = RoaringBitmap.or(loggedInBeforeWindow, day);
+            }
+            expired.clear();
+        }
+
+        RoaringBitmap bitmap(Field field, String value) {
+            return values.get(field).computeIfAbsent(value, v -> new RoaringBitmap());
+        }
+
+        RoaringBitmap valueOf(Field field, String value) {
+            RoaringBitmap bitmap = values.get(field).get(value);
+            return bitmap != null ? bitmap : new RoaringBitmap();
+        }
+
+        /**
+         * Users who logged in on or after the given day
+         */
+        RoaringBitmap loggedInSince(LocalDate since) {
+            RoaringBitmap result = new RoaringBitmap();
+            for (RoaringBitmap day : loginDays.tailMap(since, true).values()) {
+                result = RoaringBitmap.or(result, day);
+            }
+            return result;
+        }
+
+        Map<String, Long> facet(Field field, RoaringBitmap matches, LocalDate today) {
+            Map<String, Long> counts = new LinkedHashMap<>();
+            if (field == Field.LAST_LOGIN) {
+                long counted = 0;
+                int from = 0;
+                for (int to : LOGIN_RECENCY_DAYS) {
+                    long count = 0;
+                    for (RoaringBitmap day : loginDays.subMap(today.minusDays(to), true, today.minusDays(from), true).values()) {
+                        count += matches.andCardinality(day);
+                    }
+                    counts.put(from + "-" + to + "d", count);
+                    counted += count;
+                    from = to + 1;
+                }
+                long never = matches.andCardinality(neverLoggedIn);
+                counts.put(LOGIN_RECENCY_DAYS[LOGIN_RECENCY_DAYS.length - 1] + "d+", matches.cardinality() - counted - never);
+                counts.put(LOGIN_NEVER, never);
+                return counts;
+            }
+            // Signup months are open-ended, so only months with matches are listed
+            values.get(field).forEach((value, bitmap) -> {
+                long count = matches.andCardinality(bitmap);
+                if (count > 0 || field != Field.SIGNUP_MONTH) {
+                    counts.put(value, count);
+                }
+            });
+            return counts;
+        }
+
+        private void removeLogin(int doc) {
+            if (neverLoggedIn.remove(doc) || loggedInBeforeWindow.remove(doc)) {
+                return;
+            }
+            loginDays.values().removeIf(day -> day.remove(doc) && day.isEmpty());
+        }
+    }
+
+    /**
+     * Parsed filter: terms combined with AND, OR, NOT and parentheses
+     */
+    private interface Expression {
+        RoaringBitmap evaluate(Segments segments, LocalDate today, int loginWindowDays);
+    }
+
+    /**
+     * Recursive-descent parser; OR binds loosest, then AND, then NOT
+     *
+     * <pre>
+     * expression := and ( OR and )*
+     * and        := unary ( AND unary )*
+     * unary      := NOT unary | '(' expression ')' | field ':' value
+     * </pre>
+     */
+    private static final class Parser {
+        private final List<String> tokens;
+        private int position;
+
+        private Parser(List<String> tokens) {
+            this.tokens = tokens;
+        }
+
+        static Expression parse(String filter) {
+            if (filter == null || filter.isBlank()) {
+                return (segments, today, window) -> segments.all;
+            }
+            Parser parser = new Parser(tokenize(filter));
+            Expression expression = parser.or();
+            if (parser.position < parser.tokens.size()) {
+                throw new IllegalArgumentException("Unexpected '" + parser.tokens.get(parser.position) + "' in filter");
+            }
+            return expression;
+        }
+
+        private Expression or() {
+            Expression left = and();
+            while (accept("OR")) {
+                Expression l = left;
+                Expression r = and();
+                left = (segments, today, window) -> RoaringBitmap.or(l.evaluate(segments, today, window),
+                    r.evaluate(segments, today, window));
+            }
+            return left;
+        }
+
+        private Expression and() {
+            Expression left = unary();
+            while (accept("AND")) {
+                Expression l = left;
+                Expression r = unary();
+                left = (segments, today, window) -> RoaringBitmap.and(l.evaluate(segments, today, window),
+                    r.evaluate(segments, today, window));
+            }
+            return left;
+        }
+
+        private Expression unary() {
+            if (accept("NOT")) {
+                Expression negated = unary();
+                return (segments, today, window) -> RoaringBitmap.andNot(segments.all,
+                    negated.evaluate(segments, today, window));
+            }
+            if (accept("(")) {
+                Expression inner = or();
+                if (!accept(")")) {
+                    throw new IllegalArgumentException("Missing ')' in filter");
+                }
+                return inner;
+            }
+            return term(next());
+        }
+
+        private static Expression term(String token) {
+            int colon = token.indexOf(':');
+            if (colon <= 0 || colon == token.length() - 1) {
+                throw new IllegalArgumentException("Expected field:value in filter, got '" + token + "'");
+            }
+            Field field = Field.of(token.substring(0, colon));
+            String value = token.substring(colon + 1);
+            return switch (field) {
+                case ACTIVE, EMAIL_VERIFIED -> {
+                    String flag = parseBoolean(field, value);
+                    yield (segments, today, window) -> segments.valueOf(field, flag);
+                }
+                case ROLE -> {
+                    String role = parseRole(value);
+                    yield (segments, today, window) -> segments.valueOf(field, role);
+                }
+                case SIGNUP_MONTH -> signupMonths(value);
+                case LAST_LOGIN -> lastLogin(value);
+            };
+        }
+
+        // signupMonth:2024-03 or an inclusive range, signupMonth:2024-01..2024-06
+        private static Expression signupMonths(String value) {
+            int range = value.indexOf("..");
+            YearMonth from = parseMonth(range < 0 ? value : value.substring(0, range));
+            YearMonth to = range < 0 ? from : parseMonth(value.substring(range + 2));
+            if (to.isBefore(from)) {
+                throw new IllegalArgumentException("signupMonth range ends before it starts: " + value);
+            }
+            return (segments, today, window) -> {
+                RoaringBitmap result = new RoaringBitmap();
+                for (RoaringBitmap month : segments.values.get(Field.SIGNUP_MONTH)
+                        .subMap(from.toString(), true, to.toString(), true).values()) {
+                    result = RoaringBitmap.or(result, month);
+                }
+                return result;
+            };
+        }
+
+        // lastLogin:never, or lastLogin:30d for a login within the last 30 days
+        private static Expression lastLogin(String value) {
+            if (value.equalsIgnoreCase(LOGIN_NEVER)) {
+                return (segments, today, window) -> segments.neverLoggedIn;
+            }
+            String days = value.toLowerCase(Locale.ROOT);
+            if (!days.matches("\\d{1,5}d")) {
+                throw new IllegalArgumentException("lastLogin must be 'never' or a number of days such as '30d'");
+            }
+            int within = Integer.parseInt(days.substring(0, days.length() - 1));
+            return (segments, today, window) -> {
+                if (within > window) {
+                    throw new IllegalArgumentException("lastLogin supports at most " + window + " days");
+                }
+                return segments.loggedInSince(today.minusDays(within));
+            };
+        }
+
+        private static String parseBoolean(Field field, String value) {
+            if (!value.equalsIgnoreCase("true") && !value.equalsIgnoreCase("false")) {
+                throw new IllegalArgumentException(field.key() + " must be true or false");
+            }
+            return value.toLowerCase(Locale.ROOT);
+        }
+
+        private static String parseRole(String value) {
+            try {
+                return UserRole.valueOf(value.toUpperCase(Locale.ROOT)).name();
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown role: " + value);
+            }
+        }
+
+        private static YearMonth parseMonth(String value) {
+            try {
+                return YearMonth.parse(value);
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("signupMonth must look like 2024-03: " + value);
+            }
+        }
+
+        private boolean accept(String keyword) {
+            if (position < tokens.size() && tokens.get(position).equalsIgnoreCase(keyword)) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        private String next() {
+            if (position == tokens.size()) {
+                throw new IllegalArgumentException("Filter ends unexpectedly");
+            }
+            return tokens.get(position++);
+        }
+
+        private static List<String> tokenize(String filter) {
+            List<String> tokens = new ArrayList<>();
+            StringBuilder current = new StringBuilder();
+            for (char c : filter.toCharArray()) {
+                if (Character.isWhitespace(c) || c == '(' || c == ')') {
+                    if (!current.isEmpty()) {
+                        tokens.add(current.toString());
+                        current.setLength(0);
+                    }
+                    if (c == '(' || c == ')') {
+                        tokens.add(String.valueOf(c));
+                    }
+                } else {
+                    current.append(c);
+                }
+            }
+            if (!current.isEmpty()) {
+                tokens.add(current.toString());
+            }
+            return tokens;
+        }
+    }
+}
@@ -1,21 +1,56 @@
 package com.firstclub.membership.service;
 
+import com.firstclub.membership.event.UserChangedEvent;
+import com.firstclub.membership.exception.DuplicateUserException;
 import com.firstclub.membership.model.User;
 import com.firstclub.membership.model.User.UserRole;
+import com.firstclub.membership.model.UserField;
+import com.firstclub.membership.model.UserSnapshot;
+import com.firstclub.membership.model.UserView;
 import com.firstclub.membership.repository.UserRepository;
+import com.firstclub.membership.repository.UserSpecifications;
+import com.firstclub.membership.util.CursorPage;
+import com.firstclub.membership.util.KeysetCursor;
+import com.firstclub.membership.util.PagedRows;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Service class for comprehensive user management operations
@@ -26,6 +61,13 @@ import java.util.Set;
  * - Profile management
  * - Administrative operations
  * - User analytics and reporting
+ *
+ * Flows that hash or verify passwords run outside any transaction and only
+ * open a short write transaction once the hash is ready, so a pooled JDBC
+ * connection is never held while BCrypt runs.
+ *
+ * Every mutation publishes a {@link UserChangedEvent}, which in-memory
+ * indexes apply once the change has committed.
  */
 @Service
 @Transactional
@@ -33,65 +75,96 @@ public class UserService {
 
     private static final Logger log = LoggerFactory.getLogger(UserService.class);
 
+    // Sort keys the user listings accept; each has an index that returns active users in that order
+    public static final Set<String> SORTABLE_FIELDS = Set.of("createdAt", "lastLogin", "username", "id");
+
+    // Keyset pagination also needs a non-null key, which rules out lastLogin
+    private static final Set<String> KEYSET_SORTS = Set.of("createdAt", "username", "id");
+
+    private static final Sort ROLE_MASK_ORDER = Sort.by("roleMask", "id");
+
     @Autowired
     private UserRepository userRepository;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashingService;
+
+    // Runs the database work that follows a hash, so the hashing pool only ever hashes
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private TaskExecutor taskExecutor;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private LastLoginWriteBehindBuffer lastLoginBuffer;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private UserIdentityFilter userIdentityFilter;
+
+    @Autowired
+    private UserStatisticsCounters statisticsCounters;
+
+    @Autowired
+    private UserGrowthRollupService growthRollups;
+
+    @Autowired
+    private UserSearchIndex userSearchIndex;
+
+    @Autowired
+    private UserPrefixIndex userPrefixIndex;
+
+    @Autowired
+    private UserSegmentIndex userSegmentIndex;
+
+    @Value("${membership.users.stream.fetch-size:1000}")
+    private int streamFetchSize;
 
     // User Registration and Authentication
 
     /**
      * Registers a new user with default USER role
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public User registerUser(String username, String email, String password, 
                            String firstName, String lastName) {
         log.info("Attempting to register new user: {}", username);
-        
-        // Validate username and email uniqueness
-        if (userRepository.existsByUsername(username)) {
-            throw new RuntimeException("Username already exists: " + username);
-        }
-        
-        if (userRepository.existsByEmail(email)) {
-            throw new RuntimeException("Email already exists: " + email);
-        }
 
-        // Create new user
-        User user = User.builder()
-            .username(username)
-            .email(email)
-            .password(passwordEncoder.encode(password))
-            .firstName(firstName)
-            .lastName(lastName)
-            .addRole(UserRole.USER)
-            .build();
+        String encodedPassword = passwordHashingService.encodeAndWait(password);
+        return saveNewUser(username, email, encodedPassword, firstName, lastName);
+    }
 
-        User savedUser = userRepository.save(user);
-        log.info("Successfully registered user: {} with ID: {}", username, savedUser.getId());
-        
-        return savedUser;
+    /**
+     * Registers a new user with default USER role, hashing the password on the
+     * hashing pool so the calling request thread is released while BCrypt runs;
+     * the insert then runs on the application task executor
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public CompletableFuture<User> registerUserAsync(String username, String email, String password,
+                                                     String firstName, String lastName) {
+        log.info("Attempting to register new user: {}", username);
+
+        return passwordHashingService.encode(password)
+            .thenApplyAsync(encodedPassword -> saveNewUser(username, email, encodedPassword, firstName, lastName),
+                taskExecutor);
     }
 
     /**
      * Registers a new admin user with ADMIN role
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public User registerAdmin(String username, String email, String password, 
                             String firstName, String lastName) {
         log.info("Attempting to register new admin: {}", username);
-        
-        if (userRepository.existsByUsername(username)) {
-            throw new RuntimeException("Username already exists: " + username);
-        }
-        
-        if (userRepository.existsByEmail(email)) {
-            throw new RuntimeException("Email already exists: " + email);
-        }
 
         User admin = User.builder()
             .username(username)
             .email(email)
-            .password(passwordEncoder.encode(password))
+            .password(passwordHashingService.encodeAndWait(password))
             .firstName(firstName)
             .lastName(lastName)
             .addRole(UserRole.ADMIN)
@@ -99,7 +172,7 @@ public class UserService {
         
         admin.setEmailVerified(true); // Admins are pre-verified
 
-        User savedAdmin = userRepository.save(admin);
+        User savedAdmin = insertNewUser(admin);
         log.info("Successfully registered admin: {} with ID: {}", username, savedAdmin.getId());
         
         return savedAdmin;
@@ -108,27 +181,60 @@ public class UserService {
     /**
      * Authenticates user by username/email and password
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Optional<User> authenticateUser(String usernameOrEmail, String password) {
         log.info("Attempting to authenticate user: {}", usernameOrEmail);
         
-        Optional<User> userOpt = userRepository.findByUsernameOrEmail(usernameOrEmail, usernameOrEmail);
+        Optional<User> userOpt = findLoginCandidate(usernameOrEmail);
         
         if (userOpt.isPresent()) {
             User user = userOpt.get();
             
             // Check password using BCrypt encoder
-            if (passwordEncoder.matches(password, user.getPassword()) && user.getIsActive()) {
-                user.updateLastLogin();
-                userRepository.save(user);
-                log.info("Successfully authenticated user: {}", user.getUsername());
-                return Optional.of(user);
+            if (passwordHashingService.matchesAndWait(password, user.getPassword()) && user.getIsActive()) {
+                return Optional.of(completeLogin(user, password));
             }
+        } else {
+            // No account: hash anyway so the failure takes as long as a wrong password
+            passwordHashingService.matchesDummyAndWait(password);
         }
         
         log.warn("Authentication failed for user: {}", usernameOrEmail);
         return Optional.empty();
     }
 
+    /**
+     * Authenticates user by username/email and password, verifying the hash on
+     * the hashing pool so the calling request thread is released while BCrypt runs;
+     * the login is then recorded on the application task executor
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public CompletableFuture<Optional<User>> authenticateUserAsync(String usernameOrEmail, String password) {
+        log.info("Attempting to authenticate user: {}", usernameOrEmail);
+
+        Optional<User> userOpt = findLoginCandidate(usernameOrEmail);
+
+        if (userOpt.isEmpty()) {
+            // No account: hash anyway so the failure takes as long as a wrong password
+            return passwordHashingService.matchesDummy(password)
+                .thenApply(matches -> {
+                    log.warn("Authentication failed for user: {}", usernameOrEmail);
+                    return Optional.<User>empty();
+                });
+        }
+
+        // Inactive accounts are checked like active ones and refused afterwards, as in authenticateUser
+        User user = userOpt.get();
+        return passwordHashingService.matches(password, user.getPassword())
+            .thenApplyAsync(matches -> {
+                if (!matches || !user.getIsActive()) {
+                    log.warn("Authentication failed for user: {}", usernameOrEmail);
+                    return Optional.empty();
+                }
+                return Optional.of(completeLogin(user, password));
+            }, taskExecutor);
+    }
+
     // User Retrieval Operations
 
     /**
@@ -139,33 +245,190 @@ public class UserService {
     }
 
     /**
-     * Finds user by username
+     * Finds user by username (served from the natural-id cache when possible)
      */
     public Optional<User> findByUsername(String username) {
-        return userRepository.findByUsername(username);
+        return userRepository.findByUsernameCached(username);
     }
 
     /**
-     * Finds user by email
+     * Finds user by email (served from the query cache when possible)
      */
     public Optional<User> findByEmail(String email) {
         return userRepository.findByEmail(email);
     }
 
     /**
-     * Gets all active users with pagination
+     * Finds user by username, then by email, using the cached lookups for both
+     */
+    public Optional<User> findByUsernameOrEmail(String usernameOrEmail) {
+        return userRepository.findByUsernameCached(usernameOrEmail)
+            .or(() -> userRepository.findByEmail(usernameOrEmail));
+    }
+
+    /**
+     * Gets all active users with pagination, selecting only the given fields
      */
-    public Page<User> getAllActiveUsers(Pageable pageable) {
+    @Transactional(readOnly = true)
+    public Page<UserView> getAllActiveUsers(Pageable pageable, Set<UserField> fields) {
         log.info("Retrieving active users with pagination");
-        return userRepository.findByIsActiveTrue(pageable);
+        requireIndexedSort(pageable.getSort());
+        List<UserView> users = userRepository.findViews(UserSpecifications.isActive(), fields, pageable.getSort(),
+            pageable.getOffset(), pageable.getPageSize());
+        return PageableExecutionUtils.getPage(users, pageable, userRepository::countActiveUsers);
+    }
+
+    /**
+     * Gets active users without counting them, for clients that only page forward
+     */
+    @Transactional(readOnly = true)
+    public Slice<UserView> getActiveUsersSlice(Pageable pageable, Set<UserField> fields) {
+        requireIndexedSort(pageable.getSort());
+        int size = pageable.getPageSize();
+        List<UserView> rows = userRepository.findViews(UserSpecifications.isActive(), fields, pageable.getSort(),
+            pageable.getOffset(), size + 1);
+        boolean hasNext = rows.size() > size;
+        return new SliceImpl<>(hasNext ? rows.subList(0, size) : rows, pageable, hasNext);
+    }
+
+    /**
+     * Gets one keyset page of active users ordered by createdAt, username or id
+     *
+     * The cursor is the token returned as nextCursor by the previous page, or
+     * null for the first page. Pages cost the same however deep the client
+     * goes, and rows inserted meanwhile neither shift nor repeat later pages.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<UserView> getActiveUsersAfter(String sortBy, boolean ascending, String cursor, int size,
+                                                    Set<UserField> fields) {
+        if (!KEYSET_SORTS.contains(sortBy)) {
+            throw new IllegalArgumentException("Cursor pagination supports sortBy "
+                + String.join(", ", new TreeSet<>(KEYSET_SORTS)));
+        }
+        String sort = "active:" + sortBy + (ascending ? ":asc" : ":desc");
+        KeysetCursor after = KeysetCursor.decode(cursor, sort);
+        Comparable<?> afterKey = after == null ? null : switch (sortBy) {
+            case "createdAt" -> parseTimestamp(after.key());
+            case "username" -> after.key();
+            default -> after.id();
+        };
+        List<UserView> rows = userRepository.findViewsAfter(UserSpecifications.isActive(), fields, sortBy, ascending,
+            afterKey, after == null ? null : after.id(), size + 1);
+        return toCursorPage(rows, size, user -> new KeysetCursor(sort, switch (sortBy) {
+            case "createdAt" -> String.valueOf(user.createdAt());
+            case "username" -> user.username();
+            default -> "";
+        }, user.id()));
+    }
+
+    /**
+     * Searches users by query string, one keyset page at a time
+     *
+     * Follows the same routing as {@link #searchUsers}: index pages are in
+     * relevance order, database pages newest first. A cursor is tied to its
+     * query and to the source that issued it.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public CursorPage<UserView> searchUsersAfter(String query, String cursor, int size, Set<UserField> fields) {
+        String queryKey = Integer.toHexString(query.trim().toLowerCase(Locale.ROOT).hashCode());
+        if (query.trim().length() >= UserSearchIndex.MIN_QUERY_LENGTH && userSearchIndex.isReady()) {
+            String sort = "search:relevance:" + queryKey;
+            KeysetCursor after = KeysetCursor.decode(cursor, sort);
+            Integer afterScore = null;
+            LocalDateTime afterCreatedAt = null;
+            if (after != null) {
+                int split = after.key().indexOf('|');
+                if (split < 0) {
+                    throw new IllegalArgumentException("Invalid cursor");
+                }
+                afterScore = parseInt(after.key().substring(0, split));
+                afterCreatedAt = parseTimestamp(after.key().substring(split + 1));
+            }
+            List<UserSearchIndex.Match> rows = userSearchIndex.searchAfter(query, afterScore, afterCreatedAt,
+                after == null ? null : after.id(), size + 1);
+            CursorPage<UserSnapshot> page = toCursorPage(rows, size, match -> new KeysetCursor(sort,
+                match.score() + "|" + match.user().createdAt(), match.user().id()))
+                .map(UserSearchIndex.Match::user);
+            return new CursorPage<>(toViews(page.items(), fields), page.nextCursor());
+        }
+
+        String sort = "search:createdAt:" + queryKey;
+        KeysetCursor after = KeysetCursor.decode(cursor, sort);
+        List<UserView> rows = userRepository.findViewsAfter(UserSpecifications.matching(query), fields, "createdAt", false,
+            after == null ? null : parseTimestamp(after.key()), after == null ? null : after.id(), size + 1);
+        return toCursorPage(rows, size, user -> new KeysetCursor(sort, String.valueOf(user.createdAt()), user.id()));
     }
 
     /**
      * Searches users by query string
+     *
+     * Queries of at least three characters are answered by the trigram index,
+     * ranked by match quality; shorter ones, and any query made before the
+     * index has loaded, use the LIKE query with the caller's sort.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Page<UserSnapshot> searchUsers(String query, Pageable pageable) {
+        if (query != null && query.trim().length() >= UserSearchIndex.MIN_QUERY_LENGTH && userSearchIndex.isReady()) {
+            return userSearchIndex.search(query, pageable);
+        }
+        log.debug("Searching users in the database with query: {}", query);
+        return userRepository.searchUsers(query, pageable).map(UserSnapshot::of);
+    }
+
+    /**
+     * Searches users by query string, returning only the given fields
+     *
+     * Routed like {@link #searchUsers(String, Pageable)}. Index hits are
+     * returned straight from their snapshots when the snapshot holds every
+     * field; otherwise only the page's ids are looked up.
      */
-    public Page<User> searchUsers(String query, Pageable pageable) {
-        log.info("Searching users with query: {}", query);
-        return userRepository.searchUsers(query, pageable);
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Page<UserView> searchUsers(String query, Pageable pageable, Set<UserField> fields) {
+        if (query != null && query.trim().length() >= UserSearchIndex.MIN_QUERY_LENGTH && userSearchIndex.isReady()) {
+            Page<UserSnapshot> page = userSearchIndex.search(query, pageable);
+            return new PageImpl<>(toViews(page.getContent(), fields), pageable, page.getTotalElements());
+        }
+        log.debug("Searching users in the database with query: {}", query);
+        Specification<User> matching = UserSpecifications.matching(query);
+        List<UserView> users = userRepository.findViews(matching, fields, pageable.getSort(),
+            pageable.getOffset(), pageable.getPageSize());
+        return PageableExecutionUtils.getPage(users, pageable, () -> userRepository.countMatching(matching));
+    }
+
+    /**
+     * Suggests users whose username or email starts with the prefix
+     *
+     * Answered by the in-memory prefix index; until it has loaded, only
+     * usernames are matched, by the database.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<UserPrefixIndex.Suggestion> suggestUsers(String prefix, int limit) {
+        int cappedLimit = Math.max(1, Math.min(limit, UserPrefixIndex.MAX_LIMIT));
+        if (userPrefixIndex.isReady()) {
+            return userPrefixIndex.suggest(prefix, cappedLimit);
+        }
+        return userRepository.findTop50ByUsernameStartingWithIgnoreCaseOrderByUsernameAsc(prefix.trim()).stream()
+            .limit(cappedLimit)
+            .map(user -> new UserPrefixIndex.Suggestion(user.getId(), user.getUsername()))
+            .toList();
+    }
+
+    /**
+     * Filters users by a segment expression and counts the requested facets over the matches
+     *
+     * Filtering and counting happen on the bitmap index; only the users on the
+     * requested page (newest first) are loaded from the database.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public FilteredUsers filterUsers(String filter, Collection<UserSegmentIndex.Field> facets, int page, int size) {
+        int cappedSize = Math.max(1, Math.min(size, UserSegmentIndex.MAX_PAGE_SIZE));
+        UserSegmentIndex.Selection selection = userSegmentIndex.select(filter, facets, Math.max(0, page), cappedSize);
+
+        Map<Long, User> loaded = userRepository.findAllById(selection.ids()).stream()
+            .collect(Collectors.toMap(User::getId, Function.identity()));
+        List<User> users = selection.ids().stream().map(loaded::get).filter(Objects::nonNull).toList();
+        return new FilteredUsers(new PageImpl<>(users, PageRequest.of(Math.max(0, page), cappedSize), selection.total()),
+            selection.facets());
     }
 
     // Role Management Operations
@@ -178,9 +441,11 @@ public class UserService {
         
         User user = userRepository.findById(userId)
             .orElseThrow(() -> new RuntimeException("User not found with ID: " + userId));
+        UserSnapshot before = UserSnapshot.of(user);
         
         user.addRole(role);
         User updatedUser = userRepository.save(user);
+        publishUpdated(before, updatedUser);
         
         log.info("Successfully added role {} to user: {}", role, user.getUsername());
         return updatedUser;
@@ -194,9 +459,11 @@ public class UserService {
         
         User user = userRepository.findById(userId)
             .orElseThrow(() -> new RuntimeException("User not found with ID: " + userId));
+        UserSnapshot before = UserSnapshot.of(user);
         
         user.removeRole(role);
         User updatedUser = userRepository.save(user);
+        publishUpdated(before, updatedUser);
         
         log.info("Successfully removed role {} from user: {}", role, user.getUsername());
         return updatedUser;
@@ -210,28 +477,36 @@ public class UserService {
         
         User user = userRepository.findById(userId)
             .orElseThrow(() -> new RuntimeException("User not found with ID: " + userId));
+        UserSnapshot before = UserSnapshot.of(user);
         
         user.setRoles(newRoles);
         User updatedUser = userRepository.save(user);
+        publishUpdated(before, updatedUser);
         
         log.info("Successfully updated roles for user: {}", user.getUsername());
         return updatedUser;
     }
 
     /**
-     * Gets all users with specific role
+     * Lists every user with a specific role, selecting only the given fields
+     *
+     * The users are read one page at a time as the listing is iterated (see
+     * {@link PagedRows}), so memory use does not grow with the number of
+     * users, and counted as they go.
      */
-    public List<User> getUsersByRole(UserRole role) {
-        log.info("Retrieving users with role: {}", role);
-        return userRepository.findByRole(role);
+    @Transactional(readOnly = true)
+    public Listing listUsersByRole(UserRole role, Set<UserField> fields) {
+        log.info("Listing users with role: {}", role);
+        return listByRoleMask(UserRole.masksContainingAny(List.of(role)), fields);
     }
 
     /**
-     * Gets all admin users
+     * Lists every admin user, selecting only the given fields
      */
-    public List<User> getAllAdmins() {
-        log.info("Retrieving all admin users");
-        return userRepository.findAllAdmins();
+    @Transactional(readOnly = true)
+    public Listing listAdmins(Set<UserField> fields) {
+        log.info("Listing all admin users");
+        return listByRoleMask(UserRole.masksContainingAny(UserRole.ADMIN_ROLES), fields);
     }
 
     // User Profile Management
@@ -245,6 +520,7 @@ public class UserService {
         
         User user = userRepository.findById(userId)
             .orElseThrow(() -> new RuntimeException("User not found with ID: " + userId));
+        UserSnapshot before = UserSnapshot.of(user);
         
         user.setFirstName(firstName);
         user.setLastName(lastName);
@@ -252,6 +528,7 @@ public class UserService {
         user.setDateOfBirth(dateOfBirth);
         
         User updatedUser = userRepository.save(user);
+        publishUpdated(before, updatedUser);
         log.info("Successfully updated profile for user: {}", user.getUsername());
         
         return updatedUser;
@@ -259,7 +536,15 @@ public class UserService {
 
     /**
      * Changes user password
+     *
+     * Both hashes are computed outside any transaction; the update then only
+     * applies if the stored hash is still the one the old password was
+     * checked against.
+     *
+     * @return false when the old password is wrong
+     * @throws IllegalStateException when the password was changed concurrently
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public boolean changePassword(Long userId, String oldPassword, String newPassword) {
         log.info("Attempting to change password for user ID: {}", userId);
         
@@ -267,14 +552,20 @@ public class UserService {
             .orElseThrow(() -> new RuntimeException("User not found with ID: " + userId));
         
         // Verify old password using BCrypt encoder
-        if (!passwordEncoder.matches(oldPassword, user.getPassword())) {
+        if (!passwordHashingService.matchesAndWait(oldPassword, user.getPassword())) {
             log.warn("Password change failed - incorrect old password for user: {}", user.getUsername());
             return false;
         }
         
-        // Update password with new encoded password
-        user.setPassword(passwordEncoder.encode(newPassword));
-        userRepository.save(user);
+        // Update password with new encoded password, only if it was not changed concurrently
+        String encodedPassword = passwordHashingService.encodeAndWait(newPassword);
+        Integer updated = transactionTemplate.execute(status ->
+            userRepository.updatePassword(userId, user.getPassword(), encodedPassword, LocalDateTime.now()));
+        
+        if (updated == null || updated == 0) {
+            log.warn("Password change failed - password was changed concurrently for user: {}", user.getUsername());
+            throw new IllegalStateException("Password was changed concurrently; retry with the current password");
+        }
         
         log.info("Successfully changed password for user: {}", user.getUsername());
         return true;
@@ -288,9 +579,11 @@ public class UserService {
         
         User user = userRepository.findById(userId)
             .orElseThrow(() -> new RuntimeException("User not found with ID: " + userId));
+        UserSnapshot before = UserSnapshot.of(user);
         
         user.setEmailVerified(true);
         User updatedUser = userRepository.save(user);
+        publishUpdated(before, updatedUser);
         
         log.info("Successfully verified email for user: {}", user.getUsername());
         return updatedUser;
@@ -306,9 +599,11 @@ public class UserService {
         
         User user = userRepository.findById(userId)
             .orElseThrow(() -> new RuntimeException("User not found with ID: " + userId));
+        UserSnapshot before = UserSnapshot.of(user);
         
         user.setIsActive(!user.getIsActive());
         User updatedUser = userRepository.save(user);
+        publishUpdated(before, updatedUser);
         
         log.info("User {} status changed to: {}", user.getUsername(), user.getIsActive() ? "ACTIVE" : "INACTIVE");
         return updatedUser;
@@ -324,6 +619,7 @@ public class UserService {
             .orElseThrow(() -> new RuntimeException("User not found with ID: " + userId));
         
         userRepository.delete(user);
+        eventPublisher.publishEvent(UserChangedEvent.deleted(UserSnapshot.of(user)));
         log.info("Successfully deleted user: {}", user.getUsername());
     }
 
@@ -331,42 +627,278 @@ public class UserService {
 
     /**
      * Gets user statistics
+     *
+     * Served from the in-memory counters once they have been reconciled with
+     * the database; the COUNT queries only run during startup.
      */
     public UserStatistics getUserStatistics() {
-        log.info("Generating user statistics");
-        
+        LocalDateTime monthAgo = LocalDateTime.now().minusMonths(1);
+        if (statisticsCounters.isReady()) {
+            return statisticsCounters.snapshot(monthAgo);
+        }
+
+        log.info("Generating user statistics from the database");
         long totalUsers = userRepository.count();
         long activeUsers = userRepository.countActiveUsers();
         long adminUsers = userRepository.countByRole(UserRole.ADMIN);
-        long newUsersThisMonth = userRepository.countUsersCreatedAfter(
-            LocalDateTime.now().minusMonths(1));
+        long newUsersThisMonth = userRepository.countUsersCreatedAfter(monthAgo);
         
         return new UserStatistics(totalUsers, activeUsers, adminUsers, newUsersThisMonth);
     }
 
     /**
-     * Gets inactive users (no login in specified days)
+     * Lists inactive users (no login in specified days), longest inactive first
+     *
+     * Users with a recent login still waiting in the write-behind buffer are
+     * left out, so recently active users are never reported. Pages are read
+     * as the listing is iterated.
+     */
+    @Transactional(readOnly = true)
+    public Listing listInactiveUsers(int days, Set<UserField> fields) {
+        log.info("Listing users inactive for {} days", days);
+        LocalDateTime cutoffDate = LocalDateTime.now().minusDays(days);
+        Set<Long> recentlyActive = lastLoginBuffer.getPendingLoginsSince(cutoffDate);
+        Specification<User> filter = recentlyActive.isEmpty()
+            ? UserSpecifications.inactiveSince(cutoffDate)
+            : UserSpecifications.inactiveSince(cutoffDate).and(UserSpecifications.idNotIn(recentlyActive));
+        return new Listing(new PagedRows<>(
+            (last, size) -> userRepository.findViewsAfter(filter, fields, "lastLogin", true,
+                last == null ? null : last.lastLogin(), last == null ? null : last.id(), size),
+            streamFetchSize));
+    }
+
+    /**
+     * Gets one keyset page of inactive users, longest inactive first
+     *
+     * Pending logins are filtered out after the page is read, so a page may
+     * hold fewer than {@code size} users while more pages remain.
      */
-    public List<User> getInactiveUsers(int days) {
-        log.info("Finding users inactive for {} days", days);
+    @Transactional(readOnly = true)
+    public CursorPage<UserView> getInactiveUsersAfter(int days, String cursor, int size, Set<UserField> fields) {
         LocalDateTime cutoffDate = LocalDateTime.now().minusDays(days);
-        return userRepository.findInactiveUsers(cutoffDate);
+        String sort = "inactive:" + days;
+        KeysetCursor after = KeysetCursor.decode(cursor, sort);
+        List<UserView> rows = userRepository.findViewsAfter(UserSpecifications.inactiveSince(cutoffDate), fields,
+            "lastLogin", true, after == null ? null : parseTimestamp(after.key()), after == null ? null : after.id(),
+            size + 1);
+        CursorPage<UserView> page = toCursorPage(rows, size,
+            user -> new KeysetCursor(sort, String.valueOf(user.lastLogin()), user.id()));
+        return new CursorPage<>(page.items().stream()
+            .filter(user -> lastLoginBuffer.getPendingLastLogin(user.id())
+                .map(pendingLogin -> pendingLogin.isBefore(cutoffDate))
+                .orElse(true))
+            .toList(), page.nextCursor());
     }
 
     // Helper Methods
 
+    /**
+     * Lists the users whose role mask is one of {@code masks}, paging through one mask at a time
+     */
+    private Listing listByRoleMask(List<Integer> masks, Set<UserField> fields) {
+        return new Listing(new PagedRows<>((last, size) -> roleMaskPage(masks, fields, last, size), streamFetchSize));
+    }
+
+    /**
+     * The next {@code size} users after {@code last} in (role mask, id) order
+     *
+     * Each query is for a single mask: with an IN list the database sorts
+     * every matching row for each page, while role_mask = ? AND id > ? is a
+     * range of idx_users_role_mask that is already in order. Roles are read
+     * as well, to know which mask the last row came from, but only
+     * {@code fields} are written.
+     */
+    private List<UserView> roleMaskPage(List<Integer> masks, Set<UserField> fields, UserView last, int size) {
+        Set<UserField> selected = EnumSet.of(UserField.ROLES);
+        selected.addAll(fields);
+        int from = last == null ? 0 : masks.indexOf(UserRole.mask(last.roles()));
+        List<UserView> page = new ArrayList<>(size);
+        for (int i = from; i < masks.size() && page.size() < size; i++) {
+            Specification<User> filter = UserSpecifications.roleMaskIn(List.of(masks.get(i)));
+            if (i == from && last != null) {
+                filter = filter.and(UserSpecifications.idAfter(last.id()));
+            }
+            for (UserView user : userRepository.findViews(filter, selected, ROLE_MASK_ORDER, 0, size - page.size())) {
+                page.add(UserView.of(fields, user::get));
+            }
+        }
+        return page;
+    }
+
+    /**
+     * Rejects sorts that would make the database sort every active user instead of walking an index
+     */
+    private static void requireIndexedSort(Sort sort) {
+        for (Sort.Order order : sort) {
+            if (!SORTABLE_FIELDS.contains(order.getProperty())) {
+                throw new IllegalArgumentException("Unsupported sort property: " + order.getProperty()
+                    + " (supported: " + String.join(", ", new TreeSet<>(SORTABLE_FIELDS)) + ")");
+            }
+        }
+    }
+
+    /**
+     * Views index snapshots, looking up only these users' columns when a field is not in the snapshot
+     */
+    private List<UserView> toViews(List<UserSnapshot> users, Set<UserField> fields) {
+        if (fields.stream().allMatch(UserField::inSnapshot)) {
+            return users.stream().map(user -> UserView.of(user, fields)).toList();
+        }
+        if (users.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, UserView> byId = userRepository.findViews(
+                UserSpecifications.idIn(users.stream().map(UserSnapshot::id).toList()), fields, Sort.unsorted())
+            .stream()
+            .collect(Collectors.toMap(UserView::id, Function.identity()));
+        return users.stream().map(user -> byId.get(user.id())).filter(Objects::nonNull).toList();
+    }
+
+    /**
+     * Trims a size + 1 fetch to one page; the extra row only signals that another page exists
+     */
+    private static <T> CursorPage<T> toCursorPage(List<T> rows, int size, Function<T, KeysetCursor> cursorOf) {
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, null);
+        }
+        List<T> items = rows.subList(0, size);
+        return new CursorPage<>(List.copyOf(items), cursorOf.apply(items.get(size - 1)).encode());
+    }
+
+    private static LocalDateTime parseTimestamp(String value) {
+        try {
+            return "null".equals(value) ? null : LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    private static int parseInt(String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    private User saveNewUser(String username, String email, String encodedPassword,
+                             String firstName, String lastName) {
+        User user = User.builder()
+            .username(username)
+            .email(email)
+            .password(encodedPassword)
+            .firstName(firstName)
+            .lastName(lastName)
+            .addRole(UserRole.USER)
+            .build();
+
+        User savedUser = insertNewUser(user);
+        log.info("Successfully registered user: {} with ID: {}", username, savedUser.getId());
+        
+        return savedUser;
+    }
+
+    /**
+     * Inserts a new user in a single round trip, relying on the unique
+     * constraints on username and email instead of checking first. This is
+     * also the only correct check under concurrent signups.
+     */
+    private User insertNewUser(User user) {
+        User savedUser;
+        try {
+            savedUser = transactionTemplate.execute(status -> userRepository.saveAndFlush(user));
+        } catch (DataIntegrityViolationException e) {
+            throw toDuplicateUserException(e, user);
+        }
+        eventPublisher.publishEvent(UserChangedEvent.created(UserSnapshot.of(savedUser)));
+        return savedUser;
+    }
+
+    private void publishUpdated(UserSnapshot before, User updatedUser) {
+        eventPublisher.publishEvent(UserChangedEvent.updated(before, UserSnapshot.of(updatedUser)));
+    }
+
+    private DuplicateUserException toDuplicateUserException(DataIntegrityViolationException e, User user) {
+        String constraint = violatedConstraint(e);
+        if (constraint != null && constraint.contains(User.USERNAME_CONSTRAINT)) {
+            return new DuplicateUserException("username", user.getUsername());
+        }
+        if (constraint != null && constraint.contains(User.EMAIL_CONSTRAINT)) {
+            return new DuplicateUserException("email", user.getEmail());
+        }
+        throw e;
+    }
+
+    static String violatedConstraint(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null) {
+                return violation.getConstraintName().toLowerCase(Locale.ROOT);
+            }
+        }
+        return null;
+    }
+
+    // An identifier the identity filter has never seen cannot be a user, so skip both lookups
+    private Optional<User> findLoginCandidate(String usernameOrEmail) {
+        if (!userIdentityFilter.mightContainUsernameOrEmail(usernameOrEmail)) {
+            return Optional.empty();
+        }
+        return findByUsernameOrEmail(usernameOrEmail);
+    }
+
+    private User completeLogin(User user, String rawPassword) {
+        user.updateLastLogin();
+        lastLoginBuffer.recordLogin(user.getId(), user.getLastLogin());
+        growthRollups.recordLogin(user.getRoles(), user.getLastLogin());
+        userSegmentIndex.recordLogin(user.getId(), user.getLastLogin());
+        log.info("Successfully authenticated user: {}", user.getUsername());
+        
+        if (passwordHashingService.needsRehash(user.getPassword())) {
+            rehashPassword(user, rawPassword);
+        }
+        return user;
+    }
+
+    /**
+     * Re-hashes a password with the current work factor in the background.
+     * Failures (including a full hashing queue) are ignored; the next login retries.
+     */
+    private void rehashPassword(User user, String rawPassword) {
+        String previousHash = user.getPassword();
+        passwordHashingService.encode(rawPassword)
+            .thenAcceptAsync(newHash -> {
+                Integer updated = transactionTemplate.execute(status ->
+                    userRepository.rehashPassword(user.getId(), previousHash, newHash));
+                if (updated != null && updated > 0) {
+                    log.info("Rehashed password for user {} with current work factor", user.getUsername());
+                }
+            }, taskExecutor)
+            .exceptionally(ex -> {
+                log.debug("Skipped password rehash for user {}: {}", user.getUsername(), ex.getMessage());
+                return null;
+            });
+    }
+
     /**
      * Checks if username is available
+     *
+     * Usernames the identity filter has never seen are answered without
+     * querying the database; only possible matches are checked exactly.
      */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public boolean isUsernameAvailable(String username) {
-        return !userRepository.existsByUsername(username);
+        return !userIdentityFilter.mightContainUsername(username) || !userRepository.existsByUsername(username);
     }
 
     /**
      * Checks if email is available
+     *
+     * Emails the identity filter has never seen are answered without
+     * querying the database; only possible matches are checked exactly.
      */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public boolean isEmailAvailable(String email) {
-        return !userRepository.existsByEmail(email);
+        return !userIdentityFilter.mightContainEmail(email) || !userRepository.existsByEmail(email);
     }
 
     /**
@@ -400,4 +932,51 @@ public class UserService {
         public long getNewUsersThisMonth() { return newUsersThisMonth; }
         public long getInactiveUsers() { return totalUsers - activeUsers; }
     }
+
+    /**
+     * A listing of any length, its users read page by page while they are written
+     *
+     * There is no separate count query, which could disagree with the rows
+     * when users change between the two. {@link #count()} is the number of
+     * users iterated so far, so it is the listing's size once they have all
+     * been written; responses therefore put it after the users.
+     */
+    public static final class Listing implements Iterable<UserView> {
+
+        private final Iterable<UserView> users;
+        private long count;
+
+        Listing(Iterable<UserView> users) {
+            this.users = users;
+        }
+
+        @Override
+        public Iterator<UserView> iterator() {
+            count = 0;
+            Iterator<UserView> rows = users.iterator();
+            return new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    return rows.hasNext();
+                }
+
+                @Override
+                public UserView next() {
+                    UserView user = rows.next();
+                    count++;
+                    return user;
+                }
+            };
+        }
+
+        public long count() {
+            return count;
+        }
+    }
+
+    /**
+     * One page of users matching a segment filter, with facet counts over all matches
+     */
+    public record FilteredUsers(Page<User> users, Map<String, Map<String, Long>> facets) {
+    }
 }
@@ -0,0 +1,168 @@
+package com.firstclub.membership.service;
+
+import com.firstclub.membership.event.UserChangedEvent;
+import com.firstclub.membership.model.User.UserRole;
+import com.firstclub.membership.model.UserSnapshot;
+import com.firstclub.membership.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory user statistics kept current from {@link UserChangedEvent}s
+ *
+ * Every committed change is applied as a delta: the old snapshot's
+ * contribution is subtracted and the new one's added, so registration,
+ * status toggles, role changes, deletes and imports are all covered by the
+ * same code path. Sign-ups are kept in per-minute buckets so "new users in
+ * the last month" is a sum over at most a month of buckets.
+ *
+ * The counters are reconciled against the database at startup and then on a
+ * fixed interval. An event whose transaction committed just before a
+ * reconciliation can be counted twice; that drift is bounded by the
+ * in-flight changes and disappears at the next reconciliation. Until the
+ * first reconciliation completes {@link #isReady()} is false and callers
+ * should use the database.
+ */
+@Component
+public class UserStatisticsCounters {
+
+    private static final Logger log = LoggerFactory.getLogger(UserStatisticsCounters.class);
+
+    private static final String SIGNUPS_BY_MINUTE_SQL =
+        "SELECT DATE_TRUNC('MINUTE', created_at) AS bucket, COUNT(*) AS signups " +
+        "FROM users WHERE created_at >= ? GROUP BY DATE_TRUNC('MINUTE', created_at)";
+
+    // Sign-up buckets older than this can never fall inside the one-month window
+    private static final long RETAINED_MINUTES = 32L * 24 * 60;
+
+    private final LongAdder totalUsers = new LongAdder();
+    private final LongAdder activeUsers = new LongAdder();
+    private final LongAdder adminUsers = new LongAdder();
+    private final ConcurrentNavigableMap<Long, LongAdder> signupsByMinute = new ConcurrentSkipListMap<>();
+
+    // Deltas share the read lock; reconciliation takes the write lock to swap in database values
+    private final ReentrantReadWriteLock reconcileLock = new ReentrantReadWriteLock();
+    private volatile Instant reconciledAt;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        reconcile();
+    }
+
+    /**
+     * Replaces the counters with fresh counts from the database
+     */
+    @Scheduled(initialDelayString = "${membership.users.statistics.reconcile-interval-ms:300000}",
+               fixedDelayString = "${membership.users.statistics.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        LocalDateTime windowStart = LocalDateTime.now().minusMinutes(RETAINED_MINUTES);
+
+        reconcileLock.writeLock().lock();
+        try {
+            long previousTotal = totalUsers.sum();
+            transactionTemplate.executeWithoutResult(status -> {
+                reset(totalUsers, userRepository.count());
+                reset(activeUsers, userRepository.countActiveUsers());
+                reset(adminUsers, userRepository.countByRole(UserRole.ADMIN));
+                signupsByMinute.clear();
+                jdbcTemplate.query(SIGNUPS_BY_MINUTE_SQL, rs -> {
+                    long minute = toEpochMinute(rs.getTimestamp("bucket").toLocalDateTime());
+                    signupsByMinute.computeIfAbsent(minute, key -> new LongAdder()).add(rs.getLong("signups"));
+                }, Timestamp.valueOf(windowStart));
+            });
+            if (reconciledAt != null && previousTotal != totalUsers.sum()) {
+                log.info("User statistics drifted by {} users since the last reconciliation",
+                        totalUsers.sum() - previousTotal);
+            }
+            reconciledAt = Instant.now();
+        } finally {
+            reconcileLock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        reconcileLock.readLock().lock();
+        try {
+            if (event.previous() != null) {
+                apply(event.previous(), -1);
+            }
+            if (event.current() != null) {
+                apply(event.current(), 1);
+            }
+        } finally {
+            reconcileLock.readLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return reconciledAt != null;
+    }
+
+    public Instant getReconciledAt() {
+        return reconciledAt;
+    }
+
+    /**
+     * Returns the current counts; new users are those created at or after {@code since}
+     */
+    public UserService.UserStatistics snapshot(LocalDateTime since) {
+        long sinceMinute = toEpochMinute(since);
+        signupsByMinute.headMap(toEpochMinute(LocalDateTime.now()) - RETAINED_MINUTES).clear();
+        long newUsers = signupsByMinute.tailMap(sinceMinute, true).values().stream()
+            .mapToLong(LongAdder::sum)
+            .sum();
+        return new UserService.UserStatistics(totalUsers.sum(), activeUsers.sum(), adminUsers.sum(), newUsers);
+    }
+
+    // Helper Methods
+
+    private void apply(UserSnapshot user, int sign) {
+        totalUsers.add(sign);
+        if (user.isActive()) {
+            activeUsers.add(sign);
+        }
+        if (user.roles().contains(UserRole.ADMIN)) {
+            adminUsers.add(sign);
+        }
+        if (user.createdAt() != null) {
+            signupsByMinute.computeIfAbsent(toEpochMinute(user.createdAt()), key -> new LongAdder()).add(sign);
+        }
+    }
+
+    private static void reset(LongAdder adder, long value) {
+        adder.reset();
+        adder.add(value);
+    }
+
+    // Buckets are keyed by minute, so "since" is resolved to the start of its minute
+    private static long toEpochMinute(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) / 60;
+    }
+}
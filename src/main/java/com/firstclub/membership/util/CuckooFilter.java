@@ -0,0 +1,242 @@
+package com.firstclub.membership.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Cuckoo filter over strings
+ *
+ * Answers "definitely absent" or "possibly present" for a set of strings in a
+ * few bytes per entry and, unlike a Bloom filter, supports deletion. Entries
+ * are stored as 16-bit fingerprints in buckets of four, giving a false
+ * positive rate of roughly 8 / 2^16 (about 0.01%) at full load.
+ *
+ * Rules for callers:
+ * - Only delete items that were inserted; deleting anything else can remove
+ *   another item's fingerprint and cause false negatives
+ * - Inserting the same item twice stores two fingerprints, so it must be
+ *   deleted twice
+ *
+ * When an insert cannot find room after {@link #MAX_KICKS} relocations the
+ * displaced fingerprint is parked in a one-entry stash and the filter is
+ * marked saturated; {@link #mightContain(String)} then answers true for
+ * everything so no lookup ever gets a false negative.
+ */
+public final class CuckooFilter {
+
+    private static final int BUCKET_SIZE = 4;
+    private static final int MAX_KICKS = 500;
+    private static final double TARGET_LOAD = 0.9;
+    private static final int MAX_BUCKETS = 1 << 28;
+    private static final short EMPTY = 0;
+
+    private final short[] slots;
+    private final int bucketMask;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private long count;
+    private boolean saturated;
+    private short stashFingerprint = EMPTY;
+    private int stashBucket;
+
+    /**
+     * Creates a filter able to hold at least the given number of items
+     */
+    public CuckooFilter(long expectedItems) {
+        long needed = (long) Math.ceil(Math.max(expectedItems, 1) / (BUCKET_SIZE * TARGET_LOAD));
+        // Power-of-two bucket count so the alternate bucket can be computed with XOR
+        int bucketCount = 1;
+        while (bucketCount < needed && bucketCount < MAX_BUCKETS) {
+            bucketCount <<= 1;
+        }
+        this.slots = new short[bucketCount * BUCKET_SIZE];
+        this.bucketMask = bucketCount - 1;
+    }
+
+    /**
+     * Adds an item; returns false when the filter is full (lookups stay correct)
+     */
+    public boolean put(String item) {
+        long hash = hash(item);
+        short fingerprint = fingerprint(hash);
+        int first = index(hash);
+
+        lock.writeLock().lock();
+        try {
+            if (saturated) {
+                return false;
+            }
+            int second = alternate(first, fingerprint);
+            if (insertInto(first, fingerprint) || insertInto(second, fingerprint)) {
+                count++;
+                return true;
+            }
+
+            int bucket = ThreadLocalRandom.current().nextBoolean() ? first : second;
+            for (int kick = 0; kick < MAX_KICKS; kick++) {
+                int slot = bucket * BUCKET_SIZE + ThreadLocalRandom.current().nextInt(BUCKET_SIZE);
+                short victim = slots[slot];
+                slots[slot] = fingerprint;
+                fingerprint = victim;
+                bucket = alternate(bucket, fingerprint);
+                if (insertInto(bucket, fingerprint)) {
+                    count++;
+                    return true;
+                }
+            }
+
+            // Keep the homeless fingerprint so it is still found, and stop accepting inserts
+            stashFingerprint = fingerprint;
+            stashBucket = bucket;
+            saturated = true;
+            count++;
+            return false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns false only when the item is definitely not in the filter
+     */
+    public boolean mightContain(String item) {
+        long hash = hash(item);
+        short fingerprint = fingerprint(hash);
+        int first = index(hash);
+        int second = alternate(first, fingerprint);
+
+        lock.readLock().lock();
+        try {
+            return saturated
+                || contains(first, fingerprint)
+                || contains(second, fingerprint)
+                || (stashFingerprint == fingerprint && (stashBucket == first || stashBucket == second));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Removes one copy of a previously inserted item
+     */
+    public boolean delete(String item) {
+        long hash = hash(item);
+        short fingerprint = fingerprint(hash);
+        int first = index(hash);
+        int second = alternate(first, fingerprint);
+
+        lock.writeLock().lock();
+        try {
+            if (stashFingerprint == fingerprint && (stashBucket == first || stashBucket == second)) {
+                stashFingerprint = EMPTY;
+                count--;
+                return true;
+            }
+            if (deleteFrom(first, fingerprint) || deleteFrom(second, fingerprint)) {
+                count--;
+                return true;
+            }
+            return false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns true once an insert has failed; the filter then answers "maybe" for everything
+     */
+    public boolean isSaturated() {
+        lock.readLock().lock();
+        try {
+            return saturated;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long size() {
+        lock.readLock().lock();
+        try {
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int capacity() {
+        return slots.length;
+    }
+
+    public long memoryBytes() {
+        return (long) slots.length * Short.BYTES;
+    }
+
+    // Helper Methods
+
+    private boolean insertInto(int bucket, short fingerprint) {
+        int base = bucket * BUCKET_SIZE;
+        for (int i = 0; i < BUCKET_SIZE; i++) {
+            if (slots[base + i] == EMPTY) {
+                slots[base + i] = fingerprint;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean contains(int bucket, short fingerprint) {
+        int base = bucket * BUCKET_SIZE;
+        for (int i = 0; i < BUCKET_SIZE; i++) {
+            if (slots[base + i] == fingerprint) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean deleteFrom(int bucket, short fingerprint) {
+        int base = bucket * BUCKET_SIZE;
+        for (int i = 0; i < BUCKET_SIZE; i++) {
+            if (slots[base + i] == fingerprint) {
+                slots[base + i] = EMPTY;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int index(long hash) {
+        return (int) hash & bucketMask;
+    }
+
+    // Partial-key cuckoo hashing: the alternate bucket depends only on the
+    // current bucket and the fingerprint, and applying it twice returns home
+    private int alternate(int bucket, short fingerprint) {
+        return (bucket ^ (int) fmix64(fingerprint & 0xFFFFL)) & bucketMask;
+    }
+
+    private static short fingerprint(long hash) {
+        short fingerprint = (short) (hash >>> 48);
+        return fingerprint == EMPTY ? 1 : fingerprint;
+    }
+
+    // 64-bit FNV-1a over UTF-8 bytes, finished with the MurmurHash3 mixer
+    private static long hash(String item) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : item.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        return fmix64(hash);
+    }
+
+    private static long fmix64(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb53fe1a85a63L;
+        k ^= k >>> 33;
+        return k;
+    }
+}
@@ -0,0 +1,50 @@
+package com.firstclub.membership.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position in a keyset-paginated listing: the sort key and id of the last row returned
+ *
+ * Clients only see the opaque, URL-safe token produced by {@link #encode()}.
+ * The token also records the sort it was issued for, so it cannot be replayed
+ * against a listing ordered differently.
+ */
+public record KeysetCursor(String sort, String key, long id) {
+
+    private static final char SEPARATOR = '\n';
+
+    public String encode() {
+        String raw = sort + SEPARATOR + key + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a token issued for {@code expectedSort}; a blank token means "first page"
+     */
+    public static KeysetCursor decode(String token, String expectedSort) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        int first = raw.indexOf(SEPARATOR);
+        int last = raw.lastIndexOf(SEPARATOR);
+        if (first < 0 || first == last) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        String sort = raw.substring(0, first);
+        if (!sort.equals(expectedSort)) {
+            throw new IllegalArgumentException("Cursor was issued for a different sort order");
+        }
+        try {
+            return new KeysetCursor(sort, raw.substring(first + 1, last), Long.parseLong(raw.substring(last + 1)));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
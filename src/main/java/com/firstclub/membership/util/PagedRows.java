@@ -0,0 +1,64 @@
+package com.firstclub.membership.util;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Rows read one keyset page at a time, as they are iterated
+ *
+ * Lets a response of any length be serialized as an ordinary list: each
+ * page is one short query that hands its connection back before its rows
+ * are written, so no connection or transaction is held while a slow client
+ * reads, and at most one page is in memory. Each iteration starts again
+ * from the first page.
+ */
+public final class PagedRows<T> implements Iterable<T> {
+
+    /**
+     * Reads up to {@code size} rows following {@code last}, or the first rows when {@code last} is null
+     */
+    @FunctionalInterface
+    public interface PageReader<T> {
+        List<T> read(T last, int size);
+    }
+
+    private final PageReader<T> reader;
+    private final int pageSize;
+
+    public PagedRows(PageReader<T> reader, int pageSize) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        this.reader = reader;
+        this.pageSize = pageSize;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<>() {
+            private List<T> page;
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                if (page == null) {
+                    page = reader.read(null, pageSize);
+                } else if (next == page.size() && page.size() == pageSize) {
+                    // Only a full page can have more rows after it
+                    page = reader.read(page.get(next - 1), pageSize);
+                    next = 0;
+                }
+                return next < page.size();
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return page.get(next++);
+            }
+        };
+    }
+}
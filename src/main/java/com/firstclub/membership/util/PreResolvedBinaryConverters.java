@@ -0,0 +1,74 @@
+package com.firstclub.membership.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.Collection;
+
+/**
+ * CBOR and Smile counterparts of {@link PreResolvedJsonConverter}
+ *
+ * Each extends the stock converter for its format, so it takes that
+ * converter's place in Spring Boot's list rather than sitting beside it.
+ */
+public final class PreResolvedBinaryConverters {
+
+    private PreResolvedBinaryConverters() {
+    }
+
+    public static class Cbor extends MappingJackson2CborHttpMessageConverter {
+
+        private final PreResolvedWriters writers;
+
+        /**
+         * @param objectMapper a mapper over a CBOR factory; see {@link ResponseFormat#mapper}
+         */
+        public Cbor(ObjectMapper objectMapper, Collection<Class<?>> types) {
+            super(objectMapper);
+            this.writers = new PreResolvedWriters(objectMapper, types);
+        }
+
+        @Override
+        protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException {
+            if (!writePreResolved(writers.find(object.getClass()), object, outputMessage)) {
+                super.writeInternal(object, type, outputMessage);
+            }
+        }
+    }
+
+    public static class Smile extends MappingJackson2SmileHttpMessageConverter {
+
+        private final PreResolvedWriters writers;
+
+        /**
+         * @param objectMapper a mapper over a Smile factory; see {@link ResponseFormat#mapper}
+         */
+        public Smile(ObjectMapper objectMapper, Collection<Class<?>> types) {
+            super(objectMapper);
+            this.writers = new PreResolvedWriters(objectMapper, types);
+        }
+
+        @Override
+        protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException {
+            if (!writePreResolved(writers.find(object.getClass()), object, outputMessage)) {
+                super.writeInternal(object, type, outputMessage);
+            }
+        }
+    }
+
+    // Binary formats have no character encoding to pick, unlike JSON
+    private static boolean writePreResolved(ObjectWriter writer, Object object, HttpOutputMessage outputMessage)
+            throws IOException {
+        if (writer == null) {
+            return false;
+        }
+        writer.writeValue(StreamUtils.nonClosing(outputMessage.getBody()), object);
+        return true;
+    }
+}
@@ -0,0 +1,44 @@
+package com.firstclub.membership.util;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.Collection;
+
+/**
+ * JSON converter that writes known response types through writers resolved at startup
+ *
+ * The stock converter builds an ObjectWriter and looks up the root
+ * serializer on every response. For the listed types both are done once,
+ * when the converter is created; anything else (error maps, actuator
+ * payloads) falls through to the stock path unchanged.
+ */
+public class PreResolvedJsonConverter extends MappingJackson2HttpMessageConverter {
+
+    private final PreResolvedWriters writers;
+
+    public PreResolvedJsonConverter(ObjectMapper objectMapper, Collection<Class<?>> types) {
+        super(objectMapper);
+        this.writers = new PreResolvedWriters(objectMapper, types);
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException {
+        ObjectWriter writer = writers.find(object.getClass());
+        if (writer == null) {
+            super.writeInternal(object, type, outputMessage);
+            return;
+        }
+        JsonEncoding encoding = getJsonEncoding(outputMessage.getHeaders().getContentType());
+        try (JsonGenerator generator = writer.createGenerator(StreamUtils.nonClosing(outputMessage.getBody()), encoding)) {
+            writer.writeValue(generator, object);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.firstclub.membership.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * ObjectWriters built once per response type, shared by the pre-resolved converters
+ *
+ * Building the writer up front also resolves and caches the root serializer,
+ * which the stock converters otherwise look up on every response.
+ */
+public final class PreResolvedWriters {
+
+    private final Map<Class<?>, ObjectWriter> writers;
+
+    public PreResolvedWriters(ObjectMapper objectMapper, Collection<Class<?>> types) {
+        Map<Class<?>, ObjectWriter> resolved = new HashMap<>();
+        for (Class<?> type : types) {
+            resolved.put(type, objectMapper.writerFor(type));
+        }
+        this.writers = Map.copyOf(resolved);
+    }
+
+    /**
+     * The writer for exactly this class, or null when it was not resolved up front
+     */
+    public ObjectWriter find(Class<?> type) {
+        return writers.get(type);
+    }
+}
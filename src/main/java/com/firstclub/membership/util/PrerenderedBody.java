@@ -0,0 +1,176 @@
+package com.firstclub.membership.util;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A response serialized once and kept as bytes, plain and gzipped
+ *
+ * JSON by default, or any encoding from {@link ResponseFormat} by passing
+ * its mapper and media type; responses vary on Accept as well as
+ * Accept-Encoding. Each variant carries its own strong ETag (the gzip one
+ * is suffixed) since the representations differ byte for byte. A
+ * conditional GET whose If-None-Match names the variant being served is
+ * answered with 304 and no body, so a poll that finds nothing new costs a
+ * string compare.
+ */
+public final class PrerenderedBody {
+
+    private static final String GZIP = "gzip";
+    private static final CacheControl REVALIDATE = CacheControl.noCache();
+
+    private final MediaType mediaType;
+    private final byte[] body;
+    private final byte[] gzipped;
+    private final String etag;
+    private final String gzipEtag;
+
+    private PrerenderedBody(MediaType mediaType, byte[] body) {
+        this.mediaType = mediaType;
+        this.body = body;
+        this.gzipped = gzip(body);
+        String digest = sha256(body);
+        this.etag = "\"" + digest + "\"";
+        this.gzipEtag = "\"" + digest + "-gz\"";
+    }
+
+    public static PrerenderedBody of(ObjectMapper objectMapper, Object value) {
+        return of(objectMapper, value, MediaType.APPLICATION_JSON);
+    }
+
+    /**
+     * Serializes {@code value} with a mapper that writes {@code mediaType}, e.g. {@link ResponseFormat#mapper}
+     */
+    public static PrerenderedBody of(ObjectMapper objectMapper, Object value, MediaType mediaType) {
+        try {
+            return new PrerenderedBody(mediaType, objectMapper.writeValueAsBytes(value));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to serialize response", e);
+        }
+    }
+
+    /**
+     * Picks the variant the client accepts and returns it, or 304 when the
+     * client already holds it
+     */
+    public ResponseEntity<byte[]> toResponse(String ifNoneMatch, String acceptEncoding) {
+        boolean useGzip = acceptsGzip(acceptEncoding);
+        String variantEtag = useGzip ? gzipEtag : etag;
+
+        if (etagMatches(ifNoneMatch, variantEtag)) {
+            return notModified(variantEtag);
+        }
+
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+            .contentType(mediaType)
+            .eTag(variantEtag)
+            .cacheControl(REVALIDATE)
+            .header(HttpHeaders.VARY, HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING);
+        if (useGzip) {
+            builder.header(HttpHeaders.CONTENT_ENCODING, GZIP);
+        }
+        return builder.body(useGzip ? gzipped : body);
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    public int size() {
+        return body.length;
+    }
+
+    /**
+     * Builds a 304 carrying the validator the client already holds
+     */
+    public static <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+            .eTag(etag)
+            .cacheControl(REVALIDATE)
+            .build();
+    }
+
+    /**
+     * Evaluates an If-None-Match header against a strong ETag
+     *
+     * Uses the weak comparison required for If-None-Match, so a W/ prefix
+     * added by an intermediary still matches.
+     */
+    public static boolean etagMatches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Builds a strong ETag by hashing the given version components
+     */
+    public static String strongEtag(Object... versionParts) {
+        StringBuilder key = new StringBuilder();
+        for (Object part : versionParts) {
+            key.append(part).append('|');
+        }
+        return "\"" + sha256(key.toString().getBytes(StandardCharsets.UTF_8)).substring(0, 32) + "\"";
+    }
+
+    // Helper Methods
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.toLowerCase(Locale.ROOT).split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equals(GZIP)) {
+                return parts.length < 2 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+        try (GZIPOutputStream out = new GZIPOutputStream(buffer)) {
+            out.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+
+    private static String sha256(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
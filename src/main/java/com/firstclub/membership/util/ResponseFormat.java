@@ -0,0 +1,93 @@
+package com.firstclub.membership.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.http.MediaType;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Encodings a response can be written in, chosen from the Accept header
+ *
+ * All three carry the same data model (the Jackson tree of the response),
+ * so a binary response decodes to exactly what the JSON one would. CBOR
+ * and Smile drop the quoting and text numbers, and Smile also writes each
+ * repeated field name once, which is what makes long listings smaller and
+ * cheaper to produce.
+ */
+public enum ResponseFormat {
+
+    JSON(MediaType.APPLICATION_JSON),
+    CBOR(MediaType.APPLICATION_CBOR),
+    SMILE(new MediaType("application", "x-jackson-smile"));
+
+    private final MediaType mediaType;
+
+    ResponseFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public MediaType mediaType() {
+        return mediaType;
+    }
+
+    /**
+     * The JSON mapper, or a copy of it (same modules and features) that writes this format
+     */
+    public ObjectMapper mapper(ObjectMapper jsonMapper) {
+        return switch (this) {
+            case JSON -> jsonMapper;
+            case CBOR -> jsonMapper.copyWith(new CBORFactory());
+            case SMILE -> jsonMapper.copyWith(new SmileFactory());
+        };
+    }
+
+    /**
+     * The format the client prefers: highest quality first, then most specific
+     *
+     * JSON when the header is missing, unparsable, a wildcard or names
+     * nothing supported, so existing clients are unaffected. A format listed
+     * with q=0 is never chosen, even when a wildcard would cover it.
+     */
+    public static ResponseFormat negotiate(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return JSON;
+        }
+        List<MediaType> accepted;
+        try {
+            accepted = new ArrayList<>(MediaType.parseMediaTypes(accept));
+            MimeTypeUtils.sortBySpecificity(accepted);
+        } catch (IllegalArgumentException e) {
+            // Unparsable, or too many types to sort
+            return JSON;
+        }
+        // Stable, so equal qualities keep their specificity order
+        accepted.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+
+        Set<ResponseFormat> refused = EnumSet.noneOf(ResponseFormat.class);
+        for (MediaType candidate : accepted) {
+            for (ResponseFormat format : values()) {
+                if (candidate.getQualityValue() == 0 && candidate.equalsTypeAndSubtype(format.mediaType)) {
+                    refused.add(format);
+                }
+            }
+        }
+        for (MediaType candidate : accepted) {
+            if (candidate.getQualityValue() == 0) {
+                continue;
+            }
+            for (ResponseFormat format : values()) {
+                if (!refused.contains(format) && candidate.includes(format.mediaType)) {
+                    return format;
+                }
+            }
+        }
+        return JSON;
+    }
+}
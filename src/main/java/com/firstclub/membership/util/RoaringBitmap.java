@@ -0,0 +1,456 @@
+package com.firstclub.membership.util;
+
+import java.util.Arrays;
+
+/**
+ * Compressed bitmap over unsigned 32-bit integers, in the Roaring layout
+ *
+ * Values are split into a 16-bit high key and a 16-bit low part. Each high
+ * key owns one container holding its low parts, either as a sorted array
+ * (up to {@link #ARRAY_MAX} values, 2 bytes each) or as a fixed 8 KB bitset
+ * once it is denser than that. Sparse and dense sets therefore both stay
+ * compact, and AND / OR / AND NOT work container by container without
+ * decompressing anything.
+ *
+ * Values are passed as int and interpreted as unsigned, so 0xFFFFFFFF is the
+ * largest value and iteration follows unsigned order. Not thread-safe;
+ * callers synchronize.
+ */
+public final class RoaringBitmap {
+
+    private static final int ARRAY_MAX = 4096;
+    private static final int BITMAP_WORDS = 1 << 10;
+
+    private char[] keys;
+    private Container[] containers;
+    private int size;
+
+    public RoaringBitmap() {
+        this(4);
+    }
+
+    private RoaringBitmap(int capacity) {
+        this.keys = new char[capacity];
+        this.containers = new Container[capacity];
+    }
+
+    /**
+     * Adds a value; returns false if it was already present
+     */
+    public boolean add(int value) {
+        char high = (char) (value >>> 16);
+        int index = Arrays.binarySearch(keys, 0, size, high);
+        if (index < 0) {
+            index = -index - 1;
+            insertContainer(index, high, new Container());
+        }
+        return containers[index].add((char) value);
+    }
+
+    /**
+     * Removes a value; returns false if it was not present
+     */
+    public boolean remove(int value) {
+        char high = (char) (value >>> 16);
+        int index = Arrays.binarySearch(keys, 0, size, high);
+        if (index < 0) {
+            return false;
+        }
+        Container container = containers[index];
+        boolean removed = container.remove((char) value);
+        if (container.cardinality == 0) {
+            removeContainer(index);
+        }
+        return removed;
+    }
+
+    public boolean contains(int value) {
+        int index = Arrays.binarySearch(keys, 0, size, (char) (value >>> 16));
+        return index >= 0 && containers[index].contains((char) value);
+    }
+
+    public long cardinality() {
+        long cardinality = 0;
+        for (int i = 0; i < size; i++) {
+            cardinality += containers[i].cardinality;
+        }
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Number of values present in both bitmaps, without materializing the intersection
+     */
+    public long andCardinality(RoaringBitmap other) {
+        long cardinality = 0;
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                cardinality += containers[i].andCardinality(other.containers[j]);
+                i++;
+                j++;
+            }
+        }
+        return cardinality;
+    }
+
+    public static RoaringBitmap and(RoaringBitmap a, RoaringBitmap b) {
+        RoaringBitmap result = new RoaringBitmap(Math.max(1, Math.min(a.size, b.size)));
+        int i = 0;
+        int j = 0;
+        while (i < a.size && j < b.size) {
+            if (a.keys[i] < b.keys[j]) {
+                i++;
+            } else if (a.keys[i] > b.keys[j]) {
+                j++;
+            } else {
+                result.appendNonEmpty(a.keys[i], a.containers[i].and(b.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    public static RoaringBitmap or(RoaringBitmap a, RoaringBitmap b) {
+        RoaringBitmap result = new RoaringBitmap(Math.max(1, a.size + b.size));
+        int i = 0;
+        int j = 0;
+        while (i < a.size || j < b.size) {
+            if (j == b.size || (i < a.size && a.keys[i] < b.keys[j])) {
+                result.appendNonEmpty(a.keys[i], a.containers[i].copy());
+                i++;
+            } else if (i == a.size || a.keys[i] > b.keys[j]) {
+                result.appendNonEmpty(b.keys[j], b.containers[j].copy());
+                j++;
+            } else {
+                result.appendNonEmpty(a.keys[i], a.containers[i].or(b.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Values of {@code a} that are not in {@code b}
+     */
+    public static RoaringBitmap andNot(RoaringBitmap a, RoaringBitmap b) {
+        RoaringBitmap result = new RoaringBitmap(Math.max(1, a.size));
+        int j = 0;
+        for (int i = 0; i < a.size; i++) {
+            while (j < b.size && b.keys[j] < a.keys[i]) {
+                j++;
+            }
+            if (j < b.size && b.keys[j] == a.keys[i]) {
+                result.appendNonEmpty(a.keys[i], a.containers[i].andNot(b.containers[j]));
+            } else {
+                result.appendNonEmpty(a.keys[i], a.containers[i].copy());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns up to {@code limit} values after skipping {@code offset}, in
+     * ascending or descending unsigned order; whole containers are skipped
+     * by their cardinality, so deep pages do not walk the skipped values
+     */
+    public int[] page(long offset, int limit, boolean descending) {
+        int[] out = new int[(int) Math.max(0, Math.min(limit, cardinality() - offset))];
+        int found = 0;
+        long skip = offset;
+        for (int n = 0; n < size && found < out.length; n++) {
+            int i = descending ? size - 1 - n : n;
+            Container container = containers[i];
+            if (skip >= container.cardinality) {
+                skip -= container.cardinality;
+                continue;
+            }
+            found = container.page((int) skip, out, found, keys[i] << 16, descending);
+            skip = 0;
+        }
+        return out;
+    }
+
+    // Helper Methods
+
+    private void appendNonEmpty(char key, Container container) {
+        if (container != null && container.cardinality > 0) {
+            insertContainer(size, key, container);
+        }
+    }
+
+    private void insertContainer(int index, char key, Container container) {
+        if (size == keys.length) {
+            int capacity = size + (size >> 1) + 1;
+            keys = Arrays.copyOf(keys, capacity);
+            containers = Arrays.copyOf(containers, capacity);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(containers, index, containers, index + 1, size - index);
+        keys[index] = key;
+        containers[index] = container;
+        size++;
+    }
+
+    private void removeContainer(int index) {
+        System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+        System.arraycopy(containers, index + 1, containers, index, size - index - 1);
+        containers[--size] = null;
+    }
+
+    /**
+     * The low 16 bits of every value sharing one high key; a sorted array
+     * while sparse, a bitset once it holds more than ARRAY_MAX values
+     */
+    private static final class Container {
+        private char[] array = new char[4];
+        private long[] bitmap;
+        private int cardinality;
+
+        boolean add(char value) {
+            if (bitmap != null) {
+                long bit = 1L << value;
+                if ((bitmap[value >>> 6] & bit) != 0) {
+                    return false;
+                }
+                bitmap[value >>> 6] |= bit;
+                cardinality++;
+                return true;
+            }
+            int index = Arrays.binarySearch(array, 0, cardinality, value);
+            if (index >= 0) {
+                return false;
+            }
+            if (cardinality == ARRAY_MAX) {
+                toBitmap();
+                return add(value);
+            }
+            index = -index - 1;
+            if (cardinality == array.length) {
+                array = Arrays.copyOf(array, Math.min(ARRAY_MAX, cardinality + (cardinality >> 1) + 1));
+            }
+            System.arraycopy(array, index, array, index + 1, cardinality - index);
+            array[index] = value;
+            cardinality++;
+            return true;
+        }
+
+        boolean remove(char value) {
+            if (bitmap != null) {
+                long bit = 1L << value;
+                if ((bitmap[value >>> 6] & bit) == 0) {
+                    return false;
+                }
+                bitmap[value >>> 6] &= ~bit;
+                if (--cardinality <= ARRAY_MAX) {
+                    toArray();
+                }
+                return true;
+            }
+            int index = Arrays.binarySearch(array, 0, cardinality, value);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(array, index + 1, array, index, cardinality - index - 1);
+            cardinality--;
+            return true;
+        }
+
+        boolean contains(char value) {
+            return bitmap != null
+                ? (bitmap[value >>> 6] & (1L << value)) != 0
+                : Arrays.binarySearch(array, 0, cardinality, value) >= 0;
+        }
+
+        int andCardinality(Container other) {
+            if (bitmap != null && other.bitmap != null) {
+                int count = 0;
+                for (int w = 0; w < BITMAP_WORDS; w++) {
+                    count += Long.bitCount(bitmap[w] & other.bitmap[w]);
+                }
+                return count;
+            }
+            Container sparse = bitmap == null ? this : other;
+            Container probe = sparse == this ? other : this;
+            int count = 0;
+            for (int i = 0; i < sparse.cardinality; i++) {
+                if (probe.contains(sparse.array[i])) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        Container and(Container other) {
+            if (bitmap != null && other.bitmap != null) {
+                long[] words = new long[BITMAP_WORDS];
+                for (int w = 0; w < BITMAP_WORDS; w++) {
+                    words[w] = bitmap[w] & other.bitmap[w];
+                }
+                return fromBitmap(words);
+            }
+            Container sparse = bitmap == null ? this : other;
+            Container probe = sparse == this ? other : this;
+            Container result = new Container();
+            result.array = new char[Math.max(1, sparse.cardinality)];
+            for (int i = 0; i < sparse.cardinality; i++) {
+                if (probe.contains(sparse.array[i])) {
+                    result.array[result.cardinality++] = sparse.array[i];
+                }
+            }
+            return result;
+        }
+
+        Container or(Container other) {
+            if (bitmap == null && other.bitmap == null) {
+                char[] merged = new char[cardinality + other.cardinality];
+                int i = 0;
+                int j = 0;
+                int n = 0;
+                while (i < cardinality || j < other.cardinality) {
+                    if (j == other.cardinality || (i < cardinality && array[i] < other.array[j])) {
+                        merged[n++] = array[i++];
+                    } else if (i == cardinality || array[i] > other.array[j]) {
+                        merged[n++] = other.array[j++];
+                    } else {
+                        merged[n++] = array[i++];
+                        j++;
+                    }
+                }
+                Container result = new Container();
+                result.array = merged;
+                result.cardinality = n;
+                if (n > ARRAY_MAX) {
+                    result.toBitmap();
+                }
+                return result;
+            }
+            long[] words = new long[BITMAP_WORDS];
+            for (Container part : new Container[] { this, other }) {
+                if (part.bitmap != null) {
+                    for (int w = 0; w < BITMAP_WORDS; w++) {
+                        words[w] |= part.bitmap[w];
+                    }
+                } else {
+                    for (int i = 0; i < part.cardinality; i++) {
+                        words[part.array[i] >>> 6] |= 1L << part.array[i];
+                    }
+                }
+            }
+            return fromBitmap(words);
+        }
+
+        Container andNot(Container other) {
+            if (bitmap == null) {
+                Container result = new Container();
+                result.array = new char[Math.max(1, cardinality)];
+                for (int i = 0; i < cardinality; i++) {
+                    if (!other.contains(array[i])) {
+                        result.array[result.cardinality++] = array[i];
+                    }
+                }
+                return result;
+            }
+            long[] words = bitmap.clone();
+            if (other.bitmap != null) {
+                for (int w = 0; w < BITMAP_WORDS; w++) {
+                    words[w] &= ~other.bitmap[w];
+                }
+            } else {
+                for (int i = 0; i < other.cardinality; i++) {
+                    words[other.array[i] >>> 6] &= ~(1L << other.array[i]);
+                }
+            }
+            return fromBitmap(words);
+        }
+
+        Container copy() {
+            Container copy = new Container();
+            copy.cardinality = cardinality;
+            if (bitmap != null) {
+                copy.bitmap = bitmap.clone();
+                copy.array = null;
+            } else {
+                copy.array = Arrays.copyOf(array, Math.max(1, cardinality));
+            }
+            return copy;
+        }
+
+        /**
+         * Writes values from the {@code skip}-th on (in the requested order) into out, returning the new fill level
+         */
+        int page(int skip, int[] out, int found, int base, boolean descending) {
+            if (bitmap == null) {
+                for (int n = skip; n < cardinality && found < out.length; n++) {
+                    out[found++] = base | array[descending ? cardinality - 1 - n : n];
+                }
+                return found;
+            }
+            for (int k = 0; k < BITMAP_WORDS && found < out.length; k++) {
+                int w = descending ? BITMAP_WORDS - 1 - k : k;
+                long word = bitmap[w];
+                int bits = Long.bitCount(word);
+                if (skip >= bits) {
+                    skip -= bits;
+                    continue;
+                }
+                while (word != 0 && found < out.length) {
+                    int bit = descending ? 63 - Long.numberOfLeadingZeros(word) : Long.numberOfTrailingZeros(word);
+                    word &= ~(1L << bit);
+                    if (skip > 0) {
+                        skip--;
+                    } else {
+                        out[found++] = base | (w << 6) | bit;
+                    }
+                }
+            }
+            return found;
+        }
+
+        private void toBitmap() {
+            bitmap = new long[BITMAP_WORDS];
+            for (int i = 0; i < cardinality; i++) {
+                bitmap[array[i] >>> 6] |= 1L << array[i];
+            }
+            array = null;
+        }
+
+        private void toArray() {
+            char[] values = new char[Math.max(1, cardinality)];
+            int n = 0;
+            for (int w = 0; w < BITMAP_WORDS; w++) {
+                long word = bitmap[w];
+                while (word != 0) {
+                    int bit = Long.numberOfTrailingZeros(word);
+                    values[n++] = (char) ((w << 6) | bit);
+                    word &= word - 1;
+                }
+            }
+            array = values;
+            bitmap = null;
+        }
+
+        private static Container fromBitmap(long[] words) {
+            Container result = new Container();
+            result.bitmap = words;
+            result.array = null;
+            for (long word : words) {
+                result.cardinality += Long.bitCount(word);
+            }
+            if (result.cardinality <= ARRAY_MAX) {
+                result.toArray();
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.firstclub.membership.benchmark;
+
+import com.firstclub.membership.model.User;
+import com.firstclub.membership.model.User.UserRole;
+import com.firstclub.membership.repository.UserRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Concurrency benchmark for user registration writes
+ *
+ * Compares the old exists-then-insert flow (three round trips) against the
+ * insert-first flow that relies on the unique constraints (one round trip).
+ * Password hashing is excluded so only database work is measured.
+ *
+ * Run with: mvn test -Pbenchmark -Dtest=RegistrationConcurrencyBenchmark
+ * Tune with -Dbenchmark.threads=8 -Dbenchmark.usersPerThread=2000
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:registration_benchmark;DB_CLOSE_DELAY=-1",
+    "spring.jpa.show-sql=false",
+    "logging.level.org.hibernate.SQL=WARN",
+    "logging.level.com.firstclub.membership=WARN"
+})
+public class RegistrationConcurrencyBenchmark {
+
+    // A syntactically valid BCrypt hash; the benchmark never verifies it
+    private static final String PRE_HASHED_PASSWORD =
+        "$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z1iyFWpiv6q8lf3r8K3pYb5u";
+
+    private static final int THREADS = Integer.getInteger("benchmark.threads", 8);
+    private static final int USERS_PER_THREAD = Integer.getInteger("benchmark.usersPerThread", 1000);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    public void compareExistsThenInsertWithInsertFirst() throws Exception {
+        // Warm up both paths so JIT and pool start-up do not skew the first run
+        run("warmup-a", this::existsThenInsert, 200);
+        run("warmup-b", this::insertFirst, 200);
+
+        Result existsThenInsert = run("eti", this::existsThenInsert, USERS_PER_THREAD);
+        Result insertFirst = run("ifi", this::insertFirst, USERS_PER_THREAD);
+
+        System.out.printf("%nRegistration throughput (%d threads x %d users)%n", THREADS, USERS_PER_THREAD);
+        System.out.printf("  exists-then-insert : %,10.0f users/s%n", existsThenInsert.throughput());
+        System.out.printf("  insert-first       : %,10.0f users/s (%.2fx)%n",
+            insertFirst.throughput(), insertFirst.throughput() / existsThenInsert.throughput());
+
+        assertThat(existsThenInsert.created()).isEqualTo(THREADS * USERS_PER_THREAD);
+        assertThat(insertFirst.created()).isEqualTo(THREADS * USERS_PER_THREAD);
+    }
+
+    @Test
+    public void concurrentSignupsForSameUsernameAreAllMapped() throws Exception {
+        int contended = 200;
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < contended; i++) {
+                    if (insertFirst("race" + i)) {
+                        created.incrementAndGet();
+                    } else {
+                        conflicts.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        pool.shutdown();
+
+        System.out.printf("%nContended signups: %d created, %d conflicts detected%n", created.get(), conflicts.get());
+        assertThat(created.get()).isEqualTo(contended);
+        assertThat(conflicts.get()).isEqualTo(contended * (THREADS - 1));
+    }
+
+    // Helper Methods
+
+    private boolean existsThenInsert(String username) {
+        if (userRepository.existsByUsername(username) || userRepository.existsByEmail(username + "@bench.test")) {
+            return false;
+        }
+        transactionTemplate.executeWithoutResult(status -> userRepository.save(newUser(username)));
+        return true;
+    }
+
+    private boolean insertFirst(String username) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> userRepository.saveAndFlush(newUser(username)));
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            return false;
+        }
+    }
+
+    private Result run(String prefix, Registration registration, int usersPerThread) throws Exception {
+        AtomicInteger created = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            futures.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < usersPerThread; i++) {
+                    if (registration.register(prefix + "-" + thread + "-" + i)) {
+                        created.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        long startedAt = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsedNanos = System.nanoTime() - startedAt;
+        pool.shutdown();
+
+        return new Result(created.get(), created.get() / (elapsedNanos / 1_000_000_000.0));
+    }
+
+    private static User newUser(String username) {
+        return User.builder()
+            .username(username)
+            .email(username + "@bench.test")
+            .password(PRE_HASHED_PASSWORD)
+            .firstName("Bench")
+            .lastName("User")
+            .addRole(UserRole.USER)
+            .build();
+    }
+
+    @FunctionalInterface
+    private interface Registration {
+        boolean register(String username);
+    }
+
+    private record Result(int created, double throughput) {}
+}
@@ -0,0 +1,119 @@
+package com.firstclub.membership.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.firstclub.membership.dto.UserResponses.PagePagination;
+import com.firstclub.membership.dto.UserResponses.UserList;
+import com.firstclub.membership.model.User.UserRole;
+import com.firstclub.membership.model.UserField;
+import com.firstclub.membership.model.UserSnapshot;
+import com.firstclub.membership.model.UserView;
+import com.firstclub.membership.util.ResponseFormat;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Size and encode/decode latency of a 100-user listing page in JSON, CBOR and Smile
+ *
+ * Each format writes the same UserList record through a pre-resolved
+ * writer, as the negotiated converters do, and reads it back as a tree, as
+ * a consuming service would. Reports raw and gzipped bytes, and p50/p99 of
+ * encode and decode.
+ *
+ * Run with: mvn test -Pbenchmark -Dtest=ResponseEncodingBenchmark
+ * Tune with -Dbenchmark.iterations=200000
+ */
+@Tag("benchmark")
+public class ResponseEncodingBenchmark {
+
+    private static final int ITERATIONS = Integer.getInteger("benchmark.iterations", 50_000);
+    private static final int PAGE_SIZE = 100;
+    private static final Set<UserField> LISTING_FIELDS = UserField.setOf(UserField.USERNAME, UserField.EMAIL,
+        UserField.FIRST_NAME, UserField.LAST_NAME, UserField.ROLES, UserField.IS_ACTIVE, UserField.CREATED_AT,
+        UserField.LAST_LOGIN);
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+        .registerModule(new JavaTimeModule())
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @Test
+    public void measureEncodings() throws Exception {
+        UserList page = listingPage();
+
+        Map<ResponseFormat, Integer> sizes = new EnumMap<>(ResponseFormat.class);
+        for (ResponseFormat format : ResponseFormat.values()) {
+            ObjectMapper mapper = format.mapper(objectMapper);
+            ObjectWriter writer = mapper.writerFor(UserList.class);
+            byte[] encoded = writer.writeValueAsBytes(page);
+            assertThat(mapper.readTree(encoded)).isEqualTo(objectMapper.readTree(objectMapper.writeValueAsBytes(page)));
+
+            long[] encode = measure(() -> writer.writeValueAsBytes(page).length);
+            long[] decode = measure(() -> mapper.readTree(encoded).size());
+            sizes.put(format, encoded.length);
+            System.out.printf("%-5s %,7d bytes (%,6d gzipped)  encode p50 %,8d ns p99 %,8d ns"
+                + "  decode p50 %,8d ns p99 %,8d ns%n",
+                format, encoded.length, gzip(encoded).length, encode[0], encode[1], decode[0], decode[1]);
+        }
+
+        assertThat(sizes.get(ResponseFormat.CBOR)).isLessThan(sizes.get(ResponseFormat.JSON));
+        assertThat(sizes.get(ResponseFormat.SMILE)).isLessThan(sizes.get(ResponseFormat.JSON));
+    }
+
+    private UserList listingPage() {
+        LocalDateTime now = LocalDateTime.now();
+        List<UserView> users = new ArrayList<>(PAGE_SIZE);
+        for (long id = 1; id <= PAGE_SIZE; id++) {
+            UserSnapshot user = new UserSnapshot(id, "user" + id, "user" + id + "@example.com", "First" + id,
+                "Last" + id, true, id % 2 == 0, Set.of(UserRole.USER), now.minusDays(id), now.minusHours(id));
+            users.add(UserView.of(user, LISTING_FIELDS));
+        }
+        return new UserList(true, users, new PagePagination(0, PAGE_SIZE, PAGE_SIZE, 1, true, true));
+    }
+
+    // Returns {p50, p99} in nanoseconds
+    private static long[] measure(Operation operation) throws Exception {
+        long sink = 0;
+        for (int i = 0; i < 10_000; i++) {
+            sink += operation.run();
+        }
+
+        long[] latencies = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            long started = System.nanoTime();
+            sink += operation.run();
+            latencies[i] = System.nanoTime() - started;
+        }
+        assertThat(sink).isPositive();
+
+        Arrays.sort(latencies);
+        return new long[] { latencies[ITERATIONS / 2], latencies[(int) (ITERATIONS * 0.99)] };
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(buffer)) {
+            out.write(data);
+        }
+        return buffer.toByteArray();
+    }
+
+    @FunctionalInterface
+    private interface Operation {
+        long run() throws Exception;
+    }
+}
@@ -0,0 +1,105 @@
+package com.firstclub.membership.benchmark;
+
+import com.firstclub.membership.model.User;
+import com.firstclub.membership.model.User.UserRole;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Insert throughput benchmark for JDBC batching of user inserts
+ *
+ * Persists users through JPA with the session's JDBC batch size forced to 1
+ * (one statement round trip per row, which is what IDENTITY ids forced)
+ * and then with the configured batch size, which pooled sequence ids allow.
+ * Each run starts from empty tables, commits every
+ * {@code benchmark.transactionSize} users and clears the persistence context
+ * so memory stays flat.
+ *
+ * Run with: mvn test -Pbenchmark -Dtest=UserInsertBatchingBenchmark
+ * Tune with -Dbenchmark.users=1000000 -Dbenchmark.transactionSize=1000
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:insert_batching_benchmark;DB_CLOSE_DELAY=-1",
+    "spring.jpa.show-sql=false",
+    "logging.level.org.hibernate.SQL=WARN",
+    "logging.level.com.firstclub.membership=WARN"
+})
+public class UserInsertBatchingBenchmark {
+
+    // A syntactically valid BCrypt hash; the benchmark never verifies it
+    private static final String PRE_HASHED_PASSWORD =
+        "$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z1iyFWpiv6q8lf3r8K3pYb5u";
+
+    private static final int USERS = Integer.getInteger("benchmark.users", 1_000_000);
+    private static final int TRANSACTION_SIZE = Integer.getInteger("benchmark.transactionSize", 1000);
+    private static final int BATCH_SIZE = 50;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void compareUnbatchedWithBatchedInserts() {
+        // Warm up both paths so JIT and pool start-up do not skew the first run
+        insert("warmup-a", 20_000, 1);
+        insert("warmup-b", 20_000, BATCH_SIZE);
+
+        double unbatched = insert("single", USERS, 1);
+        double batched = insert("batched", USERS, BATCH_SIZE);
+
+        System.out.printf("%nUser insert throughput (%,d users, %,d per transaction)%n", USERS, TRANSACTION_SIZE);
+        System.out.printf("  batch size 1  : %,10.0f users/s%n", unbatched);
+        System.out.printf("  batch size %-2d : %,10.0f users/s (%.2fx)%n", BATCH_SIZE, batched, batched / unbatched);
+
+        assertThat(batched).isGreaterThan(unbatched);
+    }
+
+    // Helper Methods
+
+    private double insert(String prefix, int users, int batchSize) {
+        truncateUsers();
+        long startedAt = System.nanoTime();
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+            for (int start = 0; start < users; start += TRANSACTION_SIZE) {
+                entityManager.getTransaction().begin();
+                for (int i = start; i < Math.min(users, start + TRANSACTION_SIZE); i++) {
+                    entityManager.persist(newUser(prefix + "-" + i));
+                }
+                entityManager.getTransaction().commit();
+                entityManager.clear();
+            }
+        } finally {
+            entityManager.close();
+        }
+        return users / ((System.nanoTime() - startedAt) / 1_000_000_000.0);
+    }
+
+    private void truncateUsers() {
+        jdbcTemplate.execute("TRUNCATE TABLE users");
+        System.gc();
+    }
+
+    private static User newUser(String username) {
+        return User.builder()
+            .username(username)
+            .email(username + "@bench.test")
+            .password(PRE_HASHED_PASSWORD)
+            .firstName("Bench")
+            .lastName("User")
+            .addRole(UserRole.USER)
+            .build();
+    }
+}
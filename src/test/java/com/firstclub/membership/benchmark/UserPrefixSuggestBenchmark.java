@@ -0,0 +1,77 @@
+package com.firstclub.membership.benchmark;
+
+import com.firstclub.membership.model.User.UserRole;
+import com.firstclub.membership.model.UserSnapshot;
+import com.firstclub.membership.service.UserPrefixIndex;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Latency benchmark for username/email typeahead
+ *
+ * Loads synthetic users straight into the prefix index (no database) and
+ * measures suggest() for random 1-4 character prefixes, reporting p50/p99.
+ *
+ * Run with: mvn test -Pbenchmark -Dtest=UserPrefixSuggestBenchmark
+ * Tune with -Dbenchmark.users=1000000 -Dbenchmark.queries=200000
+ */
+@Tag("benchmark")
+public class UserPrefixSuggestBenchmark {
+
+    private static final int USERS = Integer.getInteger("benchmark.users", 1_000_000);
+    private static final int QUERIES = Integer.getInteger("benchmark.queries", 200_000);
+    private static final String ALPHABET = "abcdefghijklmnopqrstuvwxyz0123456789";
+
+    @Test
+    public void measureSuggestLatency() {
+        UserPrefixIndex index = new UserPrefixIndex();
+        long loadStarted = System.nanoTime();
+        index.beginRebuild(USERS);
+        LocalDateTime now = LocalDateTime.now();
+        for (long id = 1; id <= USERS; id++) {
+            String username = randomWord(6, 12) + id;
+            index.add(new UserSnapshot(id, username, randomWord(5, 10) + id + "@example.com",
+                "First", "Last", true, true, Set.of(UserRole.USER), now, null));
+        }
+        index.completeRebuild();
+        System.out.printf("Loaded %,d users in %,d ms%n", USERS, (System.nanoTime() - loadStarted) / 1_000_000);
+
+        // Warm up
+        for (int i = 0; i < 20_000; i++) {
+            index.suggest(randomWord(1, 4), 10);
+        }
+
+        long[] latencies = new long[QUERIES];
+        int hits = 0;
+        for (int i = 0; i < QUERIES; i++) {
+            String prefix = randomWord(1, 4);
+            long started = System.nanoTime();
+            hits += index.suggest(prefix, 10).size();
+            latencies[i] = System.nanoTime() - started;
+        }
+        Arrays.sort(latencies);
+
+        long p50 = latencies[QUERIES / 2];
+        long p99 = latencies[(int) (QUERIES * 0.99)];
+        System.out.printf("suggest(limit=10) over %,d users: p50 %,d ns, p99 %,d ns, %,d suggestions%n",
+            USERS, p50, p99, hits);
+        assertThat(p99).isLessThan(1_000_000);
+    }
+
+    private static String randomWord(int minLength, int maxLength) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int length = random.nextInt(minLength, maxLength + 1);
+        StringBuilder word = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            word.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        return word.toString();
+    }
+}
@@ -0,0 +1,100 @@
+package com.firstclub.membership.integration;
+
+import com.firstclub.membership.model.User;
+import com.firstclub.membership.model.User.UserRole;
+import com.firstclub.membership.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for ETag revalidation on catalog and user reads
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class ConditionalGetIntegrationTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private UserService userService;
+
+    private String getBaseUrl() {
+        return "http://localhost:" + port + "/api/v1";
+    }
+
+    @Test
+    public void testPlansRevalidateWithEtag() {
+        ResponseEntity<byte[]> first = get("/memberships/plans", null, null);
+        String etag = first.getHeaders().getETag();
+
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(etag).startsWith("\"");
+        assertThat(first.getHeaders().getVary()).contains(HttpHeaders.ACCEPT_ENCODING);
+
+        ResponseEntity<byte[]> second = get("/memberships/plans", etag, null);
+        assertThat(second.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(second.getBody()).isNull();
+    }
+
+    @Test
+    public void testTiersServeGzipVariantWithItsOwnEtag() throws IOException {
+        ResponseEntity<byte[]> plain = get("/memberships/tiers", null, null);
+        ResponseEntity<byte[]> gzipped = get("/memberships/tiers", null, "gzip, deflate");
+
+        assertThat(gzipped.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(gzipped.getHeaders().getETag()).isNotEqualTo(plain.getHeaders().getETag());
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped.getBody()))) {
+            assertThat(in.readAllBytes()).isEqualTo(plain.getBody());
+        }
+
+        assertThat(get("/memberships/tiers", gzipped.getHeaders().getETag(), "gzip").getStatusCode())
+            .isEqualTo(HttpStatus.NOT_MODIFIED);
+    }
+
+    @Test
+    public void testUserEtagChangesWhenUserChanges() {
+        String username = "etag" + System.nanoTime();
+        User user = userService.registerUser(username, username + "@test.com", "SecureTestPassword123!", "Etag", "Test");
+
+        ResponseEntity<byte[]> first = get("/users/" + user.getId(), null, null);
+        String etag = first.getHeaders().getETag();
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(get("/users/" + user.getId(), etag, null).getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+
+        userService.addRoleToUser(user.getId(), UserRole.ADMIN);
+
+        ResponseEntity<byte[]> changed = get("/users/" + user.getId(), etag, null);
+        assertThat(changed.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(changed.getHeaders().getETag()).isNotEqualTo(etag);
+    }
+
+    // Helper Methods
+
+    private ResponseEntity<byte[]> get(String path, String ifNoneMatch, String acceptEncoding) {
+        HttpHeaders headers = new HttpHeaders();
+        if (ifNoneMatch != null) {
+            headers.setIfNoneMatch(ifNoneMatch);
+        }
+        if (acceptEncoding != null) {
+            headers.set(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        }
+        return restTemplate.exchange(getBaseUrl() + path, HttpMethod.GET, new HttpEntity<>(headers), byte[].class);
+    }
+}
@@ -0,0 +1,40 @@
+package com.firstclub.membership.integration;
+
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.UUID;
+
+/**
+ * Gives every test context a second-level cache manager of its own
+ *
+ * The JCache provider keeps one cache manager per configuration URI for
+ * the whole JVM, so contexts cached side by side would share cached users
+ * (and ids from each other's databases), and closing one context would
+ * close the caches under the rest. Each context here loads the same
+ * ehcache.xml under a URI with its own fragment, which the provider treats
+ * as a separate manager that only that context closes.
+ */
+@AutoConfiguration
+public class IsolatedCacheManager {
+
+    @Bean
+    public HibernatePropertiesCustomizer isolatedCacheManagerUri() {
+        String uri = ehcacheXml() + "#context-" + UUID.randomUUID();
+        return properties -> properties.put("hibernate.javax.cache.uri", uri);
+    }
+
+    // Helper Methods
+
+    private static String ehcacheXml() {
+        try {
+            return new ClassPathResource("ehcache.xml").getURL().toExternalForm();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
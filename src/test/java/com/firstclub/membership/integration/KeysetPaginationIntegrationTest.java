@@ -0,0 +1,131 @@
+package com.firstclub.membership.integration;
+
+import com.firstclub.membership.model.User;
+import com.firstclub.membership.model.UserField;
+import com.firstclub.membership.model.UserSnapshot;
+import com.firstclub.membership.model.UserView;
+import com.firstclub.membership.service.UserSearchIndex;
+import com.firstclub.membership.service.UserService;
+import com.firstclub.membership.util.CursorPage;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for cursor (keyset) pagination of the user listings
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class KeysetPaginationIntegrationTest {
+
+    private static final Set<UserField> ID_ONLY = UserField.setOf();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserSearchIndex userSearchIndex;
+
+    private String getBaseUrl() {
+        return "http://localhost:" + port + "/api/v1";
+    }
+
+    @Test
+    public void testActiveUserPagesCoverEveryUserOnce() {
+        List<Long> expected = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            expected.add(register("keyset" + System.nanoTime()).getId());
+        }
+
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<UserView> page = userService.getActiveUsersAfter("id", false, cursor, 3, ID_ONLY);
+            assertThat(page.items()).hasSizeLessThanOrEqualTo(3);
+            page.items().forEach(user -> seen.add(user.id()));
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        assertThat(seen).doesNotHaveDuplicates().containsAll(expected);
+        assertThat(seen).isSortedAccordingTo((a, b) -> Long.compare(b, a));
+    }
+
+    @Test
+    public void testSearchPagesFollowRelevanceOrder() throws InterruptedException {
+        for (int i = 0; i < 100 && !userSearchIndex.isReady(); i++) {
+            Thread.sleep(50);
+        }
+        String token = "kz" + Long.toString(System.nanoTime(), 36);
+        for (int i = 0; i < 5; i++) {
+            register(token + i);
+        }
+
+        List<Long> paged = new ArrayList<>();
+        CursorPage<UserView> page = userService.searchUsersAfter(token, null, 2, ID_ONLY);
+        page.items().forEach(user -> paged.add(user.id()));
+        while (page.hasNext()) {
+            page = userService.searchUsersAfter(token, page.nextCursor(), 2, ID_ONLY);
+            page.items().forEach(user -> paged.add(user.id()));
+        }
+
+        assertThat(paged).hasSize(5).doesNotHaveDuplicates();
+        assertThat(paged).containsExactlyElementsOf(userService.searchUsers(token,
+            PageRequest.of(0, 10)).map(UserSnapshot::id).getContent());
+    }
+
+    @Test
+    public void testCursorModeOverHttp() {
+        register("keysethttp" + System.nanoTime());
+
+        ResponseEntity<Map> first = restTemplate.getForEntity(
+            getBaseUrl() + "/users?cursor=&size=1&sortBy=createdAt", Map.class);
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.OK);
+        Map<String, Object> pagination = (Map<String, Object>) first.getBody().get("pagination");
+        assertThat(pagination).doesNotContainKey("totalElements");
+        assertThat((List<?>) first.getBody().get("users")).hasSize(1);
+
+        ResponseEntity<Map> slice = restTemplate.getForEntity(getBaseUrl() + "/users?count=false&size=1", Map.class);
+        assertThat(slice.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat((Map<String, Object>) slice.getBody().get("pagination")).containsKey("hasNext").doesNotContainKey("totalPages");
+    }
+
+    @Test
+    public void testInvalidCursorsAreRejected() {
+        ResponseEntity<Map> garbage = restTemplate.getForEntity(getBaseUrl() + "/users?cursor=not-a-cursor", Map.class);
+        assertThat(garbage.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+
+        ResponseEntity<Map> unsupportedSort = restTemplate.getForEntity(
+            getBaseUrl() + "/users?cursor=&sortBy=email", Map.class);
+        assertThat(unsupportedSort.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+
+        String byId = userService.getActiveUsersAfter("id", true, null, 1, ID_ONLY).nextCursor();
+        if (byId != null) {
+            ResponseEntity<Map> otherSort = restTemplate.getForEntity(
+                getBaseUrl() + "/users?sortBy=username&cursor=" + byId, Map.class);
+            assertThat(otherSort.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    // Helper Methods
+
+    private User register(String username) {
+        return userService.registerUser(username, username + "@test.com", "SecureTestPassword123!", "Keyset", "Test");
+    }
+}
@@ -0,0 +1,102 @@
+package com.firstclub.membership.integration;
+
+import com.firstclub.membership.model.MembershipPlan;
+import com.firstclub.membership.model.MembershipPlanSnapshot;
+import com.firstclub.membership.model.MembershipTier;
+import com.firstclub.membership.model.MembershipTierSnapshot;
+import com.firstclub.membership.service.MembershipCatalog;
+import com.firstclub.membership.service.MembershipCatalogService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for the in-memory membership catalog
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class MembershipCatalogIntegrationTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private MembershipCatalogService catalogService;
+
+    private String getBaseUrl() {
+        return "http://localhost:" + port + "/api/v1";
+    }
+
+    @Test
+    public void testPlansAndTiersAreServedFromSeededCatalog() {
+        ResponseEntity<List> plans = restTemplate.getForEntity(getBaseUrl() + "/memberships/plans", List.class);
+        ResponseEntity<List> tiers = restTemplate.getForEntity(getBaseUrl() + "/memberships/tiers", List.class);
+
+        assertThat(plans.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(plans.getBody()).extracting(plan -> ((Map<?, ?>) plan).get("name"))
+            .startsWith("Monthly Plan", "Quarterly Plan", "Yearly Plan");
+        assertThat(tiers.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(tiers.getBody()).extracting(tier -> ((Map<?, ?>) tier).get("level"))
+            .startsWith("SILVER", "GOLD", "PLATINUM");
+    }
+
+    @Test
+    public void testRangeAndAggregateQueries() {
+        MembershipCatalog catalog = catalogService.getCatalog();
+
+        assertThat(catalog.findActivePlansByPriceBetween(new BigDecimal("99.99"), new BigDecimal("279.99")))
+            .extracting(MembershipPlanSnapshot::name)
+            .contains("Monthly Plan", "Quarterly Plan")
+            .doesNotContain("Yearly Plan");
+        assertThat(catalog.findActiveTiersByDiscountRange(new BigDecimal("10.00"), new BigDecimal("20.00")))
+            .extracting(MembershipTierSnapshot::name)
+            .contains("Gold", "Platinum")
+            .doesNotContain("Silver");
+        assertThat(catalog.getMinPlanPrice()).isLessThanOrEqualTo(new BigDecimal("99.99"));
+        assertThat(catalog.getMaxTierDiscount()).isGreaterThanOrEqualTo(new BigDecimal("20.00"));
+
+        Page<MembershipTierSnapshot> page = catalog.findTiersFiltered(null, null, true, null,
+            PageRequest.of(0, 1, Sort.by(Sort.Direction.DESC, "discountPercentage")));
+        assertThat(page.getTotalElements()).isGreaterThanOrEqualTo(2);
+        assertThat(page.getContent()).extracting(MembershipTierSnapshot::freeDelivery).containsOnly(true);
+    }
+
+    @Test
+    public void testSaveSwapsInNewSnapshot() {
+        MembershipCatalog before = catalogService.getCatalog();
+        String name = "Catalog Test Tier " + System.nanoTime();
+
+        catalogService.saveTier(MembershipTier.builder()
+            .name(name)
+            .level(MembershipTier.TierLevel.GOLD)
+            .discountPercentage(new BigDecimal("12.50"))
+            .eligibleCohorts(List.of("catalog-test"))
+            .build());
+
+        MembershipCatalog after = catalogService.getCatalog();
+        assertThat(after.getVersion()).isGreaterThan(before.getVersion());
+        assertThat(before.findTierByName(name)).isEmpty();
+        assertThat(after.findActiveTiersByCohort("catalog-test")).extracting(MembershipTierSnapshot::name)
+            .containsExactly(name);
+        assertThat(after.getAllPlans()).isEqualTo(before.getAllPlans());
+
+        MembershipPlanSnapshot plan = catalogService.savePlan(new MembershipPlan("Catalog Test Plan " + System.nanoTime(),
+            MembershipPlan.PlanType.MONTHLY, 1, new BigDecimal("1.00"), "Test plan"));
+        assertThat(catalogService.getCatalog().findPlanById(plan.id())).map(MembershipPlanSnapshot::name).contains(plan.name());
+    }
+}
@@ -0,0 +1,148 @@
+package com.firstclub.membership.integration;
+
+import com.firstclub.membership.model.User;
+import com.firstclub.membership.service.PasswordHashingService;
+import com.firstclub.membership.service.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for changing a password: hashing outside any transaction and the compare-and-set update
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class PasswordChangeIntegrationTest {
+
+    private static final String PASSWORD = "SecureTestPassword123!";
+    private static final String NEW_PASSWORD = "AnotherTestPassword456!";
+    private static final String CONCURRENT_PASSWORD = "ConcurrentTestPassword789!";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private RecordingPasswordHashingService hashingService;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String getBaseUrl() {
+        return "http://localhost:" + port + "/api/v1";
+    }
+
+    @AfterEach
+    public void tearDown() {
+        hashingService.beforeEncode = () -> { };
+    }
+
+    @Test
+    public void testChangeHashesOutsideAnyTransaction() {
+        User user = register("pwchange");
+        hashingService.transactionActive.clear();
+
+        ResponseEntity<Map> response = changePassword(user.getId(), PASSWORD, NEW_PASSWORD);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(hashingService.transactionActive).containsExactly(false, false);
+        assertThat(passwordEncoder.matches(NEW_PASSWORD, storedPassword(user.getId()))).isTrue();
+    }
+
+    @Test
+    public void testWrongOldPasswordIsRejected() {
+        User user = register("pwwrong");
+
+        ResponseEntity<Map> response = changePassword(user.getId(), "NotThePassword123!", NEW_PASSWORD);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(passwordEncoder.matches(PASSWORD, storedPassword(user.getId()))).isTrue();
+    }
+
+    @Test
+    public void testConcurrentChangeIsAConflictAndKeepsTheOtherPassword() {
+        User user = register("pwrace");
+        String concurrentHash = passwordEncoder.encode(CONCURRENT_PASSWORD);
+        // Lands after the old password was checked and before the new one is written
+        hashingService.beforeEncode = () ->
+            jdbcTemplate.update("UPDATE users SET password = ? WHERE id = ?", concurrentHash, user.getId());
+
+        ResponseEntity<Map> response = changePassword(user.getId(), PASSWORD, NEW_PASSWORD);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        assertThat(response.getBody().get("message")).asString().contains("changed concurrently");
+        assertThat(storedPassword(user.getId())).isEqualTo(concurrentHash);
+    }
+
+    // Helper Methods
+
+    private User register(String prefix) {
+        String username = prefix + System.nanoTime();
+        return userService.registerUser(username, username + "@test.com", PASSWORD, "Password", "Change");
+    }
+
+    private ResponseEntity<Map> changePassword(Long userId, String oldPassword, String newPassword) {
+        return restTemplate.exchange(getBaseUrl() + "/users/" + userId + "/password", HttpMethod.PUT,
+            new HttpEntity<>(Map.of("oldPassword", oldPassword, "newPassword", newPassword)), Map.class);
+    }
+
+    private String storedPassword(Long userId) {
+        return jdbcTemplate.queryForObject("SELECT password FROM users WHERE id = ?", String.class, userId);
+    }
+
+    @TestConfiguration
+    static class HashingConfig {
+        @Bean
+        @Primary
+        RecordingPasswordHashingService recordingPasswordHashingService() {
+            return new RecordingPasswordHashingService();
+        }
+    }
+
+    /**
+     * Records whether each blocking hash ran inside a transaction, and can interleave work before an encode
+     */
+    static class RecordingPasswordHashingService extends PasswordHashingService {
+        final List<Boolean> transactionActive = new CopyOnWriteArrayList<>();
+        volatile Runnable beforeEncode = () -> { };
+
+        @Override
+        public boolean matchesAndWait(String rawPassword, String encodedPassword) {
+            transactionActive.add(TransactionSynchronizationManager.isActualTransactionActive());
+            return super.matchesAndWait(rawPassword, encodedPassword);
+        }
+
+        @Override
+        public String encodeAndWait(String rawPassword) {
+            transactionActive.add(TransactionSynchronizationManager.isActualTransactionActive());
+            beforeEncode.run();
+            return super.encodeAndWait(rawPassword);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.firstclub.membership.integration;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.firstclub.membership.model.User.UserRole;
+import com.firstclub.membership.service.UserService;
+import com.firstclub.membership.util.ResponseFormat;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for CBOR and Smile responses negotiated through Accept
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class ResponseFormatIntegrationTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private String getBaseUrl() {
+        return "http://localhost:" + port + "/api/v1";
+    }
+
+    @Test
+    public void testUserListingDecodesToTheJsonResponse() throws IOException {
+        register("format");
+        String path = "/users?size=5&sortBy=id&sortDir=asc";
+
+        JsonNode json = decode(ResponseFormat.JSON, get(path, ResponseFormat.JSON));
+        for (ResponseFormat format : new ResponseFormat[] { ResponseFormat.CBOR, ResponseFormat.SMILE }) {
+            ResponseEntity<byte[]> response = get(path, format);
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(response.getHeaders().getContentType().isCompatibleWith(format.mediaType())).isTrue();
+            assertThat(response.getBody().length).isLessThan(get(path, ResponseFormat.JSON).getBody().length);
+            assertThat(decode(format, response)).isEqualTo(json);
+        }
+    }
+
+    @Test
+    public void testStreamedListingHonoursAccept() throws IOException {
+        userService.addRoleToUser(register("formatadmin"), UserRole.ADMIN);
+
+        ResponseEntity<byte[]> response = get("/users/admins", ResponseFormat.SMILE);
+
+        assertThat(response.getHeaders().getContentType().isCompatibleWith(ResponseFormat.SMILE.mediaType())).isTrue();
+        assertThat(response.getHeaders().getVary()).contains(HttpHeaders.ACCEPT);
+        JsonNode body = decode(ResponseFormat.SMILE, response);
+        assertThat(body.get("count").asInt()).isEqualTo(body.get("admins").size()).isPositive();
+    }
+
+    @Test
+    public void testCatalogIsPrerenderedPerFormat() throws IOException {
+        ResponseEntity<byte[]> json = get("/memberships/plans", ResponseFormat.JSON);
+        ResponseEntity<byte[]> cbor = get("/memberships/plans", ResponseFormat.CBOR);
+
+        assertThat(cbor.getHeaders().getContentType().isCompatibleWith(ResponseFormat.CBOR.mediaType())).isTrue();
+        assertThat(cbor.getHeaders().getETag()).isNotEqualTo(json.getHeaders().getETag());
+        assertThat(cbor.getHeaders().getVary()).contains(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING);
+        assertThat(decode(ResponseFormat.CBOR, cbor)).isEqualTo(decode(ResponseFormat.JSON, json));
+    }
+
+    @Test
+    public void testUserByIdHasAnETagPerFormat() throws IOException {
+        String path = "/users/" + register("formatetag");
+
+        ResponseEntity<byte[]> json = get(path, ResponseFormat.JSON);
+        ResponseEntity<byte[]> smile = get(path, ResponseFormat.SMILE);
+
+        assertThat(smile.getHeaders().getContentType().isCompatibleWith(ResponseFormat.SMILE.mediaType())).isTrue();
+        assertThat(smile.getHeaders().getETag()).isNotEqualTo(json.getHeaders().getETag());
+        assertThat(smile.getHeaders().getVary()).contains(HttpHeaders.ACCEPT);
+        assertThat(decode(ResponseFormat.SMILE, smile)).isEqualTo(decode(ResponseFormat.JSON, json));
+
+        // The JSON validator does not stand for the Smile body, and vice versa
+        assertThat(getIfNoneMatch(path, ResponseFormat.SMILE, json.getHeaders().getETag()).getStatusCode())
+            .isEqualTo(HttpStatus.OK);
+        ResponseEntity<byte[]> notModified = getIfNoneMatch(path, ResponseFormat.SMILE, smile.getHeaders().getETag());
+        assertThat(notModified.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(notModified.getHeaders().getVary()).contains(HttpHeaders.ACCEPT);
+    }
+
+    @Test
+    public void testUnsupportedOrWildcardAcceptFallsBackToJson() {
+        assertThat(ResponseFormat.negotiate(null)).isEqualTo(ResponseFormat.JSON);
+        assertThat(ResponseFormat.negotiate("*/*")).isEqualTo(ResponseFormat.JSON);
+        assertThat(ResponseFormat.negotiate("text/html, application/*;q=0.5")).isEqualTo(ResponseFormat.JSON);
+        assertThat(ResponseFormat.negotiate("application/json;q=0.5, application/cbor")).isEqualTo(ResponseFormat.CBOR);
+        assertThat(ResponseFormat.negotiate("application/x-jackson-smile;q=0, */*")).isEqualTo(ResponseFormat.JSON);
+        assertThat(ResponseFormat.negotiate("not a media type")).isEqualTo(ResponseFormat.JSON);
+    }
+
+    @Test
+    public void testNegotiationHonoursQualityValues() {
+        assertThat(ResponseFormat.negotiate("application/cbor;q=0.1, application/json")).isEqualTo(ResponseFormat.JSON);
+        assertThat(ResponseFormat.negotiate("application/json;q=0.4, application/x-jackson-smile;q=0.9"))
+            .isEqualTo(ResponseFormat.SMILE);
+        assertThat(ResponseFormat.negotiate("application/*;q=0.8, application/cbor;q=0.8"))
+            .isEqualTo(ResponseFormat.CBOR);
+        assertThat(ResponseFormat.negotiate("application/json;q=0, application/*")).isEqualTo(ResponseFormat.CBOR);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.ACCEPT, "application/cbor;q=0.1, application/json");
+        ResponseEntity<byte[]> response = restTemplate.exchange(getBaseUrl() + "/memberships/plans", HttpMethod.GET,
+            new HttpEntity<>(headers), byte[].class);
+        assertThat(response.getHeaders().getContentType().isCompatibleWith(ResponseFormat.JSON.mediaType())).isTrue();
+    }
+
+    // Helper Methods
+
+    private Long register(String prefix) {
+        String username = prefix + System.nanoTime();
+        return userService.registerUser(username, username + "@test.com", "SecureTestPassword123!", "Format", "Test")
+            .getId();
+    }
+
+    private ResponseEntity<byte[]> get(String path, ResponseFormat format) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(List.of(format.mediaType()));
+        return restTemplate.exchange(getBaseUrl() + path, HttpMethod.GET, new HttpEntity<>(headers), byte[].class);
+    }
+
+    private ResponseEntity<byte[]> getIfNoneMatch(String path, ResponseFormat format, String etag) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(List.of(format.mediaType()));
+        headers.setIfNoneMatch(etag);
+        return restTemplate.exchange(getBaseUrl() + path, HttpMethod.GET, new HttpEntity<>(headers), byte[].class);
+    }
+
+    // Decimals read as BigDecimal, as the binary formats carry them, so prices compare equal across formats
+    private JsonNode decode(ResponseFormat format, ResponseEntity<byte[]> response) throws IOException {
+        return format.mapper(objectMapper).copy()
+            .enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS)
+            .readTree(response.getBody());
+    }
+}
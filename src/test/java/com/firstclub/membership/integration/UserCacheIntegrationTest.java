@@ -0,0 +1,111 @@
+package com.firstclub.membership.integration;
+
+import com.firstclub.membership.model.User;
+import com.firstclub.membership.repository.UserRepository;
+import com.firstclub.membership.service.LastLoginWriteBehindBuffer;
+import com.firstclub.membership.service.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Integration tests for the second-level cache on user lookups
+ */
+@SpringBootTest
+public class UserCacheIntegrationTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private LastLoginWriteBehindBuffer lastLoginBuffer;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    public void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    public void testUsernameLookupIsServedFromNaturalIdCache() {
+        User user = register("cached");
+        userService.findByUsername(user.getUsername());
+        long hits = statistics.getNaturalIdCacheHitCount();
+        long queries = statistics.getNaturalIdQueryExecutionCount();
+
+        assertThat(userService.findByUsername(user.getUsername())).isPresent();
+
+        assertThat(statistics.getNaturalIdCacheHitCount()).isGreaterThan(hits);
+        assertThat(statistics.getNaturalIdQueryExecutionCount()).isEqualTo(queries);
+        assertThat(meterRegistry.find("hibernate.cache.natural.id.requests").tag("result", "hit").functionCounter())
+            .isNotNull();
+    }
+
+    @Test
+    public void testUsernameCannotChangeOnceSaved() {
+        User user = register("fixedname");
+
+        assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(status -> {
+            User managed = userRepository.findById(user.getId()).orElseThrow();
+            managed.setUsername("renamed" + System.nanoTime());
+            userRepository.flush();
+        })).hasStackTraceContaining("immutable natural identifier");
+
+        assertThat(userService.findByUsername(user.getUsername())).isPresent();
+    }
+
+    @Test
+    public void testEmailLookupIsServedFromQueryCache() {
+        User user = register("byemail");
+        userService.findByEmail(user.getEmail());
+        long hits = statistics.getQueryCacheHitCount();
+
+        assertThat(userService.findByEmail(user.getEmail())).isPresent();
+
+        assertThat(statistics.getQueryCacheHitCount()).isGreaterThan(hits);
+    }
+
+    @Test
+    public void testWriteBehindFlushEvictsCachedUser() {
+        User user = register("evicted");
+        userService.findByUsername(user.getUsername());
+        LocalDateTime loginTime = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+
+        lastLoginBuffer.recordLogin(user.getId(), loginTime);
+        lastLoginBuffer.flush();
+
+        assertThat(userService.findByUsername(user.getUsername()).get().getLastLogin()).isEqualTo(loginTime);
+    }
+
+    // Helper Methods
+
+    private User register(String prefix) {
+        String username = prefix + System.nanoTime();
+        return userService.registerUser(username, username + "@test.com", "SecureTestPassword123!", "Cache", "Test");
+    }
+}
@@ -0,0 +1,161 @@
+package com.firstclub.membership.integration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.firstclub.membership.model.User;
+import com.firstclub.membership.model.User.UserRole;
+import com.firstclub.membership.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for the streamed NDJSON and CSV user export
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = {
+        "membership.users.stream.fetch-size=2"
+    })
+public class UserExportIntegrationTest {
+
+    private static final String PASSWORD = "SecureTestPassword123!";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private String getBaseUrl() {
+        return "http://localhost:" + port + "/api/v1";
+    }
+
+    @Test
+    public void testNdjsonExportWritesOneUserPerLine() throws Exception {
+        User user = register("exportnd", "Export");
+
+        ResponseEntity<byte[]> response = export("?format=ndjson", adminToken());
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getContentType().isCompatibleWith(MediaType.APPLICATION_NDJSON)).isTrue();
+        assertThat(response.getHeaders().getContentDisposition().getFilename()).isEqualTo("users.ndjson");
+        List<JsonNode> rows = new ArrayList<>();
+        for (String line : body(response).split("\n")) {
+            rows.add(objectMapper.readTree(line));
+        }
+        assertThat(rows).anySatisfy(row -> {
+            assertThat(row.path("id").asLong()).isEqualTo(user.getId());
+            assertThat(row.path("username").asText()).isEqualTo(user.getUsername());
+            assertThat(row.has("passwordHash")).isFalse();
+        });
+    }
+
+    @Test
+    public void testCsvExportQuotesFieldsAndAppliesFilters() {
+        User moderator = register("exportcsv", "Smith, Jr.");
+        userService.addRoleToUser(moderator.getId(), UserRole.MODERATOR);
+        User other = register("exportother", "Other");
+
+        ResponseEntity<byte[]> response = export("?format=csv&role=moderator&active=true&fields=username,lastName",
+            adminToken());
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.parseMediaType("text/csv;charset=UTF-8"));
+        assertThat(response.getHeaders().getContentDisposition().getFilename()).isEqualTo("users.csv");
+        List<String> lines = List.of(body(response).split("\r\n"));
+        assertThat(lines.get(0)).isEqualTo("id,username,lastName");
+        assertThat(lines).contains(moderator.getId() + "," + moderator.getUsername() + ",\"Smith, Jr.\"");
+        assertThat(lines).noneMatch(line -> line.contains(other.getUsername()));
+    }
+
+    @Test
+    public void testCsvExportNeutralisesFormulas() {
+        User user = register("exportformula", "=HYPERLINK(\"http://evil.example\",\"x\")");
+        User other = register("exportformula", "Plain");
+        userService.updateUserProfile(other.getId(), "-2+3", "@SUM(A1)", null, null);
+
+        ResponseEntity<byte[]> response = export("?format=csv&fields=firstName,lastName", adminToken());
+
+        List<String> lines = List.of(body(response).split("\r\n"));
+        assertThat(lines).contains(user.getId() + ",Export,\"'=HYPERLINK(\"\"http://evil.example\"\",\"\"x\"\")\"");
+        assertThat(lines).contains(other.getId() + ",'-2+3,'@SUM(A1)");
+    }
+
+    @Test
+    public void testExportRequiresAnAdmin() {
+        User user = register("exportplain", "Plain");
+
+        assertThat(export("", null).getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+        assertThat(export("", token(user.getUsername())).getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+    }
+
+    @Test
+    public void testInvalidExportRequestsAreRejectedBeforeStreaming() {
+        String admin = adminToken();
+
+        assertThat(export("?format=xml", admin).getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(export("?role=wizard", admin).getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        ResponseEntity<byte[]> reversed = export(
+            "?createdFrom=2024-02-01T00:00:00&createdTo=2024-01-01T00:00:00", admin);
+        assertThat(reversed.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(body(reversed)).contains("createdFrom must be before createdTo");
+    }
+
+    // Helper Methods
+
+    private User register(String prefix, String lastName) {
+        String username = prefix + System.nanoTime();
+        return userService.registerUser(username, username + "@test.com", PASSWORD, "Export", lastName);
+    }
+
+    private ResponseEntity<byte[]> export(String query, String token) {
+        HttpHeaders headers = new HttpHeaders();
+        if (token != null) {
+            headers.setBearerAuth(token);
+        }
+        return restTemplate.exchange(getBaseUrl() + "/users/export" + query, HttpMethod.GET,
+            new HttpEntity<>(headers), byte[].class);
+    }
+
+    private static String body(ResponseEntity<byte[]> response) {
+        return new String(response.getBody(), StandardCharsets.UTF_8);
+    }
+
+    private String adminToken() {
+        String admin = "exportadmin" + System.nanoTime();
+        restTemplate.postForEntity(getBaseUrl() + "/users/register-admin", Map.of(
+            "username", admin,
+            "email", admin + "@test.com",
+            "password", PASSWORD,
+            "firstName", "Export",
+            "lastName", "Admin"), Map.class);
+        return token(admin);
+    }
+
+    private String token(String username) {
+        ResponseEntity<Map> login = restTemplate.postForEntity(getBaseUrl() + "/users/login",
+            Map.of("usernameOrEmail", username, "password", PASSWORD), Map.class);
+        return (String) login.getBody().get("token");
+    }
+}
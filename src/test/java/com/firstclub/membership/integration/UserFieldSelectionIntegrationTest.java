@@ -0,0 +1,112 @@
+package com.firstclub.membership.integration;
+
+import com.firstclub.membership.model.User;
+import com.firstclub.membership.model.User.UserRole;
+import com.firstclub.membership.model.UserField;
+import com.firstclub.membership.model.UserView;
+import com.firstclub.membership.repository.UserRepository;
+import com.firstclub.membership.repository.UserSpecifications;
+import com.firstclub.membership.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for ?fields= projections on the user list endpoints
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class UserFieldSelectionIntegrationTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private String getBaseUrl() {
+        return "http://localhost:" + port + "/api/v1";
+    }
+
+    @Test
+    public void testListingReturnsOnlyRequestedFieldsAndId() {
+        register("fields");
+
+        ResponseEntity<Map> response = restTemplate.getForEntity(
+            getBaseUrl() + "/users?size=5&fields=username,EMAIL", Map.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        List<Map<String, Object>> users = (List<Map<String, Object>>) response.getBody().get("users");
+        assertThat(users).isNotEmpty()
+            .allSatisfy(user -> assertThat(user).containsOnlyKeys("id", "username", "email"));
+    }
+
+    @Test
+    public void testDefaultFieldsMatchEachEndpoint() {
+        User admin = register("fieldsadmin");
+        userService.addRoleToUser(admin.getId(), UserRole.ADMIN);
+
+        ResponseEntity<Map> admins = restTemplate.getForEntity(getBaseUrl() + "/users/admins", Map.class);
+        assertThat((List<Map<String, Object>>) admins.getBody().get("admins")).anySatisfy(user -> {
+            assertThat(user).containsOnlyKeys("id", "username", "email", "firstName", "lastName", "roles",
+                "isActive", "createdAt", "lastLogin");
+            assertThat(user.get("lastLogin")).isNull();
+        });
+
+        ResponseEntity<Map> byRole = restTemplate.getForEntity(getBaseUrl() + "/users/by-role/admin?fields=roles", Map.class);
+        assertThat((List<Map<String, Object>>) byRole.getBody().get("users"))
+            .filteredOn(user -> admin.getId().equals(((Number) user.get("id")).longValue()))
+            .singleElement()
+            .satisfies(user -> assertThat((List<String>) user.get("roles")).contains("ADMIN"));
+    }
+
+    @Test
+    public void testUnknownOrSecretFieldsAreRejected() {
+        ResponseEntity<Map> unknown = restTemplate.getForEntity(getBaseUrl() + "/users?fields=username,shoeSize", Map.class);
+        assertThat(unknown.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+
+        ResponseEntity<Map> password = restTemplate.getForEntity(getBaseUrl() + "/users/admins?fields=password", Map.class);
+        assertThat(password.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+
+        ResponseEntity<Map> byRole = restTemplate.getForEntity(getBaseUrl() + "/users/by-role/admin?fields=nope", Map.class);
+        assertThat(byRole.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    public void testRolesAreOnlyReadWhenRequested() {
+        User user = register("fieldsroles");
+        userService.addRoleToUser(user.getId(), UserRole.MODERATOR);
+
+        UserView withoutRoles = userRepository.findViews(UserSpecifications.idIn(List.of(user.getId())),
+            UserField.setOf(UserField.USERNAME), Sort.unsorted()).get(0);
+        UserView withRoles = userRepository.findViews(UserSpecifications.idIn(List.of(user.getId())),
+            UserField.setOf(UserField.ROLES), Sort.unsorted()).get(0);
+
+        assertThat(withoutRoles.username()).isEqualTo(user.getUsername());
+        assertThat(withoutRoles.roles()).isNull();
+        assertThat(withRoles.username()).isNull();
+        assertThat(withRoles.roles()).containsExactlyInAnyOrder(UserRole.USER, UserRole.MODERATOR);
+    }
+
+    // Helper Methods
+
+    private User register(String prefix) {
+        String username = prefix + System.nanoTime();
+        return userService.registerUser(username, username + "@test.com", "SecureTestPassword123!", "Field", "Test");
+    }
+}
@@ -0,0 +1,153 @@
+package com.firstclub.membership.integration;
+
+import com.firstclub.membership.event.UserChangedEvent;
+import com.firstclub.membership.model.User;
+import com.firstclub.membership.model.User.UserRole;
+import com.firstclub.membership.model.UserSnapshot;
+import com.firstclub.membership.service.UserGrowthRollupService;
+import com.firstclub.membership.service.UserGrowthRollupService.DailyGrowth;
+import com.firstclub.membership.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for the daily user growth rollups
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class UserGrowthRollupIntegrationTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserGrowthRollupService rollupService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String getBaseUrl() {
+        return "http://localhost:" + port + "/api/v1";
+    }
+
+    @Test
+    public void testChangesAreCountedBeforeAndAfterFlush() {
+        rollupService.backfill();
+        LocalDate today = LocalDate.now();
+        DailyGrowth before = rollupService.getGrowth(today, today, null).totals();
+        DailyGrowth adminsBefore = rollupService.getGrowth(today, today, "admin").totals();
+
+        String username = "growth" + System.nanoTime();
+        User user = userService.registerUser(username, username + "@test.com", "SecureTestPassword123!", "Growth", "Test");
+        userService.authenticateUser(username, "SecureTestPassword123!");
+        userService.toggleUserStatus(user.getId());
+
+        DailyGrowth pending = rollupService.getGrowth(today, today, null).totals();
+        rollupService.flush();
+        DailyGrowth flushed = rollupService.getGrowth(today, today, null).totals();
+
+        for (DailyGrowth growth : List.of(pending, flushed)) {
+            assertThat(growth.signups()).isEqualTo(before.signups() + 1);
+            assertThat(growth.logins()).isEqualTo(before.logins() + 1);
+            assertThat(growth.deactivations()).isEqualTo(before.deactivations() + 1);
+        }
+        assertThat(rollupService.getGrowth(today, today, "ADMIN").totals()).isEqualTo(adminsBefore);
+    }
+
+    @Test
+    public void testBackfillAgreesWithEventsAfterDeletesAndRoleChanges() {
+        LocalDate today = LocalDate.now();
+        User moderator = register("growthmod");
+        userService.addRoleToUser(moderator.getId(), UserRole.MODERATOR);
+        userService.deleteUser(register("growthgone").getId());
+        rollupService.flush();
+        DailyGrowth fromEvents = rollupService.getGrowth(today, today, null).totals();
+        DailyGrowth moderatorsFromEvents = rollupService.getGrowth(today, today, "moderator").totals();
+
+        rollupService.backfill();
+
+        assertThat(rollupService.getGrowth(today, today, null).totals()).isEqualTo(fromEvents);
+        assertThat(rollupService.getGrowth(today, today, "moderator").totals()).isEqualTo(moderatorsFromEvents);
+        assertThat(fromEvents.signups()).isEqualTo(usersCreatedOn(today, null));
+        assertThat(moderatorsFromEvents.signups()).isEqualTo(usersCreatedOn(today, UserRole.MODERATOR));
+    }
+
+    @Test
+    public void testSignupsPendingDuringBackfillAreCountedOnce() {
+        LocalDate today = LocalDate.now();
+        register("growthpending");
+
+        rollupService.backfill();
+        rollupService.flush();
+
+        assertThat(rollupService.getGrowth(today, today, null).totals().signups())
+            .isEqualTo(usersCreatedOn(today, null));
+    }
+
+    @Test
+    public void testSignupRecordedAfterTheRecountIsNotCountedTwice() {
+        LocalDate today = LocalDate.now();
+        User late = register("growthlate");
+        rollupService.flush();
+        rollupService.backfill();
+
+        // The user's row is already in the recount; its event arrives afterwards
+        rollupService.onUserChanged(UserChangedEvent.created(UserSnapshot.of(late)));
+        rollupService.flush();
+
+        assertThat(rollupService.getGrowth(today, today, null).totals().signups())
+            .isEqualTo(usersCreatedOn(today, null));
+    }
+
+    @Test
+    public void testAnalyticsEndpointReturnsOneEntryPerDay() {
+        LocalDate to = LocalDate.now();
+        LocalDate from = to.minusDays(6);
+
+        ResponseEntity<Map> response = restTemplate.getForEntity(
+            getBaseUrl() + "/users/analytics?from=" + from + "&to=" + to + "&role=USER", Map.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().get("role")).isEqualTo("USER");
+        assertThat((List<?>) response.getBody().get("daily")).hasSize(7);
+    }
+
+    @Test
+    public void testInvalidRangeIsRejected() {
+        ResponseEntity<Map> response = restTemplate.getForEntity(
+            getBaseUrl() + "/users/analytics?from=2024-02-01&to=2024-01-01", Map.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    // Helper Methods
+
+    private User register(String prefix) {
+        String username = prefix + System.nanoTime();
+        return userService.registerUser(username, username + "@test.com", "SecureTestPassword123!", "Growth", "Test");
+    }
+
+    private long usersCreatedOn(LocalDate day, UserRole role) {
+        String roleFilter = role == null ? "" : " AND BITAND(role_mask, " + role.bit() + ") <> 0";
+        return jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM users WHERE CAST(created_at AS DATE) = ?" + roleFilter, Long.class, Date.valueOf(day));
+    }
+}
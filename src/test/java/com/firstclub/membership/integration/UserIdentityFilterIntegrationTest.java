@@ -0,0 +1,122 @@
+package com.firstclub.membership.integration;
+
+import com.firstclub.membership.service.UserIdentityFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for the identity filter in front of logins and availability checks
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class UserIdentityFilterIntegrationTest {
+
+    private static final String PASSWORD = "SecureTestPassword123!";
+
+    @LocalServerPort
+    private int port;
+
+    // java.net.http rather than HttpURLConnection, which cannot read a 401 answer to a POST
+    private final TestRestTemplate restTemplate =
+        new TestRestTemplate(new RestTemplateBuilder().requestFactory(JdkClientHttpRequestFactory.class));
+
+    @Autowired
+    private UserIdentityFilter userIdentityFilter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private String getBaseUrl() {
+        return "http://localhost:" + port + "/api/v1";
+    }
+
+    @BeforeEach
+    public void waitForFilter() throws InterruptedException {
+        for (int i = 0; i < 100 && !userIdentityFilter.isReady(); i++) {
+            Thread.sleep(50);
+        }
+        assertThat(userIdentityFilter.isReady()).isTrue();
+    }
+
+    @Test
+    public void testUnknownUserLoginIsRejectedByTheFilter() {
+        double absentBefore = absentLookups();
+        long hashesBefore = passwordChecks();
+
+        ResponseEntity<Map> response = login("nobody" + System.nanoTime(), PASSWORD);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+        assertThat(response.getBody().get("message")).isEqualTo("Invalid credentials or inactive account");
+        assertThat(absentLookups()).isEqualTo(absentBefore + 1);
+        // Still costs a BCrypt check, so it is not answered measurably faster than a wrong password
+        assertThat(passwordChecks()).isEqualTo(hashesBefore + 1);
+    }
+
+    @Test
+    public void testAvailabilityChecksAreAnsweredByTheFilter() {
+        String username = "freename" + System.nanoTime();
+        double absentBefore = absentLookups();
+
+        assertThat(available("/users/check-username/" + username)).isTrue();
+        assertThat(available("/users/check-email/" + username + "@test.com")).isTrue();
+        assertThat(absentLookups()).isEqualTo(absentBefore + 2);
+    }
+
+    @Test
+    public void testFilterFollowsRegistrationAndDeletion() {
+        String username = "filtered" + System.nanoTime();
+        String email = username + "@test.com";
+        ResponseEntity<Map> registered = restTemplate.postForEntity(getBaseUrl() + "/users/register", Map.of(
+            "username", username,
+            "email", email,
+            "password", PASSWORD,
+            "firstName", "Filter",
+            "lastName", "Test"), Map.class);
+        assertThat(registered.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+
+        assertThat(userIdentityFilter.mightContainUsername(username)).isTrue();
+        assertThat(userIdentityFilter.mightContainEmail(email)).isTrue();
+        assertThat(available("/users/check-username/" + username)).isFalse();
+        assertThat(available("/users/check-email/" + email)).isFalse();
+        assertThat(login(username, PASSWORD).getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        Number id = (Number) ((Map<String, Object>) registered.getBody().get("user")).get("id");
+        restTemplate.delete(getBaseUrl() + "/users/" + id);
+
+        assertThat(userIdentityFilter.mightContainUsername(username)).isFalse();
+        assertThat(userIdentityFilter.mightContainEmail(email)).isFalse();
+        assertThat(available("/users/check-username/" + username)).isTrue();
+        assertThat(login(username, PASSWORD).getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+    }
+
+    // Helper Methods
+
+    private ResponseEntity<Map> login(String usernameOrEmail, String password) {
+        return restTemplate.postForEntity(getBaseUrl() + "/users/login",
+            Map.of("usernameOrEmail", usernameOrEmail, "password", password), Map.class);
+    }
+
+    private boolean available(String path) {
+        return (Boolean) restTemplate.getForEntity(getBaseUrl() + path, Map.class).getBody().get("available");
+    }
+
+    private double absentLookups() {
+        return meterRegistry.get("membership.users.identity-filter.lookups").tag("result", "absent").counter().count();
+    }
+
+    private long passwordChecks() {
+        return meterRegistry.get("membership.password.hashing.latency").tag("operation", "matches").timer().count();
+    }
+}
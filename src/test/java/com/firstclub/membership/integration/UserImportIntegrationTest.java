@@ -0,0 +1,134 @@
+package com.firstclub.membership.integration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for the streaming bulk user import
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class UserImportIntegrationTest {
+
+    private static final String PASSWORD = "SecureTestPassword123!";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private String getBaseUrl() {
+        return "http://localhost:" + port + "/api/v1";
+    }
+
+    @Test
+    public void testNdjsonImportReportsEveryRow() throws Exception {
+        String suffix = String.valueOf(System.nanoTime());
+        String body = String.join("\n",
+            "{\"username\":\"imp1" + suffix + "\",\"email\":\"imp1" + suffix + "@test.com\",\"password\":\"" + PASSWORD + "\",\"firstName\":\"Imp\",\"lastName\":\"One\"}",
+            "{\"username\":\"imp1" + suffix + "\",\"email\":\"other" + suffix + "@test.com\",\"password\":\"" + PASSWORD + "\",\"firstName\":\"Imp\",\"lastName\":\"Dup\"}",
+            "{\"username\":\"x\",\"email\":\"bad\"}",
+            "not json");
+
+        List<JsonNode> results = importUsers(body, MediaType.APPLICATION_NDJSON);
+
+        assertThat(results).hasSize(5);
+        assertThat(results.get(0).path("status").asText()).isEqualTo("created");
+        assertThat(results.get(1).path("field").asText()).isEqualTo("username");
+        assertThat(results.get(2).path("status").asText()).isEqualTo("failed");
+        assertThat(results.get(3).path("line").asInt()).isEqualTo(4);
+        assertThat(results.get(4).path("created").asInt()).isEqualTo(1);
+        assertThat(results.get(4).path("failed").asInt()).isEqualTo(3);
+
+        ResponseEntity<Map> login = restTemplate.postForEntity(getBaseUrl() + "/users/login",
+            Map.of("usernameOrEmail", "imp1" + suffix, "password", PASSWORD), Map.class);
+        assertThat(login.getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    public void testCsvImportRejectsExistingUsers() throws Exception {
+        String suffix = String.valueOf(System.nanoTime());
+        String body = String.join("\n",
+            "username,email,password,first_name,last_name",
+            "csv" + suffix + ",csv" + suffix + "@test.com," + PASSWORD + ",\"Csv, Jr\",User");
+
+        assertThat(importUsers(body, MediaType.valueOf("text/csv")).get(0).path("status").asText()).isEqualTo("created");
+
+        List<JsonNode> again = importUsers(body, MediaType.valueOf("text/csv"));
+        assertThat(again.get(0).path("status").asText()).isEqualTo("failed");
+        assertThat(again.get(0).path("field").asText()).isEqualTo("username");
+    }
+
+    @Test
+    public void testImportRejectsNonAdminToken() {
+        String username = "importuser" + System.nanoTime();
+        restTemplate.postForEntity(getBaseUrl() + "/users/register", Map.of(
+            "username", username,
+            "email", username + "@test.com",
+            "password", PASSWORD,
+            "firstName", "Import",
+            "lastName", "User"), Map.class);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_NDJSON);
+        headers.setBearerAuth(token(username));
+
+        ResponseEntity<String> response = restTemplate.postForEntity(getBaseUrl() + "/users/import",
+            new HttpEntity<>("{}", headers), String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+    }
+
+    // Helper Methods
+
+    private List<JsonNode> importUsers(String body, MediaType contentType) throws Exception {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(contentType);
+        headers.setBearerAuth(adminToken());
+
+        ResponseEntity<String> response = restTemplate.postForEntity(getBaseUrl() + "/users/import",
+            new HttpEntity<>(body, headers), String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        List<JsonNode> results = new ArrayList<>();
+        for (String line : response.getBody().split("\n")) {
+            results.add(objectMapper.readTree(line));
+        }
+        return results;
+    }
+
+    private String adminToken() {
+        String admin = "importadmin" + System.nanoTime();
+        restTemplate.postForEntity(getBaseUrl() + "/users/register-admin", Map.of(
+            "username", admin,
+            "email", admin + "@test.com",
+            "password", PASSWORD,
+            "firstName", "Import",
+            "lastName", "Admin"), Map.class);
+        return token(admin);
+    }
+
+    private String token(String username) {
+        ResponseEntity<Map> login = restTemplate.postForEntity(getBaseUrl() + "/users/login",
+            Map.of("usernameOrEmail", username, "password", PASSWORD), Map.class);
+        return (String) login.getBody().get("token");
+    }
+}
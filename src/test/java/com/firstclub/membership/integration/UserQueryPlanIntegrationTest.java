@@ -0,0 +1,296 @@
+package com.firstclub.membership.integration;
+
+import com.firstclub.membership.model.User.UserRole;
+import com.firstclub.membership.model.UserField;
+import com.firstclub.membership.repository.UserRepository;
+import com.firstclub.membership.repository.UserRepositoryCustom;
+import com.firstclub.membership.repository.UserSpecifications;
+import com.firstclub.membership.service.UserService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Fails when a user repository query would scan the whole users table
+ *
+ * Seeds its own database with a synthetic user base (100,000 rows by default,
+ * enough for the planner to prefer an index to a scan; -Dexplain.users to
+ * change it), runs every repository query with every statement it issues
+ * intercepted, and checks the H2 EXPLAIN plan of each statement for a table
+ * scan. Statements are still executed, capped at
+ * one row, so secondary selects (roles, counts) are checked too.
+ *
+ * Adding a query to UserRepository without listing it here fails the test.
+ */
+@SpringBootTest(properties = {
+    "logging.level.org.hibernate.SQL=WARN"
+})
+@DirtiesContext
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class UserQueryPlanIntegrationTest {
+
+    private static final Logger log = LoggerFactory.getLogger(UserQueryPlanIntegrationTest.class);
+
+    private static final int USERS = Integer.getInteger("explain.users", 100_000);
+
+    // Queries that cannot use a B-tree index by design, with the reason
+    private static final Map<String, String> FULL_SCAN_ALLOWED = Map.of(
+        "searchUsers", "leading-wildcard LIKE; served by UserSearchIndex once it has loaded",
+        "findTop50ByUsernameStartingWithIgnoreCaseOrderByUsernameAsc",
+            "LOWER(username) defeats the index; only used while UserPrefixIndex loads"
+    );
+
+    private static final Set<UserField> VIEW_FIELDS = UserField.setOf(UserField.USERNAME, UserField.ROLES);
+
+    private static final ThreadLocal<List<String>> PLANS = new ThreadLocal<>();
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeAll
+    public void seed() {
+        long started = System.currentTimeMillis();
+        jdbcTemplate.update(
+            "INSERT INTO users (id, username, email, password, first_name, last_name, is_active, email_verified, " +
+            "role_mask, last_login, created_at, updated_at) " +
+            "SELECT X + 1000000000, 'plan' || X, 'plan' || X || '@example.com', 'x', 'First' || MOD(X, 1000), " +
+            "'Last' || MOD(X, 997), MOD(X, 10) <> 0, MOD(X, 3) = 0, " +
+            "CASE WHEN MOD(X, 1000) = 0 THEN " + UserRole.ADMIN.bit() + " ELSE " + UserRole.USER.bit() + " END, " +
+            "CASE WHEN MOD(X, 5) = 0 THEN NULL ELSE DATEADD(MINUTE, X, TIMESTAMP '2021-01-01 00:00:00') END, " +
+            "DATEADD(MINUTE, X, TIMESTAMP '2020-01-01 00:00:00'), DATEADD(MINUTE, X, TIMESTAMP '2020-01-01 00:00:00') " +
+            "FROM SYSTEM_RANGE(1, " + USERS + ")");
+        jdbcTemplate.execute("ANALYZE");
+        log.info("Seeded {} users in {} ms", USERS, System.currentTimeMillis() - started);
+    }
+
+    @Test
+    public void testRepositoryQueriesUseIndexes() {
+        LocalDateTime recent = LocalDateTime.of(2021, 12, 1, 0, 0);
+        Map<String, Consumer<UserRepository>> queries = new LinkedHashMap<>();
+        queries.put("findByUsername", repo -> repo.findByUsername("plan500000"));
+        queries.put("findByEmail", repo -> repo.findByEmail("plan500000@example.com"));
+        queries.put("existsByUsername", repo -> repo.existsByUsername("plan500000"));
+        queries.put("existsByEmail", repo -> repo.existsByEmail("plan500000@example.com"));
+        queries.put("findByUsernameCached", repo -> repo.findByUsernameCached("plan500002"));
+        queries.put("findTop50ByUsernameStartingWithIgnoreCaseOrderByUsernameAsc",
+            repo -> repo.findTop50ByUsernameStartingWithIgnoreCaseOrderByUsernameAsc("plan5000"));
+        queries.put("findByIsActiveTrue", repo -> {
+            repo.findByIsActiveTrue();
+            for (String property : UserService.SORTABLE_FIELDS) {
+                repo.findByIsActiveTrue(PageRequest.of(3, 1, Sort.by(property).descending()));
+                repo.findByIsActiveTrue(PageRequest.of(3, 1, Sort.by(property).ascending()));
+            }
+        });
+        queries.put("findByIsActiveFalse", UserRepository::findByIsActiveFalse);
+        queries.put("findByRoleMaskIn", repo -> repo.findByRoleMaskIn(UserRole.masksContainingAny(List.of(UserRole.ADMIN))));
+        queries.put("findByRoleMaskInAndIsActiveTrue",
+            repo -> repo.findByRoleMaskInAndIsActiveTrue(UserRole.masksContainingAny(List.of(UserRole.ADMIN))));
+        queries.put("findByRole", repo -> repo.findByRole(UserRole.ADMIN));
+        queries.put("findByRoleAndIsActiveTrue", repo -> repo.findByRoleAndIsActiveTrue(UserRole.ADMIN));
+        queries.put("findByRolesIn", repo -> repo.findByRolesIn(List.of(UserRole.ADMIN, UserRole.SUPER_ADMIN)));
+        queries.put("findAllAdmins", UserRepository::findAllAdmins);
+        queries.put("findActiveAdmins", UserRepository::findActiveAdmins);
+        queries.put("searchUsers", repo -> repo.searchUsers("plan5000", PageRequest.of(0, 1, Sort.by("createdAt").descending())));
+        queries.put("findByEmailVerifiedFalse", UserRepository::findByEmailVerifiedFalse);
+        queries.put("findByEmailVerifiedTrue", UserRepository::findByEmailVerifiedTrue);
+        queries.put("findByLastLoginAfter", repo -> repo.findByLastLoginAfter(recent));
+        queries.put("findByLastLoginBefore", repo -> repo.findByLastLoginBefore(recent));
+        queries.put("findByLastLoginIsNull", UserRepository::findByLastLoginIsNull);
+        queries.put("findByCreatedAtBetween", repo -> repo.findByCreatedAtBetween(recent.minusYears(1), recent.minusYears(1).plusDays(1)));
+        queries.put("findUsersCreatedAfter", repo -> repo.findUsersCreatedAfter(recent));
+        queries.put("countActiveUsers", UserRepository::countActiveUsers);
+        queries.put("countByRoleMaskIn", repo -> repo.countByRoleMaskIn(UserRole.masksContainingAny(List.of(UserRole.USER))));
+        queries.put("countByRole", repo -> repo.countByRole(UserRole.ADMIN));
+        queries.put("countUsersCreatedAfter", repo -> repo.countUsersCreatedAfter(recent));
+        queries.put("updatePassword", repo -> repo.updatePassword(1_000_500_000L, "wrong", "new", recent));
+        queries.put("rehashPassword", repo -> repo.rehashPassword(1_000_500_000L, "wrong", "new"));
+        queries.put("findInactiveUsers", repo -> repo.findInactiveUsers(recent));
+        // The LIKE search also runs through findViews/findViewsAfter, but is a table scan by design (see searchUsers)
+        queries.put("findViews", repo -> {
+            for (String property : UserService.SORTABLE_FIELDS) {
+                repo.findViews(UserSpecifications.isActive(), VIEW_FIELDS, Sort.by(property).descending(), 30, 10);
+                repo.findViews(UserSpecifications.isActive(), VIEW_FIELDS, Sort.by(property).ascending(), 30, 10);
+            }
+            repo.findViews(UserSpecifications.roleMaskIn(UserRole.masksContainingAny(UserRole.ADMIN_ROLES)),
+                VIEW_FIELDS, Sort.unsorted());
+            repo.findViews(UserSpecifications.inactiveSince(recent), VIEW_FIELDS, Sort.unsorted());
+            repo.findViews(UserSpecifications.idIn(List.of(1_000_500_000L, 1_000_500_001L)), VIEW_FIELDS, Sort.unsorted());
+            repo.findViews(UserSpecifications.roleMaskIn(List.of(UserRole.USER.bit()))
+                .and(UserSpecifications.idAfter(1_000_500_000L)), VIEW_FIELDS, Sort.by("roleMask", "id"), 0, 11);
+        });
+        queries.put("findViewsAfter", repo -> {
+            repo.findViewsAfter(UserSpecifications.isActive(), VIEW_FIELDS, "createdAt", false, recent, 1_000_500_000L, 11);
+            repo.findViewsAfter(UserSpecifications.isActive(), VIEW_FIELDS, "username", true, "plan5000", 1_000_005_000L, 11);
+            repo.findViewsAfter(UserSpecifications.isActive(), VIEW_FIELDS, "id", true, 1_000_500_000L, 1_000_500_000L, 11);
+            repo.findViewsAfter(UserSpecifications.createdFrom(recent.minusYears(1)), VIEW_FIELDS, "id", true,
+                1_000_500_000L, 1_000_500_000L, 11);
+            repo.findViewsAfter(UserSpecifications.inactiveSince(recent), VIEW_FIELDS, "lastLogin", true,
+                recent.minusYears(1), 1_000_500_000L, 11);
+            repo.findViewsAfter(UserSpecifications.inactiveSince(recent)
+                    .and(UserSpecifications.idNotIn(List.of(1_000_500_000L))), VIEW_FIELDS, "lastLogin", true,
+                recent.minusYears(1), 1_000_500_000L, 11);
+        });
+        queries.put("countMatching", repo -> repo.countMatching(UserSpecifications.isActive()));
+
+        Set<String> declared = Stream.of(UserRepository.class, UserRepositoryCustom.class)
+            .flatMap(type -> Arrays.stream(type.getDeclaredMethods()))
+            .filter(method -> !method.getName().startsWith("evict"))
+            .map(Method::getName)
+            .collect(Collectors.toCollection(TreeSet::new));
+        assertThat(queries.keySet()).as("every repository query is checked").containsAll(declared);
+
+        Map<String, List<String>> fullScans = new TreeMap<>();
+        queries.forEach((name, query) -> {
+            List<String> plans = explain(() -> query.accept(userRepository));
+            assertThat(plans).as("statements issued by " + name).isNotEmpty();
+            List<String> scans = plans.stream().filter(plan -> plan.contains(".tableScan")).toList();
+            if (!scans.isEmpty() && !FULL_SCAN_ALLOWED.containsKey(name)) {
+                fullScans.put(name, scans);
+            }
+        });
+
+        assertThat(fullScans).as("queries that scan a whole table").isEmpty();
+    }
+
+    // Helper Methods
+
+    private List<String> explain(Runnable query) {
+        List<String> plans = new ArrayList<>();
+        PLANS.set(plans);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                query.run();
+                status.setRollbackOnly();
+            });
+        } finally {
+            PLANS.remove();
+        }
+        return plans;
+    }
+
+    /**
+     * Wraps the pool so statements run by the test thread are explained first
+     */
+    @TestConfiguration
+    static class ExplainingDataSourceConfig {
+
+        @Bean
+        static BeanPostProcessor explainingDataSourcePostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource && !(bean instanceof ExplainingDataSource)
+                        ? new ExplainingDataSource(dataSource)
+                        : bean;
+                }
+            };
+        }
+    }
+
+    static class ExplainingDataSource extends DelegatingDataSource {
+
+        ExplainingDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return wrap(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return wrap(super.getConnection(username, password));
+        }
+
+        private static Connection wrap(Connection connection) {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] { Connection.class },
+                (proxy, method, args) -> {
+                    Object result = invoke(connection, method, args);
+                    if (result instanceof PreparedStatement statement && method.getName().equals("prepareStatement")) {
+                        return explaining(connection, statement, (String) args[0]);
+                    }
+                    return result;
+                });
+        }
+
+        private static PreparedStatement explaining(Connection connection, PreparedStatement statement, String sql) {
+            Map<Integer, Object> parameters = new TreeMap<>();
+            return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                new Class<?>[] { PreparedStatement.class }, (proxy, method, args) -> {
+                    String name = method.getName();
+                    if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                        parameters.put(index, name.equals("setNull") ? null : args[1]);
+                    }
+                    List<String> plans = PLANS.get();
+                    if (plans != null && name.startsWith("execute") && (args == null || args.length == 0)) {
+                        plans.add(explain(connection, sql, parameters));
+                        statement.setMaxRows(1);
+                    }
+                    return invoke(statement, method, args);
+                });
+        }
+
+        private static String explain(Connection connection, String sql, Map<Integer, Object> parameters) throws SQLException {
+            try (PreparedStatement explain = connection.prepareStatement("EXPLAIN " + sql)) {
+                for (Map.Entry<Integer, Object> parameter : parameters.entrySet()) {
+                    explain.setObject(parameter.getKey(), parameter.getValue());
+                }
+                try (ResultSet plan = explain.executeQuery()) {
+                    plan.next();
+                    return plan.getString(1);
+                }
+            }
+        }
+
+        private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
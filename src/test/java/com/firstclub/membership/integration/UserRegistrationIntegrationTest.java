@@ -0,0 +1,72 @@
+package com.firstclub.membership.integration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for user registration conflict handling
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class UserRegistrationIntegrationTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    private String getBaseUrl() {
+        return "http://localhost:" + port + "/api/v1";
+    }
+
+    @Test
+    public void testDuplicateUsernameReturnsConflictWithField() {
+        String suffix = String.valueOf(System.nanoTime());
+        assertThat(register("dupuser" + suffix, "first" + suffix + "@test.com").getStatusCode())
+            .isEqualTo(HttpStatus.CREATED);
+
+        ResponseEntity<Map> response = register("dupuser" + suffix, "second" + suffix + "@test.com");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        assertThat(response.getBody().get("field")).isEqualTo("username");
+        assertThat(response.getBody().get("message")).isEqualTo("Username already exists: dupuser" + suffix);
+    }
+
+    @Test
+    public void testDuplicateEmailReturnsConflictWithField() {
+        String suffix = String.valueOf(System.nanoTime());
+        assertThat(register("emailfirst" + suffix, "dup" + suffix + "@test.com").getStatusCode())
+            .isEqualTo(HttpStatus.CREATED);
+
+        ResponseEntity<Map> response = register("emailsecond" + suffix, "dup" + suffix + "@test.com");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        assertThat(response.getBody().get("field")).isEqualTo("email");
+    }
+
+    private ResponseEntity<Map> register(String username, String email) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        Map<String, String> body = Map.of(
+            "username", username,
+            "email", email,
+            "password", "SecureTestPassword123!",
+            "firstName", "Conflict",
+            "lastName", "Test"
+        );
+        return restTemplate.postForEntity(getBaseUrl() + "/users/register", new HttpEntity<>(body, headers), Map.class);
+    }
+}
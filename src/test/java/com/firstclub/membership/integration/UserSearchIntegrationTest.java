@@ -0,0 +1,107 @@
+package com.firstclub.membership.integration;
+
+import com.firstclub.membership.model.User;
+import com.firstclub.membership.model.UserSnapshot;
+import com.firstclub.membership.service.UserPrefixIndex;
+import com.firstclub.membership.service.UserSearchIndex;
+import com.firstclub.membership.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for the in-memory user search and typeahead indexes
+ */
+@SpringBootTest
+public class UserSearchIntegrationTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserSearchIndex userSearchIndex;
+
+    @Autowired
+    private UserPrefixIndex userPrefixIndex;
+
+    @BeforeEach
+    public void waitForIndex() throws InterruptedException {
+        for (int i = 0; i < 100 && !(userSearchIndex.isReady() && userPrefixIndex.isReady()); i++) {
+            Thread.sleep(50);
+        }
+        assertThat(userSearchIndex.isReady()).isTrue();
+        assertThat(userPrefixIndex.isReady()).isTrue();
+    }
+
+    @Test
+    public void testSearchRanksExactUsernameFirstAndMatchesDatabaseSemantics() {
+        String token = "zq" + Long.toString(System.nanoTime(), 36);
+        User exact = register(token, "Plain", "Person");
+        User inName = register("other" + System.nanoTime(), "X" + token.toUpperCase() + "y", "Person");
+        register("unrelated" + System.nanoTime(), "Nobody", "Else");
+
+        Page<UserSnapshot> page = userService.searchUsers(token, PageRequest.of(0, 10));
+
+        assertThat(page.getTotalElements()).isEqualTo(2);
+        assertThat(page.getContent()).extracting(UserSnapshot::id).containsExactly(exact.getId(), inName.getId());
+    }
+
+    @Test
+    public void testIndexFollowsUpdatesAndDeletes() {
+        String token = "qx" + Long.toString(System.nanoTime(), 36);
+        User user = register("member" + System.nanoTime(), token, "Before");
+        assertThat(userService.searchUsers(token, PageRequest.of(0, 10)).getTotalElements()).isEqualTo(1);
+
+        userService.updateUserProfile(user.getId(), "Renamed", "After", null, null);
+        assertThat(userService.searchUsers(token, PageRequest.of(0, 10)).getTotalElements()).isZero();
+        assertThat(userService.searchUsers("renamed", PageRequest.of(0, 1000)).getContent())
+            .extracting(UserSnapshot::id).contains(user.getId());
+
+        userService.deleteUser(user.getId());
+        assertThat(userService.searchUsers("renamed", PageRequest.of(0, 1000)).getContent())
+            .extracting(UserSnapshot::id).doesNotContain(user.getId());
+    }
+
+    @Test
+    public void testPagingReportsTotalAcrossPages() {
+        String token = "pg" + Long.toString(System.nanoTime(), 36);
+        for (int i = 0; i < 5; i++) {
+            register(token + i, "Paged", "User");
+        }
+
+        Page<UserSnapshot> second = userService.searchUsers(token, PageRequest.of(1, 2));
+
+        assertThat(second.getTotalElements()).isEqualTo(5);
+        assertThat(second.getTotalPages()).isEqualTo(3);
+        assertThat(second.getContent()).hasSize(2);
+    }
+
+    @Test
+    public void testSuggestMatchesUsernameAndEmailPrefixes() {
+        String token = "sg" + Long.toString(System.nanoTime(), 36);
+        User byUsername = register(token + "alpha", "Suggest", "One");
+        User byEmail = userService.registerUser("other" + System.nanoTime(), token + "beta@test.com",
+            "SecureTestPassword123!", "Suggest", "Two");
+
+        assertThat(userService.suggestUsers(token.toUpperCase(), 10))
+            .extracting(UserPrefixIndex.Suggestion::id)
+            .containsExactly(byUsername.getId(), byEmail.getId());
+        assertThat(userService.suggestUsers(token, 1)).hasSize(1);
+
+        userService.deleteUser(byUsername.getId());
+        assertThat(userService.suggestUsers(token, 10))
+            .extracting(UserPrefixIndex.Suggestion::id)
+            .containsExactly(byEmail.getId());
+    }
+
+    // Helper Methods
+
+    private User register(String username, String firstName, String lastName) {
+        return userService.registerUser(username, username + "@test.com", "SecureTestPassword123!", firstName, lastName);
+    }
+}
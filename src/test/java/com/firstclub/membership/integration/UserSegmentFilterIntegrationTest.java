@@ -0,0 +1,109 @@
+package com.firstclub.membership.integration;
+
+import com.firstclub.membership.model.User;
+import com.firstclub.membership.model.User.UserRole;
+import com.firstclub.membership.service.UserSegmentIndex;
+import com.firstclub.membership.service.UserSegmentIndex.Field;
+import com.firstclub.membership.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Integration tests for segment filters and facet counts on the bitmap index
+ */
+@SpringBootTest
+public class UserSegmentFilterIntegrationTest {
+
+    private static final String PREMIUM_VERIFIED = "role:PREMIUM_USER AND emailVerified:true AND NOT active:false";
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserSegmentIndex userSegmentIndex;
+
+    @BeforeEach
+    public void waitForIndex() throws InterruptedException {
+        for (int i = 0; i < 100 && !userSegmentIndex.isReady(); i++) {
+            Thread.sleep(50);
+        }
+        assertThat(userSegmentIndex.isReady()).isTrue();
+    }
+
+    @Test
+    public void testFilterFollowsUserChanges() {
+        long before = total(PREMIUM_VERIFIED);
+
+        User first = register("seg");
+        User second = register("seg");
+        userService.addRoleToUser(first.getId(), UserRole.PREMIUM_USER);
+        userService.addRoleToUser(second.getId(), UserRole.PREMIUM_USER);
+        assertThat(total(PREMIUM_VERIFIED)).isEqualTo(before);
+
+        userService.verifyEmail(first.getId());
+        userService.verifyEmail(second.getId());
+        assertThat(total(PREMIUM_VERIFIED)).isEqualTo(before + 2);
+
+        userService.toggleUserStatus(second.getId());
+        assertThat(total(PREMIUM_VERIFIED)).isEqualTo(before + 1);
+
+        userService.deleteUser(first.getId());
+        assertThat(total(PREMIUM_VERIFIED)).isEqualTo(before);
+    }
+
+    @Test
+    public void testPageLoadsNewestMatchesAndFacetsCountAllMatches() {
+        User older = register("pg");
+        User newer = register("pg");
+        userService.addRoleToUser(older.getId(), UserRole.PREMIUM_USER);
+        userService.addRoleToUser(newer.getId(), UserRole.PREMIUM_USER);
+
+        UserService.FilteredUsers result = userService.filterUsers("role:premium_user OR role:SUPER_ADMIN",
+            List.of(Field.ROLE, Field.SIGNUP_MONTH, Field.LAST_LOGIN), 0, 1);
+
+        assertThat(result.users().getContent()).extracting(User::getId).containsExactly(newer.getId());
+        assertThat(result.users().getTotalElements()).isGreaterThanOrEqualTo(2);
+        assertThat(result.facets().get("role").get("PREMIUM_USER")).isGreaterThanOrEqualTo(2);
+        assertThat(result.facets().get("signupMonth")).containsKey(YearMonth.now().toString());
+        assertThat(result.facets().get("lastLogin").values().stream().mapToLong(Long::longValue).sum())
+            .isEqualTo(result.users().getTotalElements());
+    }
+
+    @Test
+    public void testLoginMovesUserIntoRecencySegment() {
+        User user = register("login");
+        String recent = "lastLogin:7d AND NOT lastLogin:never";
+        long before = total(recent);
+
+        userService.authenticateUser(user.getUsername(), "SecureTestPassword123!");
+        userSegmentIndex.applyPendingLogins();
+
+        assertThat(total(recent)).isEqualTo(before + 1);
+    }
+
+    @Test
+    public void testInvalidFiltersAreRejected() {
+        assertThatThrownBy(() -> total("plan:GOLD")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> total("(role:ADMIN")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> total("active:maybe")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    // Helper Methods
+
+    private long total(String filter) {
+        return userService.filterUsers(filter, List.of(), 0, 1).users().getTotalElements();
+    }
+
+    private User register(String prefix) {
+        String username = prefix + Long.toString(System.nanoTime(), 36);
+        return userService.registerUser(username, username + "@test.com", "SecureTestPassword123!", "Segment", "User");
+    }
+}
@@ -0,0 +1,57 @@
+package com.firstclub.membership.integration;
+
+import com.firstclub.membership.model.User;
+import com.firstclub.membership.model.User.UserRole;
+import com.firstclub.membership.repository.UserRepository;
+import com.firstclub.membership.service.UserService;
+import com.firstclub.membership.service.UserStatisticsCounters;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for the event-maintained user statistics
+ */
+@SpringBootTest
+public class UserStatisticsIntegrationTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserStatisticsCounters statisticsCounters;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    public void testCountersTrackChangesWithoutQueries() {
+        statisticsCounters.reconcile();
+        LocalDateTime monthAgo = LocalDateTime.now().minusMonths(1);
+        UserService.UserStatistics before = statisticsCounters.snapshot(monthAgo);
+
+        String username = "stats" + System.nanoTime();
+        User user = userService.registerUser(username, username + "@test.com", "SecureTestPassword123!", "Stats", "Test");
+        userService.addRoleToUser(user.getId(), UserRole.ADMIN);
+        userService.toggleUserStatus(user.getId());
+
+        UserService.UserStatistics during = statisticsCounters.snapshot(monthAgo);
+        assertThat(during.getTotalUsers()).isEqualTo(before.getTotalUsers() + 1);
+        assertThat(during.getActiveUsers()).isEqualTo(before.getActiveUsers());
+        assertThat(during.getAdminUsers()).isEqualTo(before.getAdminUsers() + 1);
+        assertThat(during.getNewUsersThisMonth()).isEqualTo(before.getNewUsersThisMonth() + 1);
+        assertThat(during.getTotalUsers()).isEqualTo(userRepository.count());
+        assertThat(during.getAdminUsers()).isEqualTo(userRepository.countByRole(UserRole.ADMIN));
+
+        userService.deleteUser(user.getId());
+
+        UserService.UserStatistics after = statisticsCounters.snapshot(monthAgo);
+        assertThat(after.getTotalUsers()).isEqualTo(before.getTotalUsers());
+        assertThat(after.getAdminUsers()).isEqualTo(before.getAdminUsers());
+        assertThat(after.getNewUsersThisMonth()).isEqualTo(before.getNewUsersThisMonth());
+    }
+}
@@ -0,0 +1,144 @@
+package com.firstclub.membership.integration;
+
+import com.firstclub.membership.model.User;
+import com.firstclub.membership.model.User.UserRole;
+import com.firstclub.membership.model.UserField;
+import com.firstclub.membership.service.LastLoginWriteBehindBuffer;
+import com.firstclub.membership.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for the listings written a page at a time (two users per page here)
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = {
+        "membership.users.stream.fetch-size=2"
+    })
+public class UserStreamingListingIntegrationTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private LastLoginWriteBehindBuffer lastLoginBuffer;
+
+    private String getBaseUrl() {
+        return "http://localhost:" + port + "/api/v1";
+    }
+
+    @Test
+    public void testInactiveUsersAreStreamedWithTrailingCount() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            User user = register("streamidle");
+            jdbcTemplate.update("UPDATE users SET last_login = ? WHERE id = ?",
+                LocalDateTime.now().minusDays(90), user.getId());
+            ids.add(user.getId());
+        }
+        // Logged in again, but the login has not been written yet
+        User returning = register("streamback");
+        jdbcTemplate.update("UPDATE users SET last_login = ? WHERE id = ?",
+            LocalDateTime.now().minusDays(90), returning.getId());
+        lastLoginBuffer.recordLogin(returning.getId(), LocalDateTime.now());
+
+        ResponseEntity<Map> response = restTemplate.getForEntity(getBaseUrl() + "/users/inactive?days=60", Map.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getContentType().isCompatibleWith(MediaType.APPLICATION_JSON)).isTrue();
+        Map<String, Object> body = response.getBody();
+        assertThat(body.keySet()).containsExactly("success", "inactiveDays", "users", "count");
+        assertThat(body.get("inactiveDays")).isEqualTo(60);
+        List<Map<String, Object>> users = (List<Map<String, Object>>) body.get("users");
+        assertThat(((Number) body.get("count")).intValue()).isEqualTo(users.size());
+        assertThat(users).extracting(user -> ((Number) user.get("id")).longValue())
+            .containsAll(ids)
+            .doesNotContain(returning.getId())
+            .doesNotHaveDuplicates();
+        assertThat(users).allSatisfy(user -> assertThat(user).containsOnlyKeys("id", "username", "email",
+            "firstName", "lastName", "createdAt", "lastLogin"));
+    }
+
+    @Test
+    public void testRoleListingsAreStreamed() {
+        // Moderators under three different role masks, more than fit on one page
+        List<String> moderators = new ArrayList<>();
+        for (UserRole extra : new UserRole[] { null, null, UserRole.PREMIUM_USER, UserRole.ADMIN }) {
+            User moderator = register("streammod");
+            userService.addRoleToUser(moderator.getId(), UserRole.MODERATOR);
+            if (extra != null) {
+                userService.addRoleToUser(moderator.getId(), extra);
+            }
+            moderators.add(moderator.getUsername());
+        }
+
+        ResponseEntity<Map> byRole = restTemplate.getForEntity(
+            getBaseUrl() + "/users/by-role/moderator?fields=username", Map.class);
+
+        assertThat(byRole.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(byRole.getBody().keySet()).containsExactly("success", "role", "users", "count");
+        assertThat(byRole.getBody().get("role")).isEqualTo("moderator");
+        List<Map<String, Object>> users = (List<Map<String, Object>>) byRole.getBody().get("users");
+        assertThat(((Number) byRole.getBody().get("count")).intValue()).isEqualTo(users.size());
+        assertThat(users).allSatisfy(user -> assertThat(user).containsOnlyKeys("id", "username"));
+        assertThat(users).extracting(user -> user.get("username")).containsAll(moderators).doesNotHaveDuplicates();
+
+        ResponseEntity<Map> admins = restTemplate.getForEntity(getBaseUrl() + "/users/admins", Map.class);
+        assertThat(admins.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(((Number) admins.getBody().get("count")).intValue())
+            .isEqualTo(((List<?>) admins.getBody().get("admins")).size());
+    }
+
+    @Test
+    public void testCountIsTheNumberOfUsersWritten() {
+        userService.addRoleToUser(register("streamadmin").getId(), UserRole.ADMIN);
+        UserService.Listing admins = userService.listAdmins(UserField.setOf(UserField.ID));
+
+        // Granted after the listing opened but before its pages are read
+        User late = register("streamlate");
+        userService.addRoleToUser(late.getId(), UserRole.ADMIN);
+        List<Long> written = new ArrayList<>();
+        admins.forEach(admin -> written.add(admin.id()));
+
+        assertThat(written).contains(late.getId());
+        assertThat(admins.count()).isEqualTo(written.size());
+    }
+
+    @Test
+    public void testInvalidRoleIsRejectedBeforeStreaming() {
+        ResponseEntity<Map> response = restTemplate.getForEntity(getBaseUrl() + "/users/by-role/wizard", Map.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(response.getBody()).containsEntry("message", "Invalid role: wizard");
+    }
+
+    // Helper Methods
+
+    private User register(String prefix) {
+        String username = prefix + System.nanoTime();
+        return userService.registerUser(username, username + "@test.com", "SecureTestPassword123!", "Stream", "Test");
+    }
+}
@@ -0,0 +1,68 @@
+package com.firstclub.membership.unit;
+
+import com.firstclub.membership.util.CuckooFilter;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the cuckoo filter backing username and email availability checks
+ */
+public class CuckooFilterTest {
+
+    @Test
+    public void testInsertedItemsAreAlwaysFound() {
+        CuckooFilter filter = new CuckooFilter(50_000);
+        for (int i = 0; i < 50_000; i++) {
+            assertThat(filter.put("user" + i)).isTrue();
+        }
+
+        for (int i = 0; i < 50_000; i++) {
+            assertThat(filter.mightContain("user" + i)).isTrue();
+        }
+        assertThat(filter.size()).isEqualTo(50_000);
+    }
+
+    @Test
+    public void testFalsePositiveRateIsLow() {
+        CuckooFilter filter = new CuckooFilter(50_000);
+        for (int i = 0; i < 50_000; i++) {
+            filter.put("user" + i);
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("other" + i)) {
+                falsePositives++;
+            }
+        }
+        assertThat(falsePositives).isLessThan(100);
+    }
+
+    @Test
+    public void testDeletedItemIsNoLongerFound() {
+        CuckooFilter filter = new CuckooFilter(1_000);
+        filter.put("alice");
+        filter.put("bob");
+
+        assertThat(filter.delete("alice")).isTrue();
+
+        assertThat(filter.mightContain("alice")).isFalse();
+        assertThat(filter.mightContain("bob")).isTrue();
+        assertThat(filter.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void testOverfilledFilterNeverReportsFalseNegatives() {
+        CuckooFilter filter = new CuckooFilter(10);
+        int inserted = 0;
+        while (!filter.isSaturated()) {
+            filter.put("user" + inserted++);
+        }
+
+        for (int i = 0; i < inserted; i++) {
+            assertThat(filter.mightContain("user" + i)).isTrue();
+        }
+        assertThat(filter.mightContain("never-inserted")).isTrue();
+    }
+}
@@ -0,0 +1,241 @@
+package com.firstclub.membership.unit;
+
+import com.firstclub.membership.repository.UserRepository;
+import com.firstclub.membership.service.LastLoginWriteBehindBuffer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.Proxy;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the last-login write-behind buffer, against an in-memory stand-in for the users table
+ */
+public class LastLoginWriteBehindBufferTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 6, 1, 12, 0);
+
+    private final FakeUsersTable jdbcTemplate = new FakeUsersTable();
+    private final List<Runnable> scheduledFlushes = new ArrayList<>();
+    private final List<Long> evictedUsers = new ArrayList<>();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private LastLoginWriteBehindBuffer buffer;
+
+    @BeforeEach
+    public void setUp() {
+        buffer = new LastLoginWriteBehindBuffer();
+        ReflectionTestUtils.setField(buffer, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(buffer, "transactionTemplate", new InlineTransactionTemplate());
+        ReflectionTestUtils.setField(buffer, "userRepository", evictionRecordingRepository(evictedUsers));
+        ReflectionTestUtils.setField(buffer, "taskExecutor", (TaskExecutor) scheduledFlushes::add);
+        ReflectionTestUtils.setField(buffer, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(buffer, "flushThreshold", 3);
+        ReflectionTestUtils.invokeMethod(buffer, "registerMetrics");
+    }
+
+    @Test
+    public void testCoalescesLoginsIntoOneUpdatePerUser() {
+        buffer.recordLogin(1L, NOW.minusMinutes(2));
+        buffer.recordLogin(1L, NOW);
+        buffer.recordLogin(2L, NOW.minusMinutes(1));
+
+        buffer.flush();
+
+        assertThat(jdbcTemplate.batches).containsExactly(Map.of(1L, NOW, 2L, NOW.minusMinutes(1)));
+        assertThat(jdbcTemplate.lastLogins).containsEntry(1L, NOW).containsEntry(2L, NOW.minusMinutes(1));
+        assertThat(evictedUsers).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(flushed()).isEqualTo(2.0);
+        assertThat(buffer.getPendingLastLogin(1L)).isEmpty();
+    }
+
+    @Test
+    public void testOlderLoginNeverReplacesANewerOne() {
+        buffer.recordLogin(1L, NOW);
+        buffer.recordLogin(1L, NOW.minusMinutes(5));
+        assertThat(buffer.getPendingLastLogin(1L)).contains(NOW);
+
+        // The database already holds a newer login than the one being flushed
+        jdbcTemplate.lastLogins.put(2L, NOW);
+        buffer.recordLogin(2L, NOW.minusHours(1));
+        buffer.flush();
+
+        assertThat(jdbcTemplate.lastLogins).containsEntry(1L, NOW).containsEntry(2L, NOW);
+    }
+
+    @Test
+    public void testReachingTheThresholdSchedulesOneFlush() {
+        buffer.recordLogin(1L, NOW);
+        buffer.recordLogin(2L, NOW);
+        assertThat(scheduledFlushes).isEmpty();
+
+        buffer.recordLogin(3L, NOW);
+        buffer.recordLogin(4L, NOW);
+        assertThat(scheduledFlushes).hasSize(1);
+
+        scheduledFlushes.remove(0).run();
+        assertThat(jdbcTemplate.batches).hasSize(1);
+        assertThat(jdbcTemplate.batches.get(0)).containsOnlyKeys(1L, 2L, 3L, 4L);
+
+        for (long userId = 5; userId <= 7; userId++) {
+            buffer.recordLogin(userId, NOW);
+        }
+        assertThat(scheduledFlushes).hasSize(1);
+    }
+
+    @Test
+    public void testShutdownWritesEverythingPending() {
+        buffer.recordLogin(1L, NOW);
+        buffer.recordLogin(2L, NOW);
+
+        ReflectionTestUtils.invokeMethod(buffer, "flushOnShutdown");
+
+        assertThat(jdbcTemplate.lastLogins).containsOnlyKeys(1L, 2L);
+        assertThat(buffer.getPendingLastLogin(1L)).isEmpty();
+    }
+
+    @Test
+    public void testFailedFlushIsRetriedWithoutLosingNewerLogins() {
+        buffer.recordLogin(1L, NOW.minusMinutes(1));
+        jdbcTemplate.failures.set(1);
+
+        buffer.flush();
+
+        assertThat(jdbcTemplate.lastLogins).isEmpty();
+        assertThat(flushed()).isZero();
+        assertThat(buffer.getPendingLastLogin(1L)).contains(NOW.minusMinutes(1));
+
+        buffer.recordLogin(1L, NOW);
+        buffer.flush();
+
+        assertThat(jdbcTemplate.lastLogins).containsEntry(1L, NOW);
+        assertThat(flushed()).isEqualTo(1.0);
+    }
+
+    @Test
+    public void testLoginsStayVisibleWhileTheirBatchIsWritten() {
+        buffer.recordLogin(1L, NOW);
+        AtomicReference<Object> seenDuringBatch = new AtomicReference<>();
+        jdbcTemplate.duringBatch = () -> seenDuringBatch.set(List.of(
+            buffer.getPendingLastLogin(1L), buffer.getPendingLoginsSince(NOW.minusDays(1))));
+
+        buffer.flush();
+
+        assertThat(seenDuringBatch.get()).isEqualTo(List.of(Optional.of(NOW), Set.of(1L)));
+        assertThat(buffer.getPendingLastLogin(1L)).isEmpty();
+        assertThat(buffer.getPendingLoginsSince(NOW.minusDays(1))).isEmpty();
+    }
+
+    @Test
+    public void testConcurrentReadersNeverMissAnUnwrittenLogin() throws Exception {
+        AtomicLong latest = new AtomicLong();
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicInteger misses = new AtomicInteger();
+        Thread reader = new Thread(() -> {
+            while (!done.get()) {
+                long userId = latest.get();
+                // Pending first: a login leaves the buffer only after it is in the table
+                if (userId > 0 && buffer.getPendingLastLogin(userId).isEmpty()
+                        && !jdbcTemplate.lastLogins.containsKey(userId)) {
+                    misses.incrementAndGet();
+                }
+            }
+        });
+        reader.start();
+        try {
+            for (long userId = 1; userId <= 20_000; userId++) {
+                buffer.recordLogin(userId, NOW);
+                latest.set(userId);
+                buffer.flush();
+            }
+        } finally {
+            done.set(true);
+            reader.join();
+        }
+
+        assertThat(misses.get()).isZero();
+    }
+
+    // Helper Methods
+
+    private double flushed() {
+        return meterRegistry.get("membership.users.last-login.flushed").counter().count();
+    }
+
+    private static UserRepository evictionRecordingRepository(List<Long> evicted) {
+        return (UserRepository) Proxy.newProxyInstance(UserRepository.class.getClassLoader(),
+            new Class<?>[] { UserRepository.class }, (proxy, method, args) -> {
+                if (method.getName().equals("evictCachedUsers")) {
+                    evicted.addAll((Collection<Long>) args[0]);
+                    return null;
+                }
+                throw new UnsupportedOperationException(method.getName());
+            });
+    }
+
+    /**
+     * Applies the buffer's batched UPDATE to a map, including its "only if newer" guard
+     */
+    private static class FakeUsersTable extends JdbcTemplate {
+        final Map<Long, LocalDateTime> lastLogins = new ConcurrentHashMap<>();
+        final List<Map<Long, LocalDateTime>> batches = new ArrayList<>();
+        final AtomicInteger failures = new AtomicInteger();
+        Runnable duringBatch = () -> { };
+
+        @Override
+        public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+            duringBatch.run();
+            if (failures.getAndUpdate(remaining -> Math.max(0, remaining - 1)) > 0) {
+                throw new DataAccessResourceFailureException("Connection refused");
+            }
+            Map<Long, LocalDateTime> batch = new HashMap<>();
+            int[] updated = new int[batchArgs.size()];
+            for (int i = 0; i < batchArgs.size(); i++) {
+                Object[] args = batchArgs.get(i);
+                LocalDateTime loginTime = ((Timestamp) args[0]).toLocalDateTime();
+                Long userId = (Long) args[1];
+                LocalDateTime guard = ((Timestamp) args[2]).toLocalDateTime();
+                batch.put(userId, loginTime);
+                LocalDateTime current = lastLogins.get(userId);
+                if (current == null || current.isBefore(guard)) {
+                    lastLogins.put(userId, loginTime);
+                    updated[i] = 1;
+                }
+            }
+            batches.add(batch);
+            return updated;
+        }
+    }
+
+    /**
+     * Runs the callback directly, as a transaction around a single batch adds nothing here
+     */
+    private static class InlineTransactionTemplate extends TransactionTemplate {
+        @Override
+        public <T> T execute(TransactionCallback<T> action) {
+            return action.doInTransaction(new SimpleTransactionStatus());
+        }
+    }
+}
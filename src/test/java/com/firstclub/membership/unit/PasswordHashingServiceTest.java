@@ -0,0 +1,109 @@
+package com.firstclub.membership.unit;
+
+import com.firstclub.membership.exception.HashingCapacityExceededException;
+import com.firstclub.membership.service.PasswordHashingService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for the bounded password hashing executor
+ */
+public class PasswordHashingServiceTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private PasswordHashingService hashingService;
+
+    @BeforeEach
+    public void setUp() {
+        hashingService = new PasswordHashingService();
+        ReflectionTestUtils.setField(hashingService, "passwordEncoder", new BlockingEncoder(release));
+        ReflectionTestUtils.setField(hashingService, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(hashingService, "poolSize", 1);
+        ReflectionTestUtils.setField(hashingService, "queueCapacity", 1);
+        ReflectionTestUtils.setField(hashingService, "retryAfterSeconds", 3);
+        ReflectionTestUtils.invokeMethod(hashingService, "start");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        release.countDown();
+        ReflectionTestUtils.invokeMethod(hashingService, "stop");
+    }
+
+    @Test
+    public void testRejectsWhenQueueIsFull() throws Exception {
+        CompletableFuture<String> running = hashingService.encode("first");
+        CompletableFuture<String> queued = hashingService.encode("second");
+        CompletableFuture<String> rejected = hashingService.encode("third");
+
+        assertThat(rejected).isCompletedExceptionally();
+        assertThatThrownBy(() -> hashingService.encodeAndWait("fourth"))
+            .isInstanceOf(HashingCapacityExceededException.class)
+            .satisfies(e -> assertThat(((HashingCapacityExceededException) e).getRetryAfterSeconds()).isEqualTo(3));
+        assertThat(meterRegistry.get("membership.password.hashing.rejected").counter().count()).isEqualTo(2.0);
+
+        release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("hashed:first");
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("hashed:second");
+    }
+
+    @Test
+    public void testReportsQueueDepth() {
+        hashingService.encode("first");
+        hashingService.encode("second");
+
+        assertThat(meterRegistry.get("membership.password.hashing.queue.depth").gauge().value())
+            .isEqualTo(1.0);
+        release.countDown();
+    }
+
+    @Test
+    public void testDummyMatchHashesOnThePoolAndNeverMatches() throws Exception {
+        CompletableFuture<Boolean> dummy = hashingService.matchesDummy("hashed:anything");
+
+        // Held by the blocking encoder, so the work really runs on the pool
+        assertThat(dummy).isNotDone();
+        release.countDown();
+        assertThat(dummy.get(5, TimeUnit.SECONDS)).isFalse();
+        assertThat(meterRegistry.get("membership.password.hashing.latency").tag("operation", "matches")
+            .timer().count()).isEqualTo(1);
+    }
+
+    /**
+     * Encoder that blocks until released so the executor can be saturated deterministically
+     */
+    private static class BlockingEncoder implements PasswordEncoder {
+        private final CountDownLatch release;
+
+        BlockingEncoder(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "hashed:" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encodedPassword.equals(encode(rawPassword));
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.firstclub.membership.unit;
+
+import com.firstclub.membership.util.RoaringBitmap;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the compressed bitmap behind the user segment index
+ */
+public class RoaringBitmapTest {
+
+    @Test
+    public void testSetOperationsMatchAReferenceSet() {
+        Random random = new Random(42);
+        // Mix sparse containers with ones dense enough to switch to a bitset
+        TreeSet<Long> left = randomValues(random, 20_000, 200_000);
+        TreeSet<Long> right = randomValues(random, 30_000, 200_000);
+        left.add(0xFFFFFFFFL);
+        right.add(0x80000000L);
+        RoaringBitmap a = bitmapOf(left);
+        RoaringBitmap b = bitmapOf(right);
+
+        TreeSet<Long> and = new TreeSet<>(left);
+        and.retainAll(right);
+        TreeSet<Long> or = new TreeSet<>(left);
+        or.addAll(right);
+        TreeSet<Long> andNot = new TreeSet<>(left);
+        andNot.removeAll(right);
+
+        assertThat(valuesOf(RoaringBitmap.and(a, b))).containsExactlyElementsOf(and);
+        assertThat(valuesOf(RoaringBitmap.or(a, b))).containsExactlyElementsOf(or);
+        assertThat(valuesOf(RoaringBitmap.andNot(a, b))).containsExactlyElementsOf(andNot);
+        assertThat(a.andCardinality(b)).isEqualTo(and.size());
+    }
+
+    @Test
+    public void testRemoveShrinksDenseContainersWithoutLosingValues() {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        for (int i = 0; i < 10_000; i++) {
+            bitmap.add(i);
+        }
+        for (int i = 0; i < 10_000; i += 2) {
+            assertThat(bitmap.remove(i)).isTrue();
+        }
+
+        assertThat(bitmap.cardinality()).isEqualTo(5_000);
+        assertThat(bitmap.contains(1)).isTrue();
+        assertThat(bitmap.contains(2)).isFalse();
+        assertThat(bitmap.remove(2)).isFalse();
+    }
+
+    @Test
+    public void testPagesInBothDirections() {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        List<Long> values = new ArrayList<>();
+        for (long value = 1; value < 300_000; value += 7) {
+            bitmap.add((int) value);
+            values.add(value);
+        }
+
+        assertThat(toLongs(bitmap.page(10, 5, false))).containsExactlyElementsOf(values.subList(10, 15));
+        List<Long> reversed = new ArrayList<>(values);
+        Collections.reverse(reversed);
+        assertThat(toLongs(bitmap.page(40_000, 3, true))).containsExactlyElementsOf(reversed.subList(40_000, 40_003));
+        assertThat(bitmap.page(values.size(), 10, true)).isEmpty();
+    }
+
+    // Helper Methods
+
+    private static TreeSet<Long> randomValues(Random random, int count, int bound) {
+        TreeSet<Long> values = new TreeSet<>();
+        while (values.size() < count) {
+            values.add((long) random.nextInt(bound));
+        }
+        return values;
+    }
+
+    private static RoaringBitmap bitmapOf(TreeSet<Long> values) {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        values.forEach(value -> bitmap.add((int) (long) value));
+        return bitmap;
+    }
+
+    private static List<Long> valuesOf(RoaringBitmap bitmap) {
+        return toLongs(bitmap.page(0, (int) bitmap.cardinality(), false));
+    }
+
+    private static List<Long> toLongs(int[] values) {
+        return Arrays.stream(values).mapToLong(Integer::toUnsignedLong).boxed().toList();
+    }
+}
@@ -0,0 +1,94 @@
+package com.firstclub.membership.unit;
+
+import com.firstclub.membership.model.User;
+import com.firstclub.membership.model.User.UserRole;
+import com.firstclub.membership.security.SessionPrincipal;
+import com.firstclub.membership.security.SessionTokenService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for stateless session token issuing and verification
+ */
+public class SessionTokenServiceTest {
+
+    private static final Instant NOW = Instant.parse("2024-01-01T00:00:00Z");
+    private static final String SECRET = Base64.getEncoder().encodeToString(new byte[32]);
+
+    private SessionTokenService tokenService;
+    private User user;
+
+    @BeforeEach
+    public void setUp() {
+        tokenService = newService(SECRET, NOW);
+        user = User.builder()
+            .username("tokenuser")
+            .email("token@test.com")
+            .roles(Set.of(UserRole.USER, UserRole.MODERATOR))
+            .build();
+        user.setId(42L);
+    }
+
+    @Test
+    public void testIssuedTokenResolvesPrincipal() {
+        SessionTokenService.IssuedToken issued = tokenService.issue(user);
+
+        Optional<SessionPrincipal> principal = tokenService.verify(issued.token());
+
+        assertThat(issued.token()).startsWith("v1.");
+        assertThat(principal).isPresent();
+        assertThat(principal.get().userId()).isEqualTo(42L);
+        assertThat(principal.get().username()).isEqualTo("tokenuser");
+        assertThat(principal.get().roles()).containsExactlyInAnyOrder(UserRole.USER, UserRole.MODERATOR);
+        assertThat(principal.get().expiresAt()).isEqualTo(NOW.plusSeconds(3600));
+    }
+
+    @Test
+    public void testTamperedTokenIsRejected() {
+        String token = tokenService.issue(user).token();
+        String[] parts = token.split("\\.");
+        char first = parts[1].charAt(0);
+        String forgedPayload = (first == 'A' ? 'B' : 'A') + parts[1].substring(1);
+
+        assertThat(tokenService.verify(parts[0] + "." + forgedPayload + "." + parts[2])).isEmpty();
+        assertThat(tokenService.verify(token + "x")).isEmpty();
+        assertThat(tokenService.verify("not-a-token")).isEmpty();
+    }
+
+    @Test
+    public void testTokenSignedWithDifferentKeyIsRejected() {
+        byte[] otherKey = new byte[32];
+        otherKey[0] = 1;
+        SessionTokenService otherService = newService(Base64.getEncoder().encodeToString(otherKey), NOW);
+
+        assertThat(tokenService.verify(otherService.issue(user).token())).isEmpty();
+    }
+
+    @Test
+    public void testExpiredTokenIsRejected() {
+        String token = tokenService.issue(user).token();
+
+        // Same key, an hour and a second later
+        SessionTokenService later = newService(SECRET, NOW.plusSeconds(3601));
+
+        assertThat(later.verify(token)).isEmpty();
+    }
+
+    private static SessionTokenService newService(String secret, Instant now) {
+        SessionTokenService service = new SessionTokenService(Clock.fixed(now, ZoneOffset.UTC));
+        ReflectionTestUtils.setField(service, "secret", secret);
+        ReflectionTestUtils.setField(service, "ttlSeconds", 3600L);
+        ReflectionTestUtils.invokeMethod(service, "init");
+        return service;
+    }
+}
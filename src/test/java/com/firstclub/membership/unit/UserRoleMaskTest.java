@@ -0,0 +1,59 @@
+package com.firstclub.membership.unit;
+
+import com.firstclub.membership.model.User;
+import com.firstclub.membership.model.User.UserRole;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for the role bitmask stored in users.role_mask
+ */
+public class UserRoleMaskTest {
+
+    @Test
+    public void testMaskRoundTripsEveryRoleSet() {
+        int all = UserRole.mask(EnumSet.allOf(UserRole.class));
+        for (int mask = 0; mask <= all; mask++) {
+            assertThat(UserRole.mask(UserRole.fromMask(mask))).isEqualTo(mask);
+        }
+    }
+
+    @Test
+    public void testMasksContainingAnyMatchesExactlyTheRoleSetsWithThoseRoles() {
+        List<Integer> masks = UserRole.masksContainingAny(UserRole.ADMIN_ROLES);
+
+        int all = UserRole.mask(EnumSet.allOf(UserRole.class));
+        for (int mask = 0; mask <= all; mask++) {
+            Set<UserRole> roles = UserRole.fromMask(mask);
+            boolean admin = roles.contains(UserRole.ADMIN) || roles.contains(UserRole.SUPER_ADMIN);
+            assertThat(masks.contains(mask)).as("mask %s", roles).isEqualTo(admin);
+        }
+    }
+
+    @Test
+    public void testUserRolesAreBackedByTheMask() {
+        User user = User.builder()
+            .username("maskuser")
+            .email("maskuser@example.com")
+            .password("password")
+            .firstName("Mask")
+            .lastName("User")
+            .build();
+        assertThat(user.getRoles()).containsExactly(UserRole.USER);
+
+        user.addRole(UserRole.ADMIN);
+        user.removeRole(UserRole.USER);
+        assertThat(user.getRoles()).containsExactly(UserRole.ADMIN);
+        assertThat(user.isAdmin()).isTrue();
+        assertThat(user.hasRole(UserRole.USER)).isFalse();
+
+        assertThatThrownBy(() -> user.getRoles().add(UserRole.MODERATOR))
+            .isInstanceOf(UnsupportedOperationException.class);
+    }
+}